@@ -0,0 +1,65 @@
+package ru.urfu.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.core.fleet.FleetGameModel;
+import ru.urfu.core.fleet.FleetUpdateMode;
+import ru.urfu.core.fleet.RobotFleet;
+
+/**
+ * <p>Тик {@link FleetGameModel} для флота разного размера
+ * в последовательном и параллельном режимах.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetBenchmark {
+    private final static int STEP = 10;
+    private final static double FAR_AWAY = 1e6;
+
+    @Param({"1", "1000", "100000"})
+    int robots;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    FleetUpdateMode mode;
+
+    private FleetGameModel model;
+
+    /**
+     * <p>Создаёт флот с далёкой целью, чтобы роботы всё время двигались.</p>
+     */
+    @Setup
+    public void setUp() {
+        final RobotFleet fleet = new RobotFleet(robots);
+        for (int i = 0; i < robots; ++i) {
+            fleet.spawn(i % STEP, (double) i / STEP, 0);
+        }
+        fleet.setTargetForAll(FAR_AWAY, FAR_AWAY);
+        model = new FleetGameModel(fleet);
+        model.setUpdateMode(mode);
+    }
+
+    /**
+     * <p>Один тик флота.</p>
+     *
+     * @return количество сдвинувшихся роботов.
+     */
+    @Benchmark
+    public int update() {
+        model.update(STEP);
+        return model.getMovedCount();
+    }
+}
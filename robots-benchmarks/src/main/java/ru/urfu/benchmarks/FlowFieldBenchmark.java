@@ -0,0 +1,91 @@
+package ru.urfu.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.core.fleet.FleetGameModel;
+import ru.urfu.core.fleet.FlowFieldFleetMovement;
+import ru.urfu.core.fleet.RobotFleet;
+import ru.urfu.core.level.Connectivity;
+import ru.urfu.core.level.FlowField;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.level.LevelGenerator;
+
+/**
+ * <p>Флот, едущий к одной цели по {@link FlowField}, и пересчёт самого поля направлений.</p>
+ *
+ * <p>Тик флота не должен зависеть от количества роботов сильнее,
+ * чем линейно с маленькой константой: поиск пути один на всех.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowFieldBenchmark {
+    private final static int SIZE = 512;
+    private final static int STEP = 10;
+
+    @Param({"1000", "100000"})
+    int robots;
+
+    private FleetGameModel model;
+    private FlowField field;
+    private int target = 0;
+
+    /**
+     * <p>Создаёт поле, флот в случайных свободных клетках и общую цель.</p>
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final Level level = new LevelGenerator(42).generate(SIZE, SIZE);
+        level.removeObstacle(SIZE / 2, SIZE / 2);
+        final RobotFleet fleet = new RobotFleet(robots);
+        while (fleet.size() < robots) {
+            final int x = random.nextInt(SIZE);
+            final int y = random.nextInt(SIZE);
+            if (!level.hasObstacle(x, y)) {
+                fleet.spawn(x + 0.5, y + 0.5, 0);
+            }
+        }
+        fleet.setTargetForAll(SIZE / 2 + 0.5, SIZE / 2 + 0.5);
+        model = new FleetGameModel(fleet);
+        model.changeMovement(new FlowFieldFleetMovement(level, Connectivity.EIGHT));
+        field = new FlowField(level, Connectivity.EIGHT);
+    }
+
+    /**
+     * <p>Один тик флота.</p>
+     *
+     * @return количество сдвинувшихся роботов.
+     */
+    @Benchmark
+    public int tick() {
+        model.update(STEP);
+        return model.getMovedCount();
+    }
+
+    /**
+     * <p>Пересчёт поля направлений для новой цели.</p>
+     *
+     * @return было ли поле пересчитано.
+     */
+    @Benchmark
+    public boolean rebuild() {
+        target = (target + 1) % SIZE;
+        return field.update(target, target);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.urfu.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Тик {@link GameModelImpl} для одного и многих роботов.</p>
+ *
+ * <p>Каждый робот живёт в своей модели, операция продвигает все модели
+ * на один тик. Цели выбраны далеко, так что роботы всё время движутся
+ * и каждый тик публикует новый снимок.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameModelBenchmark {
+    private final static int STEP = 10;
+    private final static double FAR_AWAY = 1e6;
+
+    @Param({"1", "100", "10000"})
+    int robots;
+
+    private GameModelImpl[] models;
+
+    /**
+     * <p>Создаёт модели и задаёт роботам далёкие цели в разных направлениях.</p>
+     */
+    @Setup
+    public void setUp() {
+        models = new GameModelImpl[robots];
+        for (int i = 0; i < robots; ++i) {
+            final double angle = 2 * Math.PI * i / robots;
+            models[i] = new GameModelImpl();
+            models[i].setTargetPosition(new Vector2(FAR_AWAY * Math.cos(angle), FAR_AWAY * Math.sin(angle)));
+            models[i].update(STEP);
+        }
+    }
+
+    /**
+     * <p>Один тик всех моделей.</p>
+     *
+     * @return номер тика первой модели.
+     */
+    @Benchmark
+    public long update() {
+        for (GameModelImpl model : models) {
+            model.update(STEP);
+        }
+        return models[0].getTick();
+    }
+}
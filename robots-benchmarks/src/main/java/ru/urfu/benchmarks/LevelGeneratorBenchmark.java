@@ -0,0 +1,67 @@
+package ru.urfu.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.level.LevelGenerator;
+
+/**
+ * <p>Построение поля {@link LevelGenerator} в пуле с разным числом потоков.</p>
+ *
+ * <p>Поле при любом числе потоков одно и то же, так что время
+ * должно падать с числом ядер почти линейно.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelGeneratorBenchmark {
+    @Param({"1024", "4096"})
+    int size;
+
+    @Param({"1", "4"})
+    int threads;
+
+    private ForkJoinPool pool;
+
+    /**
+     * <p>Создаёт пул потоков.</p>
+     */
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * <p>Останавливает пул потоков.</p>
+     */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * <p>Построение поля с фиксированным зерном.</p>
+     *
+     * @return поле.
+     */
+    @Benchmark
+    public Level generate() {
+        return new LevelGenerator(42, pool).generate(size, size);
+    }
+}
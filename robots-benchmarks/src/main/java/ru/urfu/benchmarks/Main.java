@@ -0,0 +1,46 @@
+package ru.urfu.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Запуск бенчмарков с профилированием сборщика мусора.</p>
+ *
+ * <p>Принимает обычные аргументы JMH, например, регулярное выражение
+ * для выбора бенчмарков: {@code java -jar benchmarks.jar Movement}.
+ * Профилировщик {@link GCProfiler} включается всегда, так что
+ * в результатах видно, сколько байт выделяется на операцию.</p>
+ */
+public final class Main {
+    /**
+     * <p>Приватный конструктор,
+     * чтобы не создавали объектов.</p>
+     */
+    private Main() {
+    }
+
+    /**
+     * <p>Запускает бенчмарки.</p>
+     *
+     * @param args аргументы JMH.
+     * @throws CommandLineOptionException если аргументы некорректны.
+     * @throws RunnerException            если прогон не удался.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        final OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(Main.class.getPackageName() + ".*");
+        }
+        final Options options = builder
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.urfu.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.utils.MathTools;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Нормализация углов и угол между точками.</p>
+ *
+ * <p>Угол задаётся параметром, чтобы было видно,
+ * зависит ли стоимость нормализации от величины угла.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathToolsBenchmark {
+    @Param({"-1.5", "4.0", "100.0", "100000.0"})
+    double angle;
+
+    private Vector2 from = new Vector2(2, 3);
+    private Vector2 to = new Vector2(-7.5, 11.25);
+
+    /**
+     * <p>Нормализация угла.</p>
+     *
+     * @return нормализованный угол.
+     */
+    @Benchmark
+    public double asNormalizedRadians() {
+        return MathTools.asNormalizedRadians(angle);
+    }
+
+    /**
+     * <p>Угол между осью x и прямой через две точки.</p>
+     *
+     * @return угол.
+     */
+    @Benchmark
+    public double angleTo() {
+        return MathTools.angleTo(from, to);
+    }
+}
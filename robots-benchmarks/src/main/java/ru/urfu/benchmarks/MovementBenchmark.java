@@ -0,0 +1,100 @@
+package ru.urfu.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.core.command.ObstaclesModeCommand;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.movement.ObstaclesModeMovement;
+import ru.urfu.core.movement.StandardModeMovement;
+import ru.urfu.utils.MutableVector2;
+import ru.urfu.utils.Trigonometry;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Вычисление скорости встроенными логиками передвижения.</p>
+ *
+ * <p>Модель не продвигается, так что каждая операция считает
+ * скорость для одного и того же положения робота.</p>
+ *
+ * <p>Модель без поля создаётся с выбранной тригонометрией,
+ * чтобы сравнить точный и быстрый режимы.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+    private final static int STEP = 10;
+    private final static int LEVEL_SIZE = 50;
+
+    @Param({"EXACT", "FAST"})
+    Trigonometry trigonometry;
+
+    private final MutableVector2 out = new MutableVector2();
+    private final StandardModeMovement standard = new StandardModeMovement();
+    private final ObstaclesModeMovement obstacles = new ObstaclesModeMovement();
+    private GameModelImpl openModel;
+    private GameModelImpl levelModel;
+
+    /**
+     * <p>Готовит модели: без поля и с пустым полем.</p>
+     */
+    @Setup
+    public void setUp() {
+        openModel = new GameModelImpl(Duration.ofSeconds(1), trigonometry);
+        openModel.setTargetPosition(new Vector2(30, 40));
+        openModel.update(STEP);
+
+        levelModel = new GameModelImpl();
+        levelModel.submit(new ObstaclesModeCommand(new Level(LEVEL_SIZE, LEVEL_SIZE)));
+        levelModel.setTargetPosition(new Vector2(40.5, 30.5));
+        levelModel.update(STEP);
+    }
+
+    /**
+     * <p>Стандартная логика через переиспользуемый вектор.</p>
+     *
+     * @return вектор скорости.
+     */
+    @Benchmark
+    public MutableVector2 standardVelocity() {
+        standard.velocity(openModel, STEP, out);
+        return out;
+    }
+
+    /**
+     * <p>Стандартная логика через неизменяемый вектор, как у модов.</p>
+     *
+     * @return вектор скорости.
+     */
+    @Benchmark
+    public Vector2 standardVelocityImmutable() {
+        return standard.velocity(openModel, STEP);
+    }
+
+    /**
+     * <p>Логика с препятствиями на поле, путь уже найден.</p>
+     *
+     * @return вектор скорости.
+     */
+    @Benchmark
+    public MutableVector2 obstaclesVelocity() {
+        obstacles.velocity(levelModel, STEP, out);
+        return out;
+    }
+}
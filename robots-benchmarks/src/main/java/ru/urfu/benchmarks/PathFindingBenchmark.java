@@ -0,0 +1,108 @@
+package ru.urfu.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.core.level.Connectivity;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.level.LevelGenerator;
+import ru.urfu.core.level.PathFinder;
+import ru.urfu.core.level.PathFinderType;
+
+/**
+ * <p>Поиск пути через всё поле.</p>
+ *
+ * <p>Поле — либо случайный шум из отдельных клеток, худший случай для A*,
+ * либо поле из {@link LevelGenerator}. Зерно фиксировано, запросы идут
+ * по кругу между свободными клетками у противоположных углов.</p>
+ *
+ * <p>Алгоритм задаётся как {@code ТИП:СОСЕДСТВО}, потому что
+ * поиск с прыжками работает только с восемью соседями.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathFindingBenchmark {
+    private final static int QUERIES = 16;
+    private final static int CORNER = 64;
+
+    @Param({"128", "1024"})
+    int size;
+
+    @Param({"ASTAR:FOUR", "ASTAR:EIGHT", "JPS:EIGHT", "JPS_PLUS:EIGHT", "HPA:EIGHT"})
+    String finderType;
+
+    @Param({"RANDOM", "GENERATED"})
+    String map;
+
+    private final int[][] queries = new int[QUERIES][];
+    private PathFinder finder;
+    private int index = 0;
+
+    /**
+     * <p>Создаёт поле и запросы.</p>
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final Level level = "GENERATED".equals(map)
+                ? new LevelGenerator(42).generate(size, size)
+                : randomLevel(random);
+        final int corner = Math.min(CORNER, size / 4);
+        for (int i = 0; i < QUERIES; ++i) {
+            final int fromX = random.nextInt(corner);
+            final int fromY = random.nextInt(corner);
+            final int toX = size - 1 - random.nextInt(corner);
+            final int toY = size - 1 - random.nextInt(corner);
+            level.removeObstacle(fromX, fromY);
+            level.removeObstacle(toX, toY);
+            queries[i] = new int[]{fromX, fromY, toX, toY};
+        }
+        final String[] parts = finderType.split(":");
+        finder = PathFinderType.valueOf(parts[0]).create(level, Connectivity.valueOf(parts[1]));
+    }
+
+    /**
+     * <p>Один поиск пути.</p>
+     *
+     * @return найденный путь.
+     */
+    @Benchmark
+    public int[] findPath() {
+        final int[] query = queries[index];
+        index = (index + 1) % QUERIES;
+        return finder.findPath(query[0], query[1], query[2], query[3]);
+    }
+
+    /**
+     * <p>Поле, где каждая клетка занята с вероятностью 0.2.</p>
+     *
+     * @param random генератор.
+     * @return поле.
+     */
+    private Level randomLevel(Random random) {
+        final Level level = new Level(size, size);
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                if (random.nextDouble() < 0.2) {
+                    level.addObstacle(x, y);
+                }
+            }
+        }
+        return level;
+    }
+}
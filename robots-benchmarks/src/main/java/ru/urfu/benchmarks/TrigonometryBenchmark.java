@@ -0,0 +1,98 @@
+package ru.urfu.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.utils.Trigonometry;
+
+/**
+ * <p>Точная и быстрая тригонометрия.</p>
+ *
+ * <p>Аргументы берутся по кругу из заранее заготовленных массивов,
+ * чтобы JIT не свернул вычисление в константу, а стоимость подготовки
+ * аргументов не попадала в замер.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigonometryBenchmark {
+    private final static int SAMPLES = 1024;
+
+    @Param({"EXACT", "FAST"})
+    Trigonometry trigonometry;
+
+    private final double[] angles = new double[SAMPLES];
+    private final double[] xs = new double[SAMPLES];
+    private final double[] ys = new double[SAMPLES];
+    private int index = 0;
+
+    /**
+     * <p>Заполняет аргументы: углы на двух оборотах в обе стороны
+     * и точки на окружностях разного радиуса.</p>
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; ++i) {
+            angles[i] = (random.nextDouble() * 2 - 1) * 4 * Math.PI;
+            final double radius = 1 + random.nextDouble() * 50;
+            xs[i] = radius * Math.cos(angles[i]);
+            ys[i] = radius * Math.sin(angles[i]);
+        }
+    }
+
+    /**
+     * <p>Синус.</p>
+     *
+     * @return синус очередного угла.
+     */
+    @Benchmark
+    public double sin() {
+        return trigonometry.sin(angles[next()]);
+    }
+
+    /**
+     * <p>Косинус.</p>
+     *
+     * @return косинус очередного угла.
+     */
+    @Benchmark
+    public double cos() {
+        return trigonometry.cos(angles[next()]);
+    }
+
+    /**
+     * <p>Арктангенс.</p>
+     *
+     * @return угол очередной точки.
+     */
+    @Benchmark
+    public double atan2() {
+        final int i = next();
+        return trigonometry.atan2(ys[i], xs[i]);
+    }
+
+    /**
+     * <p>Индекс следующего аргумента.</p>
+     *
+     * @return индекс.
+     */
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.urfu.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.urfu.utils.MutableVector2;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Операции над векторами: неизменяемый {@link Vector2}
+ * против переиспользуемого {@link MutableVector2}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector2Benchmark {
+    private final MutableVector2 out = new MutableVector2();
+    private Vector2 from = new Vector2(2, 3);
+    private Vector2 to = new Vector2(17.5, -4.25);
+    private double speed = 0.1;
+
+    /**
+     * <p>Цепочка операций, как при движении к цели, на {@link Vector2}.</p>
+     *
+     * @return вектор скорости.
+     */
+    @Benchmark
+    public Vector2 immutableChain() {
+        return to.minus(from).normalize().scalar(speed);
+    }
+
+    /**
+     * <p>Та же цепочка на {@link MutableVector2}.</p>
+     *
+     * @return вектор скорости.
+     */
+    @Benchmark
+    public MutableVector2 mutableChain() {
+        return out.set(to).sub(from).normalize().scale(speed);
+    }
+
+    /**
+     * <p>Квадрат расстояния.</p>
+     *
+     * @return квадрат расстояния.
+     */
+    @Benchmark
+    public double distanceSquared() {
+        return from.distanceSquared(to);
+    }
+
+    /**
+     * <p>Сложение векторов.</p>
+     *
+     * @return сумма.
+     */
+    @Benchmark
+    public Vector2 plus() {
+        return from.plus(to);
+    }
+}
@@ -0,0 +1,335 @@
+package ru.urfu.collections;
+
+/**
+ * <p>Rectangular grid of bits of arbitrary width and height.</p>
+ *
+ * <p>Every row is stored in its own run of {@code long} words, bit {@code x % 64}
+ * of word {@code x / 64} standing for column {@code x}. Bits past the width
+ * are always zero. Row scans, popcount and fills work on whole words,
+ * so they handle 64 cells per operation; column scans test one bit per row.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class BitGrid {
+    private final static int ADDRESS_BITS = 6;
+    private final static int NOT_FOUND = -1;
+    private final static long ALL_ONES = -1L;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    /**
+     * <p>Constructor. All bits are clear.</p>
+     *
+     * @param width  number of columns
+     * @param height number of rows
+     */
+    public BitGrid(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Illegal size: %dx%d".formatted(width, height));
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + Long.SIZE - 1) >>> ADDRESS_BITS;
+        this.words = new long[Math.multiplyExact(wordsPerRow, height)];
+    }
+
+    /**
+     * <p>Number of columns.</p>
+     *
+     * @return width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * <p>Number of rows.</p>
+     *
+     * @return height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * <p>Number of words in a row.</p>
+     *
+     * @return {@code ceil(width / 64)}
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * <p>Returns the bit. Coordinates are not checked beyond array bounds.</p>
+     *
+     * @param x column
+     * @param y row
+     * @return true if the bit is set
+     */
+    public boolean get(int x, int y) {
+        return (words[y * wordsPerRow + (x >>> ADDRESS_BITS)] & (1L << x)) != 0;
+    }
+
+    /**
+     * <p>Sets or clears the bit.</p>
+     *
+     * @param x     column
+     * @param y     row
+     * @param value new value
+     */
+    public void set(int x, int y, boolean value) {
+        final int index = y * wordsPerRow + (x >>> ADDRESS_BITS);
+        if (value) {
+            words[index] |= 1L << x;
+        } else {
+            words[index] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * <p>Returns a raw word of a row: bit {@code i} is column {@code 64 * index + i}.</p>
+     *
+     * @param y     row
+     * @param index word index in the row, less than {@link #getWordsPerRow()}
+     * @return the word
+     */
+    public long word(int y, int index) {
+        return words[y * wordsPerRow + index];
+    }
+
+    /**
+     * <p>Replaces a raw word of a row.</p>
+     *
+     * @param y     row
+     * @param index word index in the row, less than {@link #getWordsPerRow()}
+     * @param word  new word; bits past the width must be zero
+     */
+    public void setWord(int y, int index, long word) {
+        words[y * wordsPerRow + index] = word;
+    }
+
+    /**
+     * <p>Finds the first set bit in the row at or after the column.</p>
+     *
+     * @param y     row
+     * @param fromX first column to test
+     * @return column of the bit or -1 if there is none
+     */
+    public int nextSetInRow(int y, int fromX) {
+        return nextInRow(y, fromX, 0);
+    }
+
+    /**
+     * <p>Finds the first clear bit in the row at or after the column.</p>
+     *
+     * @param y     row
+     * @param fromX first column to test
+     * @return column of the bit or -1 if there is none
+     */
+    public int nextClearInRow(int y, int fromX) {
+        return nextInRow(y, fromX, ALL_ONES);
+    }
+
+    /**
+     * <p>Finds the last set bit in the row at or before the column.</p>
+     *
+     * @param y     row
+     * @param fromX first column to test
+     * @return column of the bit or -1 if there is none
+     */
+    public int previousSetInRow(int y, int fromX) {
+        return previousInRow(y, fromX, 0);
+    }
+
+    /**
+     * <p>Finds the last clear bit in the row at or before the column.</p>
+     *
+     * @param y     row
+     * @param fromX first column to test
+     * @return column of the bit or -1 if there is none
+     */
+    public int previousClearInRow(int y, int fromX) {
+        return previousInRow(y, fromX, ALL_ONES);
+    }
+
+    /**
+     * <p>Finds the first row at or after the given one where the bit of the column is set.</p>
+     *
+     * @param x     column
+     * @param fromY first row to test
+     * @return row or -1 if there is none
+     */
+    public int nextSetInColumn(int x, int fromY) {
+        return nextInColumn(x, fromY, true);
+    }
+
+    /**
+     * <p>Finds the first row at or after the given one where the bit of the column is clear.</p>
+     *
+     * @param x     column
+     * @param fromY first row to test
+     * @return row or -1 if there is none
+     */
+    public int nextClearInColumn(int x, int fromY) {
+        return nextInColumn(x, fromY, false);
+    }
+
+    /**
+     * <p>Number of set bits in the grid.</p>
+     *
+     * @return popcount
+     */
+    public long cardinality() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * <p>Number of set bits in the row.</p>
+     *
+     * @param y row
+     * @return popcount of the row
+     */
+    public long cardinalityInRow(int y) {
+        long count = 0;
+        for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; ++i) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * <p>Sets or clears all bits of the rectangle {@code [fromX, toX) x [fromY, toY)}.</p>
+     *
+     * @param fromX first column, inclusive
+     * @param fromY first row, inclusive
+     * @param toX   last column, exclusive
+     * @param toY   last row, exclusive
+     * @param value new value
+     */
+    public void fill(int fromX, int fromY, int toX, int toY, boolean value) {
+        if (fromX < 0 || fromY < 0 || toX > width || toY > height || fromX > toX || fromY > toY) {
+            throw new IndexOutOfBoundsException("Illegal rectangle [%d, %d) x [%d, %d)"
+                    .formatted(fromX, toX, fromY, toY));
+        }
+        if (fromX == toX) {
+            return;
+        }
+        final int firstWord = fromX >>> ADDRESS_BITS;
+        final int lastWord = (toX - 1) >>> ADDRESS_BITS;
+        final long firstMask = ALL_ONES << fromX;
+        final long lastMask = ALL_ONES >>> -toX;
+        for (int y = fromY; y < toY; ++y) {
+            final int row = y * wordsPerRow;
+            for (int i = firstWord; i <= lastWord; ++i) {
+                long mask = ALL_ONES;
+                if (i == firstWord) {
+                    mask &= firstMask;
+                }
+                if (i == lastWord) {
+                    mask &= lastMask;
+                }
+                words[row + i] = value ? words[row + i] | mask : words[row + i] & ~mask;
+            }
+        }
+    }
+
+    /**
+     * <p>Copies all bits from a grid of the same size.</p>
+     *
+     * @param other source grid
+     */
+    public void copyFrom(BitGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Grid sizes differ");
+        }
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * <p>Copy of the grid.</p>
+     *
+     * @return new grid with the same bits
+     */
+    public BitGrid copy() {
+        final BitGrid copy = new BitGrid(width, height);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * <p>Scans a row forward for the first bit that differs from the inverted pattern.</p>
+     *
+     * @param y      row
+     * @param fromX  first column to test
+     * @param invert 0 to look for set bits, all ones to look for clear bits
+     * @return column or -1
+     */
+    private int nextInRow(int y, int fromX, long invert) {
+        if (fromX >= width) {
+            return NOT_FOUND;
+        }
+        final int row = y * wordsPerRow;
+        int index = fromX >>> ADDRESS_BITS;
+        long word = (words[row + index] ^ invert) & (ALL_ONES << fromX);
+        while (word == 0) {
+            if (++index == wordsPerRow) {
+                return NOT_FOUND;
+            }
+            word = words[row + index] ^ invert;
+        }
+        final int x = (index << ADDRESS_BITS) + Long.numberOfTrailingZeros(word);
+        return x < width ? x : NOT_FOUND;
+    }
+
+    /**
+     * <p>Scans a row backward for the last bit that differs from the inverted pattern.</p>
+     *
+     * @param y      row
+     * @param fromX  first column to test
+     * @param invert 0 to look for set bits, all ones to look for clear bits
+     * @return column or -1
+     */
+    private int previousInRow(int y, int fromX, long invert) {
+        if (fromX < 0 || width == 0) {
+            return NOT_FOUND;
+        }
+        final int start = Math.min(fromX, width - 1);
+        final int row = y * wordsPerRow;
+        int index = start >>> ADDRESS_BITS;
+        long word = (words[row + index] ^ invert) & (ALL_ONES >>> (Long.SIZE - 1 - (start & (Long.SIZE - 1))));
+        while (word == 0) {
+            if (--index < 0) {
+                return NOT_FOUND;
+            }
+            word = words[row + index] ^ invert;
+        }
+        return (index << ADDRESS_BITS) + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+    }
+
+    /**
+     * <p>Scans a column for the first row with the bit equal to the value.</p>
+     *
+     * @param x     column
+     * @param fromY first row to test
+     * @param value value to look for
+     * @return row or -1
+     */
+    private int nextInColumn(int x, int fromY, boolean value) {
+        final int index = x >>> ADDRESS_BITS;
+        final long bit = 1L << x;
+        for (int y = Math.max(fromY, 0); y < height; ++y) {
+            if (((words[y * wordsPerRow + index] & bit) != 0) == value) {
+                return y;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
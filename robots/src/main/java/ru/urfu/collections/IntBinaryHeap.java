@@ -0,0 +1,221 @@
+package ru.urfu.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Binary min-heap of int ids in range {@code [0, capacity)} with long keys.</p>
+ *
+ * <p>Positions of the ids are kept in an array, so the key
+ * of an id already in the heap can be decreased in place.
+ * No objects are created after construction.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class IntBinaryHeap {
+    private final static int ABSENT = -1;
+
+    private final int[] heap;
+    private final long[] keys;
+    private final int[] positions;
+    private int size = 0;
+
+    /**
+     * <p>Constructor.</p>
+     *
+     * @param capacity upper bound (exclusive) for ids
+     */
+    public IntBinaryHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + capacity);
+        }
+        this.heap = new int[capacity];
+        this.keys = new long[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    /**
+     * <p>Number of ids in the heap.</p>
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <p>Checks if the heap is empty.</p>
+     *
+     * @return true if there are no ids
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * <p>Checks if the id is in the heap.</p>
+     *
+     * @param id id
+     * @return true if the id is in the heap
+     */
+    public boolean contains(int id) {
+        return positions[id] != ABSENT;
+    }
+
+    /**
+     * <p>Adds the id with the key or decreases its key
+     * if the id is already in the heap with a greater one.</p>
+     *
+     * @param id  id
+     * @param key key
+     */
+    public void insertOrDecrease(int id, long key) {
+        final int position = positions[id];
+        if (position == ABSENT) {
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            siftUp(size++);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(position);
+        }
+    }
+
+    /**
+     * <p>Adds the id with the key or sets its key,
+     * greater or smaller, if the id is already in the heap.</p>
+     *
+     * @param id  id
+     * @param key key
+     */
+    public void update(int id, long key) {
+        final int position = positions[id];
+        if (position == ABSENT) {
+            insertOrDecrease(id, key);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(position);
+        } else if (key > keys[id]) {
+            keys[id] = key;
+            siftDown(position);
+        }
+    }
+
+    /**
+     * <p>Removes the id if it is in the heap.</p>
+     *
+     * @param id id
+     * @return true if the id was in the heap
+     */
+    public boolean remove(int id) {
+        final int position = positions[id];
+        if (position == ABSENT) {
+            return false;
+        }
+        positions[id] = ABSENT;
+        final int last = heap[--size];
+        if (position < size) {
+            heap[position] = last;
+            positions[last] = position;
+            siftDown(position);
+            siftUp(positions[last]);
+        }
+        return true;
+    }
+
+    /**
+     * <p>Smallest key in the heap.</p>
+     *
+     * @return key of the head
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * <p>Removes the id with the smallest key.</p>
+     *
+     * @return removed id
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final int head = heap[0];
+        positions[head] = ABSENT;
+        final int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return head;
+    }
+
+    /**
+     * <p>Removes all ids. Takes time proportional to the current size.</p>
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    /**
+     * <p>Moves the element at the position up until the heap property holds.</p>
+     *
+     * @param position position in the heap
+     */
+    private void siftUp(int position) {
+        final int id = heap[position];
+        final long key = keys[id];
+        int current = position;
+        while (current > 0) {
+            final int parent = (current - 1) >>> 1;
+            final int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[current] = parentId;
+            positions[parentId] = current;
+            current = parent;
+        }
+        heap[current] = id;
+        positions[id] = current;
+    }
+
+    /**
+     * <p>Moves the element at the position down until the heap property holds.</p>
+     *
+     * @param position position in the heap
+     */
+    private void siftDown(int position) {
+        final int id = heap[position];
+        final long key = keys[id];
+        int current = position;
+        int child = 2 * current + 1;
+        while (child < size) {
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                ++child;
+            }
+            final int childId = heap[child];
+            if (key <= keys[childId]) {
+                break;
+            }
+            heap[current] = childId;
+            positions[childId] = current;
+            current = child;
+            child = 2 * current + 1;
+        }
+        heap[current] = id;
+        positions[id] = current;
+    }
+}
@@ -1,20 +1,84 @@
 package ru.urfu.core;
 
 import java.beans.PropertyChangeListener;
+import java.util.concurrent.CompletableFuture;
+import ru.urfu.core.checkpoint.Checkpoint;
+import ru.urfu.core.command.ModelCommand;
+import ru.urfu.core.command.ModelCommandListener;
 import ru.urfu.core.level.Level;
+import ru.urfu.core.movement.PathAcceptance;
 import ru.urfu.core.movement.RobotMovement;
+import ru.urfu.utils.Trigonometry;
 import ru.urfu.utils.Vector2;
 
 /**
  * <p>Модель игры.</p>
+ *
+ * <p>Методы, меняющие модель, не применяют изменения сразу, а ставят
+ * {@link ModelCommand} в очередь: её разбирает поток симуляции
+ * в начале следующего {@link #update(int)}.</p>
  */
-public interface GameModel {
+public interface GameModel extends Simulation {
     /**
-     * <p>Обновляет состояние модели.</p>
+     * <p>Ставит команду в очередь на применение.</p>
      *
-     * @param time время, на которое продвигаем модель.
+     * <p>Может вызываться из любого потока.</p>
+     *
+     * @param command команда.
+     */
+    void submit(ModelCommand command);
+
+    /**
+     * <p>Задаёт слушателя применения команд, например, для записи сессии.</p>
+     *
+     * @param listener слушатель или null, чтобы убрать текущего.
+     */
+    void setCommandListener(ModelCommandListener listener);
+
+    /**
+     * <p>Снимает контрольную точку в начале следующего тика.</p>
+     *
+     * <p>Пока игровой цикл на паузе, результат не будет готов.</p>
+     *
+     * @return будущую контрольную точку.
+     */
+    CompletableFuture<Checkpoint> checkpoint();
+
+    /**
+     * <p>Восстанавливает состояние из контрольной точки в начале следующего тика.</p>
+     *
+     * @param checkpoint контрольная точка.
+     */
+    void restore(Checkpoint checkpoint);
+
+    /**
+     * <p>Номер последнего выполненного тика.</p>
+     *
+     * @return номер тика, ноль до первого {@link #update(int)}.
      */
-    void update(int time);
+    long getTick();
+
+    /**
+     * <p>Тригонометрия, которой пользуются модель и логики передвижения.</p>
+     *
+     * @return режим тригонометрии модели.
+     */
+    Trigonometry getTrigonometry();
+
+    /**
+     * <p>Когда логика передвижения принимает путь, найденный в фоне.</p>
+     *
+     * @return режим приёма пути.
+     */
+    PathAcceptance getPathAcceptance();
+
+    /**
+     * <p>Задаёт, когда логика передвижения принимает путь, найденный в фоне.
+     * По умолчанию — {@link PathAcceptance#FIXED_DELAY}.</p>
+     *
+     * @param pathAcceptance режим приёма пути.
+     */
+    void setPathAcceptance(PathAcceptance pathAcceptance);
 
     /**
      * <p>Меняет логику передвижения робота.</p>
@@ -23,6 +87,16 @@ public interface GameModel {
      */
     void changeRobotMovementLogic(RobotMovement logic);
 
+    /**
+     * <p>Последний опубликованный снимок состояния игры.</p>
+     *
+     * <p>Не требует блокировок, поэтому подходит для чтения
+     * из других потоков, например, при отрисовке.</p>
+     *
+     * @return снимок состояния.
+     */
+    WorldSnapshot getSnapshot();
+
     /**
      * <p>Геттер информации о положении робота.</p>
      *
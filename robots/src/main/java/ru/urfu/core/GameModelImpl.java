@@ -1,135 +1,368 @@
 package ru.urfu.core;
 
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.urfu.core.checkpoint.Checkpoint;
+import ru.urfu.core.command.AcceptPathCommand;
+import ru.urfu.core.command.ChangeLogicCommand;
+import ru.urfu.core.command.CheckpointCommand;
+import ru.urfu.core.command.ModelCommand;
+import ru.urfu.core.command.ModelCommandListener;
+import ru.urfu.core.command.ObstaclesModeCommand;
+import ru.urfu.core.command.ResetCommand;
+import ru.urfu.core.command.RestoreCheckpointCommand;
+import ru.urfu.core.command.SetTargetCommand;
 import ru.urfu.core.level.Level;
 import ru.urfu.core.level.LevelGenerator;
+import ru.urfu.core.movement.MovementFactory;
 import ru.urfu.core.movement.ObstaclesModeMovement;
+import ru.urfu.core.movement.PathAcceptance;
+import ru.urfu.core.movement.PathProgress;
 import ru.urfu.core.movement.RobotMovement;
 import ru.urfu.core.movement.StandardModeMovement;
-import ru.urfu.utils.MathTools;
+import ru.urfu.utils.MutableVector2;
+import ru.urfu.utils.Trigonometry;
 import ru.urfu.utils.Vector2;
 
 /**
  * <p>Реализация интерфейса {@link GameModel}.</p>
+ *
+ * <p>Состояние игры хранится в неизменяемом {@link WorldSnapshot},
+ * ссылка на который публикуется через volatile-поле в конце каждого
+ * тика. Читатели не берут блокировок.</p>
+ *
+ * <p>Менять состояние может только поток симуляции: остальные потоки
+ * присылают {@link ModelCommand} через неблокирующую очередь.</p>
+ *
+ * <p>Слушатели получают события через {@link ModelChangeDispatcher}:
+ * не чаще одного раза за интервал, с последним снимком в качестве
+ * нового значения.</p>
+ *
+ * <p>Если несколько тиков подряд робот стоит на месте и команд нет,
+ * модель считается покоящейся: игровой цикл перестаёт её тикать
+ * до первой новой команды.</p>
  */
 public final class GameModelImpl implements GameModel {
     private final static String MODEL_STRING = "model";
-    private final Vector2 zero = new Vector2();
+    private final static int MAX_COMMANDS_PER_TICK = 1024;
+    private final static int IDLE_TICKS_THRESHOLD = 3;
+    private final static int DEFAULT_NOTIFICATIONS_PER_SECOND = 60;
+    private final static Duration DEFAULT_NOTIFICATION_INTERVAL =
+            Duration.ofSeconds(1).dividedBy(DEFAULT_NOTIFICATIONS_PER_SECOND);
+    private final MutableVector2 velocity = new MutableVector2();
 
     private final static int WIDTH = 50;
     private final static int HEIGHT = 50;
-    private Level level = null;
     private final LevelGenerator levelGenerator = new LevelGenerator();
 
-    private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+    private final ModelChangeDispatcher dispatcher;
+    private final Trigonometry trigonometry;
     private final Logger log = LoggerFactory.getLogger(GameModelImpl.class);
     private final Vector2 initialPosition = new Vector2(2, 2);
 
-    private final Object logicLock = new Object();
+    private final Queue<ModelCommand> inbox = new ConcurrentLinkedQueue<>();
     private RobotMovement logic = new StandardModeMovement();
-    private Vector2 targetPosition = initialPosition;
-    private Vector2 robotPosition = initialPosition;
-    private double robotDirection = 0;
+    private volatile long tick = 0;
+    private int quietTicks = 0;
+    private volatile Runnable wakeUpListener;
+    private volatile ModelCommandListener commandListener;
+    private volatile PathAcceptance pathAcceptance = PathAcceptance.FIXED_DELAY;
+    private volatile WorldSnapshot snapshot =
+            new WorldSnapshot(0, new RobotInfo(initialPosition, 0), initialPosition, null);
+
+    /**
+     * <p>Конструктор. Слушатели оповещаются не чаще 60 раз в секунду.</p>
+     */
+    public GameModelImpl() {
+        this(DEFAULT_NOTIFICATION_INTERVAL);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param notificationInterval минимальный интервал между оповещениями слушателей.
+     */
+    public GameModelImpl(Duration notificationInterval) {
+        this(notificationInterval, Trigonometry.EXACT);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param notificationInterval минимальный интервал между оповещениями слушателей.
+     * @param trigonometry         режим тригонометрии симуляции.
+     */
+    public GameModelImpl(Duration notificationInterval, Trigonometry trigonometry) {
+        this.dispatcher = new ModelChangeDispatcher(this, MODEL_STRING, this::getSnapshot, notificationInterval);
+        this.trigonometry = trigonometry;
+    }
+
+    @Override
+    public void submit(ModelCommand command) {
+        inbox.offer(command);
+        final Runnable listener = wakeUpListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public void setCommandListener(ModelCommandListener listener) {
+        this.commandListener = listener;
+    }
+
+    @Override
+    public CompletableFuture<Checkpoint> checkpoint() {
+        final CompletableFuture<Checkpoint> result = new CompletableFuture<>();
+        submit(new CheckpointCommand(result));
+        return result;
+    }
+
+    @Override
+    public void restore(Checkpoint checkpoint) {
+        submit(new RestoreCheckpointCommand(checkpoint));
+    }
+
+    @Override
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    public Trigonometry getTrigonometry() {
+        return trigonometry;
+    }
+
+    @Override
+    public PathAcceptance getPathAcceptance() {
+        return pathAcceptance;
+    }
+
+    @Override
+    public void setPathAcceptance(PathAcceptance pathAcceptance) {
+        this.pathAcceptance = pathAcceptance;
+    }
+
+    @Override
+    public boolean isIdle() {
+        return quietTicks >= IDLE_TICKS_THRESHOLD && inbox.isEmpty() && !logic.hasPendingWork();
+    }
+
+    @Override
+    public void setWakeUpListener(Runnable listener) {
+        this.wakeUpListener = listener;
+    }
+
+    @Override
+    public WorldSnapshot getSnapshot() {
+        return snapshot;
+    }
 
     @Override
     public Vector2 getTargetPosition() {
-        return targetPosition;
+        return snapshot.target();
     }
 
     @Override
     public void setTargetPosition(Vector2 p) {
-        this.targetPosition = p;
-        this.pcs.firePropertyChange(MODEL_STRING, null, null);
+        submit(new SetTargetCommand(p));
     }
 
     @Override
     public void registerListener(PropertyChangeListener listener) {
-        this.pcs.addPropertyChangeListener(listener);
+        dispatcher.addListener(listener);
         log.debug("Registered listener {}", listener.getClass().getSimpleName());
     }
 
     @Override
     public void removeListener(PropertyChangeListener listener) {
-        this.pcs.removePropertyChangeListener(listener);
+        dispatcher.removeListener(listener);
         log.debug("Unregistered listener {}", listener.getClass().getSimpleName());
     }
 
     @Override
     public Level getLevel() {
-        return level;
+        return snapshot.level();
     }
 
     @Override
     public RobotInfo getRobotInfo() {
-        return new RobotInfo(robotPosition, robotDirection);
+        return snapshot.robot();
     }
 
     @Override
     public void update(int time) {
-        if (!moveRobot(time)) {
-            return;
+        ++tick;
+        final boolean commandsApplied = applyCommands();
+        final boolean moved = moveRobot(time);
+        if (commandsApplied || moved) {
+            quietTicks = 0;
+            fireModelChanged();
+        } else if (quietTicks < IDLE_TICKS_THRESHOLD) {
+            ++quietTicks;
         }
-        this.pcs.firePropertyChange(MODEL_STRING, null, null);
     }
 
     @Override
     public void reset() {
-        resetSilently();
-        this.pcs.firePropertyChange(MODEL_STRING, null, null);
+        submit(new ResetCommand());
     }
 
     @Override
     public void setObstaclesMode() {
-        resetSilently();
-        synchronized (logicLock) {
-            logic = new ObstaclesModeMovement();
-            level = levelGenerator.generate(WIDTH, HEIGHT);
-            level.removeObstacle((int) initialPosition.x(), (int) initialPosition.y());
-        }
-        this.pcs.firePropertyChange(MODEL_STRING, null, null);
+        final Level level = levelGenerator.generate(WIDTH, HEIGHT);
+        level.removeObstacle((int) initialPosition.x(), (int) initialPosition.y());
+        submit(new ObstaclesModeCommand(level));
     }
 
     @Override
     public void changeRobotMovementLogic(RobotMovement logic) {
-        resetSilently();
-        synchronized (logicLock) {
-            this.logic = logic;
+        submit(new ChangeLogicCommand(logic));
+    }
+
+    /**
+     * <p>Применяет команды из очереди.</p>
+     *
+     * <p>За один тик применяется ограниченное число команд,
+     * чтобы поток команд не мог остановить симуляцию.</p>
+     *
+     * @return была ли применена хотя бы одна команда.
+     */
+    private boolean applyCommands() {
+        int applied = 0;
+        ModelCommand command = inbox.poll();
+        while (command != null) {
+            apply(command);
+            if (++applied == MAX_COMMANDS_PER_TICK) {
+                break;
+            }
+            command = inbox.poll();
+        }
+        return applied > 0;
+    }
+
+    /**
+     * <p>Применяет одну команду.</p>
+     *
+     * @param command команда.
+     */
+    private void apply(ModelCommand command) {
+        final long appliedAt = tick;
+        if (command instanceof SetTargetCommand setTarget) {
+            snapshot = snapshot.withTarget(setTarget.target());
+        } else if (command instanceof ResetCommand) {
+            resetSilently();
+        } else if (command instanceof ObstaclesModeCommand obstaclesMode) {
+            resetSilently();
+            replaceLogic(new ObstaclesModeMovement());
+            final WorldSnapshot current = snapshot;
+            snapshot = new WorldSnapshot(tick, current.robot(), current.target(), obstaclesMode.level());
+        } else if (command instanceof ChangeLogicCommand changeLogic) {
+            resetSilently();
+            replaceLogic(changeLogic.logic());
+        } else if (command instanceof CheckpointCommand checkpointCommand) {
+            checkpointCommand.result().complete(capture());
+        } else if (command instanceof RestoreCheckpointCommand restoreCommand) {
+            applyCheckpoint(restoreCommand.checkpoint());
+        } else if (command instanceof AcceptPathCommand acceptPath) {
+            logic.acceptPath(this, acceptPath.plan());
+        }
+        log.trace("Applied {} at tick {}", command, appliedAt);
+
+        final ModelCommandListener listener = commandListener;
+        if (listener != null) {
+            listener.onCommandApplied(appliedAt, command);
+        }
+    }
+
+    /**
+     * <p>Отмечает изменение модели; само событие отправит {@link ModelChangeDispatcher}.</p>
+     */
+    private void fireModelChanged() {
+        dispatcher.markChanged();
+    }
+
+    /**
+     * <p>Снимает контрольную точку с текущего состояния.</p>
+     *
+     * @return контрольная точка.
+     */
+    private Checkpoint capture() {
+        final WorldSnapshot current = snapshot;
+        final Level level = current.level();
+        final PathProgress progress = logic instanceof ObstaclesModeMovement obstacles
+                ? obstacles.getProgress()
+                : null;
+        return new Checkpoint(tick, current.robot(), current.target(),
+                level == null ? null : level.copy(), logic.getClass().getName(), progress);
+    }
+
+    /**
+     * <p>Восстанавливает состояние из контрольной точки.</p>
+     *
+     * <p>Номер тика тоже восстанавливается, так что симуляция
+     * продолжает нумерацию сохранённой сессии.</p>
+     *
+     * @param checkpoint контрольная точка.
+     */
+    private void applyCheckpoint(Checkpoint checkpoint) {
+        final RobotMovement restored = MovementFactory.create(checkpoint.logicClass());
+        if (restored instanceof ObstaclesModeMovement obstacles && checkpoint.progress() != null) {
+            obstacles.restoreProgress(checkpoint.progress());
         }
+        replaceLogic(restored);
+        tick = checkpoint.tick();
+        final Level level = checkpoint.level();
+        snapshot = new WorldSnapshot(tick, checkpoint.robot(), checkpoint.target(),
+                level == null ? null : level.copy());
     }
 
     /**
      * <p>Сбрасывает модель до первоначального состояния без оповещения слушателей.</p>
      */
     private void resetSilently() {
-        synchronized (logicLock) {
-            logic = new StandardModeMovement();
-            robotPosition = initialPosition;
-            targetPosition = initialPosition;
-            level = null;
+        replaceLogic(new StandardModeMovement());
+        final RobotInfo robot = new RobotInfo(initialPosition, snapshot.robot().direction());
+        snapshot = new WorldSnapshot(tick, robot, initialPosition, null);
+    }
+
+    /**
+     * <p>Заменяет логику движения, освобождая ресурсы прежней.</p>
+     *
+     * @param replacement новая логика.
+     */
+    private void replaceLogic(RobotMovement replacement) {
+        if (replacement != logic) {
+            logic.close();
+            logic = replacement;
         }
     }
 
     /**
-     * <p>Перемещает робота на поле.</p>
+     * <p>Перемещает робота на поле и публикует новый снимок.</p>
+     *
+     * <p>Скорость считается в переиспользуемый вектор, так что тик без
+     * движения ничего не создаёт; при движении создаётся только новый снимок.</p>
      *
      * @param time время, прошедшее с последнего апдейта.
      * @return двинулся ли робот.
      */
     private boolean moveRobot(int time) {
-        Vector2 velocity;
-        synchronized (logicLock) {
-            velocity = logic.velocity(this, time);
-        }
-
-        if (velocity.equals(zero)) {
+        logic.velocity(this, time, velocity);
+        if (velocity.isZero()) {
             return false;
         }
-        robotPosition = robotPosition.plus(velocity);
-        robotDirection = MathTools
-                .asNormalizedRadians(Math.atan2(velocity.y(), velocity.x()));
+
+        final WorldSnapshot current = snapshot;
+        final Vector2 position = current.robot().position();
+        final Vector2 robotPosition = new Vector2(position.x() + velocity.x(), position.y() + velocity.y());
+        final double robotDirection = trigonometry.angleTo(0, 0, velocity.x(), velocity.y());
+        snapshot = current.withRobot(tick, new RobotInfo(robotPosition, robotDirection));
         return true;
     }
 }
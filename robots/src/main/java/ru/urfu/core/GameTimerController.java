@@ -1,9 +1,9 @@
 package ru.urfu.core;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.urfu.core.loop.GameLoop;
+import ru.urfu.core.loop.GameLoopStats;
 
 /**
  * <p>Контроллер, запускающий игровой цикл.</p>
@@ -12,15 +12,7 @@ public final class GameTimerController {
     private final static int GAME_CLOCK_PERIOD = 10;
 
     private final Logger log = LoggerFactory.getLogger(GameTimerController.class);
-    private final Timer timer = new Timer("Model Events Generator", true);
-    private final TimerTask updateTask = new TimerTask() {
-        @Override
-        public void run() {
-            model.update(GAME_CLOCK_PERIOD);
-        }
-    };
-
-    private final GameModel model;
+    private final GameLoop loop;
 
     /**
      * <p>Конструктор.</p>
@@ -28,7 +20,7 @@ public final class GameTimerController {
      * @param model изменяемая модель.
      */
     public GameTimerController(GameModel model) {
-        this.model = model;
+        this.loop = new GameLoop(model, GAME_CLOCK_PERIOD);
     }
 
     /**
@@ -36,7 +28,7 @@ public final class GameTimerController {
      * модель обновляет своё состояние.</p>
      */
     public void start() {
-        this.timer.schedule(updateTask, 0, GAME_CLOCK_PERIOD);
+        loop.start();
         log.debug("Game timer controller has started.");
     }
 
@@ -45,7 +37,46 @@ public final class GameTimerController {
      * больше не обновляет своё состояние.</p>
      */
     public void stop() {
-        updateTask.cancel();
+        loop.stop();
         log.debug("Game timer controller has stopped.");
     }
+
+    /**
+     * <p>Ставит игровой цикл на паузу.</p>
+     */
+    public void pause() {
+        loop.pause();
+    }
+
+    /**
+     * <p>Снимает игровой цикл с паузы.</p>
+     */
+    public void resume() {
+        loop.resume();
+    }
+
+    /**
+     * <p>Продвигает модель на один шаг, если цикл на паузе.</p>
+     */
+    public void step() {
+        loop.step();
+    }
+
+    /**
+     * <p>Длина шага игрового цикла.</p>
+     *
+     * @return длина шага в миллисекундах.
+     */
+    public int getStepMillis() {
+        return GAME_CLOCK_PERIOD;
+    }
+
+    /**
+     * <p>Статистика игрового цикла: пропущенные сроки и дрожание тиков.</p>
+     *
+     * @return статистика.
+     */
+    public GameLoopStats getStats() {
+        return loop.getStats();
+    }
 }
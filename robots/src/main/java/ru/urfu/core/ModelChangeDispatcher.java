@@ -0,0 +1,105 @@
+package ru.urfu.core;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * <p>Рассылает слушателям события об изменении модели
+ * не чаще одного раза за заданный интервал.</p>
+ *
+ * <p>Модель лишь отмечает, что изменилась. Первая отметка после рассылки
+ * планирует следующую рассылку не раньше, чем через интервал после
+ * предыдущей; рассылка отправляет одно событие с последним снимком
+ * состояния в качестве нового значения. Поэтому стоимость слушателей
+ * не зависит от частоты тиков.</p>
+ *
+ * <p>Пока модель не меняется, поток рассылки не просыпается.</p>
+ */
+public final class ModelChangeDispatcher {
+    private final PropertyChangeSupport pcs;
+    private final String propertyName;
+    private final Supplier<WorldSnapshot> snapshotSource;
+    private final long intervalNanos;
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+
+    private volatile ScheduledExecutorService executor;
+    private volatile long lastDispatchNanos;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param source         источник событий.
+     * @param propertyName   имя свойства в событиях.
+     * @param snapshotSource откуда брать последний снимок.
+     * @param interval       минимальный интервал между событиями.
+     */
+    public ModelChangeDispatcher(Object source, String propertyName,
+                                 Supplier<WorldSnapshot> snapshotSource, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.pcs = new PropertyChangeSupport(source);
+        this.propertyName = propertyName;
+        this.snapshotSource = snapshotSource;
+        this.intervalNanos = interval.toNanos();
+        this.lastDispatchNanos = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * <p>Отмечает, что модель изменилась, и при необходимости
+     * планирует рассылку. Без слушателей ничего не делает.</p>
+     */
+    public void markChanged() {
+        final ScheduledExecutorService scheduler = executor;
+        if (scheduler == null || !pcs.hasListeners(propertyName)) {
+            return;
+        }
+        if (changed.compareAndSet(false, true)) {
+            final long delay = Math.max(0, lastDispatchNanos + intervalNanos - System.nanoTime());
+            scheduler.schedule(this::dispatch, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * <p>Регистрирует слушателя.</p>
+     *
+     * @param listener слушатель.
+     */
+    public synchronized void addListener(PropertyChangeListener listener) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "Model Change Dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pcs.addPropertyChangeListener(listener);
+    }
+
+    /**
+     * <p>Убирает слушателя.</p>
+     *
+     * @param listener слушатель.
+     */
+    public void removeListener(PropertyChangeListener listener) {
+        pcs.removePropertyChangeListener(listener);
+    }
+
+    /**
+     * <p>Отправляет событие с последним снимком.</p>
+     *
+     * <p>Отметка снимается до чтения снимка, так что изменение,
+     * случившееся во время рассылки, запланирует следующую.</p>
+     */
+    private void dispatch() {
+        lastDispatchNanos = System.nanoTime();
+        changed.set(false);
+        pcs.firePropertyChange(propertyName, null, snapshotSource.get());
+    }
+}
@@ -0,0 +1,35 @@
+package ru.urfu.core;
+
+/**
+ * <p>Симуляция, которую продвигает игровой цикл.</p>
+ */
+public interface Simulation {
+    /**
+     * <p>Обновляет состояние модели.</p>
+     *
+     * @param time время, на которое продвигаем модель.
+     */
+    void update(int time);
+
+    /**
+     * <p>Находится ли симуляция в покое: очередной тик
+     * ничего не изменит, пока её не потревожат извне.</p>
+     *
+     * <p>Игровой цикл не продвигает покоящуюся симуляцию
+     * и ждёт вызова слушателя пробуждения.</p>
+     *
+     * @return результат проверки.
+     */
+    default boolean isIdle() {
+        return false;
+    }
+
+    /**
+     * <p>Задаёт слушателя, которого симуляция вызывает,
+     * когда её потревожили извне и покой закончился.</p>
+     *
+     * @param listener слушатель пробуждения.
+     */
+    default void setWakeUpListener(Runnable listener) {
+    }
+}
@@ -0,0 +1,42 @@
+package ru.urfu.core;
+
+import ru.urfu.core.level.Level;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Неизменяемый снимок состояния игры.</p>
+ *
+ * <p>Модель публикует новый снимок целиком, поэтому читатель
+ * всегда видит согласованные положение робота, цель и поле.</p>
+ *
+ * @param tick   номер тика, после которого сделан снимок.
+ * @param robot  информация о положении робота.
+ * @param target положение цели.
+ * @param level  поле с препятствиями или null, если его нет.
+ */
+public record WorldSnapshot(
+        long tick,
+        RobotInfo robot,
+        Vector2 target,
+        Level level) {
+    /**
+     * <p>Снимок с другим положением робота.</p>
+     *
+     * @param newTick  номер тика, после которого сделан снимок.
+     * @param newRobot новое положение робота.
+     * @return новый снимок.
+     */
+    public WorldSnapshot withRobot(long newTick, RobotInfo newRobot) {
+        return new WorldSnapshot(newTick, newRobot, target, level);
+    }
+
+    /**
+     * <p>Снимок с другим положением цели.</p>
+     *
+     * @param newTarget новое положение цели.
+     * @return новый снимок.
+     */
+    public WorldSnapshot withTarget(Vector2 newTarget) {
+        return new WorldSnapshot(tick, robot, newTarget, level);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.urfu.core.checkpoint;
+
+import ru.urfu.core.RobotInfo;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.movement.PathProgress;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Полное состояние симуляции на момент некоторого тика.</p>
+ *
+ * <p>Поле в контрольной точке принадлежит ей: модель
+ * отдаёт и принимает его копии.</p>
+ *
+ * @param tick       номер тика.
+ * @param robot      положение робота.
+ * @param target     положение цели.
+ * @param level      поле с препятствиями или null.
+ * @param logicClass имя класса логики передвижения.
+ * @param progress   продвижение по пути для {@link ru.urfu.core.movement.ObstaclesModeMovement} или null.
+ */
+public record Checkpoint(
+        long tick,
+        RobotInfo robot,
+        Vector2 target,
+        Level level,
+        String logicClass,
+        PathProgress progress) {
+}
@@ -0,0 +1,243 @@
+package ru.urfu.core.checkpoint;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import ru.urfu.core.RobotInfo;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.movement.MovementFactory;
+import ru.urfu.core.movement.PathProgress;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Двоичный формат контрольной точки.</p>
+ *
+ * <p>Заголовок: магическое число {@code RBCP} и версия формата. Далее:
+ * номер тика, положение и направление робота, положение цели,
+ * поле (флаг, ширина, высота и упакованные биты из {@link Level#toPackedBits()}),
+ * имя класса логики и продвижение по пути (флаг, длина пути или -1,
+ * клетки пути, номер следующей клетки, флаг и клетка цели).</p>
+ *
+ * <p>Числа записываются в порядке big-endian.</p>
+ *
+ * <p>Имя класса логики проверяется при чтении без инициализации класса:
+ * файл, в котором это имя существующего класса, но не логики
+ * передвижения, считается повреждённым.</p>
+ */
+public final class CheckpointFormat {
+    private final static int MAGIC = 0x52424350;
+    private final static short VERSION = 1;
+    private final static int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    private final static int VECTOR_BYTES = Double.BYTES * 2;
+    private final static int NO_PATH = -1;
+
+    /**
+     * <p>Приватный конструктор,
+     * чтобы не создавали объектов.</p>
+     */
+    private CheckpointFormat() {
+    }
+
+    /**
+     * <p>Кодирует контрольную точку.</p>
+     *
+     * @param checkpoint контрольная точка.
+     * @return байты контрольной точки.
+     */
+    public static byte[] encode(Checkpoint checkpoint) {
+        final Level level = checkpoint.level();
+        final long[] bits = level == null ? new long[0] : level.toPackedBits();
+        final byte[] logic = checkpoint.logicClass().getBytes(StandardCharsets.UTF_8);
+        final PathProgress progress = checkpoint.progress();
+        final List<Vector2> path = progress == null ? null : progress.path();
+
+        final int size = HEADER_BYTES
+                + Long.BYTES + VECTOR_BYTES + Double.BYTES + VECTOR_BYTES
+                + 1 + (level == null ? 0 : Integer.BYTES * 2 + Long.BYTES * bits.length)
+                + Integer.BYTES + logic.length
+                + 1 + (progress == null ? 0 : Integer.BYTES * 2 + 1 + VECTOR_BYTES
+                        + (path == null ? 0 : VECTOR_BYTES * path.size()));
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(checkpoint.tick());
+        putVector(buffer, checkpoint.robot().position());
+        buffer.putDouble(checkpoint.robot().direction());
+        putVector(buffer, checkpoint.target());
+
+        buffer.put((byte) (level == null ? 0 : 1));
+        if (level != null) {
+            buffer.putInt(level.getWidth());
+            buffer.putInt(level.getHeight());
+            buffer.asLongBuffer().put(bits);
+            buffer.position(buffer.position() + Long.BYTES * bits.length);
+        }
+
+        buffer.putInt(logic.length);
+        buffer.put(logic);
+
+        buffer.put((byte) (progress == null ? 0 : 1));
+        if (progress != null) {
+            putProgress(buffer, progress);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * <p>Декодирует контрольную точку.</p>
+     *
+     * @param buffer буфер, позиция которого стоит на начале контрольной точки.
+     * @return контрольную точку.
+     * @throws IOException если данные не являются контрольной точкой
+     *                     поддерживаемой версии или повреждены.
+     */
+    public static Checkpoint decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a checkpoint");
+            }
+            final short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+
+            final long tick = buffer.getLong();
+            final Vector2 position = getVector(buffer);
+            final RobotInfo robot = new RobotInfo(position, buffer.getDouble());
+            final Vector2 target = getVector(buffer);
+
+            Level level = null;
+            if (buffer.get() != 0) {
+                final int width = buffer.getInt();
+                final int height = buffer.getInt();
+                final int words = Level.packedLength(width, height);
+                if ((long) words * Long.BYTES > buffer.remaining()) {
+                    throw new IOException("Corrupted checkpoint: level %dx%d is truncated".formatted(width, height));
+                }
+                final long[] bits = new long[words];
+                buffer.asLongBuffer().get(bits);
+                buffer.position(buffer.position() + Long.BYTES * bits.length);
+                level = Level.fromPackedBits(width, height, bits);
+            }
+
+            final int logicLength = buffer.getInt();
+            if (logicLength < 0 || logicLength > buffer.remaining()) {
+                throw new IOException("Corrupted checkpoint: logic name is truncated");
+            }
+            final byte[] logic = new byte[logicLength];
+            buffer.get(logic);
+            final String logicClass = new String(logic, StandardCharsets.UTF_8);
+            MovementFactory.checkClassName(logicClass);
+
+            final PathProgress progress = buffer.get() != 0 ? getProgress(buffer) : null;
+            return new Checkpoint(tick, robot, target, level, logicClass, progress);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupted checkpoint", e);
+        }
+    }
+
+    /**
+     * <p>Сохраняет контрольную точку в файл.</p>
+     *
+     * @param checkpoint контрольная точка.
+     * @param file       файл.
+     * @throws IOException если запись не удалась.
+     */
+    public static void save(Checkpoint checkpoint, Path file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(encode(checkpoint));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * <p>Загружает контрольную точку из файла.</p>
+     *
+     * @param file файл.
+     * @return контрольную точку.
+     * @throws IOException если файл не удалось прочитать или он повреждён.
+     */
+    public static Checkpoint load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * <p>Записывает продвижение по пути.</p>
+     *
+     * @param buffer   буфер.
+     * @param progress продвижение по пути.
+     */
+    private static void putProgress(ByteBuffer buffer, PathProgress progress) {
+        final List<Vector2> path = progress.path();
+        buffer.putInt(path == null ? NO_PATH : path.size());
+        if (path != null) {
+            for (Vector2 tile : path) {
+                putVector(buffer, tile);
+            }
+        }
+        buffer.putInt(progress.pathIndex());
+        final Vector2 currentTarget = progress.currentTarget();
+        buffer.put((byte) (currentTarget == null ? 0 : 1));
+        putVector(buffer, currentTarget == null ? new Vector2() : currentTarget);
+    }
+
+    /**
+     * <p>Читает продвижение по пути.</p>
+     *
+     * @param buffer буфер.
+     * @return продвижение по пути.
+     * @throws IOException если длина пути повреждена.
+     */
+    private static PathProgress getProgress(ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if (length < NO_PATH || length > buffer.remaining() / VECTOR_BYTES) {
+            throw new IOException("Corrupted checkpoint: path of length %d is truncated".formatted(length));
+        }
+        List<Vector2> path = null;
+        if (length != NO_PATH) {
+            path = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                path.add(getVector(buffer));
+            }
+        }
+        final int pathIndex = buffer.getInt();
+        final boolean hasTarget = buffer.get() != 0;
+        final Vector2 currentTarget = getVector(buffer);
+        return new PathProgress(path, pathIndex, hasTarget ? currentTarget : null);
+    }
+
+    /**
+     * <p>Записывает вектор.</p>
+     *
+     * @param buffer буфер.
+     * @param vector вектор.
+     */
+    private static void putVector(ByteBuffer buffer, Vector2 vector) {
+        buffer.putDouble(vector.x());
+        buffer.putDouble(vector.y());
+    }
+
+    /**
+     * <p>Читает вектор.</p>
+     *
+     * @param buffer буфер.
+     * @return вектор.
+     */
+    private static Vector2 getVector(ByteBuffer buffer) {
+        final double x = buffer.getDouble();
+        final double y = buffer.getDouble();
+        return new Vector2(x, y);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.urfu.core.command;
+
+/**
+ * <p>Команда принять путь, найденный в фоне для текущей логики передвижения.</p>
+ *
+ * <p>Логика отправляет её сама, когда путь пора принять
+ * (см. {@link ru.urfu.core.movement.PathAcceptance}), а запись сессии
+ * сохраняет тик, в котором путь был принят.</p>
+ *
+ * @param plan номер запроса пути у логики; команда для другого запроса не действует.
+ */
+public record AcceptPathCommand(long plan) implements ModelCommand {
+}
@@ -0,0 +1,11 @@
+package ru.urfu.core.command;
+
+import ru.urfu.core.movement.RobotMovement;
+
+/**
+ * <p>Команда смены логики передвижения робота.</p>
+ *
+ * @param logic новая логика передвижения.
+ */
+public record ChangeLogicCommand(RobotMovement logic) implements ModelCommand {
+}
@@ -0,0 +1,15 @@
+package ru.urfu.core.command;
+
+import java.util.concurrent.CompletableFuture;
+import ru.urfu.core.checkpoint.Checkpoint;
+
+/**
+ * <p>Команда снятия контрольной точки.</p>
+ *
+ * <p>Состояние снимается потоком симуляции между тиками,
+ * поэтому оно всегда согласовано.</p>
+ *
+ * @param result будущий результат, который получит контрольную точку.
+ */
+public record CheckpointCommand(CompletableFuture<Checkpoint> result) implements ModelCommand {
+}
@@ -0,0 +1,13 @@
+package ru.urfu.core.command;
+
+/**
+ * <p>Команда на изменение модели игры.</p>
+ *
+ * <p>Команды складываются в очередь модели из любых потоков
+ * и применяются потоком симуляции в начале очередного тика
+ * в порядке поступления.</p>
+ */
+public sealed interface ModelCommand
+        permits SetTargetCommand, ResetCommand, ObstaclesModeCommand, ChangeLogicCommand,
+        CheckpointCommand, RestoreCheckpointCommand, AcceptPathCommand {
+}
@@ -0,0 +1,15 @@
+package ru.urfu.core.command;
+
+/**
+ * <p>Слушатель применения команд моделью.</p>
+ */
+@FunctionalInterface
+public interface ModelCommandListener {
+    /**
+     * <p>Вызывается потоком симуляции сразу после применения команды.</p>
+     *
+     * @param tick    номер тика, в котором команда применена.
+     * @param command применённая команда.
+     */
+    void onCommandApplied(long tick, ModelCommand command);
+}
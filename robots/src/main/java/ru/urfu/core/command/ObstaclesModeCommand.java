@@ -0,0 +1,14 @@
+package ru.urfu.core.command;
+
+import ru.urfu.core.level.Level;
+
+/**
+ * <p>Команда включения режима с препятствиями.</p>
+ *
+ * <p>Поле генерируется заранее в потоке, отправившем команду,
+ * чтобы не задерживать тик.</p>
+ *
+ * @param level поле с препятствиями.
+ */
+public record ObstaclesModeCommand(Level level) implements ModelCommand {
+}
@@ -0,0 +1,7 @@
+package ru.urfu.core.command;
+
+/**
+ * <p>Команда возврата модели в первоначальное состояние.</p>
+ */
+public record ResetCommand() implements ModelCommand {
+}
@@ -0,0 +1,11 @@
+package ru.urfu.core.command;
+
+import ru.urfu.core.checkpoint.Checkpoint;
+
+/**
+ * <p>Команда восстановления состояния из контрольной точки.</p>
+ *
+ * @param checkpoint контрольная точка.
+ */
+public record RestoreCheckpointCommand(Checkpoint checkpoint) implements ModelCommand {
+}
@@ -0,0 +1,11 @@
+package ru.urfu.core.command;
+
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Команда смены положения цели.</p>
+ *
+ * @param target новое положение цели.
+ */
+public record SetTargetCommand(Vector2 target) implements ModelCommand {
+}
@@ -0,0 +1,238 @@
+package ru.urfu.core.fleet;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.urfu.core.Simulation;
+import ru.urfu.utils.Trigonometry;
+
+/**
+ * <p>Модель игры с множеством роботов.</p>
+ *
+ * <p>Состояние роботов хранится в {@link RobotFleet}, скорости считаются
+ * в переиспользуемые массивы, поэтому тик не создаёт объектов
+ * и работает за время, линейное от количества роботов.</p>
+ *
+ * <p>В режиме {@link FleetUpdateMode#PARALLEL} тик делится на две фазы:
+ * сначала во {@link ForkJoinPool} по частям считаются скорости всех роботов
+ * (только чтение состояния), затем так же по частям применяются.
+ * Поэтому результат не зависит от количества потоков и порядка их работы.</p>
+ *
+ * <p>Класс не потокобезопасен: всеми методами пользуется поток симуляции.</p>
+ */
+public final class FleetGameModel implements Simulation {
+    private final static int PARALLEL_CHUNK_SIZE = 2048;
+
+    private final Logger log = LoggerFactory.getLogger(FleetGameModel.class);
+    private final RobotFleet fleet;
+    private final ForkJoinPool pool;
+
+    private FleetUpdateMode mode = FleetUpdateMode.SEQUENTIAL;
+    private Trigonometry trigonometry = Trigonometry.EXACT;
+    private FleetMovement movement = new StandardFleetMovement();
+    private double[] velocityX = new double[0];
+    private double[] velocityY = new double[0];
+    private int movedCount = 0;
+
+    /**
+     * <p>Конструктор.</p>
+     */
+    public FleetGameModel() {
+        this(new RobotFleet());
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param fleet флот, которым управляет модель.
+     */
+    public FleetGameModel(RobotFleet fleet) {
+        this(fleet, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param fleet флот, которым управляет модель.
+     * @param pool  пул для параллельного режима обновления.
+     */
+    public FleetGameModel(RobotFleet fleet, ForkJoinPool pool) {
+        this.fleet = fleet;
+        this.pool = pool;
+    }
+
+    /**
+     * <p>Обновляет состояние модели.</p>
+     *
+     * <p>Сначала логика готовится к тику, затем для всех роботов
+     * считаются скорости, затем все роботы сдвигаются.</p>
+     *
+     * @param time время, на которое продвигаем модель.
+     */
+    @Override
+    public void update(int time) {
+        final int size = fleet.size();
+        ensureScratchCapacity(size);
+        final FleetMovement logic = movement;
+        logic.prepare(fleet);
+
+        if (mode == FleetUpdateMode.PARALLEL && size > PARALLEL_CHUNK_SIZE) {
+            pool.invoke(new ChunkTask(logic, time, 0, size, false));
+            movedCount = pool.invoke(new ChunkTask(logic, time, 0, size, true));
+            return;
+        }
+
+        logic.computeVelocities(fleet, 0, size, time, velocityX, velocityY);
+        movedCount = commit(0, size);
+    }
+
+    /**
+     * <p>Меняет режим обновления.</p>
+     *
+     * @param updateMode новый режим.
+     */
+    public void setUpdateMode(FleetUpdateMode updateMode) {
+        this.mode = updateMode;
+        log.debug("Fleet update mode changed to {}", updateMode);
+    }
+
+    /**
+     * <p>Текущий режим обновления.</p>
+     *
+     * @return режим обновления.
+     */
+    public FleetUpdateMode getUpdateMode() {
+        return mode;
+    }
+
+    /**
+     * <p>Меняет режим тригонометрии, которым считаются направления роботов.</p>
+     *
+     * <p>Стандартная логика передвижения заменяется на такую же с новым режимом;
+     * другие логики остаются как есть.</p>
+     *
+     * @param mathMode новый режим.
+     */
+    public void setTrigonometry(Trigonometry mathMode) {
+        this.trigonometry = mathMode;
+        if (movement instanceof StandardFleetMovement) {
+            this.movement = new StandardFleetMovement(mathMode);
+        }
+        log.debug("Fleet trigonometry changed to {}", mathMode);
+    }
+
+    /**
+     * <p>Флот роботов: через него роботов создают, удаляют и опрашивают.</p>
+     *
+     * @return флот.
+     */
+    public RobotFleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * <p>Меняет логику передвижения роботов.</p>
+     *
+     * @param logic новая логика передвижения.
+     */
+    public void changeMovement(FleetMovement logic) {
+        this.movement = logic;
+        log.debug("Fleet movement changed to {}", logic.getClass().getSimpleName());
+    }
+
+    /**
+     * <p>Сколько роботов сдвинулось за последний тик.</p>
+     *
+     * @return количество сдвинувшихся роботов.
+     */
+    public int getMovedCount() {
+        return movedCount;
+    }
+
+    /**
+     * <p>Применяет посчитанные скорости к роботам в слотах {@code [from, to)}.</p>
+     *
+     * @param from первый слот (включительно).
+     * @param to   последний слот (не включительно).
+     * @return количество сдвинувшихся роботов.
+     */
+    private int commit(int from, int to) {
+        int moved = 0;
+        for (int slot = from; slot < to; ++slot) {
+            final double vx = velocityX[slot];
+            final double vy = velocityY[slot];
+            if (vx == 0 && vy == 0) {
+                continue;
+            }
+            final double direction = trigonometry.angleTo(0, 0, vx, vy);
+            fleet.moveAt(slot, vx, vy, direction);
+            ++moved;
+        }
+        return moved;
+    }
+
+    /**
+     * <p>Расширяет массивы скоростей под размер флота.</p>
+     *
+     * @param size размер флота.
+     */
+    private void ensureScratchCapacity(int size) {
+        if (velocityX.length >= size) {
+            return;
+        }
+        final int capacity = Math.max(size, velocityX.length * 2);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+    }
+
+    /**
+     * <p>Задача для одной фазы тика на диапазоне слотов.</p>
+     *
+     * <p>Делит диапазон пополам, пока он больше {@link #PARALLEL_CHUNK_SIZE}.</p>
+     */
+    private final class ChunkTask extends RecursiveTask<Integer> {
+        private final FleetMovement logic;
+        private final int time;
+        private final int from;
+        private final int to;
+        private final boolean commitPhase;
+
+        /**
+         * <p>Конструктор.</p>
+         *
+         * @param logic       логика передвижения на этот тик.
+         * @param time        время, на которое продвигаем модель.
+         * @param from        первый слот (включительно).
+         * @param to          последний слот (не включительно).
+         * @param commitPhase true для фазы применения скоростей,
+         *                    false для фазы их вычисления.
+         */
+        private ChunkTask(FleetMovement logic, int time, int from, int to, boolean commitPhase) {
+            this.logic = logic;
+            this.time = time;
+            this.from = from;
+            this.to = to;
+            this.commitPhase = commitPhase;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                if (commitPhase) {
+                    return commit(from, to);
+                }
+                logic.computeVelocities(fleet, from, to, time, velocityX, velocityY);
+                return 0;
+            }
+
+            final int middle = (from + to) >>> 1;
+            final ChunkTask left = new ChunkTask(logic, time, from, middle, commitPhase);
+            final ChunkTask right = new ChunkTask(logic, time, middle, to, commitPhase);
+            left.fork();
+            final int rightResult = right.compute();
+            return left.join() + rightResult;
+        }
+    }
+}
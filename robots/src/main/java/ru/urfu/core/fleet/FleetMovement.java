@@ -0,0 +1,44 @@
+package ru.urfu.core.fleet;
+
+/**
+ * <p>Логика передвижения роботов флота.</p>
+ *
+ * <p>В отличие от {@link ru.urfu.core.movement.RobotMovement} работает
+ * сразу с диапазоном слотов и пишет результат в массивы примитивов,
+ * не создавая объектов на каждого робота.</p>
+ */
+public interface FleetMovement {
+    /**
+     * <p>Готовит общее состояние логики к тику, например, пересчитывает
+     * структуры, общие для многих роботов.</p>
+     *
+     * <p>Модель вызывает метод в одном потоке перед каждым тиком, до всех
+     * вызовов {@link #computeVelocities(RobotFleet, int, int, int, double[], double[])},
+     * в том числе параллельных.</p>
+     *
+     * @param fleet флот.
+     */
+    default void prepare(RobotFleet fleet) {
+    }
+
+    /**
+     * <p>Вычисляет векторные скорости роботов в слотах {@code [from, to)}.</p>
+     *
+     * <p>Реализация только читает состояние флота: положения меняет модель
+     * после того, как скорости посчитаны для всех роботов.
+     * Нулевой вектор воспринимается как отсутствие движения.</p>
+     *
+     * <p>В параллельном режиме метод вызывается одновременно из нескольких
+     * потоков на непересекающихся диапазонах, поэтому реализация
+     * не должна менять общее состояние: его готовит
+     * {@link #prepare(RobotFleet)}.</p>
+     *
+     * @param fleet     флот.
+     * @param from      первый слот (включительно).
+     * @param to        последний слот (не включительно).
+     * @param time      время, прошедшее с последнего тика.
+     * @param velocityX куда записать x скорости, индексируется слотом.
+     * @param velocityY куда записать y скорости, индексируется слотом.
+     */
+    void computeVelocities(RobotFleet fleet, int from, int to, int time, double[] velocityX, double[] velocityY);
+}
@@ -0,0 +1,17 @@
+package ru.urfu.core.fleet;
+
+/**
+ * <p>Режим обновления {@link FleetGameModel}.</p>
+ */
+public enum FleetUpdateMode {
+    /**
+     * <p>Все роботы обновляются в потоке симуляции.</p>
+     */
+    SEQUENTIAL,
+
+    /**
+     * <p>Роботы делятся на части, которые обновляются
+     * в {@link java.util.concurrent.ForkJoinPool}.</p>
+     */
+    PARALLEL
+}
@@ -0,0 +1,196 @@
+package ru.urfu.core.fleet;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import ru.urfu.core.level.Connectivity;
+import ru.urfu.core.level.FlowField;
+import ru.urfu.core.level.Level;
+
+/**
+ * <p>Логика передвижения флота по полю с препятствиями через {@link FlowField}.</p>
+ *
+ * <p>Для каждой клетки цели строится одно поле направлений, общее для всех
+ * роботов с этой целью; робот лишь смотрит в него шаг из своей клетки.
+ * Поэтому стоимость тика почти не зависит от того, сколько роботов
+ * едут к одной цели. Поля пересчитываются, только когда меняется поле
+ * препятствий.</p>
+ *
+ * <p>Поля всех целей тика находятся и пересчитываются один раз
+ * в {@link #prepare(RobotFleet)}, до вычисления скоростей, и закрепляются
+ * за роботами на весь тик: параллельное вычисление скоростей их только
+ * читает. Между тиками хранятся поля нескольких последних целей,
+ * остальные вытесняются.</p>
+ *
+ * <p>В клетке цели робот едет к ней по прямой. Робот вне поля,
+ * в занятой клетке или без пути до цели стоит.</p>
+ */
+public final class FlowFieldFleetMovement implements FleetMovement {
+    private final static double SPEED = 0.01;
+    private final static double EPSILON = 0.05;
+    private final static int DEFAULT_MAX_FIELDS = 4;
+    private final static int MOVE_CODES = 9;
+    private final static double[] UNIT_X = unitVectors(true);
+    private final static double[] UNIT_Y = unitVectors(false);
+
+    private final Level level;
+    private final Connectivity connectivity;
+    private final int maxFields;
+    private final Map<Integer, FlowField> fields;
+    private final Map<Integer, FlowField> tickFields = new HashMap<>();
+    private FlowField[] slotFields = new FlowField[0];
+
+    /**
+     * <p>Конструктор. Хранятся поля направлений для четырёх последних целей.</p>
+     *
+     * @param level        поле с препятствиями.
+     * @param connectivity соседство клеток.
+     */
+    public FlowFieldFleetMovement(Level level, Connectivity connectivity) {
+        this(level, connectivity, DEFAULT_MAX_FIELDS);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param level        поле с препятствиями.
+     * @param connectivity соседство клеток.
+     * @param maxFields    для скольких целей хранить поля направлений.
+     */
+    public FlowFieldFleetMovement(Level level, Connectivity connectivity, int maxFields) {
+        if (maxFields <= 0) {
+            throw new IllegalArgumentException("Illegal field count: " + maxFields);
+        }
+        this.level = level;
+        this.connectivity = connectivity;
+        this.maxFields = maxFields;
+        this.fields = new LinkedHashMap<>(maxFields, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, FlowField> eldest) {
+                return size() > FlowFieldFleetMovement.this.maxFields;
+            }
+        };
+    }
+
+    /**
+     * <p>Находит поле направлений для каждой клетки цели один раз,
+     * пересчитывает его при необходимости и закрепляет за роботами.</p>
+     */
+    @Override
+    public void prepare(RobotFleet fleet) {
+        final int size = fleet.size();
+        if (slotFields.length < size) {
+            slotFields = new FlowField[Math.max(size, slotFields.length * 2)];
+        }
+        FlowField field = null;
+        int fieldTarget = -1;
+        for (int slot = 0; slot < size; ++slot) {
+            final int targetTileX = (int) Math.floor(fleet.targetXAt(slot));
+            final int targetTileY = (int) Math.floor(fleet.targetYAt(slot));
+            if (!contains(targetTileX, targetTileY)) {
+                slotFields[slot] = null;
+                continue;
+            }
+            final int target = targetTileY * level.getWidth() + targetTileX;
+            if (target != fieldTarget) {
+                field = fieldFor(target);
+                fieldTarget = target;
+            }
+            slotFields[slot] = field;
+        }
+        fields.putAll(tickFields);
+        tickFields.clear();
+    }
+
+    /**
+     * <p>Вычисляет скорости роботов по полям направлений,
+     * закреплённым в {@link #prepare(RobotFleet)}.</p>
+     */
+    @Override
+    public void computeVelocities(RobotFleet fleet, int from, int to, int time,
+                                  double[] velocityX, double[] velocityY) {
+        final double step = SPEED * time;
+        for (int slot = from; slot < to; ++slot) {
+            velocityX[slot] = 0;
+            velocityY[slot] = 0;
+            final double x = fleet.xAt(slot);
+            final double y = fleet.yAt(slot);
+            final double targetX = fleet.targetXAt(slot);
+            final double targetY = fleet.targetYAt(slot);
+            final int tileX = (int) Math.floor(x);
+            final int tileY = (int) Math.floor(y);
+            final int targetTileX = (int) Math.floor(targetX);
+            final int targetTileY = (int) Math.floor(targetY);
+            if (!contains(tileX, tileY) || !contains(targetTileX, targetTileY)) {
+                continue;
+            }
+
+            if (tileX == targetTileX && tileY == targetTileY) {
+                final double dx = targetX - x;
+                final double dy = targetY - y;
+                final double distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared >= EPSILON) {
+                    final double scale = step / Math.sqrt(distanceSquared);
+                    velocityX[slot] = dx * scale;
+                    velocityY[slot] = dy * scale;
+                }
+                continue;
+            }
+
+            final FlowField field = slotFields[slot];
+            final int code = field.moveCode(tileX, tileY);
+            velocityX[slot] = UNIT_X[code] * step;
+            velocityY[slot] = UNIT_Y[code] * step;
+        }
+    }
+
+    /**
+     * <p>Поле направлений к клетке для текущего тика, при необходимости
+     * пересчитанное. Каждая цель пересчитывается за тик не больше раза:
+     * поле переходит из хранимых в поля тика и вытесняться не может.</p>
+     *
+     * @param target номер клетки цели.
+     * @return поле направлений.
+     */
+    private FlowField fieldFor(int target) {
+        FlowField field = tickFields.get(target);
+        if (field == null) {
+            field = fields.remove(target);
+            if (field == null) {
+                field = new FlowField(level, connectivity);
+            }
+            field.update(target % level.getWidth(), target / level.getWidth());
+            tickFields.put(target, field);
+        }
+        return field;
+    }
+
+    /**
+     * <p>Лежит ли клетка на поле.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return результат проверки.
+     */
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < level.getWidth() && y >= 0 && y < level.getHeight();
+    }
+
+    /**
+     * <p>Единичные векторы шагов по кодам {@link FlowField#moveCode(int, int)}.</p>
+     *
+     * @param xComponent true для x-компонент, false для y-компонент.
+     * @return компоненты по кодам; для кода без шага нули.
+     */
+    private static double[] unitVectors(boolean xComponent) {
+        final double[] components = new double[MOVE_CODES];
+        for (int dx = -1; dx <= 1; ++dx) {
+            for (int dy = -1; dy <= 1; ++dy) {
+                final double length = Math.sqrt(dx * dx + dy * dy);
+                final int code = (dx + 1) * 3 + dy + 1;
+                components[code] = length == 0 ? 0 : (xComponent ? dx : dy) / length;
+            }
+        }
+        return components;
+    }
+}
@@ -0,0 +1,380 @@
+package ru.urfu.core.fleet;
+
+import java.util.Arrays;
+import ru.urfu.core.RobotInfo;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Хранилище роботов флота в виде параллельных массивов примитивов
+ * (struct-of-arrays).</p>
+ *
+ * <p>Данные лежат плотно в слотах {@code [0, size)}: при удалении робота
+ * на его место переносится последний. Идентификатор робота не меняется
+ * всё время его жизни, соответствие идентификатора и слота хранится отдельно.
+ * Идентификаторы удалённых роботов переиспользуются.</p>
+ *
+ * <p>Класс не потокобезопасен: им владеет поток симуляции.</p>
+ */
+public final class RobotFleet {
+    private final static int DEFAULT_CAPACITY = 64;
+    private final static int NO_SLOT = -1;
+
+    private double[] x;
+    private double[] y;
+    private double[] direction;
+    private double[] targetX;
+    private double[] targetY;
+    private int[] slotToId;
+
+    private int[] idToSlot;
+    private int[] freeIds;
+    private int freeCount = 0;
+    private int nextId = 0;
+    private int size = 0;
+
+    /**
+     * <p>Конструктор.</p>
+     */
+    public RobotFleet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param initialCapacity начальная вместимость флота.
+     */
+    public RobotFleet(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        }
+        this.x = new double[initialCapacity];
+        this.y = new double[initialCapacity];
+        this.direction = new double[initialCapacity];
+        this.targetX = new double[initialCapacity];
+        this.targetY = new double[initialCapacity];
+        this.slotToId = new int[initialCapacity];
+        this.idToSlot = new int[initialCapacity];
+        this.freeIds = new int[initialCapacity];
+    }
+
+    /**
+     * <p>Создаёт робота. Цель робота совпадает с его положением.</p>
+     *
+     * @param posX  x положения.
+     * @param posY  y положения.
+     * @param angle направление робота.
+     * @return идентификатор нового робота.
+     */
+    public int spawn(double posX, double posY, double angle) {
+        ensureCapacity(size + 1);
+        final int id = allocateId();
+        final int slot = size++;
+
+        x[slot] = posX;
+        y[slot] = posY;
+        direction[slot] = angle;
+        targetX[slot] = posX;
+        targetY[slot] = posY;
+        slotToId[slot] = id;
+        idToSlot[id] = slot;
+        return id;
+    }
+
+    /**
+     * <p>Создаёт роботов пачкой. Цель каждого робота совпадает с его положением.</p>
+     *
+     * @param xs    x положений.
+     * @param ys    y положений.
+     * @param angle направление всех новых роботов.
+     * @return идентификаторы новых роботов в порядке координат.
+     */
+    public int[] spawnAll(double[] xs, double[] ys, double angle) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays have different lengths");
+        }
+        ensureCapacity(size + xs.length);
+
+        final int[] ids = new int[xs.length];
+        for (int i = 0; i < xs.length; ++i) {
+            ids[i] = spawn(xs[i], ys[i], angle);
+        }
+        return ids;
+    }
+
+    /**
+     * <p>Удаляет робота.</p>
+     *
+     * @param id идентификатор робота.
+     * @return был ли робот удалён.
+     */
+    public boolean remove(int id) {
+        final int slot = slotOf(id);
+        if (slot == NO_SLOT) {
+            return false;
+        }
+
+        final int last = --size;
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            direction[slot] = direction[last];
+            targetX[slot] = targetX[last];
+            targetY[slot] = targetY[last];
+            slotToId[slot] = slotToId[last];
+            idToSlot[slotToId[slot]] = slot;
+        }
+
+        idToSlot[id] = NO_SLOT;
+        freeIds[freeCount++] = id;
+        return true;
+    }
+
+    /**
+     * <p>Удаляет роботов пачкой. Неизвестные идентификаторы пропускаются.</p>
+     *
+     * @param ids идентификаторы роботов.
+     * @return количество удалённых роботов.
+     */
+    public int removeAll(int[] ids) {
+        int removed = 0;
+        for (final int id : ids) {
+            if (remove(id)) {
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * <p>Удаляет всех роботов.</p>
+     */
+    public void clear() {
+        size = 0;
+        freeCount = 0;
+        nextId = 0;
+    }
+
+    /**
+     * <p>Проверяет, существует ли робот.</p>
+     *
+     * @param id идентификатор робота.
+     * @return результат проверки.
+     */
+    public boolean contains(int id) {
+        return slotOf(id) != NO_SLOT;
+    }
+
+    /**
+     * <p>Количество роботов.</p>
+     *
+     * @return количество роботов.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <p>Слот, в котором лежат данные робота.</p>
+     *
+     * <p>Слот меняется при удалении других роботов,
+     * поэтому его нельзя хранить между тиками.</p>
+     *
+     * @param id идентификатор робота.
+     * @return номер слота или -1, если робота нет.
+     */
+    public int slotOf(int id) {
+        if (id < 0 || id >= nextId) {
+            return NO_SLOT;
+        }
+        final int slot = idToSlot[id];
+        if (slot < 0 || slot >= size || slotToId[slot] != id) {
+            return NO_SLOT;
+        }
+        return slot;
+    }
+
+    /**
+     * <p>Идентификатор робота в слоте.</p>
+     *
+     * @param slot слот.
+     * @return идентификатор робота.
+     */
+    public int idAt(int slot) {
+        return slotToId[slot];
+    }
+
+    /**
+     * <p>x положения робота в слоте.</p>
+     *
+     * @param slot слот.
+     * @return x положения.
+     */
+    public double xAt(int slot) {
+        return x[slot];
+    }
+
+    /**
+     * <p>y положения робота в слоте.</p>
+     *
+     * @param slot слот.
+     * @return y положения.
+     */
+    public double yAt(int slot) {
+        return y[slot];
+    }
+
+    /**
+     * <p>Направление робота в слоте.</p>
+     *
+     * @param slot слот.
+     * @return направление.
+     */
+    public double directionAt(int slot) {
+        return direction[slot];
+    }
+
+    /**
+     * <p>x цели робота в слоте.</p>
+     *
+     * @param slot слот.
+     * @return x цели.
+     */
+    public double targetXAt(int slot) {
+        return targetX[slot];
+    }
+
+    /**
+     * <p>y цели робота в слоте.</p>
+     *
+     * @param slot слот.
+     * @return y цели.
+     */
+    public double targetYAt(int slot) {
+        return targetY[slot];
+    }
+
+    /**
+     * <p>Информация о положении робота.</p>
+     *
+     * <p>Создаёт объект на каждый вызов, поэтому не предназначен
+     * для использования внутри тика.</p>
+     *
+     * @param id идентификатор робота.
+     * @return информация о положении или null, если робота нет.
+     */
+    public RobotInfo getRobotInfo(int id) {
+        final int slot = slotOf(id);
+        if (slot == NO_SLOT) {
+            return null;
+        }
+        return new RobotInfo(new Vector2(x[slot], y[slot]), direction[slot]);
+    }
+
+    /**
+     * <p>Копирует положения роботов с данными идентификаторами.</p>
+     *
+     * <p>Для отсутствующих роботов записывается {@link Double#NaN}.</p>
+     *
+     * @param ids  идентификаторы роботов.
+     * @param outX куда записать x.
+     * @param outY куда записать y.
+     */
+    public void getPositions(int[] ids, double[] outX, double[] outY) {
+        for (int i = 0; i < ids.length; ++i) {
+            final int slot = slotOf(ids[i]);
+            outX[i] = slot == NO_SLOT ? Double.NaN : x[slot];
+            outY[i] = slot == NO_SLOT ? Double.NaN : y[slot];
+        }
+    }
+
+    /**
+     * <p>Копирует положения всех роботов в порядке слотов.</p>
+     *
+     * @param outX куда записать x, не короче {@link #size()}.
+     * @param outY куда записать y, не короче {@link #size()}.
+     * @return количество скопированных положений.
+     */
+    public int copyPositions(double[] outX, double[] outY) {
+        System.arraycopy(x, 0, outX, 0, size);
+        System.arraycopy(y, 0, outY, 0, size);
+        return size;
+    }
+
+    /**
+     * <p>Меняет цель робота.</p>
+     *
+     * @param id   идентификатор робота.
+     * @param posX x цели.
+     * @param posY y цели.
+     * @return был ли найден робот.
+     */
+    public boolean setTarget(int id, double posX, double posY) {
+        final int slot = slotOf(id);
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        targetX[slot] = posX;
+        targetY[slot] = posY;
+        return true;
+    }
+
+    /**
+     * <p>Задаёт одну цель всем роботам.</p>
+     *
+     * @param posX x цели.
+     * @param posY y цели.
+     */
+    public void setTargetForAll(double posX, double posY) {
+        Arrays.fill(targetX, 0, size, posX);
+        Arrays.fill(targetY, 0, size, posY);
+    }
+
+    /**
+     * <p>Сдвигает робота в слоте и задаёт ему новое направление.</p>
+     *
+     * @param slot  слот.
+     * @param dx    сдвиг по x.
+     * @param dy    сдвиг по y.
+     * @param angle новое направление.
+     */
+    void moveAt(int slot, double dx, double dy, double angle) {
+        x[slot] += dx;
+        y[slot] += dy;
+        direction[slot] = angle;
+    }
+
+    /**
+     * <p>Выдаёт свободный идентификатор.</p>
+     *
+     * @return идентификатор.
+     */
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (nextId == idToSlot.length) {
+            idToSlot = Arrays.copyOf(idToSlot, idToSlot.length * 2);
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        return nextId++;
+    }
+
+    /**
+     * <p>Расширяет массивы так, чтобы поместилось данное количество роботов.</p>
+     *
+     * @param required необходимая вместимость.
+     */
+    private void ensureCapacity(int required) {
+        if (required <= x.length) {
+            return;
+        }
+        final int capacity = Math.max(required, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        targetX = Arrays.copyOf(targetX, capacity);
+        targetY = Arrays.copyOf(targetY, capacity);
+        slotToId = Arrays.copyOf(slotToId, capacity);
+    }
+}
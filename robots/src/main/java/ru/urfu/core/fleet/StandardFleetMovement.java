@@ -0,0 +1,108 @@
+package ru.urfu.core.fleet;
+
+import ru.urfu.utils.MathTools;
+import ru.urfu.utils.Trigonometry;
+
+/**
+ * <p>Логика передвижения по умолчанию для флота.</p>
+ *
+ * <p>Повторяет {@link ru.urfu.core.movement.StandardModeMovement}:
+ * робот едет с постоянной скоростью и поворачивает к цели
+ * с ограниченной угловой скоростью.</p>
+ */
+public final class StandardFleetMovement implements FleetMovement {
+    private final static double HALF_A_PIXEL = 0.05;
+    private final static double EPSILON = 0.00001;
+    private static final double MAX_VELOCITY = 0.01;
+    private static final double MAX_ANGULAR_VELOCITY = 0.001;
+    private static final double RADIUS = MAX_VELOCITY / MAX_ANGULAR_VELOCITY;
+
+    private final Trigonometry trigonometry;
+
+    /**
+     * <p>Конструктор с точной тригонометрией.</p>
+     */
+    public StandardFleetMovement() {
+        this(Trigonometry.EXACT);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param trigonometry режим тригонометрии.
+     */
+    public StandardFleetMovement(Trigonometry trigonometry) {
+        this.trigonometry = trigonometry;
+    }
+
+    @Override
+    public void computeVelocities(RobotFleet fleet, int from, int to, int time,
+                                  double[] velocityX, double[] velocityY) {
+        for (int slot = from; slot < to; ++slot) {
+            final double x = fleet.xAt(slot);
+            final double y = fleet.yAt(slot);
+            final double dx = fleet.targetXAt(slot) - x;
+            final double dy = fleet.targetYAt(slot) - y;
+
+            if (dx * dx + dy * dy < HALF_A_PIXEL) {
+                velocityX[slot] = 0;
+                velocityY[slot] = 0;
+                continue;
+            }
+
+            final double direction = calcNewDirection(fleet.directionAt(slot), dx, dy, time);
+            velocityX[slot] = MAX_VELOCITY * time * trigonometry.cos(direction);
+            velocityY[slot] = MAX_VELOCITY * time * trigonometry.sin(direction);
+        }
+    }
+
+    /**
+     * <p>Вычисляет новое направление робота.</p>
+     *
+     * @param direction текущее направление робота.
+     * @param dx        x вектора от робота до цели.
+     * @param dy        y вектора от робота до цели.
+     * @param time      время, прошедшее с последнего апдейта.
+     * @return новое направление.
+     */
+    private double calcNewDirection(double direction, double dx, double dy, int time) {
+        final double angleToTarget = trigonometry.angleTo(0, 0, dx, dy);
+        final double angleDifference = MathTools.asNormalizedRadians(angleToTarget - direction);
+
+        if (angleDifference < EPSILON) {
+            return direction;
+        }
+
+        double angularVelocity = MAX_ANGULAR_VELOCITY;
+        angularVelocity *= (angleDifference > Math.PI) ? -1 : 1;
+        angularVelocity *= (isInsideBlindZone(direction, dx, dy)) ? -1 : 1;
+
+        return MathTools.asNormalizedRadians(direction + angularVelocity * time);
+    }
+
+    /**
+     * <p>Проверяет, находится ли цель в слепой зоне робота.</p>
+     *
+     * <p>Координаты цели даны относительно робота.</p>
+     *
+     * @param direction направление робота.
+     * @param dx        x вектора от робота до цели.
+     * @param dy        y вектора от робота до цели.
+     * @return результат проверки.
+     */
+    private boolean isInsideBlindZone(double direction, double dx, double dy) {
+        final double radiusSquared = RADIUS * RADIUS;
+        final double directionSin = trigonometry.sin(direction);
+        final double directionCos = trigonometry.cos(direction);
+
+        final double toZone1X = dx + RADIUS * directionSin;
+        final double toZone1Y = dy - RADIUS * directionCos;
+        if (toZone1X * toZone1X + toZone1Y * toZone1Y < radiusSquared) {
+            return true;
+        }
+
+        final double toZone2X = dx - RADIUS * directionSin;
+        final double toZone2Y = dy + RADIUS * directionCos;
+        return toZone2X * toZone2X + toZone2Y * toZone2Y < radiusSquared;
+    }
+}
@@ -1,54 +1,72 @@
 package ru.urfu.core.level;
 
-import com.mursaat.pathfinding.AStar;
-import com.mursaat.pathfinding.AStarParams;
-import com.mursaat.pathfinding.DistanceCalculator;
-import com.mursaat.pathfinding.NeighborsEnumerator;
-import com.mursaat.pathfinding.PathFinderMap;
-import com.mursaat.pathfinding.PathNodePosition;
 import java.util.List;
 import ru.urfu.utils.Vector2;
 
 /**
  * <p>Поиск пути с помощью алгоритма A*.</p>
+ *
+ * <p>Обёртка над {@link PathFinder}, возвращающая путь в виде векторов.</p>
  */
 public final class AStarPathFinder {
-    private final PathFinderMap map;
+    private final int width;
+    private final PathFinder engine;
 
     /**
-     * <p>Конструктор.</p>
+     * <p>Конструктор. Соседи — четыре клетки по сторонам.</p>
      *
      * @param level поля, на котором будут искаться пути.
      */
     public AStarPathFinder(Level level) {
-        this.map = new LevelPathFinerMap(level);
+        this(level, Connectivity.FOUR);
     }
 
     /**
-     * <p>Ищет путь.</p>
+     * <p>Конструктор.</p>
      *
-     * @param from клетка откуда.
-     * @param to   клетка куда.
-     * @return список клеток, которые надо пройти.
+     * @param level        поля, на котором будут искаться пути.
+     * @param connectivity соседство клеток.
      */
-    public List<Vector2> findPath(Vector2 from, Vector2 to) {
-        final PathNodePosition startPos = new PathNodePosition((int) from.x(), (int) from.y());
-        final PathNodePosition endPos = new PathNodePosition((int) to.x(), (int) to.y());
+    public AStarPathFinder(Level level, Connectivity connectivity) {
+        this(level, PathFinderType.ASTAR, connectivity);
+    }
 
-        final AStarParams params = new AStarParams(map, startPos, endPos);
-        params.setNeighborsEnumerator(NeighborsEnumerator.ORTHO_NEIGHBORS);
-        params.setHeuristic(DistanceCalculator.MANHATTAN_DISTANCE);
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param level        поля, на котором будут искаться пути.
+     * @param type         алгоритм поиска.
+     * @param connectivity соседство клеток.
+     */
+    public AStarPathFinder(Level level, PathFinderType type, Connectivity connectivity) {
+        this(level, type.create(level, connectivity));
+    }
 
-        return AStar.findPath(params).stream().map(this::fromPathNode).toList();
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param level  поля, на котором будут искаться пути.
+     * @param engine поиск пути по этому полю.
+     */
+    public AStarPathFinder(Level level, PathFinder engine) {
+        this.width = level.getWidth();
+        this.engine = engine;
     }
 
     /**
-     * <p>Конвертирует внутренний объект {@link PathNodePosition} в {@link Vector2}.</p>
+     * <p>Ищет путь.</p>
      *
-     * @param node узел
-     * @return координаты клетки в виде вектора.
+     * @param from клетка откуда.
+     * @param to   клетка куда.
+     * @return список клеток, которые надо пройти, от стартовой до целевой;
+     *         пустой, если пути нет.
      */
-    private Vector2 fromPathNode(PathNodePosition node) {
-        return new Vector2(node.x, node.y);
+    public List<Vector2> findPath(Vector2 from, Vector2 to) {
+        final int[] cells = engine.findPath((int) from.x(), (int) from.y(), (int) to.x(), (int) to.y());
+        final Vector2[] path = new Vector2[cells.length];
+        for (int i = 0; i < cells.length; ++i) {
+            path[i] = new Vector2(cells[i] % width, cells[i] / width);
+        }
+        return List.of(path);
     }
 }
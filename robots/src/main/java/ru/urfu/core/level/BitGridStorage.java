@@ -0,0 +1,89 @@
+package ru.urfu.core.level;
+
+import ru.urfu.collections.BitGrid;
+
+/**
+ * <p>Хранилище препятствий в памяти кучи: один {@link BitGrid} на всё поле.</p>
+ */
+final class BitGridStorage implements LevelStorage {
+    private final BitGrid bits;
+
+    /**
+     * <p>Конструктор. Поле пустое.</p>
+     *
+     * @param width  ширина поля.
+     * @param height высота поля.
+     */
+    BitGridStorage(int width, int height) {
+        this(new BitGrid(width, height));
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param bits биты препятствий.
+     */
+    private BitGridStorage(BitGrid bits) {
+        this.bits = bits;
+    }
+
+    @Override
+    public int getWidth() {
+        return bits.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return bits.getHeight();
+    }
+
+    @Override
+    public int getWordsPerRow() {
+        return bits.getWordsPerRow();
+    }
+
+    @Override
+    public boolean get(int x, int y) {
+        return bits.get(x, y);
+    }
+
+    @Override
+    public void set(int x, int y, boolean value) {
+        bits.set(x, y, value);
+    }
+
+    @Override
+    public long word(int y, int index) {
+        return bits.word(y, index);
+    }
+
+    @Override
+    public void setWord(int y, int index, long word) {
+        bits.setWord(y, index, word);
+    }
+
+    @Override
+    public int nextSetInRow(int y, int fromX) {
+        return bits.nextSetInRow(y, fromX);
+    }
+
+    @Override
+    public int nextClearInRow(int y, int fromX) {
+        return bits.nextClearInRow(y, fromX);
+    }
+
+    @Override
+    public void fill(int fromX, int fromY, int toX, int toY, boolean value) {
+        bits.fill(fromX, fromY, toX, toY, value);
+    }
+
+    @Override
+    public long cardinality() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public LevelStorage copy() {
+        return new BitGridStorage(bits.copy());
+    }
+}
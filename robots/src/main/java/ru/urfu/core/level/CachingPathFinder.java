@@ -0,0 +1,173 @@
+package ru.urfu.core.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Поиск пути с ограниченным кэшем найденных путей.</p>
+ *
+ * <p>Ключ — пара клеток старта и цели; весь кэш привязан к версии поля
+ * ({@link Level#getVersion()}) и сбрасывается, как только поле меняется.
+ * Кэшируются и отрицательные ответы. Запросы с концами вне поля
+ * или на препятствии сразу получают пустой путь, как и у самих
+ * алгоритмов поиска, и в кэш не попадают.</p>
+ *
+ * <p>Если пути с теми же концами нет, но есть путь к той же цели,
+ * проходящий через стартовую клетку, запрос обслуживает его хвост:
+ * например, робот уже прошёл часть пути и ищет путь заново.</p>
+ *
+ * <p>При переполнении вытесняется путь, к которому дольше всего не обращались.
+ * Методы синхронизированы, так что один объект можно разделить
+ * между несколькими пользователями одного поля.</p>
+ */
+public final class CachingPathFinder implements PathFinder {
+    private final static int DEFAULT_CAPACITY = 256;
+
+    private final PathFinder engine;
+    private final Level level;
+    private final int width;
+    private final int capacity;
+    private final LinkedHashMap<Long, int[]> paths;
+    private final Map<Integer, List<int[]>> pathsByGoal = new HashMap<>();
+
+    private long version;
+    private long hits = 0;
+    private long subPathHits = 0;
+    private long misses = 0;
+
+    /**
+     * <p>Конструктор. Кэш на 256 путей.</p>
+     *
+     * @param engine поиск пути, результаты которого кэшируются.
+     * @param level  поле, на котором ищет {@code engine}.
+     */
+    public CachingPathFinder(PathFinder engine, Level level) {
+        this(engine, level, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param engine   поиск пути, результаты которого кэшируются.
+     * @param level    поле, на котором ищет {@code engine}.
+     * @param capacity сколько путей хранить.
+     */
+    public CachingPathFinder(PathFinder engine, Level level, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.engine = engine;
+        this.level = level;
+        this.width = level.getWidth();
+        this.capacity = capacity;
+        this.version = level.getVersion();
+        this.paths = new LinkedHashMap<>(capacity, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                final boolean full = size() > CachingPathFinder.this.capacity;
+                if (full) {
+                    unindex(eldest.getValue());
+                }
+                return full;
+            }
+        };
+    }
+
+    @Override
+    public synchronized int[] findPath(int fromX, int fromY, int toX, int toY) {
+        if (version != level.getVersion()) {
+            paths.clear();
+            pathsByGoal.clear();
+            version = level.getVersion();
+        }
+
+        if (!level.isFree(fromX, fromY) || !level.isFree(toX, toY)) {
+            return SearchState.noPath();
+        }
+        final int from = fromY * width + fromX;
+        final int to = toY * width + toX;
+        final long key = key(from, to);
+        final int[] cached = paths.get(key);
+        if (cached != null) {
+            ++hits;
+            return cached.clone();
+        }
+
+        final int[] tail = findTail(from, to);
+        if (tail != null) {
+            ++subPathHits;
+            return tail;
+        }
+
+        ++misses;
+        final int[] path = engine.findPath(fromX, fromY, toX, toY);
+        final int[] stored = path.clone();
+        paths.put(key, stored);
+        if (stored.length > 0) {
+            pathsByGoal.computeIfAbsent(to, goal -> new ArrayList<>()).add(stored);
+        }
+        return path;
+    }
+
+    /**
+     * <p>Статистика обращений к кэшу.</p>
+     *
+     * @return статистика на данный момент.
+     */
+    public synchronized PathCacheStats getStats() {
+        return new PathCacheStats(hits, subPathHits, misses);
+    }
+
+    /**
+     * <p>Ищет среди путей к той же цели путь через стартовую клетку.</p>
+     *
+     * @param from стартовая клетка.
+     * @param to   целевая клетка.
+     * @return копия хвоста пути от стартовой клетки или null.
+     */
+    private int[] findTail(int from, int to) {
+        final List<int[]> candidates = pathsByGoal.get(to);
+        if (candidates != null) {
+            for (int[] path : candidates) {
+                for (int i = 0; i < path.length; ++i) {
+                    if (path[i] == from) {
+                        paths.get(key(path[0], to));
+                        return Arrays.copyOfRange(path, i, path.length);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>Ключ кэша по паре клеток.</p>
+     *
+     * @param from стартовая клетка.
+     * @param to   целевая клетка.
+     * @return ключ.
+     */
+    private static long key(int from, int to) {
+        return ((long) from << Integer.SIZE) | Integer.toUnsignedLong(to);
+    }
+
+    /**
+     * <p>Убирает вытесняемый путь из индекса по целям.</p>
+     *
+     * @param path вытесняемый путь.
+     */
+    private void unindex(int[] path) {
+        if (path.length > 0) {
+            final int goal = path[path.length - 1];
+            final List<int[]> candidates = pathsByGoal.get(goal);
+            candidates.removeIf(candidate -> candidate == path);
+            if (candidates.isEmpty()) {
+                pathsByGoal.remove(goal);
+            }
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package ru.urfu.core.level;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>Хранилище препятствий кусками 256x256 клеток в отображённом в память файле.</p>
+ *
+ * <p>Для каждого куска в памяти кучи лежит только его состояние: пустой,
+ * сплошной или номер места в файле. Пустые и сплошные куски в файле
+ * места не занимают; место выделяется, когда в куске впервые появляются
+ * и свободные, и занятые клетки, а освобождается, когда кусок целиком
+ * заливается одним значением. Файл отображается в память частями
+ * по 32 МиБ по мере надобности, так что в памяти оказываются только
+ * страницы кусков, к которым действительно обращались. Поиск по строке
+ * проходит пустые и сплошные куски без обращения к файлу.</p>
+ *
+ * <p>Файл — временное хранилище, а не формат сохранения: состояния кусков
+ * в него не пишутся. Отображённые части освобождаются сборщиком мусора
+ * после {@link #close()}.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+public final class ChunkedLevelStorage implements LevelStorage {
+    private final static int CHUNK_SHIFT = 8;
+    private final static int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private final static int ADDRESS_BITS = 6;
+    private final static int WORDS_PER_CHUNK_ROW = CHUNK_SIZE / Long.SIZE;
+    private final static int CHUNK_WORDS = CHUNK_SIZE * WORDS_PER_CHUNK_ROW;
+    private final static int CHUNK_BYTES = CHUNK_WORDS * Long.BYTES;
+    private final static int SEGMENT_CHUNKS = 4096;
+    private final static long SEGMENT_BYTES = (long) SEGMENT_CHUNKS * CHUNK_BYTES;
+    private final static int EMPTY = -1;
+    private final static int SOLID = -2;
+    private final static long ALL_ONES = -1L;
+    private final static OpenOption[] OPEN_OPTIONS = {
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE};
+    private final static OpenOption[] TEMPORARY_OPTIONS = {
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE};
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final int chunksX;
+    private final Path file;
+    private final FileChannel channel;
+    private final int[] chunks;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[1];
+    private int[] freeSlots = new int[1];
+    private int freeSlotCount = 0;
+    private int slotCount = 0;
+
+    /**
+     * <p>Конструктор. Поле пустое; файл создаётся или обнуляется.</p>
+     *
+     * @param width  ширина поля.
+     * @param height высота поля.
+     * @param file   файл для кусков.
+     */
+    public ChunkedLevelStorage(int width, int height, Path file) {
+        this(width, height, file, OPEN_OPTIONS);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param width   ширина поля.
+     * @param height  высота поля.
+     * @param file    файл для кусков.
+     * @param options как открыть файл.
+     */
+    private ChunkedLevelStorage(int width, int height, Path file, OpenOption... options) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Illegal size: %dx%d".formatted(width, height));
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + Long.SIZE - 1) >>> ADDRESS_BITS;
+        this.chunksX = (width + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        this.chunks = new int[Math.multiplyExact(chunksX, (height + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+        Arrays.fill(chunks, EMPTY);
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open level storage " + file, e);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * <p>Сколько кусков занимают место в файле: в них есть
+     * и свободные, и занятые клетки.</p>
+     *
+     * @return количество кусков в файле.
+     */
+    public int getStoredChunkCount() {
+        return slotCount - freeSlotCount;
+    }
+
+    @Override
+    public boolean get(int x, int y) {
+        return (word(y, x >>> ADDRESS_BITS) & (1L << x)) != 0;
+    }
+
+    @Override
+    public void set(int x, int y, boolean value) {
+        final int chunk = chunkIndex(x >>> CHUNK_SHIFT, y >>> CHUNK_SHIFT);
+        if (chunks[chunk] == (value ? SOLID : EMPTY)) {
+            return;
+        }
+        final int slot = materialize(chunk);
+        final int offset = localWord(y, x >>> ADDRESS_BITS);
+        final long word = readWord(slot, offset);
+        writeWord(slot, offset, value ? word | 1L << x : word & ~(1L << x));
+    }
+
+    @Override
+    public long word(int y, int index) {
+        final int state = chunks[chunkIndex(index / WORDS_PER_CHUNK_ROW, y >>> CHUNK_SHIFT)];
+        if (state == EMPTY) {
+            return 0;
+        }
+        return state == SOLID ? validMask(index) : readWord(state, localWord(y, index));
+    }
+
+    /**
+     * <p>Слово, совпадающее с пустым или сплошным куском, место в файле не занимает.</p>
+     */
+    @Override
+    public void setWord(int y, int index, long word) {
+        final int chunk = chunkIndex(index / WORDS_PER_CHUNK_ROW, y >>> CHUNK_SHIFT);
+        final int state = chunks[chunk];
+        if (state == EMPTY && word == 0 || state == SOLID && word == validMask(index)) {
+            return;
+        }
+        writeWord(materialize(chunk), localWord(y, index), word);
+    }
+
+    /**
+     * <p>Куски, целиком покрытые прямоугольником, становятся пустыми
+     * или сплошными и освобождают место в файле; в остальных биты
+     * меняются словами.</p>
+     */
+    @Override
+    public void fill(int fromX, int fromY, int toX, int toY, boolean value) {
+        if (fromX < 0 || fromY < 0 || toX > width || toY > height || fromX > toX || fromY > toY) {
+            throw new IndexOutOfBoundsException("Illegal rectangle [%d, %d) x [%d, %d)"
+                    .formatted(fromX, toX, fromY, toY));
+        }
+        if (fromX == toX || fromY == toY) {
+            return;
+        }
+        for (int chunkY = fromY >>> CHUNK_SHIFT; chunkY <= (toY - 1) >>> CHUNK_SHIFT; ++chunkY) {
+            for (int chunkX = fromX >>> CHUNK_SHIFT; chunkX <= (toX - 1) >>> CHUNK_SHIFT; ++chunkX) {
+                fillChunk(chunkX, chunkY, fromX, fromY, toX, toY, value);
+            }
+        }
+    }
+
+    @Override
+    public long cardinality() {
+        long count = 0;
+        for (int chunk = 0; chunk < chunks.length; ++chunk) {
+            if (chunks[chunk] == SOLID) {
+                final int left = (chunk % chunksX) << CHUNK_SHIFT;
+                final int top = (chunk / chunksX) << CHUNK_SHIFT;
+                count += (long) (Math.min(left + CHUNK_SIZE, width) - left)
+                        * (Math.min(top + CHUNK_SIZE, height) - top);
+            } else if (chunks[chunk] != EMPTY) {
+                for (int i = 0; i < CHUNK_WORDS; ++i) {
+                    count += Long.bitCount(readWord(chunks[chunk], i));
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <p>Копия лежит во временном файле рядом с файлом этого хранилища;
+     * файл удаляется при закрытии копии, а в некоторых системах
+     * пропадает из каталога сразу, оставаясь открытым до закрытия.</p>
+     */
+    @Override
+    public LevelStorage copy() {
+        final Path directory = file.toAbsolutePath().getParent();
+        final ChunkedLevelStorage copy;
+        try {
+            copy = new ChunkedLevelStorage(width, height,
+                    Files.createTempFile(directory, "level", ".chunks"), TEMPORARY_OPTIONS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create level storage in " + directory, e);
+        }
+        for (int chunk = 0; chunk < chunks.length; ++chunk) {
+            if (chunks[chunk] >= 0) {
+                final int slot = copy.allocate();
+                for (int i = 0; i < CHUNK_WORDS; ++i) {
+                    copy.writeWord(slot, i, readWord(chunks[chunk], i));
+                }
+                copy.chunks[chunk] = slot;
+            } else {
+                copy.chunks[chunk] = chunks[chunk];
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * <p>Открыт ли файл хранилища.</p>
+     *
+     * @return {@code false} после {@link #close()}.
+     */
+    boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() {
+        segments = new MappedByteBuffer[1];
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close level storage " + file, e);
+        }
+    }
+
+    /**
+     * <p>Номер куска в таблице состояний.</p>
+     *
+     * @param chunkX столбец куска.
+     * @param chunkY строка куска.
+     * @return номер куска.
+     */
+    private int chunkIndex(int chunkX, int chunkY) {
+        return chunkY * chunksX + chunkX;
+    }
+
+    /**
+     * <p>Номер слова внутри куска.</p>
+     *
+     * @param y     строка поля.
+     * @param index номер слова в строке поля.
+     * @return номер слова в куске.
+     */
+    private static int localWord(int y, int index) {
+        return (y & (CHUNK_SIZE - 1)) * WORDS_PER_CHUNK_ROW + index % WORDS_PER_CHUNK_ROW;
+    }
+
+    /**
+     * <p>Биты слова строки, лежащие в пределах ширины поля.</p>
+     *
+     * @param index номер слова в строке.
+     * @return маска.
+     */
+    private long validMask(int index) {
+        return index == wordsPerRow - 1 ? ALL_ONES >>> -width : ALL_ONES;
+    }
+
+    /**
+     * <p>Даёт куску место в файле, если его ещё нет, и записывает туда
+     * его биты: нули для пустого куска и единицы в пределах поля для сплошного.</p>
+     *
+     * @param chunk номер куска.
+     * @return место куска в файле.
+     */
+    private int materialize(int chunk) {
+        final int state = chunks[chunk];
+        if (state >= 0) {
+            return state;
+        }
+        final int slot = allocate();
+        final int firstWord = (chunk % chunksX) * WORDS_PER_CHUNK_ROW;
+        final int rows = Math.min(CHUNK_SIZE, height - (chunk / chunksX << CHUNK_SHIFT));
+        for (int i = 0; i < CHUNK_WORDS; ++i) {
+            final int index = firstWord + i % WORDS_PER_CHUNK_ROW;
+            final boolean inside = state == SOLID && i / WORDS_PER_CHUNK_ROW < rows && index < wordsPerRow;
+            writeWord(slot, i, inside ? validMask(index) : 0);
+        }
+        chunks[chunk] = slot;
+        return slot;
+    }
+
+    /**
+     * <p>Освобождает место куска в файле, если оно есть.</p>
+     *
+     * @param chunk номер куска.
+     */
+    private void release(int chunk) {
+        if (chunks[chunk] >= 0) {
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = chunks[chunk];
+        }
+    }
+
+    /**
+     * <p>Свободное место для куска: освобождённое раньше или новое в конце файла.</p>
+     *
+     * @return место в файле.
+     */
+    private int allocate() {
+        return freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount++;
+    }
+
+    /**
+     * <p>Заливает часть прямоугольника, попавшую в кусок.</p>
+     *
+     * @param chunkX столбец куска.
+     * @param chunkY строка куска.
+     * @param fromX  первый столбец прямоугольника (включительно).
+     * @param fromY  первая строка прямоугольника (включительно).
+     * @param toX    последний столбец прямоугольника (не включительно).
+     * @param toY    последняя строка прямоугольника (не включительно).
+     * @param value  новое значение.
+     */
+    private void fillChunk(int chunkX, int chunkY, int fromX, int fromY, int toX, int toY, boolean value) {
+        final int left = chunkX << CHUNK_SHIFT;
+        final int top = chunkY << CHUNK_SHIFT;
+        final int right = Math.min(left + CHUNK_SIZE, width);
+        final int bottom = Math.min(top + CHUNK_SIZE, height);
+        final int chunk = chunkIndex(chunkX, chunkY);
+        if (fromX <= left && toX >= right && fromY <= top && toY >= bottom) {
+            release(chunk);
+            chunks[chunk] = value ? SOLID : EMPTY;
+        } else if (chunks[chunk] != (value ? SOLID : EMPTY)) {
+            fillWords(materialize(chunk), Math.max(fromX, left), Math.max(fromY, top),
+                    Math.min(toX, right), Math.min(toY, bottom), value);
+        }
+    }
+
+    /**
+     * <p>Меняет биты прямоугольника внутри одного куска словами.</p>
+     *
+     * @param slot  место куска в файле.
+     * @param fromX первый столбец (включительно).
+     * @param fromY первая строка (включительно).
+     * @param toX   последний столбец (не включительно).
+     * @param toY   последняя строка (не включительно).
+     * @param value новое значение.
+     */
+    private void fillWords(int slot, int fromX, int fromY, int toX, int toY, boolean value) {
+        final int firstWord = fromX >>> ADDRESS_BITS;
+        final int lastWord = (toX - 1) >>> ADDRESS_BITS;
+        for (int y = fromY; y < toY; ++y) {
+            for (int index = firstWord; index <= lastWord; ++index) {
+                long mask = ALL_ONES;
+                if (index == firstWord) {
+                    mask &= ALL_ONES << fromX;
+                }
+                if (index == lastWord) {
+                    mask &= ALL_ONES >>> -toX;
+                }
+                final int offset = localWord(y, index);
+                final long word = readWord(slot, offset);
+                writeWord(slot, offset, value ? word | mask : word & ~mask);
+            }
+        }
+    }
+
+    /**
+     * <p>Читает слово куска из файла.</p>
+     *
+     * @param slot   место куска в файле.
+     * @param offset номер слова в куске.
+     * @return слово.
+     */
+    private long readWord(int slot, int offset) {
+        return segment(slot).getLong(byteOffset(slot, offset));
+    }
+
+    /**
+     * <p>Пишет слово куска в файл.</p>
+     *
+     * @param slot   место куска в файле.
+     * @param offset номер слова в куске.
+     * @param word   слово.
+     */
+    private void writeWord(int slot, int offset, long word) {
+        segment(slot).putLong(byteOffset(slot, offset), word);
+    }
+
+    /**
+     * <p>Смещение слова внутри отображённой части файла.</p>
+     *
+     * @param slot   место куска в файле.
+     * @param offset номер слова в куске.
+     * @return смещение в байтах.
+     */
+    private static int byteOffset(int slot, int offset) {
+        return (slot % SEGMENT_CHUNKS) * CHUNK_BYTES + offset * Long.BYTES;
+    }
+
+    /**
+     * <p>Отображённая в память часть файла с данным местом;
+     * отображается при первом обращении, файл при этом растёт.</p>
+     *
+     * @param slot место куска в файле.
+     * @return отображённая часть файла.
+     */
+    private MappedByteBuffer segment(int slot) {
+        final int index = slot / SEGMENT_CHUNKS;
+        if (index >= segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(index + 1, segments.length * 2));
+        }
+        if (segments[index] == null) {
+            try {
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                        index * SEGMENT_BYTES, SEGMENT_BYTES);
+                buffer.order(ByteOrder.nativeOrder());
+                segments[index] = buffer;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map level storage " + file, e);
+            }
+        }
+        return segments[index];
+    }
+}
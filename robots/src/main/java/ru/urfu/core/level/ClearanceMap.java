@@ -0,0 +1,291 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Расстояние от каждой клетки {@link Level} до ближайшего препятствия:
+ * по нему поиск пути проверяет, помещается ли в клетке робот данного
+ * радиуса, за одно обращение к массиву и без раздувания препятствий
+ * под каждый размер робота.</p>
+ *
+ * <p>Расстояние евклидово, между центрами клеток; край поля считается
+ * стеной препятствий. Хранятся квадраты расстояний, обрезанные
+ * сверху квадратом {@link #getMaxClearance()}: дальше поиску пути
+ * точность не нужна.</p>
+ *
+ * <p>Карта строится за линейное время в два прохода: по столбцам
+ * считается расстояние до ближайшего препятствия в своём столбце,
+ * затем по строкам — нижняя огибающая парабол по этим расстояниям.
+ * Изменение клетки меняет расстояния только ближе обрезки, поэтому
+ * те же проходы повторяются в квадрате вокруг неё.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+public final class ClearanceMap {
+    private final static int DEFAULT_MAX_CLEARANCE = 16;
+    private final static double HALF_CELL = 0.5;
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final int maxClearance;
+    private final int[] columnDistances;
+    private final int[] squaredDistances;
+    private final int[] parabolas;
+    private final double[] bounds;
+    private final LevelListener levelListener = this::onCellChanged;
+    private long version;
+
+    /**
+     * <p>Конструктор. Расстояния обрезаются на {@value #DEFAULT_MAX_CLEARANCE} клетках.</p>
+     *
+     * @param level поле.
+     */
+    public ClearanceMap(Level level) {
+        this(level, DEFAULT_MAX_CLEARANCE);
+    }
+
+    /**
+     * <p>Конструктор. Строит карту и подписывается на изменения поля.</p>
+     *
+     * @param level        поле.
+     * @param maxClearance на скольких клетках обрезаются расстояния.
+     */
+    public ClearanceMap(Level level, int maxClearance) {
+        if (maxClearance <= 0 || maxClearance > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Illegal max clearance: " + maxClearance);
+        }
+        this.level = level;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.maxClearance = maxClearance;
+        this.columnDistances = new int[width * height];
+        this.squaredDistances = new int[width * height];
+        this.parabolas = new int[Math.max(width, height) + 2];
+        this.bounds = new double[parabolas.length + 1];
+        rebuild();
+        level.addListener(levelListener);
+    }
+
+    /**
+     * <p>На скольких клетках обрезаются расстояния.</p>
+     *
+     * @return предел расстояния.
+     */
+    public int getMaxClearance() {
+        return maxClearance;
+    }
+
+    /**
+     * <p>Квадрат расстояния от клетки до ближайшего препятствия.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return квадрат расстояния, не больше квадрата предела;
+     *         0 для занятой клетки и клетки вне поля.
+     */
+    public int squaredClearance(int x, int y) {
+        if (version != level.getVersion()) {
+            rebuild();
+        }
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        return squaredDistances[y * width + x];
+    }
+
+    /**
+     * <p>Наименьший квадрат расстояния до препятствия, при котором в клетке
+     * помещается круглый робот: его край не заходит в клетку препятствия.</p>
+     *
+     * <p>Расстояние от центра клетки до ближайшей точки клетки препятствия
+     * со смещением {@code (dx, dy)} зависит от направления: по оси оно
+     * на полклетки меньше расстояния между центрами, по диагонали — почти
+     * на {@code √2/2}. Поэтому порог — следующий за наибольшим квадратом
+     * расстояния между центрами, при котором какое-нибудь препятствие
+     * задевает робота; дальние препятствия его уже не задевают.</p>
+     *
+     * @param radius радиус робота в клетках; 0 для точки.
+     * @return порог для {@link #squaredClearance(int, int)}.
+     * @throws IllegalArgumentException если радиус отрицателен или порог больше квадрата предела карты.
+     */
+    public int requiredSquaredClearance(double radius) {
+        final int required = radius < 0 || radius + HALF_CELL > maxClearance
+                ? Integer.MAX_VALUE
+                : touchingSquaredDistance(radius) + 1;
+        if (required > maxClearance * maxClearance) {
+            throw new IllegalArgumentException("Illegal radius %s for max clearance %d"
+                    .formatted(radius, maxClearance));
+        }
+        return required;
+    }
+
+    /**
+     * <p>Наибольший квадрат расстояния между центрами клеток, при котором
+     * клетка препятствия задевает робота в центре клетки.</p>
+     *
+     * @param radius радиус робота в клетках.
+     * @return квадрат расстояния; 0, если задевает только сама клетка робота.
+     */
+    private static int touchingSquaredDistance(double radius) {
+        final int reach = (int) Math.ceil(radius + HALF_CELL);
+        int touching = 0;
+        for (int dx = 0; dx <= reach; ++dx) {
+            for (int dy = 0; dy <= dx; ++dy) {
+                final double nearX = Math.max(dx - HALF_CELL, 0);
+                final double nearY = Math.max(dy - HALF_CELL, 0);
+                if (nearX * nearX + nearY * nearY < radius * radius) {
+                    touching = Math.max(touching, dx * dx + dy * dy);
+                }
+            }
+        }
+        return touching;
+    }
+
+    /**
+     * <p>Пересчитывает всю карту.</p>
+     */
+    private void rebuild() {
+        version = level.getVersion();
+        for (int x = 0; x < width; ++x) {
+            columnPass(x, 0, height, 0, height);
+        }
+        for (int y = 0; y < height; ++y) {
+            rowPass(y, 0, width, 0, width);
+        }
+    }
+
+    /**
+     * <p>Пересчитывает расстояния вокруг изменившейся клетки или всю карту,
+     * если какое-то изменение было пропущено.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void onCellChanged(int x, int y) {
+        if (version + 1 != level.getVersion()) {
+            rebuild();
+        } else {
+            version = level.getVersion();
+            updateAround(x, y);
+        }
+    }
+
+    /**
+     * <p>Пересчитывает клетки не дальше предела от данной по каждой оси.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void updateAround(int x, int y) {
+        final int fromY = Math.max(0, y - maxClearance);
+        final int toY = Math.min(height, y + maxClearance + 1);
+        columnPass(x, Math.max(0, y - 2 * maxClearance), Math.min(height, y + 2 * maxClearance + 1), fromY, toY);
+        final int fromX = Math.max(0, x - maxClearance);
+        final int toX = Math.min(width, x + maxClearance + 1);
+        for (int row = fromY; row < toY; ++row) {
+            rowPass(row, Math.max(0, x - 2 * maxClearance), Math.min(width, x + 2 * maxClearance + 1), fromX, toX);
+        }
+    }
+
+    /**
+     * <p>Проход по столбцу: расстояние до ближайшего препятствия в нём,
+     * не больше предела.</p>
+     *
+     * <p>Препятствия за пределами отрезка не учитываются, кроме края поля.
+     * Строки дальше предела от концов отрезка от этого не зависят.</p>
+     *
+     * @param x         столбец.
+     * @param from      первая строка отрезка (включительно).
+     * @param to        последняя строка отрезка (не включительно).
+     * @param writeFrom первая записываемая строка (включительно).
+     * @param writeTo   последняя записываемая строка (не включительно).
+     */
+    private void columnPass(int x, int from, int to, int writeFrom, int writeTo) {
+        int last = from == 0 ? -1 : from - maxClearance - 1;
+        for (int y = from; y < to; ++y) {
+            if (!level.isFree(x, y)) {
+                last = y;
+            }
+            if (y >= writeFrom && y < writeTo) {
+                columnDistances[y * width + x] = Math.min(y - last, maxClearance);
+            }
+        }
+        last = to == height ? height : to + maxClearance;
+        for (int y = to - 1; y >= from; --y) {
+            if (!level.isFree(x, y)) {
+                last = y;
+            }
+            if (y >= writeFrom && y < writeTo && last - y < columnDistances[y * width + x]) {
+                columnDistances[y * width + x] = last - y;
+            }
+        }
+    }
+
+    /**
+     * <p>Проход по строке: нижняя огибающая парабол
+     * {@code (x - q)^2 + g(q)^2} по столбцам отрезка, где {@code g} —
+     * расстояния из прохода по столбцам. Край поля — столбец с нулевым
+     * расстоянием.</p>
+     *
+     * @param y         строка.
+     * @param from      первый столбец отрезка (включительно).
+     * @param to        последний столбец отрезка (не включительно).
+     * @param writeFrom первый записываемый столбец (включительно).
+     * @param writeTo   последний записываемый столбец (не включительно).
+     */
+    private void rowPass(int y, int from, int to, int writeFrom, int writeTo) {
+        final int first = from == 0 ? -1 : from;
+        final int last = to == width ? width : to - 1;
+        int count = 0;
+        parabolas[0] = first;
+        bounds[0] = Double.NEGATIVE_INFINITY;
+        bounds[1] = Double.POSITIVE_INFINITY;
+        for (int q = first + 1; q <= last; ++q) {
+            double bound = intersection(y, parabolas[count], q);
+            while (bound <= bounds[count]) {
+                --count;
+                bound = intersection(y, parabolas[count], q);
+            }
+            ++count;
+            parabolas[count] = q;
+            bounds[count] = bound;
+            bounds[count + 1] = Double.POSITIVE_INFINITY;
+        }
+
+        final int limit = maxClearance * maxClearance;
+        count = 0;
+        for (int x = writeFrom; x < writeTo; ++x) {
+            while (bounds[count + 1] < x) {
+                ++count;
+            }
+            final int q = parabolas[count];
+            squaredDistances[y * width + x] = Math.min((x - q) * (x - q) + height(y, q), limit);
+        }
+    }
+
+    /**
+     * <p>Точка пересечения парабол двух столбцов.</p>
+     *
+     * @param y строка.
+     * @param p левый столбец.
+     * @param q правый столбец.
+     * @return x пересечения.
+     */
+    private double intersection(int y, int p, int q) {
+        return (height(y, q) + (double) q * q - height(y, p) - (double) p * p) / (2.0 * (q - p));
+    }
+
+    /**
+     * <p>Высота параболы столбца: квадрат расстояния из прохода по столбцам.</p>
+     *
+     * @param y строка.
+     * @param q столбец; за краем поля — 0.
+     * @return квадрат расстояния.
+     */
+    private int height(int y, int q) {
+        if (q < 0 || q >= width) {
+            return 0;
+        }
+        final int distance = columnDistances[y * width + q];
+        return distance * distance;
+    }
+}
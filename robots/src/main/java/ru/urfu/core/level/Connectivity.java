@@ -0,0 +1,97 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Какие клетки считаются соседними при поиске пути.</p>
+ *
+ * <p>Стоимости целые: шаг по прямой стоит {@link #STRAIGHT_COST},
+ * по диагонали {@link #DIAGONAL_COST} (примерно 10·√2).</p>
+ */
+public enum Connectivity {
+    /**
+     * <p>Четыре соседа по сторонам, эвристика — манхэттенское расстояние.</p>
+     */
+    FOUR(new int[]{1, 0, -1, 0}, new int[]{0, 1, 0, -1}) {
+        @Override
+        public int heuristic(int dx, int dy) {
+            return STRAIGHT_COST * (Math.abs(dx) + Math.abs(dy));
+        }
+    },
+
+    /**
+     * <p>Восемь соседей, эвристика — октильное расстояние.</p>
+     *
+     * <p>По диагонали можно пройти, только если обе клетки по сторонам
+     * свободны: робот не срезает углы препятствий.</p>
+     */
+    EIGHT(new int[]{1, 0, -1, 0, 1, -1, -1, 1}, new int[]{0, 1, 0, -1, 1, 1, -1, -1}) {
+        @Override
+        public int heuristic(int dx, int dy) {
+            final int absX = Math.abs(dx);
+            final int absY = Math.abs(dy);
+            return STRAIGHT_COST * Math.max(absX, absY) + (DIAGONAL_COST - STRAIGHT_COST) * Math.min(absX, absY);
+        }
+    };
+
+    /**
+     * <p>Стоимость шага по прямой.</p>
+     */
+    public static final int STRAIGHT_COST = 10;
+
+    /**
+     * <p>Стоимость шага по диагонали.</p>
+     */
+    public static final int DIAGONAL_COST = 14;
+
+    private final int[] dx;
+    private final int[] dy;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param dx сдвиги соседей по x.
+     * @param dy сдвиги соседей по y.
+     */
+    Connectivity(int[] dx, int[] dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * <p>Нижняя оценка стоимости пути между клетками. Оценка согласована:
+     * между соседями она меняется не больше, чем на стоимость шага.</p>
+     *
+     * @param dx разность по x.
+     * @param dy разность по y.
+     * @return оценка.
+     */
+    public abstract int heuristic(int dx, int dy);
+
+    /**
+     * <p>Количество соседей.</p>
+     *
+     * @return количество соседей.
+     */
+    int directions() {
+        return dx.length;
+    }
+
+    /**
+     * <p>Сдвиг соседа по x.</p>
+     *
+     * @param direction номер соседа.
+     * @return сдвиг.
+     */
+    int dx(int direction) {
+        return dx[direction];
+    }
+
+    /**
+     * <p>Сдвиг соседа по y.</p>
+     *
+     * @param direction номер соседа.
+     * @return сдвиг.
+     */
+    int dy(int direction) {
+        return dy[direction];
+    }
+}
@@ -0,0 +1,455 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+
+/**
+ * <p>Разметка свободных клеток {@link Level} по связным областям:
+ * достижима ли одна клетка из другой, проверяется без поиска пути.</p>
+ *
+ * <p>Клетка хранит номер метки, метки объединяются системой непересекающихся
+ * множеств. Области считаются по четырём соседям; по правилу срезания углов
+ * из {@link GridAStar} шаг по диагонали возможен, только если свободны
+ * обе клетки сбоку, так что и для восьми соседей области те же.</p>
+ *
+ * <p>Разметка обновляется по изменениям поля. Освободившаяся клетка
+ * объединяет метки соседей. Занятая клетка может разрезать область:
+ * если её свободные соседи связаны по кольцу клеток вокруг неё, разреза
+ * нет; иначе из соседей идут поочерёдные обходы, пока они не встретятся
+ * или пока не останется один незаконченный. Отрезанные части, то есть
+ * законченные обходы, получают новые метки, так что работа пропорциональна
+ * меньшим частям, а не всей области.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+public final class ConnectivityIndex {
+    private final static int NONE = -1;
+    private final static int DIRECTIONS = 4;
+    private final static int[] DX = {0, 1, 0, -1};
+    private final static int[] DY = {-1, 0, 1, 0};
+    private final static int[] RING_X = {0, 1, 1, 1, 0, -1, -1, -1};
+    private final static int[] RING_Y = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private final static int INITIAL_CAPACITY = 64;
+    private final static int MAX_STAMP = Integer.MAX_VALUE / DIRECTIONS;
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final int[] labels;
+    private final int[] visits;
+    private final int[][] queues = new int[DIRECTIONS][];
+    private final int[] queueHeads = new int[DIRECTIONS];
+    private final int[] queueTails = new int[DIRECTIONS];
+    private final int[] groupSets = new int[DIRECTIONS];
+    private final LevelListener levelListener = this::onCellChanged;
+
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] ranks = new int[INITIAL_CAPACITY];
+    private int labelCount = 0;
+    private int stamp = 0;
+    private long version;
+
+    /**
+     * <p>Конструктор. Размечает поле и подписывается на его изменения.</p>
+     *
+     * @param level поле.
+     */
+    public ConnectivityIndex(Level level) {
+        this.level = level;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.labels = new int[width * height];
+        this.visits = new int[width * height];
+        for (int group = 0; group < DIRECTIONS; ++group) {
+            queues[group] = new int[INITIAL_CAPACITY];
+        }
+        rebuild();
+        level.addListener(levelListener);
+    }
+
+    /**
+     * <p>Номер связной области клетки. Номера одной области равны,
+     * пока поле не изменилось.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return номер области или -1 для занятой клетки и клетки вне поля.
+     */
+    public int componentOf(int x, int y) {
+        if (version != level.getVersion()) {
+            rebuild();
+        }
+        if (x < 0 || x >= width || y < 0 || y >= height || labels[y * width + x] == NONE) {
+            return NONE;
+        }
+        return find(labels[y * width + x]);
+    }
+
+    /**
+     * <p>Достижима ли одна клетка из другой.</p>
+     *
+     * @param fromX x первой клетки.
+     * @param fromY y первой клетки.
+     * @param toX   x второй клетки.
+     * @param toY   y второй клетки.
+     * @return true, если обе клетки свободны и лежат в одной области.
+     */
+    public boolean isReachable(int fromX, int fromY, int toX, int toY) {
+        final int component = componentOf(fromX, fromY);
+        return component != NONE && component == componentOf(toX, toY);
+    }
+
+    /**
+     * <p>Ближайшая к цели клетка, достижимая со старта.</p>
+     *
+     * <p>Клетки перебираются квадратными кольцами вокруг цели,
+     * пока кольцо не окажется дальше лучшей найденной клетки.</p>
+     *
+     * @param fromX x старта.
+     * @param fromY y старта.
+     * @param toX   x цели.
+     * @param toY   y цели.
+     * @return номер клетки {@code y * width + x} или -1, если старт занят.
+     */
+    public int nearestReachable(int fromX, int fromY, int toX, int toY) {
+        final int component = componentOf(fromX, fromY);
+        if (component == NONE) {
+            return NONE;
+        }
+        int best = NONE;
+        long bestDistance = Long.MAX_VALUE;
+        final int maxRadius = Math.max(width, height);
+        for (int radius = 0; radius <= maxRadius && (long) radius * radius <= bestDistance; ++radius) {
+            for (int dy = -radius; dy <= radius; ++dy) {
+                final int step = Math.abs(dy) == radius ? 1 : 2 * radius;
+                for (int dx = -radius; dx <= radius; dx += step) {
+                    final int x = toX + dx;
+                    final int y = toY + dy;
+                    final long distance = (long) dx * dx + (long) dy * dy;
+                    if (distance < bestDistance && inComponent(x, y, component)) {
+                        best = y * width + x;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>Размечает всё поле заново: свободная клетка берёт метку левого
+     * соседа и объединяет её с меткой верхнего.</p>
+     */
+    private void rebuild() {
+        labelCount = 0;
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final int cell = y * width + x;
+                if (!level.isFree(x, y)) {
+                    labels[cell] = NONE;
+                    continue;
+                }
+                final int left = x > 0 ? labels[cell - 1] : NONE;
+                final int up = y > 0 ? labels[cell - width] : NONE;
+                if (left != NONE) {
+                    labels[cell] = up == NONE ? left : union(left, up);
+                } else {
+                    labels[cell] = up == NONE ? newLabel() : up;
+                }
+            }
+        }
+        for (int cell = 0; cell < labels.length; ++cell) {
+            if (labels[cell] != NONE) {
+                labels[cell] = find(labels[cell]);
+            }
+        }
+        version = level.getVersion();
+    }
+
+    /**
+     * <p>Обновляет разметку по изменённой клетке. Если изменения
+     * прошли мимо слушателя или метки разрослись, поле размечается заново.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void onCellChanged(int x, int y) {
+        if (version + 1 != level.getVersion() || labelCount > labels.length) {
+            rebuild();
+        } else {
+            version = level.getVersion();
+            if (level.isFree(x, y)) {
+                join(x, y);
+            } else {
+                split(x, y);
+            }
+        }
+    }
+
+    /**
+     * <p>Клетка освободилась: она объединяет области свободных соседей.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void join(int x, int y) {
+        int label = NONE;
+        for (int direction = 0; direction < DIRECTIONS; ++direction) {
+            final int neighbour = labelAt(x + DX[direction], y + DY[direction]);
+            if (neighbour != NONE) {
+                label = label == NONE ? find(neighbour) : union(label, neighbour);
+            }
+        }
+        labels[y * width + x] = label == NONE ? newLabel() : label;
+    }
+
+    /**
+     * <p>Клетка занята: проверяет, не разрезала ли она область.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void split(int x, int y) {
+        labels[y * width + x] = NONE;
+        final int[] starts = new int[DIRECTIONS];
+        final int groups = ringGroups(x, y, starts);
+        if (groups > 1) {
+            separate(starts, groups);
+        }
+    }
+
+    /**
+     * <p>Делит свободных соседей клетки на группы, связанные по кольцу
+     * из восьми клеток вокруг неё.</p>
+     *
+     * @param x      x клетки.
+     * @param y      y клетки.
+     * @param starts куда записать по одному соседу каждой группы.
+     * @return количество групп.
+     */
+    private int ringGroups(int x, int y, int[] starts) {
+        int blocked = NONE;
+        for (int i = 0; i < RING_X.length && blocked == NONE; ++i) {
+            if (labelAt(x + RING_X[i], y + RING_Y[i]) == NONE) {
+                blocked = i;
+            }
+        }
+        if (blocked == NONE) {
+            starts[0] = y * width + x + RING_X[0] + RING_Y[0] * width;
+            return 1;
+        }
+        int groups = 0;
+        boolean grouped = false;
+        for (int step = 1; step <= RING_X.length; ++step) {
+            final int i = (blocked + step) % RING_X.length;
+            final int ringX = x + RING_X[i];
+            final int ringY = y + RING_Y[i];
+            if (labelAt(ringX, ringY) == NONE) {
+                grouped = false;
+            } else if (i % 2 == 0 && !grouped) {
+                starts[groups++] = ringY * width + ringX;
+                grouped = true;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * <p>Поочерёдные обходы из соседей разных групп. Встретившиеся обходы
+     * объединяются; закончившиеся раньше остальных части получают новые метки.</p>
+     *
+     * @param starts соседи, с которых начинаются обходы.
+     * @param groups количество обходов.
+     */
+    private void separate(int[] starts, int groups) {
+        if (++stamp == MAX_STAMP) {
+            Arrays.fill(visits, 0);
+            stamp = 1;
+        }
+        for (int group = 0; group < groups; ++group) {
+            queues[group][0] = starts[group];
+            queueHeads[group] = 0;
+            queueTails[group] = 1;
+            groupSets[group] = group;
+            visits[starts[group]] = stamp * DIRECTIONS + group;
+        }
+        int sets = groups;
+        while (sets > 1 && activeSets(groups) > 1) {
+            for (int group = 0; group < groups; ++group) {
+                if (queueHeads[group] < queueTails[group]) {
+                    sets -= expand(group, groups);
+                }
+            }
+        }
+        if (sets > 1) {
+            relabelFinished(groups);
+        }
+    }
+
+    /**
+     * <p>Раскрывает одну клетку обхода.</p>
+     *
+     * @param group  обход.
+     * @param groups количество обходов.
+     * @return сколько пар обходов при этом встретилось.
+     */
+    private int expand(int group, int groups) {
+        final int cell = queues[group][queueHeads[group]++];
+        final int x = cell % width;
+        final int y = cell / width;
+        int merged = 0;
+        for (int direction = 0; direction < DIRECTIONS; ++direction) {
+            final int nx = x + DX[direction];
+            final int ny = y + DY[direction];
+            if (labelAt(nx, ny) == NONE) {
+                continue;
+            }
+            final int neighbour = ny * width + nx;
+            final int visit = visits[neighbour];
+            if (visit / DIRECTIONS == stamp) {
+                final int other = groupSets[visit % DIRECTIONS];
+                if (other != groupSets[group]) {
+                    final int set = groupSets[group];
+                    for (int i = 0; i < groups; ++i) {
+                        groupSets[i] = groupSets[i] == other ? set : groupSets[i];
+                    }
+                    ++merged;
+                }
+            } else {
+                visits[neighbour] = stamp * DIRECTIONS + group;
+                if (queueTails[group] == queues[group].length) {
+                    queues[group] = Arrays.copyOf(queues[group], queueTails[group] * 2);
+                }
+                queues[group][queueTails[group]++] = neighbour;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * <p>Сколько объединённых обходов ещё не закончены.</p>
+     *
+     * @param groups количество обходов.
+     * @return количество незаконченных объединённых обходов.
+     */
+    private int activeSets(int groups) {
+        int active = 0;
+        for (int set = 0; set < groups; ++set) {
+            for (int group = 0; group < groups; ++group) {
+                if (groupSets[group] == set && queueHeads[group] < queueTails[group]) {
+                    ++active;
+                    break;
+                }
+            }
+        }
+        return active;
+    }
+
+    /**
+     * <p>Даёт новые метки закончившимся объединённым обходам. Одна часть,
+     * незаконченная или, если закончились все, первая, сохраняет старую метку.</p>
+     *
+     * @param groups количество обходов.
+     */
+    private void relabelFinished(int groups) {
+        int kept = NONE;
+        for (int group = 0; group < groups; ++group) {
+            if (queueHeads[group] < queueTails[group]) {
+                kept = groupSets[group];
+            }
+        }
+        kept = kept == NONE ? groupSets[0] : kept;
+        for (int set = 0; set < groups; ++set) {
+            if (set == kept) {
+                continue;
+            }
+            int label = NONE;
+            for (int group = 0; group < groups; ++group) {
+                if (groupSets[group] == set) {
+                    label = label == NONE ? newLabel() : label;
+                    for (int i = 0; i < queueTails[group]; ++i) {
+                        labels[queues[group][i]] = label;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Лежит ли свободная клетка в данной области.</p>
+     *
+     * @param x         x клетки.
+     * @param y         y клетки.
+     * @param component номер области.
+     * @return результат проверки.
+     */
+    private boolean inComponent(int x, int y, int component) {
+        final int label = labelAt(x, y);
+        return label != NONE && find(label) == component;
+    }
+
+    /**
+     * <p>Метка клетки.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return метка или -1 для занятой клетки и клетки вне поля.
+     */
+    private int labelAt(int x, int y) {
+        return x < 0 || x >= width || y < 0 || y >= height ? NONE : labels[y * width + x];
+    }
+
+    /**
+     * <p>Новая метка, пока ни с чем не объединённая.</p>
+     *
+     * @return метка.
+     */
+    private int newLabel() {
+        if (labelCount == parents.length) {
+            parents = Arrays.copyOf(parents, labelCount * 2);
+            ranks = Arrays.copyOf(ranks, labelCount * 2);
+        }
+        parents[labelCount] = labelCount;
+        ranks[labelCount] = 0;
+        return labelCount++;
+    }
+
+    /**
+     * <p>Представитель множества метки, с сокращением пути вдвое.</p>
+     *
+     * @param label метка.
+     * @return представитель.
+     */
+    private int find(int label) {
+        int current = label;
+        while (parents[current] != current) {
+            parents[current] = parents[parents[current]];
+            current = parents[current];
+        }
+        return current;
+    }
+
+    /**
+     * <p>Объединяет множества меток по рангу.</p>
+     *
+     * @param first  первая метка.
+     * @param second вторая метка.
+     * @return представитель объединения.
+     */
+    private int union(int first, int second) {
+        int a = find(first);
+        int b = find(second);
+        if (a == b) {
+            return a;
+        }
+        if (ranks[a] < ranks[b]) {
+            final int swap = a;
+            a = b;
+            b = swap;
+        }
+        parents[b] = a;
+        if (ranks[a] == ranks[b]) {
+            ++ranks[a];
+        }
+        return a;
+    }
+}
@@ -0,0 +1,335 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+import ru.urfu.collections.IntBinaryHeap;
+
+/**
+ * <p>Инкрементальный поиск пути алгоритмом D* Lite по клеткам {@link Level}.</p>
+ *
+ * <p>Поиск идёт от цели к старту и сохраняется между запросами. Пока цель
+ * та же, следующий запрос переиспользует найденные стоимости: сдвиг старта
+ * почти ничего не стоит, а изменение клетки поля исправляет только ту
+ * часть поиска, на которую оно влияет. О изменениях объект узнаёт,
+ * подписавшись на поле, и применяет их в начале следующего запроса.</p>
+ *
+ * <p>Соседство и правило срезания углов те же, что у {@link GridAStar},
+ * и пути получаются той же стоимости. Смена цели, как и изменение
+ * больше чем 1/64 клеток поля между запросами, начинает поиск заново.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+public final class DStarLite implements PathFinder {
+    private final static int INFINITY = Integer.MAX_VALUE / 2;
+    private final static int NONE = -1;
+    private final static int INITIAL_CHANGES = 16;
+    private final static int RESET_DIVISOR = 64;
+
+    private final Level level;
+    private final Connectivity connectivity;
+    private final int width;
+    private final int height;
+    private final int[] g;
+    private final int[] rhs;
+    private final IntBinaryHeap open;
+    private final LevelListener levelListener = this::onCellChanged;
+
+    private int[] changes = new int[INITIAL_CHANGES];
+    private int changeCount = 0;
+    private int goal = NONE;
+    private int start = NONE;
+    private int keyModifier = 0;
+    private int expanded = 0;
+
+    /**
+     * <p>Конструктор. Подписывается на изменения поля.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     */
+    public DStarLite(Level level, Connectivity connectivity) {
+        this.level = level;
+        this.connectivity = connectivity;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.g = new int[width * height];
+        this.rhs = new int[width * height];
+        this.open = new IntBinaryHeap(width * height);
+        level.addListener(levelListener);
+    }
+
+    @Override
+    public int[] findPath(int fromX, int fromY, int toX, int toY) {
+        expanded = 0;
+        if (!level.isFree(fromX, fromY) || !level.isFree(toX, toY)) {
+            return SearchState.noPath();
+        }
+        final int from = fromY * width + fromX;
+        final int to = toY * width + toX;
+        if (to != goal || changeCount > g.length / RESET_DIVISOR) {
+            reset(from, to);
+        } else {
+            keyModifier += heuristic(start, from);
+            start = from;
+            applyChanges();
+        }
+        computeShortestPath();
+        return g[start] >= INFINITY ? SearchState.noPath() : extractPath();
+    }
+
+    /**
+     * <p>Сколько клеток раскрыл последний запрос.</p>
+     *
+     * @return количество раскрытых клеток.
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * <p>Запоминает изменённую клетку до следующего запроса.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void onCellChanged(int x, int y) {
+        if (goal != NONE) {
+            if (changeCount == changes.length) {
+                changes = Arrays.copyOf(changes, changeCount * 2);
+            }
+            changes[changeCount++] = y * width + x;
+        }
+    }
+
+    /**
+     * <p>Начинает поиск к новой цели заново.</p>
+     *
+     * @param from стартовая клетка.
+     * @param to   целевая клетка.
+     */
+    private void reset(int from, int to) {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        changeCount = 0;
+        keyModifier = 0;
+        goal = to;
+        start = from;
+        rhs[goal] = 0;
+        open.update(goal, key(goal));
+    }
+
+    /**
+     * <p>Пересчитывает клетки, у которых могли измениться рёбра:
+     * саму изменённую клетку и её соседей.</p>
+     */
+    private void applyChanges() {
+        for (int i = 0; i < changeCount; ++i) {
+            final int cell = changes[i];
+            final int x = cell % width;
+            final int y = cell / width;
+            recompute(cell);
+            for (int direction = 0; direction < connectivity.directions(); ++direction) {
+                final int nx = x + connectivity.dx(direction);
+                final int ny = y + connectivity.dy(direction);
+                if (nx >= 0 && nx < width && ny >= 0 && ny < height) {
+                    recompute(ny * width + nx);
+                }
+            }
+        }
+        changeCount = 0;
+    }
+
+    /**
+     * <p>Основной цикл D* Lite: раскрывает несогласованные клетки,
+     * пока стоимость старта не станет точной.</p>
+     */
+    private void computeShortestPath() {
+        while (!open.isEmpty() && (open.peekKey() < key(start) || rhs[start] != g[start])) {
+            final long oldKey = open.peekKey();
+            final int current = open.poll();
+            final long newKey = key(current);
+            if (oldKey < newKey) {
+                open.update(current, newKey);
+            } else if (g[current] > rhs[current]) {
+                ++expanded;
+                g[current] = rhs[current];
+                lowerNeighbours(current);
+            } else {
+                ++expanded;
+                final int oldG = g[current];
+                g[current] = INFINITY;
+                recompute(current);
+                raiseNeighbours(current, oldG);
+            }
+        }
+    }
+
+    /**
+     * <p>Стоимость клетки уменьшилась: соседи могут пойти через неё.</p>
+     *
+     * @param cell клетка.
+     */
+    private void lowerNeighbours(int cell) {
+        final int x = cell % width;
+        final int y = cell / width;
+        for (int direction = 0; direction < connectivity.directions(); ++direction) {
+            final int dx = connectivity.dx(direction);
+            final int dy = connectivity.dy(direction);
+            final int cost = cost(x, y, dx, dy);
+            if (cost != NONE) {
+                final int neighbour = (y + dy) * width + x + dx;
+                if (g[cell] + cost < rhs[neighbour]) {
+                    rhs[neighbour] = g[cell] + cost;
+                    enqueue(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Стоимость клетки выросла: соседи, которые шли через неё, пересчитываются.</p>
+     *
+     * @param cell клетка.
+     * @param oldG прежняя стоимость клетки.
+     */
+    private void raiseNeighbours(int cell, int oldG) {
+        final int x = cell % width;
+        final int y = cell / width;
+        for (int direction = 0; direction < connectivity.directions(); ++direction) {
+            final int dx = connectivity.dx(direction);
+            final int dy = connectivity.dy(direction);
+            final int cost = cost(x, y, dx, dy);
+            if (cost != NONE && rhs[(y + dy) * width + x + dx] == oldG + cost) {
+                recompute((y + dy) * width + x + dx);
+            }
+        }
+    }
+
+    /**
+     * <p>Пересчитывает оценку клетки по соседям и обновляет её место в очереди.</p>
+     *
+     * @param cell клетка.
+     */
+    private void recompute(int cell) {
+        if (cell == goal) {
+            rhs[cell] = level.isFree(cell) ? 0 : INFINITY;
+        } else {
+            final int next = bestNeighbour(cell);
+            rhs[cell] = next == NONE ? INFINITY : g[next] + stepCost(cell, next);
+        }
+        enqueue(cell);
+    }
+
+    /**
+     * <p>Лучший шаг из клетки: сосед с наименьшей суммой стоимости шага и его стоимости.</p>
+     *
+     * @param cell клетка.
+     * @return сосед или {@link #NONE}, если шагнуть некуда.
+     */
+    private int bestNeighbour(int cell) {
+        final int x = cell % width;
+        final int y = cell / width;
+        int best = INFINITY;
+        int bestNeighbour = NONE;
+        for (int direction = 0; direction < connectivity.directions(); ++direction) {
+            final int dx = connectivity.dx(direction);
+            final int dy = connectivity.dy(direction);
+            final int cost = cost(x, y, dx, dy);
+            if (cost != NONE) {
+                final int neighbour = (y + dy) * width + x + dx;
+                if (g[neighbour] + cost < best) {
+                    best = g[neighbour] + cost;
+                    bestNeighbour = neighbour;
+                }
+            }
+        }
+        return bestNeighbour;
+    }
+
+    /**
+     * <p>Стоимость шага между соседними клетками.</p>
+     *
+     * @param from клетка.
+     * @param to   соседняя клетка.
+     * @return стоимость шага.
+     */
+    private int stepCost(int from, int to) {
+        final boolean diagonal = from % width != to % width && from / width != to / width;
+        return diagonal ? Connectivity.DIAGONAL_COST : Connectivity.STRAIGHT_COST;
+    }
+
+    /**
+     * <p>Ставит несогласованную клетку в очередь и убирает согласованную.</p>
+     *
+     * @param cell клетка.
+     */
+    private void enqueue(int cell) {
+        if (g[cell] != rhs[cell]) {
+            open.update(cell, key(cell));
+        } else {
+            open.remove(cell);
+        }
+    }
+
+    /**
+     * <p>Ключ клетки в очереди: сначала оценка полного пути через неё,
+     * потом стоимость от неё до цели.</p>
+     *
+     * @param cell клетка.
+     * @return упакованный ключ.
+     */
+    private long key(int cell) {
+        final int cost = Math.min(g[cell], rhs[cell]);
+        final long total = (long) cost + heuristic(start, cell) + keyModifier;
+        return (total << Integer.SIZE) | cost;
+    }
+
+    /**
+     * <p>Стоимость шага из клетки в соседнюю.</p>
+     *
+     * @param x  x клетки.
+     * @param y  y клетки.
+     * @param dx сдвиг по x.
+     * @param dy сдвиг по y.
+     * @return стоимость или {@link #NONE}, если шагнуть нельзя.
+     */
+    private int cost(int x, int y, int dx, int dy) {
+        final boolean diagonal = dx != 0 && dy != 0;
+        if (!level.isFree(x, y) || !level.isFree(x + dx, y + dy)
+                || diagonal && (!level.isFree(x + dx, y) || !level.isFree(x, y + dy))) {
+            return NONE;
+        }
+        return diagonal ? Connectivity.DIAGONAL_COST : Connectivity.STRAIGHT_COST;
+    }
+
+    /**
+     * <p>Оценка стоимости пути между клетками.</p>
+     *
+     * @param from первая клетка.
+     * @param to   вторая клетка.
+     * @return оценка.
+     */
+    private int heuristic(int from, int to) {
+        return connectivity.heuristic(to % width - from % width, to / width - from / width);
+    }
+
+    /**
+     * <p>Путь от старта к цели по лучшим шагам.</p>
+     *
+     * @return номера клеток пути.
+     */
+    private int[] extractPath() {
+        int[] path = new int[Math.max(2, g[start] / Connectivity.STRAIGHT_COST + 1)];
+        int length = 0;
+        int current = start;
+        path[length++] = current;
+        while (current != goal && current != NONE) {
+            current = bestNeighbour(current);
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = current;
+        }
+        return current == NONE ? SearchState.noPath() : Arrays.copyOf(path, length);
+    }
+}
@@ -0,0 +1,178 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+import ru.urfu.collections.IntBinaryHeap;
+
+/**
+ * <p>Поле направлений к одной цели.</p>
+ *
+ * <p>Один проход Дейкстры от цели по всему полю даёт для каждой
+ * свободной клетки стоимость пути до цели и соседа, в которого надо
+ * шагнуть. После этого направление для любой клетки узнаётся за O(1),
+ * так что сколько угодно роботов, едущих к одной цели, стоят одного поиска.</p>
+ *
+ * <p>Поле пересчитывается в {@link #update(int, int)}, только если сменилась
+ * цель или версия {@link Level}. Соседство и правило срезания углов
+ * те же, что у {@link GridAStar}.</p>
+ *
+ * <p>Пересчёт меняет массивы поля на месте, поэтому вызывать
+ * {@link #update(int, int)} одновременно с чтением направлений нельзя.
+ * После пересчёта направления можно читать из нескольких потоков,
+ * если запуск этих потоков упорядочен после него, как запуск
+ * задач fork-join после вызова в запускающем потоке.</p>
+ */
+public final class FlowField {
+    private final static int UNREACHABLE = -1;
+    private final static byte NO_MOVE = 4;
+    private final static int DIRECTION_CODES = 3;
+
+    private final Level level;
+    private final Connectivity connectivity;
+    private final int width;
+    private final int height;
+    private final int[] distances;
+    private final byte[] moves;
+    private final IntBinaryHeap open;
+
+    private int targetCell = UNREACHABLE;
+    private long version;
+    private long rebuilds = 0;
+
+    /**
+     * <p>Конструктор. Поле направлений строится при первом {@link #update(int, int)}.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     */
+    public FlowField(Level level, Connectivity connectivity) {
+        this.level = level;
+        this.connectivity = connectivity;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.distances = new int[width * height];
+        this.moves = new byte[width * height];
+        this.open = new IntBinaryHeap(width * height);
+    }
+
+    /**
+     * <p>Пересчитывает поле направлений, если сменилась цель или поле.</p>
+     *
+     * @param targetX x клетки цели.
+     * @param targetY y клетки цели.
+     * @return было ли поле пересчитано.
+     * @throws IllegalArgumentException если цель за пределами поля.
+     */
+    public synchronized boolean update(int targetX, int targetY) {
+        if (targetX < 0 || targetX >= width || targetY < 0 || targetY >= height) {
+            throw new IllegalArgumentException("Target is outside the level: %d, %d".formatted(targetX, targetY));
+        }
+        final int cell = targetY * width + targetX;
+        if (cell == targetCell && version == level.getVersion()) {
+            return false;
+        }
+        targetCell = cell;
+        version = level.getVersion();
+        rebuild();
+        ++rebuilds;
+        return true;
+    }
+
+    /**
+     * <p>Шаг по x из клетки к цели.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return -1, 0 или 1; 0 и для клеток, откуда цель недостижима.
+     */
+    public int directionX(int x, int y) {
+        return moves[y * width + x] / DIRECTION_CODES - 1;
+    }
+
+    /**
+     * <p>Шаг по y из клетки к цели.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return -1, 0 или 1; 0 и для клеток, откуда цель недостижима.
+     */
+    public int directionY(int x, int y) {
+        return moves[y * width + x] % DIRECTION_CODES - 1;
+    }
+
+    /**
+     * <p>Код шага из клетки к цели: {@code (dx + 1) * 3 + (dy + 1)}.</p>
+     *
+     * <p>Для быстрого поиска по таблице; код 4 значит, что шага нет.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return код шага от 0 до 8.
+     */
+    public int moveCode(int x, int y) {
+        return moves[y * width + x];
+    }
+
+    /**
+     * <p>Стоимость пути от клетки до цели: {@link Connectivity#STRAIGHT_COST}
+     * за прямой шаг и {@link Connectivity#DIAGONAL_COST} за диагональный.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return стоимость или -1, если цель недостижима.
+     */
+    public int distance(int x, int y) {
+        return distances[y * width + x];
+    }
+
+    /**
+     * <p>Сколько раз поле направлений пересчитывалось.</p>
+     *
+     * @return количество пересчётов.
+     */
+    public synchronized long getRebuildCount() {
+        return rebuilds;
+    }
+
+    /**
+     * <p>Проход Дейкстры от цели. Шаг из клетки указывает на ту,
+     * из которой до неё дошёл поиск.</p>
+     */
+    private void rebuild() {
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(moves, NO_MOVE);
+        open.clear();
+        if (!level.isFree(targetCell)) {
+            return;
+        }
+        distances[targetCell] = 0;
+        open.insertOrDecrease(targetCell, 0);
+
+        while (!open.isEmpty()) {
+            final int current = open.poll();
+            final int x = current % width;
+            final int y = current / width;
+            final int g = distances[current];
+            for (int direction = 0; direction < connectivity.directions(); ++direction) {
+                final int dx = connectivity.dx(direction);
+                final int dy = connectivity.dy(direction);
+                final int nx = x + dx;
+                final int ny = y + dy;
+                if (!level.isFree(nx, ny)) {
+                    continue;
+                }
+                final boolean diagonal = dx != 0 && dy != 0;
+                if (diagonal && (!level.isFree(nx, y) || !level.isFree(x, ny))) {
+                    continue;
+                }
+                final int neighbour = ny * width + nx;
+                final int cost = g + (diagonal ? Connectivity.DIAGONAL_COST : Connectivity.STRAIGHT_COST);
+                final int known = distances[neighbour];
+                if (known == UNREACHABLE || cost < known) {
+                    distances[neighbour] = cost;
+                    moves[neighbour] = (byte) ((1 - dx) * DIRECTION_CODES + 1 - dy);
+                    open.insertOrDecrease(neighbour, cost);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package ru.urfu.core.level;
+
+import ru.urfu.collections.BitGrid;
+
+/**
+ * <p>Хранилище, квадраты которого строятся {@link LevelGenerator}
+ * при первом обращении к ним.</p>
+ *
+ * <p>Чтение клетки или слова строит квадрат, в котором они лежат;
+ * поиск по строке строит квадраты по ходу поиска. Заливка не строит
+ * квадраты, которые накрывает целиком. Подсчёт препятствий и копия
+ * достраивают всё поле.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+final class GeneratingLevelStorage implements LevelStorage {
+    private final LevelStorage storage;
+    private final int seed;
+    private final BitGrid generated;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param storage пустое хранилище для построенных квадратов.
+     * @param seed    зерно поля.
+     */
+    GeneratingLevelStorage(LevelStorage storage, int seed) {
+        this.storage = storage;
+        this.seed = seed;
+        this.generated = new BitGrid(LevelGenerator.tilesAlong(storage.getWidth()),
+                LevelGenerator.tilesAlong(storage.getHeight()));
+    }
+
+    /**
+     * <p>Сколько квадратов уже построено.</p>
+     *
+     * @return количество квадратов.
+     */
+    int getGeneratedTileCount() {
+        return Math.toIntExact(generated.cardinality());
+    }
+
+    @Override
+    public int getWidth() {
+        return storage.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return storage.getHeight();
+    }
+
+    @Override
+    public int getWordsPerRow() {
+        return storage.getWordsPerRow();
+    }
+
+    @Override
+    public boolean get(int x, int y) {
+        ensureGenerated(x >>> LevelGenerator.TILE_SHIFT, y >>> LevelGenerator.TILE_SHIFT);
+        return storage.get(x, y);
+    }
+
+    @Override
+    public void set(int x, int y, boolean value) {
+        ensureGenerated(x >>> LevelGenerator.TILE_SHIFT, y >>> LevelGenerator.TILE_SHIFT);
+        storage.set(x, y, value);
+    }
+
+    @Override
+    public long word(int y, int index) {
+        ensureGenerated(index * Long.SIZE >>> LevelGenerator.TILE_SHIFT, y >>> LevelGenerator.TILE_SHIFT);
+        return storage.word(y, index);
+    }
+
+    @Override
+    public void setWord(int y, int index, long word) {
+        ensureGenerated(index * Long.SIZE >>> LevelGenerator.TILE_SHIFT, y >>> LevelGenerator.TILE_SHIFT);
+        storage.setWord(y, index, word);
+    }
+
+    @Override
+    public void fill(int fromX, int fromY, int toX, int toY, boolean value) {
+        if (fromX < 0 || fromY < 0 || toX > getWidth() || toY > getHeight() || fromX > toX || fromY > toY) {
+            throw new IndexOutOfBoundsException("Illegal rectangle [%d, %d) x [%d, %d)"
+                    .formatted(fromX, toX, fromY, toY));
+        }
+        if (fromX < toX && fromY < toY) {
+            for (int tileY = fromY >>> LevelGenerator.TILE_SHIFT;
+                 tileY <= (toY - 1) >>> LevelGenerator.TILE_SHIFT; ++tileY) {
+                for (int tileX = fromX >>> LevelGenerator.TILE_SHIFT;
+                     tileX <= (toX - 1) >>> LevelGenerator.TILE_SHIFT; ++tileX) {
+                    if (covers(tileX, tileY, fromX, fromY, toX, toY)) {
+                        generated.set(tileX, tileY, true);
+                    } else {
+                        ensureGenerated(tileX, tileY);
+                    }
+                }
+            }
+        }
+        storage.fill(fromX, fromY, toX, toY, value);
+    }
+
+    @Override
+    public long cardinality() {
+        generateAll();
+        return storage.cardinality();
+    }
+
+    @Override
+    public LevelStorage copy() {
+        generateAll();
+        return storage.copy();
+    }
+
+    /**
+     * <p>Закрывает и хранилище построенных квадратов.</p>
+     */
+    @Override
+    public void close() {
+        storage.close();
+    }
+
+    /**
+     * <p>Строит квадрат, если он ещё не построен.</p>
+     *
+     * @param tileX столбец квадрата.
+     * @param tileY строка квадрата.
+     */
+    private void ensureGenerated(int tileX, int tileY) {
+        if (!generated.get(tileX, tileY)) {
+            generated.set(tileX, tileY, true);
+            LevelGenerator.generateTile(storage, seed, tileX, tileY);
+        }
+    }
+
+    /**
+     * <p>Строит все ещё не построенные квадраты.</p>
+     */
+    private void generateAll() {
+        for (int tileY = 0; tileY < generated.getHeight(); ++tileY) {
+            for (int tileX = generated.nextClearInRow(tileY, 0); tileX >= 0;
+                 tileX = generated.nextClearInRow(tileY, tileX + 1)) {
+                ensureGenerated(tileX, tileY);
+            }
+        }
+    }
+
+    /**
+     * <p>Накрывает ли прямоугольник квадрат целиком.</p>
+     *
+     * @param tileX столбец квадрата.
+     * @param tileY строка квадрата.
+     * @param fromX первый столбец прямоугольника (включительно).
+     * @param fromY первая строка прямоугольника (включительно).
+     * @param toX   последний столбец прямоугольника (не включительно).
+     * @param toY   последняя строка прямоугольника (не включительно).
+     * @return результат проверки.
+     */
+    private boolean covers(int tileX, int tileY, int fromX, int fromY, int toX, int toY) {
+        final int left = tileX << LevelGenerator.TILE_SHIFT;
+        final int top = tileY << LevelGenerator.TILE_SHIFT;
+        return fromX <= left && fromY <= top
+                && toX >= Math.min(left + LevelGenerator.TILE_SIZE, getWidth())
+                && toY >= Math.min(top + LevelGenerator.TILE_SIZE, getHeight());
+    }
+}
@@ -0,0 +1,277 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+
+/**
+ * <p>Поиск пути алгоритмом A* по клеткам {@link Level}.</p>
+ *
+ * <p>Состояние поиска хранится в {@link SearchState} и создаётся один раз,
+ * так что поиск не создаёт объектов, кроме массива с результатом.</p>
+ *
+ * <p>Поиск может быть ограничен окном — прямоугольником поля; тогда
+ * состояние занимает память по размеру окна, а не всего поля.
+ * Так {@link HierarchicalPathFinder} ищет пути внутри кластеров.</p>
+ *
+ * <p>С {@link ClearanceMap} поиск обходит клетки, где робот данного
+ * радиуса задевал бы препятствия, проверяя каждую клетку за одно
+ * обращение к карте.</p>
+ *
+ * <p>Поле не должно меняться во время поиска. Класс не потокобезопасен.</p>
+ */
+public final class GridAStar implements PathFinder {
+    private final Level level;
+    private final Connectivity connectivity;
+    private final ClearanceMap clearance;
+    private final int requiredClearance;
+    private final int levelWidth;
+    private final int stride;
+    private final int windowWidth;
+    private final int windowHeight;
+    private final SearchState state;
+    private final int[] targetMarks;
+    private int targetStamp = 0;
+    private int originX = 0;
+    private int originY = 0;
+    private int width;
+    private int height;
+
+    /**
+     * <p>Конструктор. Поиск идёт по всему полю.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     */
+    public GridAStar(Level level, Connectivity connectivity) {
+        this(level, connectivity, level.getWidth(), level.getHeight());
+    }
+
+    /**
+     * <p>Конструктор. Поиск идёт по всему полю и только по клеткам,
+     * где помещается робот данного радиуса.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     * @param clearance    расстояния до препятствий на этом поле.
+     * @param radius       радиус робота в клетках.
+     * @throws IllegalArgumentException если радиус больше предела карты.
+     */
+    public GridAStar(Level level, Connectivity connectivity, ClearanceMap clearance, double radius) {
+        this(level, connectivity, clearance, clearance.requiredSquaredClearance(radius),
+                level.getWidth(), level.getHeight());
+    }
+
+    /**
+     * <p>Конструктор поиска в окне. Окно начинается в углу поля,
+     * сдвигается через {@link #moveWindow(int, int)}.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     * @param windowWidth  ширина окна.
+     * @param windowHeight высота окна.
+     */
+    GridAStar(Level level, Connectivity connectivity, int windowWidth, int windowHeight) {
+        this(level, connectivity, null, 0, windowWidth, windowHeight);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param level             поле.
+     * @param connectivity      соседство клеток.
+     * @param clearance         расстояния до препятствий или null для точечного робота.
+     * @param requiredClearance порог из {@link ClearanceMap#requiredSquaredClearance(double)}.
+     * @param windowWidth       ширина окна.
+     * @param windowHeight      высота окна.
+     */
+    private GridAStar(Level level, Connectivity connectivity, ClearanceMap clearance, int requiredClearance,
+                      int windowWidth, int windowHeight) {
+        this.level = level;
+        this.connectivity = connectivity;
+        this.clearance = clearance;
+        this.requiredClearance = requiredClearance;
+        this.levelWidth = level.getWidth();
+        this.stride = windowWidth;
+        this.windowWidth = windowWidth;
+        this.windowHeight = windowHeight;
+        this.state = new SearchState(windowWidth, windowHeight);
+        this.targetMarks = new int[windowWidth * windowHeight];
+        moveWindow(0, 0);
+    }
+
+    @Override
+    public int[] findPath(int fromX, int fromY, int toX, int toY) {
+        final int startX = fromX - originX;
+        final int startY = fromY - originY;
+        final int goalX = toX - originX;
+        final int goalY = toY - originY;
+        if (!isFree(startX, startY) || !isFree(goalX, goalY)) {
+            return SearchState.noPath();
+        }
+        final int goal = goalY * stride + goalX;
+        state.begin();
+        state.start(startY * stride + startX, connectivity.heuristic(goalX - startX, goalY - startY));
+
+        while (!state.isOpenEmpty()) {
+            final int current = state.pollAndClose();
+            if (current == goal) {
+                return toLevelCells(state.path(goal));
+            }
+            expand(current, goalX, goalY);
+        }
+        return SearchState.noPath();
+    }
+
+    /**
+     * <p>Сколько клеток раскрыл последний поиск.</p>
+     *
+     * @return количество раскрытых клеток.
+     */
+    public int getExpandedCount() {
+        return state.expanded();
+    }
+
+    /**
+     * <p>Сдвигает окно поиска. У края поля окно обрезается.</p>
+     *
+     * @param x x левого верхнего угла окна.
+     * @param y y левого верхнего угла окна.
+     */
+    void moveWindow(int x, int y) {
+        this.originX = x;
+        this.originY = y;
+        this.width = Math.min(windowWidth, levelWidth - x);
+        this.height = Math.min(windowHeight, level.getHeight() - y);
+    }
+
+    /**
+     * <p>Стоимости кратчайших путей внутри окна от клетки до клеток из списка.</p>
+     *
+     * <p>Поиск Дейкстры останавливается, когда до всех клеток
+     * из списка пути найдены или окно исчерпано.</p>
+     *
+     * @param fromX  x стартовой клетки поля.
+     * @param fromY  y стартовой клетки поля.
+     * @param cells  номера клеток поля, лежащих в окне.
+     * @param first  с какого элемента списка считать.
+     * @param out    куда записать стоимости, -1 для недостижимых.
+     * @param offset с какого элемента {@code out} писать.
+     */
+    void costsFrom(int fromX, int fromY, int[] cells, int first, int[] out, int offset) {
+        Arrays.fill(out, offset, offset + cells.length - first, -1);
+        final int startX = fromX - originX;
+        final int startY = fromY - originY;
+        if (!isFree(startX, startY)) {
+            return;
+        }
+        ++targetStamp;
+        int remaining = 0;
+        for (int i = first; i < cells.length; ++i) {
+            final int cell = toWindowCell(cells[i]);
+            if (cell >= 0 && targetMarks[cell] != targetStamp) {
+                targetMarks[cell] = targetStamp;
+                ++remaining;
+            }
+        }
+
+        state.begin();
+        state.start(startY * stride + startX, 0);
+        while (remaining > 0 && !state.isOpenEmpty()) {
+            final int current = state.pollAndClose();
+            if (targetMarks[current] == targetStamp) {
+                --remaining;
+            }
+            expand(current, -1, -1);
+        }
+
+        for (int i = first; i < cells.length; ++i) {
+            final int cell = toWindowCell(cells[i]);
+            if (cell >= 0 && state.isClosed(cell)) {
+                out[offset + i - first] = state.gScore(cell);
+            }
+        }
+    }
+
+    /**
+     * <p>Обходит соседей клетки и обновляет стоимость пути до них.</p>
+     *
+     * @param current раскрываемая клетка окна.
+     * @param goalX   x цели в окне или -1 для поиска без эвристики.
+     * @param goalY   y цели в окне.
+     */
+    private void expand(int current, int goalX, int goalY) {
+        final int x = current % stride;
+        final int y = current / stride;
+        final int g = state.gScore(current);
+
+        for (int direction = 0; direction < connectivity.directions(); ++direction) {
+            final int dx = connectivity.dx(direction);
+            final int dy = connectivity.dy(direction);
+            final int nx = x + dx;
+            final int ny = y + dy;
+            if (!isFree(nx, ny)) {
+                continue;
+            }
+            final boolean diagonal = dx != 0 && dy != 0;
+            if (diagonal && (!isFree(nx, y) || !isFree(x, ny))) {
+                continue;
+            }
+            final int cost = diagonal ? Connectivity.DIAGONAL_COST : Connectivity.STRAIGHT_COST;
+            final int heuristic = goalX < 0 ? 0 : connectivity.heuristic(goalX - nx, goalY - ny);
+            state.relax(ny * stride + nx, g + cost, current, heuristic);
+        }
+    }
+
+    /**
+     * <p>Переводит путь из номеров клеток окна в номера клеток поля.</p>
+     *
+     * @param path путь в окне; меняется на месте.
+     * @return тот же массив.
+     */
+    private int[] toLevelCells(int[] path) {
+        if (originX != 0 || originY != 0 || stride != levelWidth) {
+            for (int i = 0; i < path.length; ++i) {
+                path[i] = toLevelCell(path[i]);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * <p>Номер клетки поля по номеру клетки окна.</p>
+     *
+     * @param cell номер клетки окна.
+     * @return номер клетки поля.
+     */
+    private int toLevelCell(int cell) {
+        return (cell / stride + originY) * levelWidth + cell % stride + originX;
+    }
+
+    /**
+     * <p>Номер клетки окна по номеру клетки поля.</p>
+     *
+     * @param cell номер клетки поля.
+     * @return номер клетки окна или -1, если клетка вне окна.
+     */
+    private int toWindowCell(int cell) {
+        final int x = cell % levelWidth - originX;
+        final int y = cell / levelWidth - originY;
+        return x >= 0 && x < width && y >= 0 && y < height ? y * stride + x : -1;
+    }
+
+    /**
+     * <p>Лежит ли клетка в окне и свободна ли она, а с картой расстояний —
+     * помещается ли в ней робот.</p>
+     *
+     * @param x x в окне.
+     * @param y y в окне.
+     * @return результат проверки.
+     */
+    private boolean isFree(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        return clearance == null
+                ? level.isFree(originX + x, originY + y)
+                : clearance.squaredClearance(originX + x, originY + y) >= requiredClearance;
+    }
+}
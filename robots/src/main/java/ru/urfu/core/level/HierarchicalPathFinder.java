@@ -0,0 +1,724 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Иерархический поиск пути (HPA*) для больших полей.</p>
+ *
+ * <p>Поле делится на квадратные кластеры. На каждой границе соседних
+ * кластеров отрезки, свободные с обеих сторон, дают входы: один посередине
+ * короткого отрезка или два по краям длинного. Для каждого кластера
+ * считаются стоимости путей между его входами внутри кластера: при первом
+ * запросе через кластер или сразу для всех через {@link #precompute()}.
+ * Вместе с переходами через границы это абстрактный граф, по которому
+ * идёт A* с немного завышенной оценкой.</p>
+ *
+ * <p>Старт и цель подключаются к входам своих кластеров на время запроса.
+ * Найденный абстрактный путь уточняется поиском только внутри кластеров,
+ * через которые он проходит.</p>
+ *
+ * <p>Объект подписан на изменения поля: изменённая клетка помечает свой
+ * кластер (и соседний, если клетка на границе), и перед следующим запросом
+ * пересчитываются только помеченные кластеры.</p>
+ *
+ * <p>Пути почти кратчайшие: проход всегда идёт через выбранные входы,
+ * а внутри кластера — не выходя из него. По той же причине изредка
+ * путь может не найтись, хотя он есть: например, если вход на границе
+ * достижим только с одной стороны перегородки внутри кластера.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+public final class HierarchicalPathFinder implements PathFinder {
+    private final static int DEFAULT_CLUSTER_SIZE = 32;
+    private final static int MAX_SINGLE_ENTRANCE = 6;
+    private final static int LEFT = 0;
+    private final static int RIGHT = 1;
+    private final static int TOP = 2;
+    private final static int BOTTOM = 3;
+    private final static int SIDES = 4;
+    private final static int NO_NODE = -1;
+    private final static int WEIGHT_NUMERATOR = 5;
+    private final static int WEIGHT_DENOMINATOR = 4;
+    private final static int PRECOMPUTE_CHUNK = 64;
+
+    private final Level level;
+    private final Connectivity connectivity;
+    private final int clusterSize;
+    private final int width;
+    private final int height;
+    private final int clustersX;
+    private final int clustersY;
+    private final GridAStar local;
+    private final LevelListener levelListener = this::onCellChanged;
+
+    private final int[][] verticalBorders;
+    private final int[][] horizontalBorders;
+    private final int[][] nodeCells;
+    private final int[][] sideOffsets;
+    private final int[][] costs;
+    private final int[] clusterBase;
+    private final boolean[] dirty;
+    private final int[] dirtyClusters;
+    private final int[] scratch;
+    private final int[] startCosts;
+    private final int[] goalCosts;
+    private int dirtyCount = 0;
+    private int[] nodeCluster = new int[0];
+    private int[] nodeX = new int[0];
+    private int[] nodeY = new int[0];
+    private int goalX;
+    private int goalY;
+    private SearchState search = SearchState.forNodes(0);
+    private int searchCapacity = 0;
+    private int lastExpanded = 0;
+
+    /**
+     * <p>Конструктор с кластерами 32×32.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     */
+    public HierarchicalPathFinder(Level level, Connectivity connectivity) {
+        this(level, connectivity, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * <p>Конструктор. Находит входы всех кластеров; стоимости путей между
+     * входами считаются при первом обращении к кластеру
+     * или сразу для всех через {@link #precompute()}.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     * @param clusterSize  сторона кластера в клетках.
+     */
+    public HierarchicalPathFinder(Level level, Connectivity connectivity, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+        this.level = level;
+        this.connectivity = connectivity;
+        this.clusterSize = clusterSize;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+        this.local = new GridAStar(level, connectivity, clusterSize, clusterSize);
+
+        final int clusters = clustersX * clustersY;
+        this.verticalBorders = new int[clusters][];
+        this.horizontalBorders = new int[clusters][];
+        this.nodeCells = new int[clusters][];
+        this.sideOffsets = new int[clusters][];
+        this.costs = new int[clusters][];
+        this.clusterBase = new int[clusters + 1];
+        this.dirty = new boolean[clusters];
+        this.dirtyClusters = new int[clusters];
+        this.scratch = new int[2 * clusterSize];
+        this.startCosts = new int[SIDES * clusterSize];
+        this.goalCosts = new int[SIDES * clusterSize];
+
+        for (int cluster = 0; cluster < clusters; ++cluster) {
+            markDirty(cluster);
+        }
+        rebuildDirty();
+        level.addListener(levelListener);
+    }
+
+    @Override
+    public int[] findPath(int fromX, int fromY, int toX, int toY) {
+        lastExpanded = 0;
+        if (!level.isFree(fromX, fromY) || !level.isFree(toX, toY)) {
+            return SearchState.noPath();
+        }
+        rebuildDirty();
+
+        final int startCluster = clusterOf(fromX, fromY);
+        final int goalCluster = clusterOf(toX, toY);
+        if (startCluster == goalCluster) {
+            moveWindowTo(startCluster);
+            final int[] direct = local.findPath(fromX, fromY, toX, toY);
+            if (direct.length > 0) {
+                return direct;
+            }
+        }
+
+        connect(startCluster, fromX, fromY, startCosts);
+        connect(goalCluster, toX, toY, goalCosts);
+        if (!searchAbstract(fromY * width + fromX, toY * width + toX, startCluster, goalCluster)) {
+            return SearchState.noPath();
+        }
+        return refine(fromY * width + fromX, toY * width + toX);
+    }
+
+    /**
+     * <p>Сколько вершин абстрактного графа раскрыл последний поиск.</p>
+     *
+     * @return количество раскрытых вершин.
+     */
+    public int getExpandedCount() {
+        return lastExpanded;
+    }
+
+    /**
+     * <p>Сколько вершин в абстрактном графе.</p>
+     *
+     * @return количество входов во всех кластерах.
+     */
+    public int getAbstractNodeCount() {
+        rebuildDirty();
+        return clusterBase[clusterBase.length - 1];
+    }
+
+    /**
+     * <p>Считает стоимости путей между входами всех кластеров,
+     * для которых они ещё не посчитаны, параллельно в общем пуле.</p>
+     *
+     * <p>Без этого вызова стоимости считаются при первом запросе через кластер,
+     * и первые длинные запросы на огромном поле заметно дольше следующих.</p>
+     */
+    public void precompute() {
+        rebuildDirty();
+        ForkJoinPool.commonPool().invoke(new PrecomputeTask(0, costs.length));
+    }
+
+    /**
+     * <p>Помечает кластеры, задетые изменением клетки.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void onCellChanged(int x, int y) {
+        final int cx = x / clusterSize;
+        final int cy = y / clusterSize;
+        markDirty(cy * clustersX + cx);
+        if (x % clusterSize == 0 && cx > 0) {
+            markDirty(cy * clustersX + cx - 1);
+        }
+        if (x % clusterSize == clusterSize - 1 && cx + 1 < clustersX) {
+            markDirty(cy * clustersX + cx + 1);
+        }
+        if (y % clusterSize == 0 && cy > 0) {
+            markDirty((cy - 1) * clustersX + cx);
+        }
+        if (y % clusterSize == clusterSize - 1 && cy + 1 < clustersY) {
+            markDirty((cy + 1) * clustersX + cx);
+        }
+    }
+
+    /**
+     * <p>Помечает кластер для пересчёта.</p>
+     *
+     * @param cluster номер кластера.
+     */
+    private void markDirty(int cluster) {
+        if (!dirty[cluster]) {
+            dirty[cluster] = true;
+            dirtyClusters[dirtyCount++] = cluster;
+        }
+    }
+
+    /**
+     * <p>Пересчитывает границы и стоимости помеченных кластеров.</p>
+     *
+     * <p>Если у границы поменялись входы, пересчитывается
+     * и кластер по другую её сторону.</p>
+     */
+    private void rebuildDirty() {
+        if (dirtyCount == 0) {
+            return;
+        }
+        final int changed = dirtyCount;
+        for (int i = 0; i < changed; ++i) {
+            final int cluster = dirtyClusters[i];
+            final int cx = cluster % clustersX;
+            final int cy = cluster / clustersX;
+            if (cx > 0 && rebuildVerticalBorder(cluster - 1)) {
+                markDirty(cluster - 1);
+            }
+            if (cx + 1 < clustersX && rebuildVerticalBorder(cluster)) {
+                markDirty(cluster + 1);
+            }
+            if (cy > 0 && rebuildHorizontalBorder(cluster - clustersX)) {
+                markDirty(cluster - clustersX);
+            }
+            if (cy + 1 < clustersY && rebuildHorizontalBorder(cluster)) {
+                markDirty(cluster + clustersX);
+            }
+        }
+        for (int i = 0; i < dirtyCount; ++i) {
+            rebuildCluster(dirtyClusters[i]);
+            dirty[dirtyClusters[i]] = false;
+        }
+        dirtyCount = 0;
+        reindex();
+    }
+
+    /**
+     * <p>Пересчитывает входы на границе кластера с соседом справа.</p>
+     *
+     * @param cluster номер левого кластера.
+     * @return поменялись ли входы.
+     */
+    private boolean rebuildVerticalBorder(int cluster) {
+        final int x = (cluster % clustersX + 1) * clusterSize - 1;
+        final int fromY = cluster / clustersX * clusterSize;
+        final int toY = Math.min(height, fromY + clusterSize);
+        int count = 0;
+        int runStart = -1;
+        for (int y = fromY; y <= toY; ++y) {
+            final boolean open = y < toY && level.isFree(x, y) && level.isFree(x + 1, y);
+            if (open && runStart < 0) {
+                runStart = y;
+            } else if (!open && runStart >= 0) {
+                count = addEntrances(count, runStart, y - 1, x, true);
+                runStart = -1;
+            }
+        }
+        return replaceBorder(verticalBorders, cluster, count);
+    }
+
+    /**
+     * <p>Пересчитывает входы на границе кластера с соседом снизу.</p>
+     *
+     * @param cluster номер верхнего кластера.
+     * @return поменялись ли входы.
+     */
+    private boolean rebuildHorizontalBorder(int cluster) {
+        final int y = (cluster / clustersX + 1) * clusterSize - 1;
+        final int fromX = cluster % clustersX * clusterSize;
+        final int toX = Math.min(width, fromX + clusterSize);
+        int count = 0;
+        int runStart = -1;
+        for (int x = fromX; x <= toX; ++x) {
+            final boolean open = x < toX && level.isFree(x, y) && level.isFree(x, y + 1);
+            if (open && runStart < 0) {
+                runStart = x;
+            } else if (!open && runStart >= 0) {
+                count = addEntrances(count, runStart, x - 1, y, false);
+                runStart = -1;
+            }
+        }
+        return replaceBorder(horizontalBorders, cluster, count);
+    }
+
+    /**
+     * <p>Добавляет входы для свободного отрезка границы в {@link #scratch}
+     * парами клеток: со стороны первого кластера и со стороны второго.</p>
+     *
+     * @param count    сколько чисел уже записано.
+     * @param first    начало отрезка вдоль границы.
+     * @param last     конец отрезка вдоль границы (включительно).
+     * @param across   координата клеток первого кластера поперёк границы.
+     * @param vertical вертикальная ли граница.
+     * @return сколько чисел записано теперь.
+     */
+    private int addEntrances(int count, int first, int last, int across, boolean vertical) {
+        int written = count;
+        if (last - first + 1 < MAX_SINGLE_ENTRANCE) {
+            written = addEntrance(written, (first + last) / 2, across, vertical);
+        } else {
+            written = addEntrance(written, first, across, vertical);
+            written = addEntrance(written, last, across, vertical);
+        }
+        return written;
+    }
+
+    /**
+     * <p>Добавляет один вход в {@link #scratch}.</p>
+     *
+     * @param count    сколько чисел уже записано.
+     * @param along    координата входа вдоль границы.
+     * @param across   координата клетки первого кластера поперёк границы.
+     * @param vertical вертикальная ли граница.
+     * @return сколько чисел записано теперь.
+     */
+    private int addEntrance(int count, int along, int across, boolean vertical) {
+        final int cell = vertical ? along * width + across : across * width + along;
+        scratch[count] = cell;
+        scratch[count + 1] = vertical ? cell + 1 : cell + width;
+        return count + 2;
+    }
+
+    /**
+     * <p>Заменяет входы границы на записанные в {@link #scratch}.</p>
+     *
+     * @param borders границы одного направления.
+     * @param border  номер границы.
+     * @param count   сколько чисел записано.
+     * @return поменялись ли входы.
+     */
+    private boolean replaceBorder(int[][] borders, int border, int count) {
+        final int[] previous = borders[border];
+        if (previous != null && Arrays.equals(previous, 0, previous.length, scratch, 0, count)) {
+            return false;
+        }
+        borders[border] = Arrays.copyOf(scratch, count);
+        return true;
+    }
+
+    /**
+     * <p>Собирает входы кластера и сбрасывает стоимости путей между ними.</p>
+     *
+     * <p>Входы идут по сторонам: левая, правая, верхняя, нижняя.</p>
+     *
+     * @param cluster номер кластера.
+     */
+    private void rebuildCluster(int cluster) {
+        final int cx = cluster % clustersX;
+        final int cy = cluster / clustersX;
+        final int[][] sides = {
+                cx > 0 ? verticalBorders[cluster - 1] : null,
+                cx + 1 < clustersX ? verticalBorders[cluster] : null,
+                cy > 0 ? horizontalBorders[cluster - clustersX] : null,
+                cy + 1 < clustersY ? horizontalBorders[cluster] : null,
+        };
+
+        final int[] offsets = new int[SIDES + 1];
+        for (int side = 0; side < SIDES; ++side) {
+            offsets[side + 1] = offsets[side] + (sides[side] == null ? 0 : sides[side].length / 2);
+        }
+        final int count = offsets[SIDES];
+        final int[] cells = new int[count];
+        for (int side = 0; side < SIDES; ++side) {
+            // Левая и верхняя стороны — вторые клетки пар, правая и нижняя — первые
+            final int pick = side == LEFT || side == TOP ? 1 : 0;
+            for (int i = offsets[side]; i < offsets[side + 1]; ++i) {
+                cells[i] = sides[side][2 * (i - offsets[side]) + pick];
+            }
+        }
+
+        nodeCells[cluster] = cells;
+        sideOffsets[cluster] = offsets;
+        costs[cluster] = null;
+    }
+
+    /**
+     * <p>Стоимости путей между входами кластера; считаются при первом обращении.</p>
+     *
+     * @param cluster номер кластера.
+     * @return матрица стоимостей, -1 для недостижимых пар.
+     */
+    private int[] costsOf(int cluster) {
+        if (costs[cluster] == null) {
+            costs[cluster] = computeCosts(cluster, local);
+        }
+        return costs[cluster];
+    }
+
+    /**
+     * <p>Считает стоимости путей между входами кластера
+     * поиском Дейкстры от каждого входа внутри кластера.</p>
+     *
+     * @param cluster номер кластера.
+     * @param search  поиск в окне размером с кластер.
+     * @return матрица стоимостей, -1 для недостижимых пар.
+     */
+    private int[] computeCosts(int cluster, GridAStar search) {
+        final int[] cells = nodeCells[cluster];
+        final int count = cells.length;
+        final int[] matrix = new int[count * count];
+        search.moveWindow(cluster % clustersX * clusterSize, cluster / clustersX * clusterSize);
+        for (int i = 0; i < count; ++i) {
+            search.costsFrom(cells[i] % width, cells[i] / width, cells, i, matrix, i * count + i);
+            for (int j = i + 1; j < count; ++j) {
+                matrix[j * count + i] = matrix[i * count + j];
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * <p>Пересчитывает глобальные номера вершин после изменения кластеров.</p>
+     */
+    private void reindex() {
+        final int clusters = nodeCells.length;
+        for (int cluster = 0; cluster < clusters; ++cluster) {
+            clusterBase[cluster + 1] = clusterBase[cluster] + nodeCells[cluster].length;
+        }
+        final int total = clusterBase[clusters];
+        if (nodeCluster.length < total) {
+            nodeCluster = new int[total + total / 2];
+            nodeX = new int[nodeCluster.length];
+            nodeY = new int[nodeCluster.length];
+        }
+        for (int cluster = 0; cluster < clusters; ++cluster) {
+            final int base = clusterBase[cluster];
+            final int[] cells = nodeCells[cluster];
+            for (int i = 0; i < cells.length; ++i) {
+                nodeCluster[base + i] = cluster;
+                nodeX[base + i] = cells[i] % width;
+                nodeY[base + i] = cells[i] / width;
+            }
+        }
+        if (nodeCluster.length + 2 > searchCapacity) {
+            searchCapacity = nodeCluster.length + 2;
+            search = SearchState.forNodes(searchCapacity);
+        }
+    }
+
+    /**
+     * <p>Стоимости путей внутри кластера от клетки до его входов.</p>
+     *
+     * @param cluster номер кластера.
+     * @param x       x клетки.
+     * @param y       y клетки.
+     * @param out     куда записать стоимости, -1 для недостижимых входов.
+     */
+    private void connect(int cluster, int x, int y, int[] out) {
+        moveWindowTo(cluster);
+        local.costsFrom(x, y, nodeCells[cluster], 0, out, 0);
+    }
+
+    /**
+     * <p>A* по абстрактному графу с временными вершинами старта и цели.</p>
+     *
+     * @param startCell    клетка старта.
+     * @param goalCell     клетка цели.
+     * @param startCluster кластер старта.
+     * @param goalCluster  кластер цели.
+     * @return найден ли путь; сам путь остаётся в родителях вершин.
+     */
+    private boolean searchAbstract(int startCell, int goalCell, int startCluster, int goalCluster) {
+        final int total = clusterBase[clusterBase.length - 1];
+        final int start = total;
+        final int goal = total + 1;
+        goalX = goalCell % width;
+        goalY = goalCell / width;
+        search.begin();
+        search.start(start, heuristic(startCell % width, startCell / width));
+
+        boolean found = false;
+        while (!found && !search.isOpenEmpty()) {
+            final int node = search.pollAndClose();
+            final int g = search.gScore(node);
+            if (node == goal) {
+                found = true;
+            } else if (node == start) {
+                final int base = clusterBase[startCluster];
+                for (int j = 0; j < nodeCells[startCluster].length; ++j) {
+                    relax(base + j, g, startCosts[j], node);
+                }
+            } else {
+                final int cluster = nodeCluster[node];
+                final int base = clusterBase[cluster];
+                final int index = node - base;
+                final int count = nodeCells[cluster].length;
+                final int[] matrix = costsOf(cluster);
+                for (int j = 0; j < count; ++j) {
+                    if (j != index) {
+                        relax(base + j, g, matrix[index * count + j], node);
+                    }
+                }
+                final int partner = partnerOf(cluster, index);
+                if (partner != NO_NODE) {
+                    relax(partner, g, Connectivity.STRAIGHT_COST, node);
+                }
+                if (cluster == goalCluster && goalCosts[index] >= 0) {
+                    search.relax(goal, g + goalCosts[index], node, 0);
+                }
+            }
+        }
+        lastExpanded = search.expanded();
+        return found;
+    }
+
+    /**
+     * <p>Обновляет стоимость пути до входа, если ребро есть.</p>
+     *
+     * @param node вершина входа.
+     * @param g    стоимость пути до текущей вершины.
+     * @param cost стоимость ребра или -1, если ребра нет.
+     * @param from текущая вершина.
+     */
+    private void relax(int node, int g, int cost, int from) {
+        if (cost >= 0) {
+            search.relax(node, g + cost, from, heuristic(nodeX[node], nodeY[node]));
+        }
+    }
+
+    /**
+     * <p>Вход по другую сторону границы.</p>
+     *
+     * @param cluster номер кластера.
+     * @param index   номер входа в кластере.
+     * @return вершина соседнего кластера или -1.
+     */
+    private int partnerOf(int cluster, int index) {
+        final int[] offsets = sideOffsets[cluster];
+        int side = 0;
+        while (index >= offsets[side + 1]) {
+            ++side;
+        }
+        final int neighbour;
+        final int neighbourSide;
+        if (side == LEFT) {
+            neighbour = cluster - 1;
+            neighbourSide = RIGHT;
+        } else if (side == RIGHT) {
+            neighbour = cluster + 1;
+            neighbourSide = LEFT;
+        } else if (side == TOP) {
+            neighbour = cluster - clustersX;
+            neighbourSide = BOTTOM;
+        } else {
+            neighbour = cluster + clustersX;
+            neighbourSide = TOP;
+        }
+        final int[] neighbourOffsets = sideOffsets[neighbour];
+        final int position = neighbourOffsets[neighbourSide] + index - offsets[side];
+        return position < neighbourOffsets[neighbourSide + 1] ? clusterBase[neighbour] + position : NO_NODE;
+    }
+
+    /**
+     * <p>Уточняет найденный абстрактный путь до клеток.</p>
+     *
+     * @param startCell клетка старта.
+     * @param goalCell  клетка цели.
+     * @return путь по клеткам от старта до цели.
+     */
+    private int[] refine(int startCell, int goalCell) {
+        final int total = clusterBase[clusterBase.length - 1];
+        int waypoints = 0;
+        for (int node = total + 1; node != NO_NODE; node = search.parent(node)) {
+            ++waypoints;
+        }
+        final int[] cells = new int[waypoints];
+        int index = waypoints;
+        for (int node = total + 1; node != NO_NODE; node = search.parent(node)) {
+            cells[--index] = node >= total ? NO_NODE : cellOf(node);
+        }
+        cells[0] = startCell;
+        cells[waypoints - 1] = goalCell;
+
+        int[] path = new int[waypoints * clusterSize];
+        int length = 0;
+        path[length++] = startCell;
+        for (int i = 1; i < waypoints; ++i) {
+            final int from = cells[i - 1];
+            final int to = cells[i];
+            if (from == to) {
+                continue;
+            }
+            final int cluster = clusterOfCell(from);
+            if (cluster != clusterOfCell(to)) {
+                path = ensureCapacity(path, length + 1);
+                path[length++] = to;
+                continue;
+            }
+            moveWindowTo(cluster);
+            final int[] segment = local.findPath(from % width, from / width, to % width, to / width);
+            if (segment.length == 0) {
+                return SearchState.noPath();
+            }
+            path = ensureCapacity(path, length + segment.length);
+            System.arraycopy(segment, 1, path, length, segment.length - 1);
+            length += segment.length - 1;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * <p>Оценка стоимости пути от клетки до цели текущего запроса.</p>
+     *
+     * <p>Оценка завышена в 5/4 раза: на больших полях это на порядок
+     * сокращает число раскрытых вершин, а пути в замерах длиннее
+     * кратчайших в среднем на несколько процентов.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return оценка.
+     */
+    private int heuristic(int x, int y) {
+        return connectivity.heuristic(goalX - x, goalY - y) * WEIGHT_NUMERATOR / WEIGHT_DENOMINATOR;
+    }
+
+    /**
+     * <p>Клетка входа.</p>
+     *
+     * @param node вершина абстрактного графа.
+     * @return номер клетки.
+     */
+    private int cellOf(int node) {
+        return nodeY[node] * width + nodeX[node];
+    }
+
+    /**
+     * <p>Кластер клетки.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     * @return номер кластера.
+     */
+    private int clusterOf(int x, int y) {
+        return y / clusterSize * clustersX + x / clusterSize;
+    }
+
+    /**
+     * <p>Кластер клетки.</p>
+     *
+     * @param cell номер клетки.
+     * @return номер кластера.
+     */
+    private int clusterOfCell(int cell) {
+        return clusterOf(cell % width, cell / width);
+    }
+
+    /**
+     * <p>Ставит окно локального поиска на кластер.</p>
+     *
+     * @param cluster номер кластера.
+     */
+    private void moveWindowTo(int cluster) {
+        local.moveWindow(cluster % clustersX * clusterSize, cluster / clustersX * clusterSize);
+    }
+
+    /**
+     * <p>Расширяет массив, если в него не помещается нужное число элементов.</p>
+     *
+     * @param array    массив.
+     * @param required нужная длина.
+     * @return тот же или новый массив.
+     */
+    private static int[] ensureCapacity(int[] array, int required) {
+        return array.length >= required ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+
+    /**
+     * <p>Подсчёт стоимостей для диапазона кластеров.</p>
+     *
+     * <p>Делит диапазон пополам, пока он больше {@link #PRECOMPUTE_CHUNK};
+     * у каждой части свой поиск в окне.</p>
+     */
+    private final class PrecomputeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        /**
+         * <p>Конструктор.</p>
+         *
+         * @param from первый кластер (включительно).
+         * @param to   последний кластер (не включительно).
+         */
+        private PrecomputeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PRECOMPUTE_CHUNK) {
+                final GridAStar window = new GridAStar(level, connectivity, clusterSize, clusterSize);
+                for (int cluster = from; cluster < to; ++cluster) {
+                    if (costs[cluster] == null) {
+                        costs[cluster] = computeCosts(cluster, window);
+                    }
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new PrecomputeTask(from, middle), new PrecomputeTask(middle, to));
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Поиск пути алгоритмом Jump Point Search по клеткам {@link Level}.</p>
+ *
+ * <p>Соседство — восемь клеток без срезания углов, как у
+ * {@link GridAStar} с {@link Connectivity#EIGHT}, и пути получаются той же
+ * стоимости. Но вместо всех соседей в открытый список попадают только
+ * точки прыжка: клетки, где у кратчайшего пути может появиться поворот.
+ * Прямые и диагональные участки между ними проходятся без открытого списка,
+ * поэтому на открытых полях раскрывается на порядки меньше клеток.</p>
+ *
+ * <p>С заранее посчитанной {@link JumpTable} (вариант JPS+) прыжок по прямой
+ * занимает постоянное время, а не проходит клетки по одной. Таблицу
+ * надо строить заново после каждого изменения поля, поэтому она
+ * подходит для неизменных полей.</p>
+ *
+ * <p>Без таблицы прыжки вдоль строки идут по словам {@link BitGrid} поля:
+ * препятствия и вынужденные соседи ищутся сразу в 64 клетках.</p>
+ *
+ * <p>Путь возвращается целиком: клетки между точками прыжка достраиваются.</p>
+ *
+ * <p>Поле не должно меняться во время поиска. Класс не потокобезопасен.</p>
+ */
+public final class JumpPointSearch implements PathFinder {
+    private final static int NONE = -1;
+    private final static int MAX_DIRECTIONS = 8;
+    private final static int ADDRESS_BITS = 6;
+    private final static long ALL_BLOCKED = -1L;
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final SearchState state;
+    private final JumpTable table;
+    private final LevelStorage obstacles;
+    private final long padding;
+    private final int[] directionX = new int[MAX_DIRECTIONS];
+    private final int[] directionY = new int[MAX_DIRECTIONS];
+    private int directions = 0;
+    private int goalX;
+    private int goalY;
+
+    /**
+     * <p>Конструктор. Прыжки считаются во время поиска.</p>
+     *
+     * @param level поле.
+     */
+    public JumpPointSearch(Level level) {
+        this(level, false);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param level      поле.
+     * @param precompute посчитать ли прыжки по прямым заранее;
+     *                   тогда поле не должно меняться.
+     */
+    public JumpPointSearch(Level level, boolean precompute) {
+        this.level = level;
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+        this.state = new SearchState(width, height);
+        this.table = precompute ? new JumpTable(level) : null;
+        this.obstacles = level.obstacleBits();
+        this.padding = width % Long.SIZE == 0 ? 0 : ALL_BLOCKED << width;
+    }
+
+    @Override
+    public int[] findPath(int fromX, int fromY, int toX, int toY) {
+        if (!isFree(fromX, fromY) || !isFree(toX, toY)) {
+            return SearchState.noPath();
+        }
+        goalX = toX;
+        goalY = toY;
+        final int goal = toY * width + toX;
+        state.begin();
+        state.start(fromY * width + fromX, Connectivity.EIGHT.heuristic(toX - fromX, toY - fromY));
+
+        while (!state.isOpenEmpty()) {
+            final int current = state.pollAndClose();
+            if (current == goal) {
+                return state.path(goal);
+            }
+            expand(current);
+        }
+        return SearchState.noPath();
+    }
+
+    /**
+     * <p>Сколько точек прыжка раскрыл последний поиск.</p>
+     *
+     * @return количество раскрытых клеток.
+     */
+    public int getExpandedCount() {
+        return state.expanded();
+    }
+
+    /**
+     * <p>Прыгает из клетки во всех направлениях, которые не отсекаются
+     * направлением прихода, и обновляет стоимость пути до найденных точек.</p>
+     *
+     * @param current раскрываемая клетка.
+     */
+    private void expand(int current) {
+        final int x = current % width;
+        final int y = current / width;
+        final int g = state.gScore(current);
+        collectDirections(current, x, y);
+
+        for (int i = 0; i < directions; ++i) {
+            final int jumpPoint = jump(x, y, directionX[i], directionY[i]);
+            if (jumpPoint == NONE) {
+                continue;
+            }
+            final int jx = jumpPoint % width;
+            final int jy = jumpPoint / width;
+            state.relax(jumpPoint, g + Connectivity.EIGHT.heuristic(jx - x, jy - y), current,
+                    Connectivity.EIGHT.heuristic(goalX - jx, goalY - jy));
+        }
+    }
+
+    /**
+     * <p>Выбирает направления прыжков из клетки.</p>
+     *
+     * <p>Из старта — все восемь. Иначе естественные соседи по направлению
+     * прихода и соседи, ставшие вынужденными из-за препятствий сбоку.</p>
+     *
+     * @param current клетка.
+     * @param x       x клетки.
+     * @param y       y клетки.
+     */
+    private void collectDirections(int current, int x, int y) {
+        directions = 0;
+        final int parent = state.parent(current);
+        if (parent == NONE) {
+            for (int dx = -1; dx <= 1; ++dx) {
+                for (int dy = -1; dy <= 1; ++dy) {
+                    if (dx != 0 || dy != 0) {
+                        addDirection(dx, dy);
+                    }
+                }
+            }
+            return;
+        }
+
+        final int dx = Integer.signum(x - parent % width);
+        final int dy = Integer.signum(y - parent / width);
+        if (dx != 0 && dy != 0) {
+            final boolean freeY = isFree(x, y + dy);
+            final boolean freeX = isFree(x + dx, y);
+            if (freeY) {
+                addDirection(0, dy);
+            }
+            if (freeX) {
+                addDirection(dx, 0);
+            }
+            if (freeX && freeY) {
+                addDirection(dx, dy);
+            }
+        } else if (dx != 0) {
+            collectStraight(isFree(x + dx, y), isFree(x, y + 1), isFree(x, y - 1), dx, true);
+        } else {
+            collectStraight(isFree(x, y + dy), isFree(x + 1, y), isFree(x - 1, y), dy, false);
+        }
+    }
+
+    /**
+     * <p>Направления из клетки, в которую пришли по прямой.</p>
+     *
+     * @param nextFree   свободна ли следующая клетка по ходу.
+     * @param sideAFree  свободна ли клетка сбоку с положительной стороны.
+     * @param sideBFree  свободна ли клетка сбоку с отрицательной стороны.
+     * @param step       направление хода (1 или -1).
+     * @param horizontal идём ли вдоль оси x.
+     */
+    private void collectStraight(boolean nextFree, boolean sideAFree, boolean sideBFree,
+                                 int step, boolean horizontal) {
+        if (nextFree) {
+            addOriented(step, 0, horizontal);
+            if (sideAFree) {
+                addOriented(step, 1, horizontal);
+            }
+            if (sideBFree) {
+                addOriented(step, -1, horizontal);
+            }
+        }
+        if (sideAFree) {
+            addOriented(0, 1, horizontal);
+        }
+        if (sideBFree) {
+            addOriented(0, -1, horizontal);
+        }
+    }
+
+    /**
+     * <p>Добавляет направление, заданное вдоль и поперёк хода.</p>
+     *
+     * @param along      сдвиг вдоль хода.
+     * @param across     сдвиг поперёк хода.
+     * @param horizontal идём ли вдоль оси x.
+     */
+    private void addOriented(int along, int across, boolean horizontal) {
+        if (horizontal) {
+            addDirection(along, across);
+        } else {
+            addDirection(across, along);
+        }
+    }
+
+    /**
+     * <p>Добавляет направление прыжка.</p>
+     *
+     * @param dx сдвиг по x.
+     * @param dy сдвиг по y.
+     */
+    private void addDirection(int dx, int dy) {
+        directionX[directions] = dx;
+        directionY[directions] = dy;
+        ++directions;
+    }
+
+    /**
+     * <p>Прыжок из клетки в направлении.</p>
+     *
+     * <p>По диагонали на каждом шаге сначала проверяются прыжки
+     * по двум прямым составляющим: если хоть один нашёл точку,
+     * текущая клетка тоже точка прыжка.</p>
+     *
+     * @param x  x клетки.
+     * @param y  y клетки.
+     * @param dx сдвиг по x.
+     * @param dy сдвиг по y.
+     * @return номер точки прыжка или -1, если прыжок упёрся в препятствие.
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        if (dx == 0 || dy == 0) {
+            return jumpStraight(x, y, dx, dy);
+        }
+        int cx = x;
+        int cy = y;
+        while (isFree(cx + dx, cy) && isFree(cx, cy + dy) && isFree(cx + dx, cy + dy)) {
+            cx += dx;
+            cy += dy;
+            if (cx == goalX && cy == goalY
+                    || jumpStraight(cx, cy, dx, 0) != NONE
+                    || jumpStraight(cx, cy, 0, dy) != NONE) {
+                return cy * width + cx;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * <p>Прыжок по прямой: до цели, до клетки с вынужденным соседом
+     * или до препятствия.</p>
+     *
+     * @param x  x клетки.
+     * @param y  y клетки.
+     * @param dx сдвиг по x.
+     * @param dy сдвиг по y.
+     * @return номер точки прыжка или -1, если прыжок упёрся в препятствие.
+     */
+    private int jumpStraight(int x, int y, int dx, int dy) {
+        if (table != null) {
+            return jumpByTable(x, y, dx, dy);
+        }
+        if (dy == 0) {
+            return jumpAlongRow(x, y, dx);
+        }
+        int cx = x + dx;
+        int cy = y + dy;
+        while (isFree(cx, cy)) {
+            if (cx == goalX && cy == goalY || JumpTable.hasForcedNeighbour(level, cx, cy, dx, dy)) {
+                return cy * width + cx;
+            }
+            cx += dx;
+            cy += dy;
+        }
+        return NONE;
+    }
+
+    /**
+     * <p>Прыжок вдоль строки по словам битов поля.</p>
+     *
+     * <p>В каждом слове сразу считаются биты препятствий строки и вынужденных
+     * соседей: клетка сверху (снизу) свободна, а клетка за ней по ходу движения
+     * занята. Первая такая клетка по ходу движения и есть конец прыжка.</p>
+     *
+     * @param x  x клетки.
+     * @param y  y клетки.
+     * @param dx сдвиг по x, 1 или -1.
+     * @return номер точки прыжка или -1, если прыжок упёрся в препятствие.
+     */
+    private int jumpAlongRow(int x, int y, int dx) {
+        final int words = obstacles.getWordsPerRow();
+        int index = x >>> ADDRESS_BITS;
+        long ahead = dx > 0 ? ALL_BLOCKED << x << 1 : ~(ALL_BLOCKED << x);
+        while (index >= 0 && index < words) {
+            final long above = blockedWord(y - 1, index);
+            final long below = blockedWord(y + 1, index);
+            final long aboveBehind;
+            final long belowBehind;
+            if (dx > 0) {
+                aboveBehind = above << 1 | blockedWord(y - 1, index - 1) >>> (Long.SIZE - 1);
+                belowBehind = below << 1 | blockedWord(y + 1, index - 1) >>> (Long.SIZE - 1);
+            } else {
+                aboveBehind = above >>> 1 | blockedWord(y - 1, index + 1) << (Long.SIZE - 1);
+                belowBehind = below >>> 1 | blockedWord(y + 1, index + 1) << (Long.SIZE - 1);
+            }
+            final long blocked = blockedWord(y, index);
+            final long stops = (blocked | ~above & aboveBehind | ~below & belowBehind) & ahead;
+            if (stops != 0) {
+                final int bit = dx > 0
+                        ? Long.numberOfTrailingZeros(stops)
+                        : Long.SIZE - 1 - Long.numberOfLeadingZeros(stops);
+                return rowJumpEnd(x, y, (index << ADDRESS_BITS) + bit, (blocked & 1L << bit) != 0);
+            }
+            index += dx;
+            ahead = ALL_BLOCKED;
+        }
+        return rowJumpEnd(x, y, dx > 0 ? width : -1, true);
+    }
+
+    /**
+     * <p>Конец прыжка вдоль строки с учётом цели, которая может лежать ближе.</p>
+     *
+     * @param x       x начала прыжка.
+     * @param y       y строки.
+     * @param stop    x первой клетки, где прыжок остановился.
+     * @param blocked занята ли эта клетка.
+     * @return номер точки прыжка или -1.
+     */
+    private int rowJumpEnd(int x, int y, int stop, boolean blocked) {
+        if (goalY == y && (goalX - x) * (stop - x) > 0 && Math.abs(goalX - x) <= Math.abs(stop - x)) {
+            return goalY * width + goalX;
+        }
+        return blocked ? NONE : y * width + stop;
+    }
+
+    /**
+     * <p>Слово битов занятых клеток строки; клетки за пределами поля заняты.</p>
+     *
+     * @param y     строка.
+     * @param index номер слова в строке.
+     * @return слово битов.
+     */
+    private long blockedWord(int y, int index) {
+        if (y < 0 || y >= height || index < 0 || index >= obstacles.getWordsPerRow()) {
+            return ALL_BLOCKED;
+        }
+        final long word = obstacles.word(y, index);
+        return index == obstacles.getWordsPerRow() - 1 ? word | padding : word;
+    }
+
+    /**
+     * <p>Прыжок по прямой по заранее посчитанной таблице.</p>
+     *
+     * <p>Таблица не знает о цели, поэтому отдельно проверяется,
+     * не лежит ли цель на луче ближе найденной точки или препятствия.</p>
+     *
+     * @param x  x клетки.
+     * @param y  y клетки.
+     * @param dx сдвиг по x.
+     * @param dy сдвиг по y.
+     * @return номер точки прыжка или -1, если прыжок упёрся в препятствие.
+     */
+    private int jumpByTable(int x, int y, int dx, int dy) {
+        final int distance = table.distance(x, y, dx, dy);
+        final int stepsToGoal;
+        if (dx != 0) {
+            stepsToGoal = goalY == y ? (goalX - x) * dx : 0;
+        } else {
+            stepsToGoal = goalX == x ? (goalY - y) * dy : 0;
+        }
+        if (stepsToGoal > 0 && stepsToGoal <= Math.abs(distance)) {
+            return goalY * width + goalX;
+        }
+        return distance > 0 ? (y + dy * distance) * width + x + dx * distance : NONE;
+    }
+
+    /**
+     * <p>Лежит ли клетка на поле и свободна ли она.</p>
+     *
+     * @param x x
+     * @param y y
+     * @return результат проверки.
+     */
+    private boolean isFree(int x, int y) {
+        return level.isFree(x, y);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Заранее посчитанные прыжки по прямым для {@link JumpPointSearch}.</p>
+ *
+ * <p>Для каждой клетки и каждого из четырёх прямых направлений хранится
+ * число шагов до ближайшей клетки с вынужденным соседом. Если раньше
+ * встречается препятствие или край поля, хранится минус число свободных
+ * клеток до него. Прыжок по прямой становится одним чтением массива.</p>
+ *
+ * <p>Таблица строится за время, линейное от числа клеток, и после
+ * изменения поля устаревает.</p>
+ */
+final class JumpTable {
+    private final int width;
+    private final int[] plusX;
+    private final int[] minusX;
+    private final int[] plusY;
+    private final int[] minusY;
+
+    /**
+     * <p>Строит таблицу для поля.</p>
+     *
+     * @param level поле.
+     */
+    JumpTable(Level level) {
+        this.width = level.getWidth();
+        final int height = level.getHeight();
+        final int cells = width * height;
+        this.plusX = new int[cells];
+        this.minusX = new int[cells];
+        this.plusY = new int[cells];
+        this.minusY = new int[cells];
+
+        for (int y = 0; y < height; ++y) {
+            final int row = y * width;
+            for (int x = width - 1; x >= 0; --x) {
+                plusX[row + x] = distance(level, x + 1, y, 1, 0, x + 1 < width ? plusX[row + x + 1] : 0);
+            }
+            for (int x = 0; x < width; ++x) {
+                minusX[row + x] = distance(level, x - 1, y, -1, 0, x > 0 ? minusX[row + x - 1] : 0);
+            }
+        }
+        for (int x = 0; x < width; ++x) {
+            for (int y = height - 1; y >= 0; --y) {
+                plusY[y * width + x] = distance(level, x, y + 1, 0, 1, y + 1 < height ? plusY[(y + 1) * width + x] : 0);
+            }
+            for (int y = 0; y < height; ++y) {
+                minusY[y * width + x] = distance(level, x, y - 1, 0, -1, y > 0 ? minusY[(y - 1) * width + x] : 0);
+            }
+        }
+    }
+
+    /**
+     * <p>Есть ли у клетки на прямом ходу вынужденный сосед:
+     * свободная клетка сбоку, за которой по ходу было препятствие.</p>
+     *
+     * @param level поле.
+     * @param x     x клетки.
+     * @param y     y клетки.
+     * @param dx    сдвиг по x.
+     * @param dy    сдвиг по y.
+     * @return результат проверки.
+     */
+    static boolean hasForcedNeighbour(Level level, int x, int y, int dx, int dy) {
+        if (dx != 0) {
+            return level.isFree(x, y - 1) && !level.isFree(x - dx, y - 1)
+                    || level.isFree(x, y + 1) && !level.isFree(x - dx, y + 1);
+        }
+        return level.isFree(x - 1, y) && !level.isFree(x - 1, y - dy)
+                || level.isFree(x + 1, y) && !level.isFree(x + 1, y - dy);
+    }
+
+    /**
+     * <p>Прыжок из клетки по прямой.</p>
+     *
+     * @param x  x клетки.
+     * @param y  y клетки.
+     * @param dx сдвиг по x.
+     * @param dy сдвиг по y; ровно один из сдвигов не ноль.
+     * @return число шагов до точки прыжка, если оно положительно,
+     *         иначе минус число свободных клеток до препятствия.
+     */
+    int distance(int x, int y, int dx, int dy) {
+        final int cell = y * width + x;
+        final int result;
+        if (dx > 0) {
+            result = plusX[cell];
+        } else if (dx < 0) {
+            result = minusX[cell];
+        } else if (dy > 0) {
+            result = plusY[cell];
+        } else {
+            result = minusY[cell];
+        }
+        return result;
+    }
+
+    /**
+     * <p>Значение таблицы для клетки по значению для следующей клетки по ходу.</p>
+     *
+     * @param level     поле.
+     * @param nextX     x следующей клетки.
+     * @param nextY     y следующей клетки.
+     * @param dx        сдвиг по x.
+     * @param dy        сдвиг по y.
+     * @param nextValue значение таблицы для следующей клетки.
+     * @return значение таблицы.
+     */
+    private static int distance(Level level, int nextX, int nextY, int dx, int dy, int nextValue) {
+        if (!level.isFree(nextX, nextY)) {
+            return 0;
+        }
+        if (hasForcedNeighbour(level, nextX, nextY, dx, dy)) {
+            return 1;
+        }
+        return nextValue > 0 ? nextValue + 1 : nextValue - 1;
+    }
+}
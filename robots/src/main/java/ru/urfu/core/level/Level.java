@@ -1,23 +1,64 @@
 package ru.urfu.core.level;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <p>Поле: набор препятствий.</p>
+ *
+ * <p>Препятствия хранятся битами в {@link LevelStorage}, по строкам из слов
+ * {@code long}: бит на клетку, и проход по строке проверяет
+ * 64 клетки за операцию. По умолчанию биты лежат в памяти кучи;
+ * поля больше кучи хранятся кусками в файле ({@link ChunkedLevelStorage}).</p>
+ *
+ * <p>Слушатели изменений хранятся по слабым ссылкам, чтобы поле не держало
+ * в памяти построенные для него структуры поиска пути. Их владелец
+ * должен сам держать слушателя.</p>
+ *
+ * <p>Поле закрывает хранилище, только если владеет им: созданное
+ * по размерам и копия {@link #copy()}. Хранилище, переданное
+ * в конструктор, закрывает его владелец.</p>
  */
-public final class Level {
+public final class Level implements AutoCloseable {
     private final int width;
     private final int height;
-    private final boolean[] obstacles;
+    private final LevelStorage obstacles;
+    private final boolean ownsStorage;
+    private final List<WeakReference<LevelListener>> listeners = new ArrayList<>();
+    private long version = 0;
 
     /**
-     * <p>Конструктор.</p>
+     * <p>Конструктор. Препятствия хранятся в памяти кучи.</p>
      *
      * @param width  ширина поля.
      * @param height высота поля.
      */
     public Level(int width, int height) {
-        this.width = width;
-        this.height = height;
-        this.obstacles = new boolean[width * height];
+        this(new BitGridStorage(width, height), true);
+    }
+
+    /**
+     * <p>Конструктор поля поверх данного хранилища.
+     * Закрывать хранилище должен его владелец.</p>
+     *
+     * @param storage хранилище препятствий.
+     */
+    public Level(LevelStorage storage) {
+        this(storage, false);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param storage     хранилище препятствий.
+     * @param ownsStorage закрывает ли поле хранилище в {@link #close()}.
+     */
+    private Level(LevelStorage storage, boolean ownsStorage) {
+        this.width = storage.getWidth();
+        this.height = storage.getHeight();
+        this.obstacles = storage;
+        this.ownsStorage = ownsStorage;
     }
 
     /**
@@ -31,7 +72,7 @@ public final class Level {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             throw new IllegalArgumentException();
         }
-        this.obstacles[y * height + x] = true;
+        setObstacle(x, y, true);
     }
 
     /**
@@ -45,7 +86,28 @@ public final class Level {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             throw new IllegalArgumentException();
         }
-        this.obstacles[y * height + x] = false;
+        setObstacle(x, y, false);
+    }
+
+    /**
+     * <p>Подписывает слушателя на изменения поля. Поле держит его по слабой ссылке.</p>
+     *
+     * @param listener слушатель.
+     */
+    public void addListener(LevelListener listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * <p>Отписывает слушателя.</p>
+     *
+     * @param listener слушатель.
+     */
+    public void removeListener(LevelListener listener) {
+        listeners.removeIf(reference -> {
+            final LevelListener registered = reference.get();
+            return registered == null || registered == listener;
+        });
     }
 
     /**
@@ -60,7 +122,227 @@ public final class Level {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             throw new IllegalArgumentException();
         }
-        return obstacles[y * height + x];
+        return obstacles.get(x, y);
+    }
+
+    /**
+     * <p>Первое препятствие в строке, начиная с данной клетки.</p>
+     *
+     * @param y     строка.
+     * @param fromX с какой клетки искать.
+     * @return x препятствия или -1, если его нет.
+     */
+    public int nextObstacleInRow(int y, int fromX) {
+        checkRow(y);
+        return obstacles.nextSetInRow(y, Math.max(fromX, 0));
+    }
+
+    /**
+     * <p>Первая свободная клетка в строке, начиная с данной.</p>
+     *
+     * @param y     строка.
+     * @param fromX с какой клетки искать.
+     * @return x свободной клетки или -1, если её нет.
+     */
+    public int nextFreeInRow(int y, int fromX) {
+        checkRow(y);
+        return obstacles.nextClearInRow(y, Math.max(fromX, 0));
+    }
+
+    /**
+     * <p>Количество препятствий на поле.</p>
+     *
+     * @return количество занятых клеток.
+     */
+    public long countObstacles() {
+        return obstacles.cardinality();
+    }
+
+    /**
+     * <p>Ставит или убирает препятствия во всём прямоугольнике
+     * {@code [fromX, toX) x [fromY, toY)}.</p>
+     *
+     * <p>Без слушателей заполняет целыми словами; иначе меняет клетки
+     * по одной, чтобы слушатели узнали о каждой изменившейся.</p>
+     *
+     * @param fromX    первый столбец (включительно).
+     * @param fromY    первая строка (включительно).
+     * @param toX      последний столбец (не включительно).
+     * @param toY      последняя строка (не включительно).
+     * @param obstacle ставить ли препятствия.
+     */
+    public void fillObstacles(int fromX, int fromY, int toX, int toY, boolean obstacle) {
+        if (fromX < 0 || fromY < 0 || toX > width || toY > height || fromX > toX || fromY > toY) {
+            throw new IllegalArgumentException();
+        }
+        listeners.removeIf(reference -> reference.get() == null);
+        if (listeners.isEmpty()) {
+            obstacles.fill(fromX, fromY, toX, toY, obstacle);
+            ++version;
+        } else {
+            for (int y = fromY; y < toY; ++y) {
+                for (int x = fromX; x < toX; ++x) {
+                    setObstacle(x, y, obstacle);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Упаковывает препятствия в биты: бит с номером {@code y * width + x}
+     * установлен, если в клетке (x, y) есть препятствие.</p>
+     *
+     * @return массив из {@link #packedLength(int, int)} слов.
+     */
+    public long[] toPackedBits() {
+        final long[] bits = new long[packedLength(width, height)];
+        for (int y = 0; y < height; ++y) {
+            for (int x = obstacles.nextSetInRow(y, 0); x >= 0; x = obstacles.nextSetInRow(y, x + 1)) {
+                final long index = (long) y * width + x;
+                bits[(int) (index / Long.SIZE)] |= 1L << (index % Long.SIZE);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * <p>Восстанавливает поле из упакованных битов.</p>
+     *
+     * @param width  ширина поля.
+     * @param height высота поля.
+     * @param bits   биты в формате {@link #toPackedBits()}.
+     * @return новое поле.
+     */
+    public static Level fromPackedBits(int width, int height, long[] bits) {
+        if (bits.length < packedLength(width, height)) {
+            throw new IllegalArgumentException("Not enough bits for %dx%d level".formatted(width, height));
+        }
+        final Level level = new Level(width, height);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final long index = (long) y * width + x;
+                if ((bits[(int) (index / Long.SIZE)] & (1L << (index % Long.SIZE))) != 0) {
+                    level.addObstacle(x, y);
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * <p>Сколько слов занимают упакованные биты поля данного размера.</p>
+     *
+     * @param width  ширина поля.
+     * @param height высота поля.
+     * @return {@code ceil(width * height / 64)}.
+     * @throws IllegalArgumentException если размер отрицателен или биты не помещаются в массив.
+     */
+    public static int packedLength(int width, int height) {
+        final long words = ((long) width * height + Long.SIZE - 1) / Long.SIZE;
+        if (width < 0 || height < 0 || words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Illegal level size %dx%d".formatted(width, height));
+        }
+        return (int) words;
+    }
+
+    /**
+     * <p>Копия поля в хранилище того же вида.</p>
+     *
+     * <p>Копия владеет своим хранилищем, например, временным файлом
+     * {@link ChunkedLevelStorage}; закрыть её должен получивший копию.</p>
+     *
+     * @return новое поле с теми же препятствиями.
+     */
+    public Level copy() {
+        return new Level(obstacles.copy(), true);
+    }
+
+    /**
+     * <p>Закрывает хранилище, если поле им владеет.
+     * После закрытия таким полем пользоваться нельзя.</p>
+     */
+    @Override
+    public void close() {
+        if (ownsStorage) {
+            obstacles.close();
+        }
+    }
+
+    /**
+     * <p>Свободна ли клетка с данным номером {@code y * width + x}.</p>
+     *
+     * <p>Границы не проверяются. В горячих циклах лучше
+     * {@link #isFree(int, int)}: он обходится без деления.</p>
+     *
+     * @param cell номер клетки.
+     * @return результат проверки.
+     */
+    boolean isFree(int cell) {
+        return !obstacles.get(cell % width, cell / width);
+    }
+
+    /**
+     * <p>Лежит ли клетка на поле и свободна ли она.</p>
+     *
+     * @param x x
+     * @param y y
+     * @return результат проверки; false за пределами поля.
+     */
+    boolean isFree(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && !obstacles.get(x, y);
+    }
+
+    /**
+     * <p>Биты препятствий для поиска пути, который проверяет клетки словами.
+     * Менять их нельзя: изменения мимо поля не видны слушателям.</p>
+     *
+     * @return биты препятствий.
+     */
+    LevelStorage obstacleBits() {
+        return obstacles;
+    }
+
+    /**
+     * <p>Меняет клетку и оповещает слушателей, если она действительно изменилась.</p>
+     *
+     * @param x        x
+     * @param y        y
+     * @param obstacle есть ли теперь препятствие.
+     */
+    private void setObstacle(int x, int y, boolean obstacle) {
+        if (obstacles.get(x, y) == obstacle) {
+            return;
+        }
+        obstacles.set(x, y, obstacle);
+        ++version;
+        listeners.removeIf(reference -> reference.get() == null);
+        for (WeakReference<LevelListener> reference : List.copyOf(listeners)) {
+            final LevelListener listener = reference.get();
+            if (listener != null) {
+                listener.onCellChanged(x, y);
+            }
+        }
+    }
+
+    /**
+     * <p>Версия поля: растёт при каждом изменении клетки.
+     * По ней можно понять, что посчитанные для поля данные устарели.</p>
+     *
+     * @return номер версии.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * <p>Проверяет номер строки.</p>
+     *
+     * @param y строка.
+     */
+    private void checkRow(int y) {
+        if (y < 0 || y >= height) {
+            throw new IllegalArgumentException();
+        }
     }
 
     /**
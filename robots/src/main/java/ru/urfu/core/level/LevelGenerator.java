@@ -1,43 +1,202 @@
 package ru.urfu.core.level;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import personthecat.fastnoise.FastNoise;
 import personthecat.fastnoise.generator.SimplexNoise;
 
 /**
  * <p>Генератор случайных полей.</p>
+ *
+ * <p>Поле строится квадратами 256x256 клеток. Содержимое квадрата зависит
+ * только от зерна поля и его координат, поэтому квадраты строятся
+ * параллельно в {@link ForkJoinPool} и результат побитово один и тот же
+ * при любом числе потоков. Зерно поля берётся из последовательности
+ * генератора, так что генератор с фиксированным зерном повторяет
+ * одну и ту же последовательность полей.</p>
+ *
+ * <p>Квадраты можно строить и лениво, при первом обращении к ним:
+ * см. {@link #generateLazily(LevelStorage)}.</p>
  */
 public final class LevelGenerator {
+    final static int TILE_SHIFT = 8;
+    final static int TILE_SIZE = 1 << TILE_SHIFT;
+
     private final static double OBSTACLE_THRESHOLD = 0.2;
-    private final Random random = new Random();
+    private final static int WORDS_PER_TILE_ROW = TILE_SIZE / Long.SIZE;
+
+    private final Random random;
+    private final ForkJoinPool pool;
+
+    /**
+     * <p>Конструктор со случайным зерном.</p>
+     */
+    public LevelGenerator() {
+        this(new Random(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * <p>Конструктор с фиксированным зерном: одинаковые зёрна
+     * дают одинаковые последовательности полей.</p>
+     *
+     * @param seed зерно.
+     */
+    public LevelGenerator(long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
 
     /**
-     * <p>Создаёт уровень со случайными препятствиями.</p>
+     * <p>Конструктор с фиксированным зерном и своим пулом потоков.
+     * Поля не зависят от того, сколько потоков в пуле.</p>
+     *
+     * @param seed зерно.
+     * @param pool пул, в котором строятся квадраты.
+     */
+    public LevelGenerator(long seed, ForkJoinPool pool) {
+        this(new Random(seed), pool);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param random источник зёрен полей.
+     * @param pool   пул, в котором строятся квадраты.
+     */
+    private LevelGenerator(Random random, ForkJoinPool pool) {
+        this.random = random;
+        this.pool = pool;
+    }
+
+    /**
+     * <p>Создаёт уровень со случайными препятствиями в памяти кучи.</p>
      *
      * @param width  ширина поля.
      * @param height высота поля.
      * @return новое поле.
      */
     public Level generate(int width, int height) {
-        final FastNoise noise = new SimplexNoise(random.nextInt());
-        final Level level = new Level(width, height);
+        return generate(new BitGridStorage(width, height));
+    }
+
+    /**
+     * <p>Заполняет хранилище случайными препятствиями, строя квадраты параллельно.</p>
+     *
+     * @param storage хранилище; прежнее содержимое затирается.
+     * @return новое поле поверх хранилища.
+     */
+    public Level generate(LevelStorage storage) {
+        final int seed = random.nextInt();
+        final int tiles = tilesAlong(storage.getWidth()) * tilesAlong(storage.getHeight());
+        pool.invoke(new TileTask(storage, seed, 0, tiles));
+        return new Level(storage);
+    }
 
-        for (int x = 0; x < width; ++x) {
-            level.addObstacle(x, 0);
-            level.addObstacle(x, height - 1);
+    /**
+     * <p>Создаёт поле, квадраты которого строятся при первом обращении к ним:
+     * при поиске пути, отрисовке или изменении клеток. Для огромных полей
+     * в {@link ChunkedLevelStorage} память занимают только посещённые места.</p>
+     *
+     * <p>Получившееся поле побитово совпадает с тем, что построил бы
+     * {@link #generate(LevelStorage)} с тем же зерном.</p>
+     *
+     * @param storage пустое хранилище; закрывается вместе с хранилищем поля.
+     * @return новое поле.
+     */
+    public Level generateLazily(LevelStorage storage) {
+        return new Level(new GeneratingLevelStorage(storage, random.nextInt()));
+    }
+
+    /**
+     * <p>Количество квадратов вдоль стороны поля.</p>
+     *
+     * @param size длина стороны.
+     * @return {@code ceil(size / 256)}.
+     */
+    static int tilesAlong(int size) {
+        return (size + TILE_SIZE - 1) >>> TILE_SHIFT;
+    }
+
+    /**
+     * <p>Строит квадрат и записывает его в хранилище. Квадрат, целиком
+     * свободный или занятый, записывается заливкой.</p>
+     *
+     * @param storage хранилище.
+     * @param seed    зерно поля.
+     * @param tileX   столбец квадрата.
+     * @param tileY   строка квадрата.
+     */
+    static void generateTile(LevelStorage storage, int seed, int tileX, int tileY) {
+        final int width = storage.getWidth();
+        final int height = storage.getHeight();
+        final int left = tileX << TILE_SHIFT;
+        final int top = tileY << TILE_SHIFT;
+        final int right = Math.min(left + TILE_SIZE, width);
+        final int bottom = Math.min(top + TILE_SIZE, height);
+        final FastNoise noise = new SimplexNoise(seed);
+        final long[] words = new long[TILE_SIZE * WORDS_PER_TILE_ROW];
+        int obstacles = 0;
+        for (int y = top; y < bottom; ++y) {
+            for (int x = left; x < right; ++x) {
+                if (x == 0 || y == 0 || x == width - 1 || y == height - 1
+                        || noise.getNoise(x, y) > OBSTACLE_THRESHOLD) {
+                    words[(y - top) * WORDS_PER_TILE_ROW + (x - left) / Long.SIZE] |= 1L << x;
+                    ++obstacles;
+                }
+            }
         }
 
-        for (int y = 1; y < height - 1; ++y) {
-            level.addObstacle(0, y);
-            for (int x = 1; x < width - 1; ++x) {
-                final float value = noise.getNoise(x, y);
-                if (value > OBSTACLE_THRESHOLD) {
-                    level.addObstacle(x, y);
+        synchronized (storage) {
+            if (obstacles == 0 || obstacles == (right - left) * (bottom - top)) {
+                storage.fill(left, top, right, bottom, obstacles != 0);
+            } else {
+                final int firstWord = tileX * WORDS_PER_TILE_ROW;
+                final int lastWord = Math.min(firstWord + WORDS_PER_TILE_ROW, storage.getWordsPerRow());
+                for (int y = top; y < bottom; ++y) {
+                    for (int index = firstWord; index < lastWord; ++index) {
+                        storage.setWord(y, index, words[(y - top) * WORDS_PER_TILE_ROW + index - firstWord]);
+                    }
                 }
             }
-            level.addObstacle(width - 1, y);
         }
+    }
 
-        return level;
+    /**
+     * <p>Задача построения диапазона квадратов: делит его пополам,
+     * пока в нём больше одного квадрата.</p>
+     */
+    private final static class TileTask extends RecursiveAction {
+        private final LevelStorage storage;
+        private final int seed;
+        private final int from;
+        private final int to;
+
+        /**
+         * <p>Конструктор.</p>
+         *
+         * @param storage хранилище.
+         * @param seed    зерно поля.
+         * @param from    первый квадрат (включительно), построчно.
+         * @param to      последний квадрат (не включительно).
+         */
+        TileTask(LevelStorage storage, int seed, int from, int to) {
+            this.storage = storage;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                final int tilesX = tilesAlong(storage.getWidth());
+                for (int tile = from; tile < to; ++tile) {
+                    generateTile(storage, seed, tile % tilesX, tile / tilesX);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(storage, seed, from, middle), new TileTask(storage, seed, middle, to));
+        }
     }
 }
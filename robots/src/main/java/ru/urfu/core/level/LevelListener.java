@@ -0,0 +1,15 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Слушатель изменений {@link Level}.</p>
+ */
+@FunctionalInterface
+public interface LevelListener {
+    /**
+     * <p>В клетке появилось или исчезло препятствие.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    void onCellChanged(int x, int y);
+}
@@ -0,0 +1,151 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Хранилище битов препятствий поля: бит на клетку.</p>
+ *
+ * <p>Биты строки доступны словами {@code long}: бит {@code i} слова
+ * {@code index} — клетка {@code 64 * index + i}, биты за шириной поля
+ * равны нулю. По словам строки работают поиск пути прыжками
+ * и отрисовка отрезков препятствий.</p>
+ *
+ * <p>Хранилище закрывают, когда поле больше не нужно; у хранилищ
+ * в памяти кучи закрывать нечего.</p>
+ */
+public interface LevelStorage extends AutoCloseable {
+    /**
+     * <p>Ширина поля.</p>
+     *
+     * @return количество столбцов.
+     */
+    int getWidth();
+
+    /**
+     * <p>Высота поля.</p>
+     *
+     * @return количество строк.
+     */
+    int getHeight();
+
+    /**
+     * <p>Количество слов в строке.</p>
+     *
+     * @return {@code ceil(width / 64)}.
+     */
+    int getWordsPerRow();
+
+    /**
+     * <p>Есть ли препятствие в клетке. Координаты не проверяются.</p>
+     *
+     * @param x x
+     * @param y y
+     * @return результат проверки.
+     */
+    boolean get(int x, int y);
+
+    /**
+     * <p>Ставит или убирает препятствие в клетке. Координаты не проверяются.</p>
+     *
+     * @param x     x
+     * @param y     y
+     * @param value есть ли теперь препятствие.
+     */
+    void set(int x, int y, boolean value);
+
+    /**
+     * <p>Слово битов строки.</p>
+     *
+     * @param y     строка.
+     * @param index номер слова, меньше {@link #getWordsPerRow()}.
+     * @return слово битов.
+     */
+    long word(int y, int index);
+
+    /**
+     * <p>Заменяет слово битов строки.</p>
+     *
+     * @param y     строка.
+     * @param index номер слова, меньше {@link #getWordsPerRow()}.
+     * @param word  новое слово; биты за шириной поля должны быть нулями.
+     */
+    void setWord(int y, int index, long word);
+
+    /**
+     * <p>Первое препятствие в строке, начиная с данной клетки.</p>
+     *
+     * @param y     строка.
+     * @param fromX с какой клетки искать, не меньше нуля.
+     * @return x препятствия или -1, если его нет.
+     */
+    default int nextSetInRow(int y, int fromX) {
+        return nextInRow(y, fromX, 0);
+    }
+
+    /**
+     * <p>Первая свободная клетка в строке, начиная с данной.</p>
+     *
+     * @param y     строка.
+     * @param fromX с какой клетки искать, не меньше нуля.
+     * @return x свободной клетки или -1, если её нет.
+     */
+    default int nextClearInRow(int y, int fromX) {
+        return nextInRow(y, fromX, -1L);
+    }
+
+    /**
+     * <p>Ставит или убирает препятствия во всём прямоугольнике
+     * {@code [fromX, toX) x [fromY, toY)}.</p>
+     *
+     * @param fromX первый столбец (включительно).
+     * @param fromY первая строка (включительно).
+     * @param toX   последний столбец (не включительно).
+     * @param toY   последняя строка (не включительно).
+     * @param value ставить ли препятствия.
+     */
+    void fill(int fromX, int fromY, int toX, int toY, boolean value);
+
+    /**
+     * <p>Количество препятствий.</p>
+     *
+     * @return количество занятых клеток.
+     */
+    long cardinality();
+
+    /**
+     * <p>Копия хранилища того же вида.</p>
+     *
+     * @return новое хранилище с теми же битами.
+     */
+    LevelStorage copy();
+
+    /**
+     * <p>Освобождает ресурсы хранилища. После закрытия им пользоваться нельзя.</p>
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * <p>Ищет в строке по словам первый бит, отличный от инвертирующего шаблона.</p>
+     *
+     * @param y      строка.
+     * @param fromX  с какого столбца искать.
+     * @param invert 0 для поиска занятых клеток, все единицы для свободных.
+     * @return столбец или -1.
+     */
+    private int nextInRow(int y, int fromX, long invert) {
+        final int width = getWidth();
+        if (fromX >= width) {
+            return -1;
+        }
+        int index = fromX / Long.SIZE;
+        long word = (word(y, index) ^ invert) & (-1L << fromX);
+        while (word == 0) {
+            if (++index == getWordsPerRow()) {
+                return -1;
+            }
+            word = word(y, index) ^ invert;
+        }
+        final int x = index * Long.SIZE + Long.numberOfTrailingZeros(word);
+        return x < width ? x : -1;
+    }
+}
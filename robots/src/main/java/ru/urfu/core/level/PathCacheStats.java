@@ -0,0 +1,11 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Статистика {@link CachingPathFinder}.</p>
+ *
+ * @param hits        сколько запросов нашли в кэше путь с теми же концами.
+ * @param subPathHits сколько запросов обслужил хвост пути к той же цели.
+ * @param misses      сколько запросов ушли в поиск.
+ */
+public record PathCacheStats(long hits, long subPathHits, long misses) {
+}
@@ -0,0 +1,20 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Поиск пути по клеткам {@link Level}.</p>
+ *
+ * <p>Путь возвращается упакованным: элемент массива — номер клетки
+ * {@code y * width + x}, от стартовой клетки до целевой включительно.</p>
+ */
+public interface PathFinder {
+    /**
+     * <p>Ищет путь.</p>
+     *
+     * @param fromX x стартовой клетки.
+     * @param fromY y стартовой клетки.
+     * @param toX   x целевой клетки.
+     * @param toY   y целевой клетки.
+     * @return номера клеток пути или пустой массив, если пути нет.
+     */
+    int[] findPath(int fromX, int fromY, int toX, int toY);
+}
@@ -0,0 +1,81 @@
+package ru.urfu.core.level;
+
+/**
+ * <p>Алгоритм поиска пути.</p>
+ */
+public enum PathFinderType {
+    /**
+     * <p>{@link GridAStar} с любым соседством.</p>
+     */
+    ASTAR {
+        @Override
+        public PathFinder create(Level level, Connectivity connectivity) {
+            return new GridAStar(level, connectivity);
+        }
+    },
+
+    /**
+     * <p>{@link JumpPointSearch}, только с {@link Connectivity#EIGHT}.</p>
+     */
+    JPS {
+        @Override
+        public PathFinder create(Level level, Connectivity connectivity) {
+            requireEight(connectivity);
+            return new JumpPointSearch(level);
+        }
+    },
+
+    /**
+     * <p>{@link JumpPointSearch} с заранее посчитанными прыжками по прямым,
+     * только с {@link Connectivity#EIGHT} и для неизменных полей.</p>
+     */
+    JPS_PLUS {
+        @Override
+        public PathFinder create(Level level, Connectivity connectivity) {
+            requireEight(connectivity);
+            return new JumpPointSearch(level, true);
+        }
+    },
+
+    /**
+     * <p>{@link HierarchicalPathFinder} с любым соседством; для больших полей.</p>
+     */
+    HPA {
+        @Override
+        public PathFinder create(Level level, Connectivity connectivity) {
+            return new HierarchicalPathFinder(level, connectivity);
+        }
+    },
+
+    /**
+     * <p>{@link DStarLite} с любым соседством; для полей, которые меняются на ходу.</p>
+     */
+    DSTAR_LITE {
+        @Override
+        public PathFinder create(Level level, Connectivity connectivity) {
+            return new DStarLite(level, connectivity);
+        }
+    };
+
+    /**
+     * <p>Создаёт поиск пути для поля.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     * @return поиск пути.
+     * @throws IllegalArgumentException если алгоритм не поддерживает соседство.
+     */
+    public abstract PathFinder create(Level level, Connectivity connectivity);
+
+    /**
+     * <p>Проверяет, что соседство восьмисвязное.</p>
+     *
+     * @param connectivity соседство клеток.
+     * @throws IllegalArgumentException если это не так.
+     */
+    private static void requireEight(Connectivity connectivity) {
+        if (connectivity != Connectivity.EIGHT) {
+            throw new IllegalArgumentException("Jump point search needs eight-way connectivity");
+        }
+    }
+}
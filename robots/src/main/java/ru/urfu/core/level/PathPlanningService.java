@@ -0,0 +1,525 @@
+package ru.urfu.core.level;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <p>Поиск пути в фоновых потоках: запрос сразу возвращает
+ * {@link CompletableFuture}, а поток симуляции не ждёт поиска.</p>
+ *
+ * <p>Поиск идёт не по самому полю, а по его копии: поле меняется в потоке
+ * симуляции, и его слушатели, структуры поиска и номер версии не рассчитаны
+ * на чтение из других потоков. Сервис подписывается на поле и копит
+ * изменившиеся клетки; при запросе он переносит их в копию в вызывающем
+ * потоке, если ни один поиск её сейчас не читает. Тогда объекты поиска
+ * копии, например {@link ClearanceMap}, узнают об изменениях через своих
+ * слушателей и обновляются по месту, а не строятся заново. Если копию
+ * читают или изменений слишком много, снимается новая копия, а прежняя
+ * закрывается, когда её отпустит последний поиск.</p>
+ *
+ * <p>Объекты поиска создаются фабрикой для каждой копии, по одному
+ * на поток, и переиспользуются, пока копия та же. Объекты
+ * {@link PathFinderType#JPS_PLUS} за изменениями не следят и создаются
+ * заново при каждом изменении копии.</p>
+ *
+ * <p>Ответ должен зависеть только от поля и концов пути, а не от прошлых
+ * запросов: какой поток возьмёт запрос и успеет ли отменённый запрос
+ * начаться, зависит от времени. Поэтому поиски с памятью между запросами —
+ * {@link PathFinderType#DSTAR_LITE} и {@link CachingPathFinder} — здесь
+ * не используются: их пути той же стоимости, но могут отличаться
+ * от пути A*, и повтор сессии разошёлся бы с ней. Им место в одном
+ * потоке рядом с самим полем.</p>
+ *
+ * <p>Потоков и мест в очереди ограниченное число; запрос сверх очереди
+ * выполняется сразу в вызывающем потоке. Отменённый запрос, который ещё
+ * не начался, пропускается; уже начатый поиск доходит до конца, но его
+ * результат никому не отдаётся. Потоки-демоны без работы завершаются.</p>
+ *
+ * <p>Запросы и закрытие должны приходить из одного потока, например, потока симуляции.</p>
+ */
+public final class PathPlanningService implements AutoCloseable {
+    private final static int DEFAULT_WORKERS = 2;
+    private final static int QUEUE_CAPACITY = 64;
+    private final static long KEEP_ALIVE_SECONDS = 30;
+    private final static int MAX_PENDING_CHANGES = 4096;
+    private final static String CLOSED = "Path planning service is closed";
+    private final static AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final Function<Level, PathFinder> finderFactory;
+    private final boolean findersFollowChanges;
+    private final ThreadPoolExecutor executor;
+    private final BlockingQueue<Slot> slots;
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger copies = new AtomicInteger();
+    private final LevelListener sourceListener = this::onSourceChanged;
+    private final int[] changes = new int[MAX_PENDING_CHANGES];
+
+    private Level source;
+    private Snapshot snapshot;
+    private int changeCount;
+    private boolean changesOverflowed;
+
+    /**
+     * <p>Конструктор. Два потока.</p>
+     *
+     * @param type         алгоритм поиска.
+     * @param connectivity соседство клеток.
+     * @throws IllegalArgumentException для {@link PathFinderType#DSTAR_LITE}:
+     *                                  его ответы зависят от прошлых запросов.
+     */
+    public PathPlanningService(PathFinderType type, Connectivity connectivity) {
+        this(requireStateless(type), connectivity, DEFAULT_WORKERS);
+    }
+
+    /**
+     * <p>Конструктор. Два потока, у каждого поиск A* по клеткам,
+     * где помещается робот данного радиуса.</p>
+     *
+     * @param connectivity соседство клеток.
+     * @param radius       радиус робота в клетках.
+     */
+    public PathPlanningService(Connectivity connectivity, double radius) {
+        this(copy -> new GridAStar(copy, connectivity, new ClearanceMap(copy), radius), DEFAULT_WORKERS);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param finderFactory создаёт объект поиска по копии поля; ответы
+     *                      объекта не должны зависеть от прошлых запросов,
+     *                      а изменения копии он должен видеть сам: читать
+     *                      её напрямую или подписаться на неё.
+     * @param workers       количество потоков.
+     */
+    public PathPlanningService(Function<Level, PathFinder> finderFactory, int workers) {
+        this(finderFactory, true, workers);
+    }
+
+    /**
+     * <p>Конструктор для алгоритма из {@link PathFinderType}.</p>
+     *
+     * @param type         алгоритм поиска.
+     * @param connectivity соседство клеток.
+     * @param workers      количество потоков.
+     */
+    private PathPlanningService(PathFinderType type, Connectivity connectivity, int workers) {
+        this(copy -> type.create(copy, connectivity), type != PathFinderType.JPS_PLUS, workers);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param finderFactory        создаёт объект поиска по копии поля.
+     * @param findersFollowChanges видят ли объекты поиска изменения копии;
+     *                             если нет, они создаются заново при каждом изменении.
+     * @param workers              количество потоков.
+     */
+    private PathPlanningService(Function<Level, PathFinder> finderFactory, boolean findersFollowChanges,
+                                int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Illegal worker count: " + workers);
+        }
+        this.finderFactory = finderFactory;
+        this.findersFollowChanges = findersFollowChanges;
+        this.slots = new ArrayBlockingQueue<>(workers + 1);
+        for (int i = 0; i <= workers; ++i) {
+            slots.add(new Slot());
+        }
+        this.executor = new ThreadPoolExecutor(workers, workers, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    final Thread thread = new Thread(runnable, "Path Planner " + THREAD_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * <p>Ставит поиск пути в очередь.</p>
+     *
+     * @param level поле; изменения с прошлого запроса переносятся в копию.
+     * @param fromX x старта.
+     * @param fromY y старта.
+     * @param toX   x цели.
+     * @param toY   y цели.
+     * @return путь в формате {@link PathFinder#findPath(int, int, int, int)};
+     *         отмена убирает ещё не начатый поиск. После {@link #close()}
+     *         запрос завершается с {@link RejectedExecutionException}.
+     */
+    public CompletableFuture<int[]> plan(Level level, int fromX, int fromY, int toX, int toY) {
+        if (executor.isShutdown()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(CLOSED));
+        }
+        final PlanTask task = new PlanTask(snapshotOf(level), fromX, fromY, toX, toY);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                task.snapshot.release();
+                task.result.completeExceptionally(e);
+            } else {
+                task.run();
+            }
+        }
+        return task.result;
+    }
+
+    /**
+     * <p>Ищет путь сразу в вызывающем потоке, по той же копии поля,
+     * что и запросы через {@link #plan(Level, int, int, int, int)}.
+     * После {@link #close()} — по временной копии.</p>
+     *
+     * @param level поле.
+     * @param fromX x старта.
+     * @param fromY y старта.
+     * @param toX   x цели.
+     * @param toY   y цели.
+     * @return путь в формате {@link PathFinder#findPath(int, int, int, int)}.
+     */
+    public int[] findPath(Level level, int fromX, int fromY, int toX, int toY) {
+        if (executor.isShutdown()) {
+            try (Level copy = level.copy()) {
+                return finderFactory.apply(copy).findPath(fromX, fromY, toX, toY);
+            }
+        }
+        final PlanTask task = new PlanTask(snapshotOf(level), fromX, fromY, toX, toY);
+        task.run();
+        return task.result.join();
+    }
+
+    /**
+     * <p>Соседняя клетка, ближайшая к цели по прямой, для движения,
+     * пока путь ещё ищется. Шаг по диагонали, как и при поиске,
+     * возможен, только если свободны обе клетки сбоку.</p>
+     *
+     * @param level        поле.
+     * @param connectivity соседство клеток.
+     * @param fromX        x текущей клетки.
+     * @param fromY        y текущей клетки.
+     * @param toX          x цели.
+     * @param toY          y цели.
+     * @return номер клетки {@code y * width + x} или -1, если ни один
+     *         свободный сосед не ближе к цели, чем текущая клетка.
+     */
+    public static int greedyStep(Level level, Connectivity connectivity, int fromX, int fromY, int toX, int toY) {
+        return greedyStep(level, connectivity, null, 0, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * <p>Соседняя клетка, ближайшая к цели по прямой, для робота с радиусом:
+     * клетки, где он не помещается, проверяются по той же карте расстояний,
+     * что и при поиске, как занятые.</p>
+     *
+     * @param level             поле.
+     * @param connectivity      соседство клеток.
+     * @param clearance         расстояния до препятствий на этом поле или null для точечного робота.
+     * @param requiredClearance порог из {@link ClearanceMap#requiredSquaredClearance(double)}.
+     * @param fromX             x текущей клетки.
+     * @param fromY             y текущей клетки.
+     * @param toX               x цели.
+     * @param toY               y цели.
+     * @return номер клетки {@code y * width + x} или -1, если ни один
+     *         подходящий сосед не ближе к цели, чем текущая клетка.
+     */
+    @SuppressWarnings("ParameterNumber")
+    public static int greedyStep(Level level, Connectivity connectivity, ClearanceMap clearance,
+                                 int requiredClearance, int fromX, int fromY, int toX, int toY) {
+        int best = -1;
+        long bestDistance = distanceSquared(fromX - toX, fromY - toY);
+        for (int direction = 0; direction < connectivity.directions(); ++direction) {
+            final int dx = connectivity.dx(direction);
+            final int dy = connectivity.dy(direction);
+            final long distance = distanceSquared(fromX + dx - toX, fromY + dy - toY);
+            if (distance < bestDistance && fits(level, clearance, requiredClearance, fromX + dx, fromY + dy)
+                    && (dx == 0 || dy == 0 || fits(level, clearance, requiredClearance, fromX + dx, fromY)
+                    && fits(level, clearance, requiredClearance, fromX, fromY + dy))) {
+                best = (fromY + dy) * level.getWidth() + fromX + dx;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>Сколько отменённых запросов было пропущено без поиска.</p>
+     *
+     * @return количество пропущенных запросов.
+     */
+    public int getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * <p>Сколько раз копия поля снималась целиком, а не обновлялась по месту.</p>
+     *
+     * @return количество копий.
+     */
+    public int getCopyCount() {
+        return copies.get();
+    }
+
+    /**
+     * <p>Останавливает потоки и отписывается от поля. Запросы в очереди
+     * отменяются; копия поля закрывается, когда закончится последний
+     * уже начатый поиск.</p>
+     */
+    @Override
+    public void close() {
+        for (Runnable runnable : executor.shutdownNow()) {
+            final PlanTask task = (PlanTask) runnable;
+            task.snapshot.release();
+            task.result.cancel(false);
+        }
+        if (source != null) {
+            source.removeListener(sourceListener);
+            source = null;
+        }
+        if (snapshot != null) {
+            snapshot.release();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * <p>Копия поля для очередного поиска, захваченная для него.</p>
+     *
+     * <p>Для нового поля снимается копия. Накопленные изменения того же поля
+     * переносятся в прежнюю копию, если её никто не читает; иначе, как и при
+     * слишком большом числе изменений, снимается новая копия.</p>
+     *
+     * @param level поле.
+     * @return копия поля с тем же содержимым, что и у поля.
+     */
+    private Snapshot snapshotOf(Level level) {
+        if (level != source) {
+            if (source != null) {
+                source.removeListener(sourceListener);
+            }
+            source = level;
+            level.addListener(sourceListener);
+            replaceSnapshot();
+        } else if (changesOverflowed || changeCount > 0 && snapshot.isShared()) {
+            replaceSnapshot();
+        } else if (changeCount > 0) {
+            applyChanges();
+        }
+        snapshot.retain();
+        return snapshot;
+    }
+
+    /**
+     * <p>Снимает новую копию поля и отпускает прежнюю.</p>
+     */
+    private void replaceSnapshot() {
+        if (snapshot != null) {
+            snapshot.release();
+        }
+        snapshot = new Snapshot(source.copy());
+        copies.incrementAndGet();
+        changeCount = 0;
+        changesOverflowed = false;
+    }
+
+    /**
+     * <p>Переносит накопленные изменения в копию. Слушатели копии,
+     * например объекты поиска, узнают о каждой изменившейся клетке.</p>
+     */
+    private void applyChanges() {
+        final Level copy = snapshot.level;
+        final int width = source.getWidth();
+        for (int i = 0; i < changeCount; ++i) {
+            final int x = changes[i] % width;
+            final int y = changes[i] / width;
+            if (source.hasObstacle(x, y)) {
+                copy.addObstacle(x, y);
+            } else {
+                copy.removeObstacle(x, y);
+            }
+        }
+        changeCount = 0;
+    }
+
+    /**
+     * <p>Запоминает изменившуюся клетку поля до следующего запроса.</p>
+     *
+     * @param x x клетки.
+     * @param y y клетки.
+     */
+    private void onSourceChanged(int x, int y) {
+        if (changeCount == changes.length) {
+            changesOverflowed = true;
+        } else if (!changesOverflowed) {
+            changes[changeCount++] = y * source.getWidth() + x;
+        }
+    }
+
+    /**
+     * <p>Проверяет, что ответы алгоритма не зависят от прошлых запросов.</p>
+     *
+     * @param type алгоритм поиска.
+     * @return тот же алгоритм.
+     * @throws IllegalArgumentException для {@link PathFinderType#DSTAR_LITE}.
+     */
+    private static PathFinderType requireStateless(PathFinderType type) {
+        if (type == PathFinderType.DSTAR_LITE) {
+            throw new IllegalArgumentException("D* Lite keeps state between requests, plan it on the level itself");
+        }
+        return type;
+    }
+
+    /**
+     * <p>Свободна ли клетка, а с картой расстояний — помещается ли в ней робот.</p>
+     *
+     * @param level             поле.
+     * @param clearance         расстояния до препятствий или null.
+     * @param requiredClearance порог для карты.
+     * @param x                 x клетки.
+     * @param y                 y клетки.
+     * @return результат проверки.
+     */
+    private static boolean fits(Level level, ClearanceMap clearance, int requiredClearance, int x, int y) {
+        return clearance == null
+                ? level.isFree(x, y)
+                : clearance.squaredClearance(x, y) >= requiredClearance;
+    }
+
+    /**
+     * <p>Квадрат длины вектора.</p>
+     *
+     * @param dx x вектора.
+     * @param dy y вектора.
+     * @return квадрат длины.
+     */
+    private static long distanceSquared(long dx, long dy) {
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * <p>Копия поля со счётчиком ссылок: одна у сервиса, пока копия текущая,
+     * и по одной у каждого запроса. Последний отпустивший закрывает копию.</p>
+     */
+    private final static class Snapshot {
+        private final Level level;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        /**
+         * <p>Конструктор. Ссылка сервиса уже учтена.</p>
+         *
+         * @param level копия поля, которой владеет снимок.
+         */
+        Snapshot(Level level) {
+            this.level = level;
+        }
+
+        /**
+         * <p>Захватывает копию для запроса.</p>
+         */
+        void retain() {
+            references.incrementAndGet();
+        }
+
+        /**
+         * <p>Отпускает копию; последний отпустивший её закрывает.</p>
+         */
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                level.close();
+            }
+        }
+
+        /**
+         * <p>Читает ли копию кто-нибудь, кроме сервиса.</p>
+         *
+         * @return есть ли захваченные запросы.
+         */
+        boolean isShared() {
+            return references.get() > 1;
+        }
+    }
+
+    /**
+     * <p>Объект поиска вместе с копией поля и её версией, для которых он создан.
+     * Мест на одно больше, чем потоков: запасное — для вызывающего потока.</p>
+     */
+    private final static class Slot {
+        private Snapshot snapshot;
+        private long version;
+        private PathFinder finder;
+    }
+
+    /**
+     * <p>Запрос поиска пути вместе с его результатом.</p>
+     */
+    private final class PlanTask implements Runnable {
+        private final CompletableFuture<int[]> result = new CompletableFuture<>();
+        private final Snapshot snapshot;
+        private final int fromX;
+        private final int fromY;
+        private final int toX;
+        private final int toY;
+
+        /**
+         * <p>Конструктор.</p>
+         *
+         * @param snapshot захваченная для запроса копия поля.
+         * @param fromX    x старта.
+         * @param fromY    y старта.
+         * @param toX      x цели.
+         * @param toY      y цели.
+         */
+        PlanTask(Snapshot snapshot, int fromX, int fromY, int toX, int toY) {
+            this.snapshot = snapshot;
+            this.fromX = fromX;
+            this.fromY = fromY;
+            this.toX = toX;
+            this.toY = toY;
+        }
+
+        /**
+         * <p>Ищет путь, если запрос ещё не отменили, и отпускает копию поля
+         * до того, как отдать результат.</p>
+         *
+         * <p>Объект поиска для новой копии создаётся под её монитором:
+         * конструкторы подписываются на поле, а список слушателей
+         * не потокобезопасен. Сами поиски копию только читают.</p>
+         */
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                skipped.incrementAndGet();
+                snapshot.release();
+                return;
+            }
+            final Slot slot = slots.poll();
+            final Level level = snapshot.level;
+            int[] path = null;
+            RuntimeException error = null;
+            try {
+                if (slot.snapshot != snapshot || !findersFollowChanges && slot.version != level.getVersion()) {
+                    synchronized (level) {
+                        slot.finder = finderFactory.apply(level);
+                    }
+                    slot.snapshot = snapshot;
+                    slot.version = level.getVersion();
+                }
+                path = slot.finder.findPath(fromX, fromY, toX, toY);
+            } catch (RuntimeException e) {
+                error = e;
+            } finally {
+                slots.add(slot);
+                snapshot.release();
+            }
+            if (error == null) {
+                result.complete(path);
+            } else {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+}
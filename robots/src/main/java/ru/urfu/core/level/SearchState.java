@@ -0,0 +1,225 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+import ru.urfu.collections.IntBinaryHeap;
+
+/**
+ * <p>Переиспользуемое состояние поиска пути по клеткам поля.</p>
+ *
+ * <p>Массивы размером с поле создаются один раз: стоимость пути от старта,
+ * родитель клетки и номера поиска, в котором клетка была достигнута
+ * и закрыта. Номер поиска растёт с каждым вызовом {@link #begin()},
+ * поэтому массивы не надо очищать.</p>
+ *
+ * <p>При равных оценках первой из открытого списка выходит клетка,
+ * дальше продвинувшаяся от старта: так на открытых полях поиск меньше
+ * расползается по клеткам с одинаковой оценкой.</p>
+ */
+final class SearchState {
+    private final static int[] NO_PATH = new int[0];
+    private final static int NO_PARENT = -1;
+
+    private final int width;
+    private final int[] gScore;
+    private final int[] parent;
+    private final int[] reachedIn;
+    private final int[] closedIn;
+    private final IntBinaryHeap open;
+    private int generation = 0;
+    private int expanded = 0;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param width  ширина поля.
+     * @param height высота поля.
+     */
+    SearchState(int width, int height) {
+        final int cells = width * height;
+        this.width = width;
+        this.gScore = new int[cells];
+        this.parent = new int[cells];
+        this.reachedIn = new int[cells];
+        this.closedIn = new int[cells];
+        this.open = new IntBinaryHeap(cells);
+    }
+
+    /**
+     * <p>Состояние для поиска по графу без координат.</p>
+     *
+     * <p>Вершины нумеруются с нуля; {@link #path(int)} для такого состояния не имеет смысла.</p>
+     *
+     * @param nodes число вершин.
+     * @return новое состояние.
+     */
+    static SearchState forNodes(int nodes) {
+        return new SearchState(nodes, 1);
+    }
+
+    /**
+     * <p>Пустой путь.</p>
+     *
+     * @return массив без элементов.
+     */
+    static int[] noPath() {
+        return NO_PATH;
+    }
+
+    /**
+     * <p>Начинает новый поиск. При переполнении номера массивы сбрасываются.</p>
+     */
+    void begin() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reachedIn, 0);
+            Arrays.fill(closedIn, 0);
+            generation = 0;
+        }
+        ++generation;
+        expanded = 0;
+        open.clear();
+    }
+
+    /**
+     * <p>Кладёт стартовую клетку в открытый список.</p>
+     *
+     * @param cell      клетка.
+     * @param heuristic оценка стоимости пути до цели.
+     */
+    void start(int cell, int heuristic) {
+        reach(cell, 0, NO_PARENT, heuristic);
+    }
+
+    /**
+     * <p>Запоминает путь до клетки через родителя, если он лучше
+     * известного, и кладёт клетку в открытый список.</p>
+     *
+     * @param cell      клетка.
+     * @param g         стоимость пути от старта.
+     * @param from      родитель клетки.
+     * @param heuristic оценка стоимости пути до цели.
+     */
+    void relax(int cell, int g, int from, int heuristic) {
+        if (closedIn[cell] != generation && (reachedIn[cell] != generation || g < gScore[cell])) {
+            reach(cell, g, from, heuristic);
+        }
+    }
+
+    /**
+     * <p>Пуст ли открытый список.</p>
+     *
+     * @return результат проверки.
+     */
+    boolean isOpenEmpty() {
+        return open.isEmpty();
+    }
+
+    /**
+     * <p>Достаёт из открытого списка клетку с наименьшей оценкой и закрывает её.</p>
+     *
+     * @return клетка.
+     */
+    int pollAndClose() {
+        final int cell = open.poll();
+        closedIn[cell] = generation;
+        ++expanded;
+        return cell;
+    }
+
+    /**
+     * <p>Стоимость лучшего найденного пути до клетки.</p>
+     *
+     * @param cell достигнутая клетка.
+     * @return стоимость.
+     */
+    int gScore(int cell) {
+        return gScore[cell];
+    }
+
+    /**
+     * <p>Закрыта ли клетка в текущем поиске.</p>
+     *
+     * @param cell клетка.
+     * @return результат проверки.
+     */
+    boolean isClosed(int cell) {
+        return closedIn[cell] == generation;
+    }
+
+    /**
+     * <p>Родитель клетки.</p>
+     *
+     * @param cell достигнутая клетка.
+     * @return родитель или -1 для старта.
+     */
+    int parent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * <p>Сколько клеток раскрыл текущий поиск.</p>
+     *
+     * @return количество раскрытых клеток.
+     */
+    int expanded() {
+        return expanded;
+    }
+
+    /**
+     * <p>Восстанавливает путь по родителям.</p>
+     *
+     * <p>Соседние по цепочке родителей клетки могут быть далеко друг от друга,
+     * если лежат на одной прямой или диагонали: промежуточные клетки
+     * достраиваются, так что в результате соседние элементы — соседние клетки.</p>
+     *
+     * @param goal целевая клетка.
+     * @return номера клеток от старта до цели.
+     */
+    int[] path(int goal) {
+        int length = 1;
+        for (int cell = goal; parent[cell] != NO_PARENT; cell = parent[cell]) {
+            length += distance(parent[cell], cell);
+        }
+
+        final int[] path = new int[length];
+        int index = length - 1;
+        path[index] = goal;
+        for (int cell = goal; parent[cell] != NO_PARENT; cell = parent[cell]) {
+            final int from = parent[cell];
+            final int stepX = Integer.signum(from % width - cell % width);
+            final int step = Integer.signum(from / width - cell / width) * width + stepX;
+            for (int i = distance(from, cell), current = cell; i > 0; --i) {
+                current += step;
+                path[--index] = current;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * <p>Число шагов между клетками на одной прямой или диагонали.</p>
+     *
+     * @param from первая клетка.
+     * @param to   вторая клетка.
+     * @return число шагов.
+     */
+    private int distance(int from, int to) {
+        return Math.max(Math.abs(from % width - to % width), Math.abs(from / width - to / width));
+    }
+
+    /**
+     * <p>Запоминает путь до клетки и кладёт её в открытый список.</p>
+     *
+     * @param cell      клетка.
+     * @param g         стоимость пути от старта.
+     * @param from      родитель клетки.
+     * @param heuristic оценка стоимости пути до цели.
+     */
+    private void reach(int cell, int g, int from, int heuristic) {
+        reachedIn[cell] = generation;
+        gScore[cell] = g;
+        parent[cell] = from;
+        // Старшие биты — полная оценка, младшие — предпочтение большей g при равенстве
+        final long key = ((long) (g + heuristic) << Integer.SIZE) | (Integer.MAX_VALUE - g);
+        open.insertOrDecrease(cell, key);
+    }
+}
@@ -0,0 +1,297 @@
+package ru.urfu.core.loop;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.urfu.core.Simulation;
+
+/**
+ * <p>Игровой цикл с фиксированным шагом.</p>
+ *
+ * <p>Работает в отдельном потоке. Прошедшее время измеряется через
+ * {@link System#nanoTime()} и копится; симуляция продвигается целыми
+ * шагами фиксированной длины, так что время симуляции не отстаёт
+ * от реального при задержках потока.</p>
+ *
+ * <p>После долгой паузы (например, сборки мусора) за одно пробуждение
+ * выполняется не больше заданного числа шагов, остальные отбрасываются
+ * и учитываются в статистике.</p>
+ *
+ * <p>Если симуляция покоится ({@link Simulation#isIdle()}), поток цикла
+ * засыпает без таймаута и просыпается по сигналу симуляции; время,
+ * проведённое во сне, не догоняется.</p>
+ *
+ * <p>{@link #stop()} дожидается завершения потока цикла, так что после
+ * него симуляцию не продвигает ни один поток, а следующий
+ * {@link #start()} не запустит второй поток рядом со старым.</p>
+ */
+public final class GameLoop {
+    private final static long NANOS_IN_MILLI = 1_000_000L;
+    private final static int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(GameLoop.class);
+    private final Simulation simulation;
+    private final int stepMillis;
+    private final long stepNanos;
+    private final int maxCatchUpSteps;
+    private final AtomicInteger pendingSteps = new AtomicInteger();
+
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private volatile Thread thread;
+    private volatile long generation = 0;
+
+    private volatile long ticks = 0;
+    private volatile long missedDeadlines = 0;
+    private volatile long droppedSteps = 0;
+    private volatile long maxJitterNanos = 0;
+    private volatile long jitterSumNanos = 0;
+    private volatile long jitterSamples = 0;
+    private volatile long idleSuspensions = 0;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param simulation продвигаемая симуляция.
+     * @param stepMillis длина шага в миллисекундах.
+     */
+    public GameLoop(Simulation simulation, int stepMillis) {
+        this(simulation, stepMillis, DEFAULT_MAX_CATCH_UP_STEPS);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param simulation      продвигаемая симуляция.
+     * @param stepMillis      длина шага в миллисекундах.
+     * @param maxCatchUpSteps сколько шагов можно выполнить за одно пробуждение.
+     */
+    public GameLoop(Simulation simulation, int stepMillis, int maxCatchUpSteps) {
+        if (stepMillis <= 0 || maxCatchUpSteps <= 0) {
+            throw new IllegalArgumentException("Step and catch-up limit must be positive");
+        }
+        this.simulation = simulation;
+        this.stepMillis = stepMillis;
+        this.stepNanos = stepMillis * NANOS_IN_MILLI;
+        this.maxCatchUpSteps = maxCatchUpSteps;
+        simulation.setWakeUpListener(this::wakeUp);
+    }
+
+    /**
+     * <p>Запускает цикл в новом потоке.</p>
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        final long current = ++generation;
+        final Thread loopThread = new Thread(() -> run(current), "Game Loop");
+        loopThread.setDaemon(true);
+        thread = loopThread;
+        loopThread.start();
+        log.debug("Game loop has started with step {} ms.", stepMillis);
+    }
+
+    /**
+     * <p>Останавливает цикл и ждёт завершения его потока.
+     * Из потока цикла только просит его завершиться.</p>
+     */
+    public synchronized void stop() {
+        running = false;
+        final Thread loopThread = thread;
+        wakeUp();
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            try {
+                loopThread.join();
+                thread = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.debug("Game loop has stopped.");
+    }
+
+    /**
+     * <p>Приостанавливает продвижение симуляции.</p>
+     */
+    public void pause() {
+        paused = true;
+        log.debug("Game loop is paused.");
+    }
+
+    /**
+     * <p>Возобновляет продвижение симуляции. Время,
+     * проведённое на паузе, не догоняется.</p>
+     */
+    public void resume() {
+        paused = false;
+        pendingSteps.set(0);
+        wakeUp();
+        log.debug("Game loop is resumed.");
+    }
+
+    /**
+     * <p>Выполняет один шаг симуляции, если цикл на паузе.</p>
+     */
+    public void step() {
+        if (paused) {
+            pendingSteps.incrementAndGet();
+            wakeUp();
+        }
+    }
+
+    /**
+     * <p>Находится ли цикл на паузе.</p>
+     *
+     * @return результат проверки.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * <p>Статистика работы цикла.</p>
+     *
+     * @return статистика на данный момент.
+     */
+    public GameLoopStats getStats() {
+        final long samples = jitterSamples;
+        final long mean = samples == 0 ? 0 : jitterSumNanos / samples;
+        return new GameLoopStats(ticks, missedDeadlines, droppedSteps, maxJitterNanos, mean, idleSuspensions);
+    }
+
+    /**
+     * <p>Будит поток цикла.</p>
+     */
+    private void wakeUp() {
+        final Thread loopThread = thread;
+        if (loopThread != null) {
+            LockSupport.unpark(loopThread);
+        }
+    }
+
+    /**
+     * <p>Тело потока цикла. Поток завершается и тогда, когда цикл
+     * успели остановить и запустить заново, не дождавшись его.</p>
+     *
+     * @param current номер запуска, которому принадлежит поток.
+     */
+    private void run(long current) {
+        long previous = System.nanoTime();
+        long deadline = previous + stepNanos;
+        long accumulator = 0;
+
+        while (running && generation == current) {
+            if (paused || simulation.isIdle()) {
+                suspend();
+                previous = System.nanoTime();
+                deadline = previous + stepNanos;
+                accumulator = 0;
+                continue;
+            }
+
+            final long now = System.nanoTime();
+            recordLateness(now - deadline);
+            accumulator = advance(accumulator + now - previous);
+            previous = now;
+            deadline = now + stepNanos - accumulator;
+            sleepUntil(deadline);
+        }
+    }
+
+    /**
+     * <p>Усыпляет поток цикла до паузы или покоя симуляции.</p>
+     *
+     * <p>Сигнал, пришедший до засыпания, не теряется:
+     * {@link LockSupport#park(Object)} в этом случае сразу вернёт управление.</p>
+     */
+    private void suspend() {
+        if (paused) {
+            runPendingSteps();
+        } else {
+            ++idleSuspensions;
+            log.trace("Simulation is idle, game loop is suspended.");
+        }
+        LockSupport.park(this);
+    }
+
+    /**
+     * <p>Выполняет накопившиеся шаги, но не больше ограничения.</p>
+     *
+     * @param accumulated накопленное время в наносекундах.
+     * @return остаток времени, меньший одного шага.
+     */
+    private long advance(long accumulated) {
+        long rest = accumulated;
+        int steps = 0;
+        while (rest >= stepNanos && steps < maxCatchUpSteps) {
+            tick();
+            rest -= stepNanos;
+            ++steps;
+        }
+
+        if (rest >= stepNanos) {
+            final long dropped = rest / stepNanos;
+            droppedSteps += dropped;
+            rest -= dropped * stepNanos;
+            log.debug("Game loop dropped {} steps.", dropped);
+        }
+        return rest;
+    }
+
+    /**
+     * <p>Выполняет шаги, запрошенные через {@link #step()}.</p>
+     */
+    private void runPendingSteps() {
+        final int steps = pendingSteps.getAndSet(0);
+        for (int i = 0; i < steps; ++i) {
+            tick();
+        }
+    }
+
+    /**
+     * <p>Выполняет один шаг симуляции.</p>
+     */
+    private void tick() {
+        try {
+            simulation.update(stepMillis);
+        } catch (RuntimeException e) {
+            log.error("Simulation step failed", e);
+        }
+        ++ticks;
+    }
+
+    /**
+     * <p>Учитывает опоздание пробуждения.</p>
+     *
+     * @param lateness на сколько наносекунд цикл проснулся позже срока.
+     */
+    private void recordLateness(long lateness) {
+        final long jitter = Math.max(lateness, 0);
+        if (jitter > maxJitterNanos) {
+            maxJitterNanos = jitter;
+        }
+        if (jitter >= stepNanos) {
+            ++missedDeadlines;
+        }
+        jitterSumNanos += jitter;
+        ++jitterSamples;
+    }
+
+    /**
+     * <p>Спит до срока, паузы или остановки цикла.</p>
+     *
+     * @param deadline срок по {@link System#nanoTime()}.
+     */
+    private void sleepUntil(long deadline) {
+        while (running && !paused) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.urfu.core.loop;
+
+/**
+ * <p>Статистика работы {@link GameLoop}.</p>
+ *
+ * @param ticks           сколько шагов симуляции выполнено.
+ * @param missedDeadlines сколько раз цикл проснулся позже, чем на целый шаг.
+ * @param droppedSteps    сколько шагов было отброшено из-за ограничения на догонялки.
+ * @param maxJitterNanos  наибольшее опоздание пробуждения, в наносекундах.
+ * @param meanJitterNanos среднее опоздание пробуждения, в наносекундах.
+ * @param idleSuspensions сколько раз цикл засыпал из-за покоя симуляции.
+ */
+public record GameLoopStats(
+        long ticks,
+        long missedDeadlines,
+        long droppedSteps,
+        long maxJitterNanos,
+        long meanJitterNanos,
+        long idleSuspensions) {
+}
@@ -0,0 +1,27 @@
+package ru.urfu.core.loop;
+
+/**
+ * <p>Итог прогона {@link HeadlessRunner}.</p>
+ *
+ * @param ticks           сколько шагов симуляции выполнено.
+ * @param simulatedMillis сколько времени прошло в симуляции, в миллисекундах.
+ * @param wallNanos       сколько реального времени занял прогон, в наносекундах.
+ */
+public record HeadlessRunReport(
+        long ticks,
+        long simulatedMillis,
+        long wallNanos) {
+    private final static double NANOS_IN_MILLI = 1_000_000.0;
+
+    /**
+     * <p>Во сколько раз симуляция шла быстрее реального времени.</p>
+     *
+     * @return отношение времени симуляции к реальному.
+     */
+    public double speedup() {
+        if (wallNanos == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return simulatedMillis * NANOS_IN_MILLI / wallNanos;
+    }
+}
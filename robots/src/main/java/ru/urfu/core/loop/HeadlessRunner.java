@@ -0,0 +1,107 @@
+package ru.urfu.core.loop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.urfu.core.Simulation;
+
+/**
+ * <p>Прогон симуляции без графического интерфейса по виртуальным часам.</p>
+ *
+ * <p>Шаги выполняются подряд в вызывающем потоке без ожидания, поэтому
+ * симуляция идёт настолько быстро, насколько позволяет процессор.
+ * Результат зависит только от количества шагов, а не от реального времени.</p>
+ */
+public final class HeadlessRunner {
+    private final Logger log = LoggerFactory.getLogger(HeadlessRunner.class);
+    private final Simulation simulation;
+    private final int stepMillis;
+    private final VirtualClock clock;
+    private long ticks = 0;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param simulation продвигаемая симуляция.
+     * @param stepMillis длина шага в миллисекундах.
+     */
+    public HeadlessRunner(Simulation simulation, int stepMillis) {
+        this(simulation, stepMillis, new VirtualClock());
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param simulation продвигаемая симуляция.
+     * @param stepMillis длина шага в миллисекундах.
+     * @param clock      виртуальные часы, которые двигает прогон.
+     */
+    public HeadlessRunner(Simulation simulation, int stepMillis, VirtualClock clock) {
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("Step must be positive: " + stepMillis);
+        }
+        this.simulation = simulation;
+        this.stepMillis = stepMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * <p>Продвигает симуляцию на заданное время.</p>
+     *
+     * @param simulatedMillis время симуляции в миллисекундах,
+     *                        округляется вверх до целого числа шагов.
+     * @return итог прогона.
+     */
+    public HeadlessRunReport run(long simulatedMillis) {
+        return run(simulatedMillis, (tick, millis) -> true);
+    }
+
+    /**
+     * <p>Продвигает симуляцию на заданное время
+     * или пока наблюдатель не попросит остановиться.</p>
+     *
+     * @param simulatedMillis время симуляции в миллисекундах,
+     *                        округляется вверх до целого числа шагов.
+     * @param observer        наблюдатель, вызываемый после каждого шага.
+     * @return итог прогона.
+     */
+    public HeadlessRunReport run(long simulatedMillis, TickObserver observer) {
+        final long steps = (simulatedMillis + stepMillis - 1) / stepMillis;
+        final long startMillis = clock.millis();
+        final long startTicks = ticks;
+        final long startNanos = System.nanoTime();
+
+        for (long i = 0; i < steps; ++i) {
+            simulation.update(stepMillis);
+            clock.advanceMillis(stepMillis);
+            ++ticks;
+            if (!observer.onTick(ticks, clock.millis())) {
+                break;
+            }
+        }
+
+        final HeadlessRunReport report = new HeadlessRunReport(
+                ticks - startTicks,
+                clock.millis() - startMillis,
+                System.nanoTime() - startNanos);
+        log.debug("Headless run finished: {}", report);
+        return report;
+    }
+
+    /**
+     * <p>Виртуальные часы прогона.</p>
+     *
+     * @return часы.
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * <p>Сколько шагов выполнено за всё время.</p>
+     *
+     * @return количество шагов.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.urfu.core.loop;
+
+/**
+ * <p>Наблюдатель за шагами {@link HeadlessRunner}.</p>
+ */
+@FunctionalInterface
+public interface TickObserver {
+    /**
+     * <p>Вызывается после каждого шага симуляции.</p>
+     *
+     * @param tick            номер выполненного шага, начиная с единицы.
+     * @param simulatedMillis время симуляции после шага, в миллисекундах.
+     * @return продолжать ли прогон.
+     */
+    boolean onTick(long tick, long simulatedMillis);
+}
@@ -0,0 +1,49 @@
+package ru.urfu.core.loop;
+
+/**
+ * <p>Виртуальные часы: время идёт только тогда, когда его двигают явно.</p>
+ *
+ * <p>Класс не потокобезопасен.</p>
+ */
+public final class VirtualClock {
+    private final static long NANOS_IN_MILLI = 1_000_000L;
+
+    private long nanos = 0;
+
+    /**
+     * <p>Текущее время часов.</p>
+     *
+     * @return время в наносекундах с момента создания или сброса.
+     */
+    public long nanoTime() {
+        return nanos;
+    }
+
+    /**
+     * <p>Текущее время часов.</p>
+     *
+     * @return время в миллисекундах с момента создания или сброса.
+     */
+    public long millis() {
+        return nanos / NANOS_IN_MILLI;
+    }
+
+    /**
+     * <p>Двигает время вперёд.</p>
+     *
+     * @param millis на сколько миллисекунд.
+     */
+    public void advanceMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time can't go backwards: " + millis);
+        }
+        nanos += millis * NANOS_IN_MILLI;
+    }
+
+    /**
+     * <p>Сбрасывает время в ноль.</p>
+     */
+    public void reset() {
+        nanos = 0;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.urfu.core.movement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Создаёт логику передвижения по имени класса,
+ * например, при восстановлении сохранённого состояния.</p>
+ */
+public final class MovementFactory {
+    private final static Logger LOG = LoggerFactory.getLogger(MovementFactory.class);
+
+    /**
+     * <p>Приватный конструктор,
+     * чтобы не создавали объектов.</p>
+     */
+    private MovementFactory() {
+    }
+
+    /**
+     * <p>Создаёт логику через конструктор без аргументов.</p>
+     *
+     * <p>Если это невозможно (например, логика из мода задана лямбдой),
+     * возвращает {@link StandardModeMovement} и пишет предупреждение в лог.</p>
+     *
+     * @param className имя класса логики.
+     * @return новую логику передвижения.
+     * @throws IllegalArgumentException если класс есть, но это не логика передвижения.
+     */
+    public static RobotMovement create(String className) {
+        final Class<? extends RobotMovement> type = load(className);
+        if (type != null) {
+            try {
+                return type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                LOG.debug("No public no-argument constructor in {}", className, e);
+            }
+        }
+        LOG.warn("Cannot recreate movement logic {}, using standard movement instead", className);
+        return new StandardModeMovement();
+    }
+
+    /**
+     * <p>Проверяет имя класса логики из файла, не инициализируя класс.</p>
+     *
+     * @param className имя класса логики.
+     * @throws IllegalArgumentException если класс есть, но это не логика передвижения.
+     */
+    public static void checkClassName(String className) {
+        load(className);
+    }
+
+    /**
+     * <p>Загружает класс логики без инициализации: статический код
+     * класса выполняется, только если это логика передвижения.</p>
+     *
+     * @param className имя класса логики.
+     * @return класс или null, если его нет.
+     * @throws IllegalArgumentException если класс есть, но это не логика передвижения.
+     */
+    private static Class<? extends RobotMovement> load(String className) {
+        final Class<?> type;
+        try {
+            type = Class.forName(className, false, MovementFactory.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!RobotMovement.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Not a movement logic: " + className);
+        }
+        return type.asSubclass(RobotMovement.class);
+    }
+}
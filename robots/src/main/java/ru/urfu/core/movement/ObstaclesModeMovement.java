@@ -1,95 +1,420 @@
 package ru.urfu.core.movement;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import ru.urfu.core.GameModel;
-import ru.urfu.core.level.AStarPathFinder;
+import ru.urfu.core.command.AcceptPathCommand;
+import ru.urfu.core.level.ClearanceMap;
+import ru.urfu.core.level.Connectivity;
+import ru.urfu.core.level.ConnectivityIndex;
 import ru.urfu.core.level.Level;
+import ru.urfu.core.level.PathFinderType;
+import ru.urfu.core.level.PathPlanningService;
+import ru.urfu.utils.MutableVector2;
 import ru.urfu.utils.Vector2;
 
 /**
  * <p>Логика движение робота с поддержкой объезда препятствий.</p>
+ *
+ * <p>Путь ищется в фоне ({@link PathPlanningService}): пока пути нет,
+ * робот идёт в соседнюю клетку, ближайшую к цели. Найденный путь
+ * принимается командой {@link AcceptPathCommand}, которую логика
+ * отправляет модели, когда путь пора принять, а модель применяет
+ * в начале следующего тика. Когда это происходит, задаёт
+ * {@link GameModel#getPathAcceptance()}: в игровом цикле — как только
+ * поиск закончился, без ожидания; в прогоне без окна — через
+ * {@value #PLAN_DELAY_TICKS} тиков после запроса, дожидаясь поиска,
+ * чтобы движение зависело только от тиков; при воспроизведении — только
+ * по записанным командам. Запись сессии сохраняет команды, так что
+ * повтор принимает пути в тех же тиках, что и сессия. Если поиск
+ * завершился ошибкой или был отменён, тот же путь ищется сразу
+ * в потоке симуляции.</p>
+ *
+ * <p>Новая цель отменяет поиск пути к старой. Если к приходу пути
+ * робот с него сошёл, путь ищется заново от текущей клетки. Путь ищется
+ * заново и при изменении поля, по новой копии поля.</p>
+ *
+ * <p>Робот с радиусом объезжает препятствия на расстоянии, посчитанном
+ * в {@link ClearanceMap}, и не едет там, где не помещается, — ни по пути,
+ * ни пока путь ищется: шаги к цели проверяются по своей карте живого
+ * поля, которая обновляется вместе с ним.</p>
+ *
+ * <p>Недостижимая цель, например в замкнутом кармане поля, распознаётся
+ * по {@link ConnectivityIndex} без поиска: робот едет к ближайшей
+ * к цели достижимой клетке.</p>
+ *
+ * <p>Потоки поиска создаются при первом движении по полю и останавливаются
+ * в {@link #close()}.</p>
  */
 public final class ObstaclesModeMovement implements RobotMovement {
     private final static double EPSILON = 0.05;
     private final static double SPEED = 0.01;
+    private final static int PLAN_DELAY_TICKS = 5;
     private final Vector2 zero = new Vector2();
+    private final MutableVector2 scratch = new MutableVector2();
+    private final Supplier<PathPlanningService> plannerFactory;
+    private final Connectivity connectivity;
+    private final double robotRadius;
 
     private int pathIndex = 0;
-    private AStarPathFinder pathFinder;
+    private long pathVersion = 0;
+    private PathPlanningService planner;
+    private ConnectivityIndex connectivityIndex;
+    private ClearanceMap clearance;
+    private int requiredClearance;
+    private CompletableFuture<int[]> pendingPath;
+    private long planNumber = 0;
+    private boolean acceptRequested;
+    private long pendingApplyTick;
+    private int pendingFrom;
+    private int pendingTo;
     private List<Vector2> path;
     private Vector2 currentTarget;
 
+    /**
+     * <p>Конструктор. Путь ищется алгоритмом A* по четырём соседям.</p>
+     */
+    public ObstaclesModeMovement() {
+        this(PathFinderType.ASTAR, Connectivity.FOUR);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param pathFinderType алгоритм поиска пути.
+     * @param connectivity   соседство клеток.
+     * @throws IllegalArgumentException для {@link PathFinderType#DSTAR_LITE}:
+     *                                  фоновый поиск его не поддерживает.
+     */
+    public ObstaclesModeMovement(PathFinderType pathFinderType, Connectivity connectivity) {
+        this(connectivity, () -> new PathPlanningService(pathFinderType, connectivity));
+        if (pathFinderType == PathFinderType.DSTAR_LITE) {
+            throw new IllegalArgumentException("Background planning does not support " + pathFinderType);
+        }
+    }
+
+    /**
+     * <p>Конструктор для робота с радиусом. Путь ищется алгоритмом A*.</p>
+     *
+     * @param connectivity соседство клеток.
+     * @param robotRadius  радиус робота в клетках.
+     */
+    public ObstaclesModeMovement(Connectivity connectivity, double robotRadius) {
+        this(connectivity, robotRadius, robotRadius > 0
+                ? () -> new PathPlanningService(connectivity, robotRadius)
+                : () -> new PathPlanningService(PathFinderType.ASTAR, connectivity));
+    }
+
+    /**
+     * <p>Конструктор со своим поиском пути для точечного робота.</p>
+     *
+     * @param connectivity   соседство клеток для движения, пока путь ищется.
+     * @param plannerFactory создаёт поиск пути при первом движении по полю.
+     */
+    public ObstaclesModeMovement(Connectivity connectivity, Supplier<PathPlanningService> plannerFactory) {
+        this(connectivity, 0, plannerFactory);
+    }
+
+    /**
+     * <p>Конструктор со своим поиском пути.</p>
+     *
+     * @param connectivity   соседство клеток для движения, пока путь ищется.
+     * @param robotRadius    радиус робота в клетках для движения, пока путь ищется.
+     * @param plannerFactory создаёт поиск пути при первом движении по полю.
+     */
+    public ObstaclesModeMovement(Connectivity connectivity, double robotRadius,
+                                 Supplier<PathPlanningService> plannerFactory) {
+        this.plannerFactory = plannerFactory;
+        this.connectivity = connectivity;
+        this.robotRadius = robotRadius;
+    }
+
+    /**
+     * <p>Текущее продвижение по пути, например, для сохранения игры.</p>
+     *
+     * @return продвижение по пути.
+     */
+    public PathProgress getProgress() {
+        return new PathProgress(path == null ? null : List.copyOf(path), pathIndex, currentTarget);
+    }
+
+    /**
+     * <p>Продолжает движение по ранее сохранённому пути.</p>
+     *
+     * @param progress продвижение по пути.
+     */
+    public void restoreProgress(PathProgress progress) {
+        this.path = progress.path();
+        this.pathIndex = progress.pathIndex();
+        this.currentTarget = progress.path() == null ? null : progress.currentTarget();
+    }
+
+    @Override
+    public boolean hasPendingWork() {
+        return pendingPath != null;
+    }
+
+    /**
+     * <p>Отменяет поиск пути и останавливает его потоки. Если логику
+     * используют снова, путь ищется заново новыми потоками.</p>
+     */
+    @Override
+    public void close() {
+        if (pendingPath != null) {
+            pendingPath.cancel(false);
+            pendingPath = null;
+        }
+        if (planner != null) {
+            planner.close();
+            planner = null;
+        }
+        connectivityIndex = null;
+        clearance = null;
+        path = null;
+        currentTarget = null;
+    }
+
     @Override
     public Vector2 velocity(GameModel model, int time) {
+        velocity(model, time, scratch);
+        return scratch.isZero() ? zero : scratch.toVector2();
+    }
+
+    @Override
+    public void velocity(GameModel model, int time, MutableVector2 out) {
         final Level level = model.getLevel();
         if (level == null) {
-            return linearMovement(model, time);
+            linearMovement(model, time, out);
+            return;
         }
 
-        if (pathFinder == null) {
-            pathFinder = new AStarPathFinder(level);
+        if (planner == null) {
+            planner = plannerFactory.get();
+            connectivityIndex = new ConnectivityIndex(level);
+            if (robotRadius > 0) {
+                clearance = new ClearanceMap(level);
+                requiredClearance = clearance.requiredSquaredClearance(robotRadius);
+            }
+            pathVersion = level.getVersion();
         }
-        return pathBasedMovement(model, time);
+        pathBasedMovement(model, level, time, out);
     }
 
     /**
      * <p>Движение по пути.</p>
      *
+     * <p>Клетки сравниваются покомпонентно, чтобы не создавать векторов на каждом тике;
+     * новые векторы создаются только при смене цели и приходе пути.</p>
+     *
      * @param model модель.
+     * @param level поле модели.
      * @param time  дельта времени.
-     * @return вектор движения.
+     * @param out   вектор для результата.
      */
-    private Vector2 pathBasedMovement(GameModel model, int time) {
+    private void pathBasedMovement(GameModel model, Level level, int time, MutableVector2 out) {
         final Vector2 target = model.getTargetPosition();
-        final Vector2 targetTile = floorVector(target);
+        final int targetTileX = (int) Math.floor(target.x());
+        final int targetTileY = (int) Math.floor(target.y());
 
         final Vector2 from = model.getRobotInfo().position();
-        final Vector2 fromTile = floorVector(from);
+        final int fromTileX = (int) Math.floor(from.x());
+        final int fromTileY = (int) Math.floor(from.y());
 
-        if (currentTarget == null || !currentTarget.equals(targetTile)) {
-            currentTarget = targetTile;
-            path = pathFinder.findPath(fromTile, targetTile);
-            pathIndex = 0;
+        if (currentTarget == null || currentTarget.x() != targetTileX || currentTarget.y() != targetTileY
+                || pathVersion != level.getVersion()) {
+            currentTarget = new Vector2(targetTileX, targetTileY);
+            requestPath(model, level, fromTileX, fromTileY);
+            pathVersion = level.getVersion();
+        }
+        if (pendingPath != null && !acceptRequested && isAcceptDue(model)) {
+            acceptRequested = true;
+            model.submit(new AcceptPathCommand(planNumber));
         }
 
-        if (path == null || path.isEmpty() || pathIndex >= path.size()) {
-            return zero;
+        if (pendingPath != null) {
+            greedyMovement(model, level, time, out);
+        } else if (path == null || path.isEmpty() || pathIndex >= path.size()) {
+            out.setZero();
+        } else {
+            followPath(model, time, out);
         }
+    }
 
-        final Vector2 next = path.get(pathIndex);
-        if (next.equals(targetTile)) {
-            return linearMovement(model, time);
-        } else if (next.equals(fromTile)) {
+    /**
+     * <p>Шаг по найденному пути.</p>
+     *
+     * <p>Клетки пути, в которых робот уже стоит, пропускаются в том же тике:
+     * тик без движения сразу после приёма пути мог бы усыпить модель.</p>
+     *
+     * @param model модель.
+     * @param time  дельта времени.
+     * @param out   вектор для результата.
+     */
+    private void followPath(GameModel model, int time, MutableVector2 out) {
+        final Vector2 target = model.getTargetPosition();
+        final Vector2 from = model.getRobotInfo().position();
+        final double fromTileX = Math.floor(from.x());
+        final double fromTileY = Math.floor(from.y());
+        Vector2 next = path.get(pathIndex);
+        while (next.x() == fromTileX && next.y() == fromTileY && pathIndex + 1 < path.size()) {
+            next = path.get(++pathIndex);
+        }
+        if (next.x() == Math.floor(target.x()) && next.y() == Math.floor(target.y())) {
+            linearMovement(model, time, out);
+        } else if (next.x() == fromTileX && next.y() == fromTileY) {
             ++pathIndex;
-            return zero;
+            out.setZero();
+        } else {
+            out.set(next.x() - fromTileX, next.y() - fromTileY).normalize().scale(time * SPEED);
         }
-
-        return next.minus(fromTile).normalize().scalar(time * SPEED);
     }
 
     /**
-     * <p>Движение по прямой.</p>
+     * <p>Шаг в соседнюю клетку, ближайшую к цели, пока путь ищется;
+     * роботу с радиусом — только туда, где он помещается.</p>
      *
      * @param model модель.
+     * @param level поле модели.
      * @param time  дельта времени.
-     * @return вектор движения.
+     * @param out   вектор для результата.
      */
-    private Vector2 linearMovement(GameModel model, int time) {
-        final Vector2 target = model.getTargetPosition();
+    private void greedyMovement(GameModel model, Level level, int time, MutableVector2 out) {
         final Vector2 from = model.getRobotInfo().position();
-        if (from.distanceSquared(target) < EPSILON) {
-            return zero;
+        final int fromTileX = (int) Math.floor(from.x());
+        final int fromTileY = (int) Math.floor(from.y());
+        final int targetTileX = (int) currentTarget.x();
+        final int targetTileY = (int) currentTarget.y();
+        final int step = PathPlanningService.greedyStep(level, connectivity, clearance, requiredClearance,
+                fromTileX, fromTileY, targetTileX, targetTileY);
+        if (fromTileX == targetTileX && fromTileY == targetTileY
+                || step == targetTileY * level.getWidth() + targetTileX) {
+            linearMovement(model, time, out);
+        } else if (step < 0) {
+            out.setZero();
+        } else {
+            out.set(step % level.getWidth() - fromTileX, step / level.getWidth() - fromTileY)
+                    .normalize().scale(time * SPEED);
         }
-        return target.minus(from).normalize().scalar(time * SPEED);
     }
 
     /**
-     * Покомпонентное взятие целое части от вектора.
+     * <p>Отменяет прежний поиск и ищет путь от клетки к текущей цели или,
+     * если она недостижима, к ближайшей к ней достижимой клетке.</p>
      *
-     * @param vec вектор.
-     * @return результат.
+     * @param model модель.
+     * @param level поле модели.
+     * @param fromX x клетки старта.
+     * @param fromY y клетки старта.
      */
-    private Vector2 floorVector(Vector2 vec) {
-        return new Vector2(Math.floor(vec.x()), Math.floor(vec.y()));
+    private void requestPath(GameModel model, Level level, int fromX, int fromY) {
+        if (pendingPath != null) {
+            pendingPath.cancel(false);
+        }
+        path = null;
+        pathIndex = 0;
+        final int toX = (int) currentTarget.x();
+        final int toY = (int) currentTarget.y();
+        final int to = connectivityIndex.isReachable(fromX, fromY, toX, toY)
+                ? toY * level.getWidth() + toX
+                : connectivityIndex.nearestReachable(fromX, fromY, toX, toY);
+        if (to < 0) {
+            pendingPath = null;
+            path = List.of();
+        } else {
+            pendingFrom = fromY * level.getWidth() + fromX;
+            pendingTo = to;
+            ++planNumber;
+            acceptRequested = false;
+            pendingApplyTick = model.getTick() + PLAN_DELAY_TICKS;
+            pendingPath = planner.plan(level, fromX, fromY, to % level.getWidth(), to / level.getWidth());
+        }
+    }
+
+    /**
+     * <p>Пора ли отправить команду принять путь.</p>
+     *
+     * @param model модель.
+     * @return пора ли.
+     */
+    private boolean isAcceptDue(GameModel model) {
+        return switch (model.getPathAcceptance()) {
+            case FIXED_DELAY -> model.getTick() + 1 >= pendingApplyTick;
+            case WHEN_READY -> pendingPath.isDone();
+            case ON_COMMAND -> false;
+        };
+    }
+
+    /**
+     * <p>Принимает найденный путь, дождавшись поиска. Если робот, пока путь
+     * искался, сошёл с него, путь ищется заново от текущей клетки.
+     * Команда для прежнего запроса ничего не делает.</p>
+     *
+     * @param model модель.
+     * @param plan  номер запроса пути.
+     */
+    @Override
+    public void acceptPath(GameModel model, long plan) {
+        final Level level = model.getLevel();
+        if (pendingPath == null || plan != planNumber || level == null) {
+            return;
+        }
+        final Vector2 position = model.getRobotInfo().position();
+        final int fromX = (int) Math.floor(position.x());
+        final int fromY = (int) Math.floor(position.y());
+        final int[] cells = awaitPath(level);
+        pendingPath = null;
+        final int from = fromY * level.getWidth() + fromX;
+        int index = 0;
+        while (index < cells.length && cells[index] != from) {
+            ++index;
+        }
+        if (index < cells.length || cells.length == 0) {
+            final Vector2[] vectors = new Vector2[cells.length];
+            for (int i = 0; i < cells.length; ++i) {
+                vectors[i] = new Vector2(cells[i] % level.getWidth(), cells[i] / level.getWidth());
+            }
+            path = List.of(vectors);
+            pathIndex = index;
+        } else {
+            requestPath(model, level, fromX, fromY);
+        }
+    }
+
+    /**
+     * <p>Ждёт результата фонового поиска. Если поиск завершился ошибкой
+     * или был отменён, например, переполнением или остановкой потоков,
+     * тот же путь ищется в текущем потоке.</p>
+     *
+     * @param level поле модели.
+     * @return путь в формате {@link ru.urfu.core.level.PathFinder#findPath(int, int, int, int)}.
+     */
+    private int[] awaitPath(Level level) {
+        try {
+            return pendingPath.join();
+        } catch (CompletionException | CancellationException e) {
+            final int width = level.getWidth();
+            return planner.findPath(level, pendingFrom % width, pendingFrom / width,
+                    pendingTo % width, pendingTo / width);
+        }
+    }
+
+    /**
+     * <p>Движение по прямой.</p>
+     *
+     * @param model модель.
+     * @param time  дельта времени.
+     * @param out   вектор для результата.
+     */
+    private void linearMovement(GameModel model, int time, MutableVector2 out) {
+        final Vector2 target = model.getTargetPosition();
+        final Vector2 from = model.getRobotInfo().position();
+        if (from.distanceSquared(target) < EPSILON) {
+            out.setZero();
+            return;
+        }
+        out.set(target).sub(from).normalize().scale(time * SPEED);
     }
 }
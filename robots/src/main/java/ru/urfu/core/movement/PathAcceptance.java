@@ -0,0 +1,28 @@
+package ru.urfu.core.movement;
+
+/**
+ * <p>Когда логика передвижения принимает путь, найденный в фоне.</p>
+ *
+ * <p>Путь принимается командой {@link ru.urfu.core.command.AcceptPathCommand}
+ * в начале тика; записанная команда воспроизводит сессию тик в тик.</p>
+ */
+public enum PathAcceptance {
+    /**
+     * <p>Через фиксированное число тиков после запроса: если поиск
+     * к этому тику не закончился, тик его ждёт. Движение зависит только
+     * от тиков, поэтому прогоны без окна повторяются.</p>
+     */
+    FIXED_DELAY,
+
+    /**
+     * <p>В следующем тике после того, как поиск закончился; тик поиска
+     * никогда не ждёт. Для игрового цикла в реальном времени.</p>
+     */
+    WHEN_READY,
+
+    /**
+     * <p>Только по командам извне, дожидаясь поиска; сама логика команд
+     * не отправляет. Для воспроизведения записи.</p>
+     */
+    ON_COMMAND
+}
@@ -0,0 +1,14 @@
+package ru.urfu.core.movement;
+
+import java.util.List;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Продвижение робота по найденному пути в {@link ObstaclesModeMovement}.</p>
+ *
+ * @param path          клетки пути или null, если путь не искали или не нашли.
+ * @param pathIndex     номер следующей клетки пути.
+ * @param currentTarget клетка цели, к которой построен путь, или null.
+ */
+public record PathProgress(List<Vector2> path, int pathIndex, Vector2 currentTarget) {
+}
@@ -1,20 +1,70 @@
 package ru.urfu.core.movement;
 
 import ru.urfu.core.GameModel;
+import ru.urfu.utils.MutableVector2;
 import ru.urfu.utils.Vector2;
 
 /**
  * <p>Логика передвижения робота.</p>
  */
-public interface RobotMovement {
+public interface RobotMovement extends AutoCloseable {
     /**
      * <p>Векторная скорость (направление, умноженное на скорость).</p>
      *
-     * <p>Нулевой вектор воспринимается как отсутствие движения.</p>
+     * <p>Нулевой вектор воспринимается как отсутствие движения.
+     * Если логика несколько тиков подряд возвращает нулевой вектор,
+     * модель засыпает до следующей команды, поэтому логика не должна
+     * возобновлять движение сама по себе, по прошествии времени,
+     * если только не сообщает об этом через {@link #hasPendingWork()}.</p>
      *
      * @param model модель для принятия решений.
      * @param time  время, прошедшее с последнего тика.
      * @return векторную скорость.
      */
     Vector2 velocity(GameModel model, int time);
+
+    /**
+     * <p>Векторная скорость, записываемая в переданный вектор.</p>
+     *
+     * <p>Модель вызывает на каждом тике именно этот метод. По умолчанию
+     * он копирует результат {@link #velocity(GameModel, int)}; встроенные
+     * логики переопределяют его, чтобы тик обходился без аллокаций.</p>
+     *
+     * @param model модель для принятия решений.
+     * @param time  время, прошедшее с последнего тика.
+     * @param out   вектор для результата.
+     */
+    default void velocity(GameModel model, int time, MutableVector2 out) {
+        out.set(velocity(model, time));
+    }
+
+    /**
+     * <p>Ждёт ли логика чего-то, после чего робот может поехать,
+     * например, пути из фонового поиска. Пока ждёт, модель не засыпает.</p>
+     *
+     * @return {@code true}, если логика чего-то ждёт.
+     */
+    default boolean hasPendingWork() {
+        return false;
+    }
+
+    /**
+     * <p>Принимает путь, найденный в фоне, по команде
+     * {@link ru.urfu.core.command.AcceptPathCommand}. Модель вызывает
+     * метод в начале тика, до {@link #velocity(GameModel, int, MutableVector2)}.
+     * По умолчанию ничего не делает.</p>
+     *
+     * @param model модель.
+     * @param plan  номер запроса пути.
+     */
+    default void acceptPath(GameModel model, long plan) {
+    }
+
+    /**
+     * <p>Освобождает ресурсы логики, например, потоки поиска пути.
+     * Модель вызывает метод, когда заменяет логику другой.</p>
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -3,6 +3,8 @@ package ru.urfu.core.movement;
 import ru.urfu.core.GameModel;
 import ru.urfu.core.RobotInfo;
 import ru.urfu.utils.MathTools;
+import ru.urfu.utils.MutableVector2;
+import ru.urfu.utils.Trigonometry;
 import ru.urfu.utils.Vector2;
 
 /**
@@ -16,19 +18,25 @@ public final class StandardModeMovement implements RobotMovement {
     private static final double RADIUS = MAX_VELOCITY / MAX_ANGULAR_VELOCITY;
 
     private final Vector2 zero = new Vector2();
-
-    private GameModel model;
+    private final MutableVector2 scratch = new MutableVector2();
 
     @Override
     public Vector2 velocity(GameModel model, int time) {
-        this.model = model;
-        if (!hasChanges()) {
-            return zero;
+        velocity(model, time, scratch);
+        return scratch.isZero() ? zero : scratch.toVector2();
+    }
+
+    @Override
+    public void velocity(GameModel model, int time, MutableVector2 out) {
+        final RobotInfo robot = model.getRobotInfo();
+        final Vector2 target = model.getTargetPosition();
+        if (!hasChanges(robot, target)) {
+            out.setZero();
+            return;
         }
-        final double direction = calcNewDirection(time);
-        final double x = MAX_VELOCITY * time * Math.cos(direction);
-        final double y = MAX_VELOCITY * time * Math.sin(direction);
-        return new Vector2(x, y);
+        final Trigonometry trigonometry = model.getTrigonometry();
+        final double direction = calcNewDirection(trigonometry, robot, target, time);
+        out.set(MAX_VELOCITY * time * trigonometry.cos(direction), MAX_VELOCITY * time * trigonometry.sin(direction));
     }
 
     /**
@@ -39,28 +47,27 @@ public final class StandardModeMovement implements RobotMovement {
      *
      * <p>Квадрат берём, чтобы не вычислять корень.</p>
      *
+     * @param robot  положение робота.
+     * @param target положение цели.
      * @return результат проверки.
      */
-    private boolean hasChanges() {
-        final double distance = model
-                .getRobotInfo()
-                .position()
-                .distanceSquared(model.getTargetPosition());
-        return distance >= HALF_A_PIXEL;
+    private boolean hasChanges(RobotInfo robot, Vector2 target) {
+        return robot.position().distanceSquared(target) >= HALF_A_PIXEL;
     }
 
     /**
      * <p>Вычисляет новое направления робота
      * на основании положения цели.</p>
      *
-     * @param time время, прошедшее с последнего апдейта.
+     * @param trigonometry режим тригонометрии модели.
+     * @param p            положение робота.
+     * @param target       положение цели.
+     * @param time         время, прошедшее с последнего апдейта.
      * @return новое направление для робота.
      */
-    private double calcNewDirection(int time) {
-        final RobotInfo p = model.getRobotInfo();
-        final Vector2 target = model.getTargetPosition();
-
-        final double angleToTarget = MathTools.angleTo(p.position(), target);
+    private double calcNewDirection(Trigonometry trigonometry, RobotInfo p, Vector2 target, int time) {
+        final Vector2 position = p.position();
+        final double angleToTarget = trigonometry.angleTo(position.x(), position.y(), target.x(), target.y());
         final double angleDifference = MathTools.asNormalizedRadians(angleToTarget - p.direction());
 
         if (angleDifference < EPSILON) {
@@ -69,7 +76,7 @@ public final class StandardModeMovement implements RobotMovement {
 
         double angularVelocity = MAX_ANGULAR_VELOCITY;
         angularVelocity *= (angleDifference > Math.PI) ? -1 : 1;
-        angularVelocity *= (isInsideBlindZone(p, target)) ? -1 : 1;
+        angularVelocity *= (isInsideBlindZone(trigonometry, p, target)) ? -1 : 1;
 
         final double angleDelta = angularVelocity * time;
         return MathTools.asNormalizedRadians(p.direction() + angleDelta);
@@ -80,30 +87,29 @@ public final class StandardModeMovement implements RobotMovement {
      * <p>Слепой зоной назовём внутренности окружности,
      * по которым робот может совершить круговое движение.</p>
      *
-     * @param pos   информация о положении робота.
-     * @param point проверяемая точка.
+     * @param trigonometry режим тригонометрии модели.
+     * @param pos          информация о положении робота.
+     * @param point        проверяемая точка.
      * @return результат проверки.
      */
-    private boolean isInsideBlindZone(RobotInfo pos, Vector2 point) {
+    private boolean isInsideBlindZone(Trigonometry trigonometry, RobotInfo pos, Vector2 point) {
         final double robotX = pos.position().x();
         final double robotY = pos.position().y();
 
         final double radiusSquared = RADIUS * RADIUS;
-        final double directionSin = Math.sin(pos.direction());
-        final double directionCos = Math.cos(pos.direction());
+        final double directionSin = trigonometry.sin(pos.direction());
+        final double directionCos = trigonometry.cos(pos.direction());
 
         final double blindZone1CenterX = robotX - RADIUS * directionSin;
         final double blindZone1CenterY = robotY + RADIUS * directionCos;
-        final Vector2 blindZone1 = new Vector2(blindZone1CenterX, blindZone1CenterY);
-        final double distance1 = point.distanceSquared(blindZone1);
+        final double distance1 = point.distanceSquared(blindZone1CenterX, blindZone1CenterY);
         if (distance1 < radiusSquared) {
             return true;
         }
 
         final double blindZone2CenterX = robotX + RADIUS * directionSin;
         final double blindZone2CenterY = robotY - RADIUS * directionCos;
-        final Vector2 blindZone2 = new Vector2(blindZone2CenterX, blindZone2CenterY);
-        final double distance2 = point.distanceSquared(blindZone2);
+        final double distance2 = point.distanceSquared(blindZone2CenterX, blindZone2CenterY);
         return distance2 < radiusSquared;
     }
 }
@@ -0,0 +1,110 @@
+package ru.urfu.core.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Формат файла записи сессии.</p>
+ *
+ * <p>Заголовок: магическое число, версия формата и длина шага в миллисекундах.
+ * Далее идут записи: код операции, разница между номером тика записи
+ * и предыдущей записи (varint) и данные команды. Последняя запись
+ * {@link #END} хранит номер тика, на котором запись закончилась.</p>
+ *
+ * <p>Все числа, кроме varint, записываются в порядке big-endian.</p>
+ */
+final class ReplayFormat {
+    /**
+     * <p>Магическое число: {@code RBRP} в ASCII.</p>
+     */
+    static final int MAGIC = 0x52425250;
+    /**
+     * <p>Версия формата.</p>
+     */
+    static final short VERSION = 2;
+
+    /**
+     * <p>Конец записи.</p>
+     */
+    static final byte END = 0;
+    /**
+     * <p>{@link ru.urfu.core.command.SetTargetCommand}: два double.</p>
+     */
+    static final byte SET_TARGET = 1;
+    /**
+     * <p>{@link ru.urfu.core.command.ResetCommand}: без данных.</p>
+     */
+    static final byte RESET = 2;
+    /**
+     * <p>{@link ru.urfu.core.command.ObstaclesModeCommand}: ширина, высота
+     * и упакованные биты поля ({@link ru.urfu.core.level.Level#toPackedBits()}).</p>
+     */
+    static final byte OBSTACLES_MODE = 3;
+    /**
+     * <p>{@link ru.urfu.core.command.ChangeLogicCommand}: длина и UTF-8 имя класса логики.</p>
+     */
+    static final byte CHANGE_LOGIC = 4;
+    /**
+     * <p>{@link ru.urfu.core.command.RestoreCheckpointCommand}: длина и байты
+     * контрольной точки ({@link ru.urfu.core.checkpoint.CheckpointFormat}).
+     * Следующая запись отсчитывает тик от тика контрольной точки.</p>
+     */
+    static final byte RESTORE_CHECKPOINT = 5;
+    /**
+     * <p>{@link ru.urfu.core.command.AcceptPathCommand}: номер запроса пути (varint).
+     * Появилась во второй версии формата: без неё повтор не знает,
+     * в каком тике принимать пути.</p>
+     */
+    static final byte ACCEPT_PATH = 6;
+
+    /**
+     * <p>Наибольшая длина varint для long.</p>
+     */
+    static final int MAX_VARLONG_BYTES = 10;
+
+    private final static int VARINT_PAYLOAD_BITS = 7;
+    private final static int VARINT_PAYLOAD_MASK = 0x7F;
+    private final static int VARINT_CONTINUATION = 0x80;
+
+    /**
+     * <p>Приватный конструктор,
+     * чтобы не создавали объектов.</p>
+     */
+    private ReplayFormat() {
+    }
+
+    /**
+     * <p>Записывает неотрицательное число в формате varint.</p>
+     *
+     * @param buffer буфер.
+     * @param value  число.
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        long rest = value;
+        while ((rest & ~VARINT_PAYLOAD_MASK) != 0) {
+            buffer.put((byte) ((rest & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION));
+            rest >>>= VARINT_PAYLOAD_BITS;
+        }
+        buffer.put((byte) rest);
+    }
+
+    /**
+     * <p>Читает число в формате varint.</p>
+     *
+     * @param buffer буфер.
+     * @return прочитанное число.
+     */
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if (shift >= Long.SIZE) {
+                throw new IllegalStateException("Malformed varint at " + buffer.position());
+            }
+            current = buffer.get();
+            value |= (long) (current & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((current & VARINT_CONTINUATION) != 0);
+        return value;
+    }
+}
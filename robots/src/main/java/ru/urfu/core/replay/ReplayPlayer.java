@@ -0,0 +1,201 @@
+package ru.urfu.core.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.urfu.core.GameModel;
+import ru.urfu.core.checkpoint.Checkpoint;
+import ru.urfu.core.checkpoint.CheckpointFormat;
+import ru.urfu.core.command.AcceptPathCommand;
+import ru.urfu.core.command.ChangeLogicCommand;
+import ru.urfu.core.command.ModelCommand;
+import ru.urfu.core.command.ObstaclesModeCommand;
+import ru.urfu.core.command.ResetCommand;
+import ru.urfu.core.command.RestoreCheckpointCommand;
+import ru.urfu.core.command.SetTargetCommand;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.loop.HeadlessRunReport;
+import ru.urfu.core.loop.HeadlessRunner;
+import ru.urfu.core.movement.MovementFactory;
+import ru.urfu.core.movement.PathAcceptance;
+import ru.urfu.core.movement.RobotMovement;
+import ru.urfu.core.movement.StandardModeMovement;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Воспроизводит запись, сделанную {@link ReplayRecorder}.</p>
+ *
+ * <p>Файл отображается в память целиком, а модель продвигается
+ * через {@link HeadlessRunner} без ожидания: каждая команда подаётся
+ * перед тем тиком, в котором она была применена в исходной сессии.
+ * Пути, найденные в фоне, модель принимает только по записанным
+ * командам ({@link PathAcceptance#ON_COMMAND}).</p>
+ *
+ * <p>Логика передвижения восстанавливается по имени класса. По умолчанию
+ * класс создаётся конструктором без аргументов; если это невозможно
+ * (например, логика из мода задана лямбдой), используется
+ * {@link StandardModeMovement}, а в лог пишется предупреждение.</p>
+ */
+public final class ReplayPlayer {
+    private final Logger log = LoggerFactory.getLogger(ReplayPlayer.class);
+    private final Path file;
+    private final Function<String, RobotMovement> logicResolver;
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param file файл записи.
+     */
+    public ReplayPlayer(Path file) {
+        this.file = file;
+        this.logicResolver = MovementFactory::create;
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param file          файл записи.
+     * @param logicResolver создаёт логику передвижения по имени класса.
+     */
+    public ReplayPlayer(Path file, Function<String, RobotMovement> logicResolver) {
+        this.file = file;
+        this.logicResolver = logicResolver;
+    }
+
+    /**
+     * <p>Воспроизводит запись на модели.</p>
+     *
+     * @param model модель в первоначальном состоянии, ни разу не обновлённая;
+     *              она переводится в режим {@link PathAcceptance#ON_COMMAND}.
+     * @return итог прогона.
+     * @throws IOException если файл не удалось прочитать или он повреждён.
+     */
+    public HeadlessRunReport play(GameModel model) throws IOException {
+        final long startNanos = System.nanoTime();
+        final MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        final int stepMillis = readHeader(data);
+        model.setPathAcceptance(PathAcceptance.ON_COMMAND);
+        final HeadlessRunner runner = new HeadlessRunner(model, stepMillis);
+        long tick = 0;
+        long modelTick = 0;
+        long commands = 0;
+        try {
+            while (true) {
+                final byte opcode = data.get();
+                tick += ReplayFormat.getVarLong(data);
+                if (opcode == ReplayFormat.END) {
+                    advance(runner, tick - modelTick, stepMillis);
+                    break;
+                }
+                advance(runner, tick - 1 - modelTick, stepMillis);
+                modelTick = tick - 1;
+
+                final ModelCommand command = readCommand(opcode, data);
+                model.submit(command);
+                if (command instanceof RestoreCheckpointCommand restore) {
+                    tick = restore.checkpoint().tick();
+                    modelTick = tick - 1;
+                }
+                ++commands;
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted replay " + file + " at byte " + data.position(), e);
+        }
+
+        final HeadlessRunReport report = new HeadlessRunReport(
+                runner.getTicks(), runner.getClock().millis(), System.nanoTime() - startNanos);
+        log.debug("Replayed {} commands from {}: {}", commands, file, report);
+        return report;
+    }
+
+    /**
+     * <p>Проверяет заголовок записи.</p>
+     *
+     * @param data данные файла.
+     * @return длина шага в миллисекундах.
+     * @throws IOException если заголовок не подходит.
+     */
+    private int readHeader(ByteBuffer data) throws IOException {
+        if (data.remaining() < Integer.BYTES + Short.BYTES + Integer.BYTES || data.getInt() != ReplayFormat.MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        final short version = data.getShort();
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported replay version " + version + " in " + file);
+        }
+        return data.getInt();
+    }
+
+    /**
+     * <p>Продвигает модель на заданное число тиков.</p>
+     *
+     * <p>После восстановления контрольной точки номер тика модели
+     * перескакивает, поэтому тики считает вызывающий код.</p>
+     *
+     * @param runner     прогон.
+     * @param steps      число тиков.
+     * @param stepMillis длина шага.
+     */
+    private void advance(HeadlessRunner runner, long steps, int stepMillis) {
+        if (steps > 0) {
+            runner.run(steps * stepMillis);
+        }
+    }
+
+    /**
+     * <p>Читает данные команды.</p>
+     *
+     * @param opcode код операции.
+     * @param data   данные файла.
+     * @return команда.
+     * @throws IOException если вложенная контрольная точка повреждена.
+     */
+    private ModelCommand readCommand(byte opcode, ByteBuffer data) throws IOException {
+        final ModelCommand command;
+        if (opcode == ReplayFormat.SET_TARGET) {
+            final double x = data.getDouble();
+            final double y = data.getDouble();
+            command = new SetTargetCommand(new Vector2(x, y));
+        } else if (opcode == ReplayFormat.RESET) {
+            command = new ResetCommand();
+        } else if (opcode == ReplayFormat.OBSTACLES_MODE) {
+            final int width = data.getInt();
+            final int height = data.getInt();
+            final int words = Level.packedLength(width, height);
+            if ((long) words * Long.BYTES > data.remaining()) {
+                throw new IOException("Level %dx%d is truncated".formatted(width, height));
+            }
+            final long[] bits = new long[words];
+            data.asLongBuffer().get(bits);
+            data.position(data.position() + Long.BYTES * bits.length);
+            command = new ObstaclesModeCommand(Level.fromPackedBits(width, height, bits));
+        } else if (opcode == ReplayFormat.CHANGE_LOGIC) {
+            final byte[] name = new byte[data.getInt()];
+            data.get(name);
+            final String className = new String(name, StandardCharsets.UTF_8);
+            MovementFactory.checkClassName(className);
+            command = new ChangeLogicCommand(logicResolver.apply(className));
+        } else if (opcode == ReplayFormat.RESTORE_CHECKPOINT) {
+            final int length = data.getInt();
+            final Checkpoint checkpoint = CheckpointFormat.decode(data.slice(data.position(), length));
+            data.position(data.position() + length);
+            command = new RestoreCheckpointCommand(checkpoint);
+        } else if (opcode == ReplayFormat.ACCEPT_PATH) {
+            command = new AcceptPathCommand(ReplayFormat.getVarLong(data));
+        } else {
+            throw new IllegalStateException("Unknown opcode " + opcode);
+        }
+        return command;
+    }
+}
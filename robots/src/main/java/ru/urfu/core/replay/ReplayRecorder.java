@@ -0,0 +1,213 @@
+package ru.urfu.core.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.urfu.core.GameModel;
+import ru.urfu.core.checkpoint.Checkpoint;
+import ru.urfu.core.checkpoint.CheckpointFormat;
+import ru.urfu.core.command.AcceptPathCommand;
+import ru.urfu.core.command.ChangeLogicCommand;
+import ru.urfu.core.command.ModelCommand;
+import ru.urfu.core.command.ModelCommandListener;
+import ru.urfu.core.command.ObstaclesModeCommand;
+import ru.urfu.core.command.ResetCommand;
+import ru.urfu.core.command.RestoreCheckpointCommand;
+import ru.urfu.core.command.SetTargetCommand;
+import ru.urfu.core.level.Level;
+
+/**
+ * <p>Записывает команды, применённые моделью, в двоичный файл
+ * формата {@link ReplayFormat}.</p>
+ *
+ * <p>Записи копятся в буфере и сбрасываются в {@link FileChannel}
+ * по мере заполнения и при закрытии. Подключать запись нужно
+ * до первого тика модели, иначе воспроизведение не совпадёт с сессией.</p>
+ *
+ * <p>Снятие контрольной точки состояние не меняет и не записывается.</p>
+ *
+ * <p>Ошибка записи не останавливает симуляцию: она пишется в лог,
+ * и запись прекращается.</p>
+ */
+public final class ReplayRecorder implements ModelCommandListener, Closeable {
+    private final static int BUFFER_SIZE = 64 * 1024;
+    private final static int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private final static int RECORD_PREFIX_BYTES = 1 + ReplayFormat.MAX_VARLONG_BYTES;
+
+    private final Logger log = LoggerFactory.getLogger(ReplayRecorder.class);
+    private final Path file;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private GameModel model;
+    private long lastTick = 0;
+    private long recorded = 0;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    /**
+     * <p>Конструктор. Создаёт файл (или перезаписывает существующий) и пишет заголовок.</p>
+     *
+     * @param file       файл записи.
+     * @param stepMillis длина шага игрового цикла в миллисекундах.
+     * @throws IOException если файл не удалось открыть.
+     */
+    public ReplayRecorder(Path file, int stepMillis) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ensureCapacity(HEADER_BYTES);
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.putShort(ReplayFormat.VERSION);
+        buffer.putInt(stepMillis);
+    }
+
+    /**
+     * <p>Начинает записывать команды модели.</p>
+     *
+     * @param gameModel записываемая модель.
+     */
+    public synchronized void attach(GameModel gameModel) {
+        if (gameModel.getTick() != 0) {
+            log.warn("Recording attached at tick {}, replay will not match the session", gameModel.getTick());
+        }
+        this.model = gameModel;
+        gameModel.setCommandListener(this);
+        log.debug("Recording commands to {}", file);
+    }
+
+    @Override
+    public synchronized void onCommandApplied(long tick, ModelCommand command) {
+        if (failed || closed) {
+            return;
+        }
+        try {
+            if (writeCommand(tick, command)) {
+                ++recorded;
+            }
+        } catch (IOException e) {
+            failed = true;
+            log.error("Failed to record command, recording is stopped", e);
+        }
+    }
+
+    /**
+     * <p>Отключается от модели, дописывает запись конца и закрывает файл.</p>
+     *
+     * @throws IOException если не удалось дописать файл.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long endTick = lastTick;
+        if (model != null) {
+            model.setCommandListener(null);
+            endTick = Math.max(endTick, model.getTick());
+        }
+        try (channel) {
+            if (!failed) {
+                beginRecord(ReplayFormat.END, endTick, 0);
+                flush();
+                channel.force(false);
+            }
+        }
+        log.debug("Recorded {} commands over {} ticks to {}", recorded, endTick, file);
+    }
+
+    /**
+     * <p>Записывает одну команду.</p>
+     *
+     * @param tick    тик применения команды.
+     * @param command команда.
+     * @return была ли команда записана.
+     * @throws IOException если не удалось сбросить буфер.
+     */
+    private boolean writeCommand(long tick, ModelCommand command) throws IOException {
+        if (command instanceof SetTargetCommand setTarget) {
+            beginRecord(ReplayFormat.SET_TARGET, tick, Double.BYTES * 2);
+            buffer.putDouble(setTarget.target().x());
+            buffer.putDouble(setTarget.target().y());
+        } else if (command instanceof ResetCommand) {
+            beginRecord(ReplayFormat.RESET, tick, 0);
+        } else if (command instanceof ObstaclesModeCommand obstaclesMode) {
+            final Level level = obstaclesMode.level();
+            final long[] bits = level.toPackedBits();
+            beginRecord(ReplayFormat.OBSTACLES_MODE, tick, Integer.BYTES * 2 + Long.BYTES * bits.length);
+            buffer.putInt(level.getWidth());
+            buffer.putInt(level.getHeight());
+            for (long word : bits) {
+                buffer.putLong(word);
+            }
+        } else if (command instanceof ChangeLogicCommand changeLogic) {
+            final byte[] name = changeLogic.logic().getClass().getName().getBytes(StandardCharsets.UTF_8);
+            beginRecord(ReplayFormat.CHANGE_LOGIC, tick, Integer.BYTES + name.length);
+            buffer.putInt(name.length);
+            buffer.put(name);
+        } else if (command instanceof RestoreCheckpointCommand restore) {
+            final Checkpoint checkpoint = restore.checkpoint();
+            final byte[] bytes = CheckpointFormat.encode(checkpoint);
+            beginRecord(ReplayFormat.RESTORE_CHECKPOINT, tick, Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+            lastTick = checkpoint.tick();
+        } else if (command instanceof AcceptPathCommand acceptPath) {
+            beginRecord(ReplayFormat.ACCEPT_PATH, tick, ReplayFormat.MAX_VARLONG_BYTES);
+            ReplayFormat.putVarLong(buffer, acceptPath.plan());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * <p>Пишет код операции и номер тика, заранее освобождая место под запись.</p>
+     *
+     * @param opcode       код операции.
+     * @param tick         номер тика.
+     * @param payloadBytes размер данных записи.
+     * @throws IOException если не удалось сбросить буфер.
+     */
+    private void beginRecord(byte opcode, long tick, int payloadBytes) throws IOException {
+        ensureCapacity(RECORD_PREFIX_BYTES + payloadBytes);
+        buffer.put(opcode);
+        ReplayFormat.putVarLong(buffer, tick - lastTick);
+        lastTick = tick;
+    }
+
+    /**
+     * <p>Гарантирует, что в буфере есть место под заданное число байт.</p>
+     *
+     * @param bytes число байт.
+     * @throws IOException если не удалось сбросить буфер.
+     */
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        flush();
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(bytes);
+        }
+    }
+
+    /**
+     * <p>Сбрасывает буфер в файл.</p>
+     *
+     * @throws IOException если запись не удалась.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
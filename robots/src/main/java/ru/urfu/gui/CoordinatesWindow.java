@@ -1,6 +1,7 @@
 package ru.urfu.gui;
 
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import javax.swing.JInternalFrame;
@@ -8,6 +9,7 @@ import javax.swing.JLabel;
 import javax.swing.SwingConstants;
 import ru.urfu.core.GameModel;
 import ru.urfu.core.RobotInfo;
+import ru.urfu.core.WorldSnapshot;
 import ru.urfu.i18n.I18n;
 import ru.urfu.i18n.I18nManager;
 import ru.urfu.i18n.LocaleChangeListener;
@@ -39,7 +41,7 @@ public final class CoordinatesWindow extends JInternalFrame
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         I18nManager.getInstance().addWeakLocaleChangeListener(this);
 
-        this.label = new JLabel(getTextForLabel(this.model.getRobotInfo()), SwingConstants.CENTER);
+        this.label = new JLabel(getTextForLabel(this.model.getSnapshot().robot()), SwingConstants.CENTER);
         getContentPane().add(label);
 
         setLocaleDependantProperties();
@@ -56,8 +58,11 @@ public final class CoordinatesWindow extends JInternalFrame
 
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
-        final RobotInfo position = this.model.getRobotInfo();
-        this.label.setText(getTextForLabel(position));
+        final WorldSnapshot world = evt.getNewValue() instanceof WorldSnapshot snapshot
+                ? snapshot
+                : this.model.getSnapshot();
+        final String text = getTextForLabel(world.robot());
+        EventQueue.invokeLater(() -> this.label.setText(text));
     }
 
     @Override
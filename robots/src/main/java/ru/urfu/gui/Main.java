@@ -1,7 +1,11 @@
 package ru.urfu.gui;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import javax.swing.SwingUtilities;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.urfu.config.ConfigurationManager;
 import ru.urfu.config.ConfigurationSource;
@@ -9,14 +13,24 @@ import ru.urfu.config.FileConfigurationSource;
 import ru.urfu.core.GameModel;
 import ru.urfu.core.GameModelImpl;
 import ru.urfu.core.GameTimerController;
+import ru.urfu.core.movement.PathAcceptance;
+import ru.urfu.core.replay.ReplayRecorder;
 
 /**
  * <p>Класс для запуска приложения.</p>
+ *
+ * <p>Если задано системное свойство {@code robots.record},
+ * команды сессии записываются в указанный в нём файл
+ * (см. {@link ReplayRecorder}).</p>
+ *
+ * <p>Игровой цикл идёт в реальном времени, поэтому пути, найденные в фоне,
+ * принимаются, как только готовы ({@link PathAcceptance#WHEN_READY}).</p>
  */
 public final class Main {
     private final static String CONFIG_FILE =
             System.getProperty("user.home") + File.separator
                     + "shaat" + File.separator + "robots.properties";
+    private final static String RECORD_PROPERTY = "robots.record";
 
     /**
      * <p>Приватный конструктор,
@@ -31,10 +45,16 @@ public final class Main {
      * @param args аргументы.
      */
     public static void main(String[] args) {
-        LoggerFactory.getLogger(Main.class).debug("Configuration file is {}", CONFIG_FILE);
+        final Logger log = LoggerFactory.getLogger(Main.class);
+        log.debug("Configuration file is {}", CONFIG_FILE);
 
         final GameModel gameModel = new GameModelImpl();
+        gameModel.setPathAcceptance(PathAcceptance.WHEN_READY);
         final GameTimerController timerController = new GameTimerController(gameModel);
+        final String recordFile = System.getProperty(RECORD_PROPERTY);
+        if (recordFile != null) {
+            startRecording(gameModel, Path.of(recordFile), timerController.getStepMillis());
+        }
         final ConfigurationSource configSource = new FileConfigurationSource(CONFIG_FILE);
         final ConfigurationManager configManager = new ConfigurationManager(configSource);
 
@@ -47,4 +67,28 @@ public final class Main {
 
         SwingUtilities.invokeLater(runGui);
     }
+
+    /**
+     * <p>Включает запись сессии. Файл дописывается при завершении приложения.</p>
+     *
+     * @param model      записываемая модель.
+     * @param file       файл записи.
+     * @param stepMillis длина шага игрового цикла.
+     */
+    private static void startRecording(GameModel model, Path file, int stepMillis) {
+        final ReplayRecorder recorder;
+        try {
+            recorder = new ReplayRecorder(file, stepMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot record session to " + file, e);
+        }
+        recorder.attach(model);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                LoggerFactory.getLogger(Main.class).error("Failed to finish session record", e);
+            }
+        }, "Replay Recorder Shutdown"));
+    }
 }
@@ -5,6 +5,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
 import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.Locale;
 import javax.swing.JDesktopPane;
@@ -19,6 +20,8 @@ import ru.urfu.config.ConfigSaveFailed;
 import ru.urfu.config.ConfigurationManager;
 import ru.urfu.core.GameModel;
 import ru.urfu.core.GameTimerController;
+import ru.urfu.core.checkpoint.Checkpoint;
+import ru.urfu.core.checkpoint.CheckpointFormat;
 import ru.urfu.core.movement.RobotMovement;
 import ru.urfu.gui.game.RobotShape;
 import ru.urfu.gui.menu.MainFrameMenu;
@@ -197,6 +200,52 @@ public final class MainFrame extends JFrame implements LocaleChangeListener, Sta
         model.reset();
     }
 
+    /**
+     * <p>Сохраняет состояние игры в файл.</p>
+     *
+     * <p>Состояние снимается потоком симуляции на ближайшем тике,
+     * а файл пишется в фоне, не задерживая ни симуляцию, ни интерфейс.</p>
+     *
+     * @param file файл сохранения.
+     */
+    public void saveGame(File file) {
+        model.checkpoint()
+                .thenAcceptAsync(checkpoint -> {
+                    try {
+                        CheckpointFormat.save(checkpoint, file.toPath());
+                        log.debug("Game saved to {} at tick {}", file, checkpoint.tick());
+                    } catch (IOException e) {
+                        log.error("Failed to save game to {}", file, e);
+                        SwingUtilities.invokeLater(() -> showCheckpointError(i18n.tr("Couldn't save game.")));
+                    }
+                });
+    }
+
+    /**
+     * <p>Загружает состояние игры из файла.</p>
+     *
+     * @param file файл сохранения.
+     */
+    public void loadGame(File file) {
+        try {
+            final Checkpoint checkpoint = CheckpointFormat.load(file.toPath());
+            model.restore(checkpoint);
+            log.debug("Game loaded from {} at tick {}", file, checkpoint.tick());
+        } catch (IOException e) {
+            log.error("Failed to load game from {}", file, e);
+            showCheckpointError(i18n.tr("Couldn't load game from given file."));
+        }
+    }
+
+    /**
+     * <p>Показывает сообщение об ошибке сохранения или загрузки игры.</p>
+     *
+     * @param message текст сообщения.
+     */
+    private void showCheckpointError(String message) {
+        JOptionPane.showMessageDialog(this, message, i18n.tr("Saved Game Error"), JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * <p>Обрабатывает файл с модом.</p>
      *
@@ -4,12 +4,14 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import javax.swing.JPanel;
 import ru.urfu.core.GameModel;
 import ru.urfu.core.RobotInfo;
+import ru.urfu.core.WorldSnapshot;
 import ru.urfu.core.level.Level;
 import ru.urfu.utils.Vector2;
 
@@ -90,15 +92,16 @@ public final class GuiGameView extends JPanel implements PropertyChangeListener
         super.paint(g);
         Graphics2D g2d = (Graphics2D) g;
 
-        final Level level = model.getLevel();
+        final WorldSnapshot world = model.getSnapshot();
+        final Level level = world.level();
         if (level != null) {
             drawLevel(g2d, level);
         }
 
-        final RobotInfo robot = model.getRobotInfo();
+        final RobotInfo robot = world.robot();
         final Vector2 pos = robot.position();
         drawRobot(g2d, round(pos.x() * SCALE), round(pos.y() * SCALE), robot.direction());
-        final Vector2 targetPosition = model.getTargetPosition().scalar(SCALE);
+        final Vector2 targetPosition = world.target().scalar(SCALE);
         drawTarget(g2d, new Point(round(targetPosition.x()), round(targetPosition.y())));
     }
 
@@ -142,31 +145,44 @@ public final class GuiGameView extends JPanel implements PropertyChangeListener
     /**
      * <p>Отрисовка уровня (поля).</p>
      *
+     * <p>Препятствия рисуются отрезками строк: концы отрезков
+     * ищутся по битам поля, а не перебором клеток. Рисуется только
+     * видимая часть поля, так что у поля, хранящегося кусками в файле,
+     * читаются только видимые куски.</p>
+     *
      * @param g     графика.
      * @param level уровень (поле).
      */
     private void drawLevel(Graphics2D g, Level level) {
-        final int width = level.getWidth();
-        final int height = level.getHeight();
-
-        for (int y = 0; y < height; ++y) {
-            for (int x = 0; x < width; ++x) {
-                if (level.hasObstacle(x, y)) {
-                    drawObstacle(g, x, y);
-                }
+        final Rectangle clip = g.getClipBounds();
+        final int fromX = clip == null ? 0 : Math.max(clip.x, 0) / SCALE;
+        final int fromY = clip == null ? 0 : Math.max(clip.y, 0) / SCALE;
+        final int toX = clip == null ? level.getWidth()
+                : Math.min((clip.x + clip.width + SCALE - 1) / SCALE, level.getWidth());
+        final int toY = clip == null ? level.getHeight()
+                : Math.min((clip.y + clip.height + SCALE - 1) / SCALE, level.getHeight());
+
+        g.setColor(Color.ORANGE);
+        for (int y = fromY; y < toY; ++y) {
+            int x = level.nextObstacleInRow(y, fromX);
+            while (x >= 0 && x < toX) {
+                final int free = level.nextFreeInRow(y, x);
+                final int end = free < 0 || free > toX ? toX : free;
+                drawObstacles(g, x, end, y);
+                x = level.nextObstacleInRow(y, end);
             }
         }
     }
 
     /**
-     * <p>Рисует препятствие.</p>
+     * <p>Рисует отрезок препятствий в строке.</p>
      *
-     * @param g графика.
-     * @param x x координата препятствия.
-     * @param y y координата препятствия.
+     * @param g    графика.
+     * @param from x первого препятствия.
+     * @param to   x клетки после последнего препятствия.
+     * @param y    y строки.
      */
-    private void drawObstacle(Graphics2D g, int x, int y) {
-        g.setColor(Color.ORANGE);
-        g.fillRect(x * SCALE, y * SCALE, SCALE, SCALE);
+    private void drawObstacles(Graphics2D g, int from, int to, int y) {
+        g.fillRect(from * SCALE, y * SCALE, (to - from) * SCALE, SCALE);
     }
 }
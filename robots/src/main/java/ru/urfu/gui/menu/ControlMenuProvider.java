@@ -3,6 +3,8 @@ package ru.urfu.gui.menu;
 import java.awt.Component;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowEvent;
+import java.io.File;
+import javax.swing.JFileChooser;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JSeparator;
@@ -24,6 +26,9 @@ public final class ControlMenuProvider implements MenuElementProvider {
         menu.getAccessibleContext().setAccessibleDescription(
                 i18n.tr("Controls the application."));
 
+        menu.add(createSaveGameItem(frame));
+        menu.add(createLoadGameItem(frame));
+        menu.add(new JSeparator());
         menu.add(new LookAndFeelMenuProvider().provide(frame));
         menu.add(new LanguageMenuProvider().provide(frame));
         menu.add(new JSeparator());
@@ -32,6 +37,41 @@ public final class ControlMenuProvider implements MenuElementProvider {
         return menu;
     }
 
+    /**
+     * <p>Создаёт кнопку для сохранения игры.</p>
+     *
+     * @param frame главное окно.
+     * @return кнопку.
+     */
+    private JMenuItem createSaveGameItem(MainFrame frame) {
+        final JMenuItem item = new JMenuItem(i18n.tr("Save Game"), KeyEvent.VK_S);
+        item.addActionListener((event) -> {
+            final JFileChooser fileChooser = new JFileChooser();
+            if (fileChooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
+                frame.saveGame(fileChooser.getSelectedFile());
+            }
+        });
+        return item;
+    }
+
+    /**
+     * <p>Создаёт кнопку для загрузки игры.</p>
+     *
+     * @param frame главное окно.
+     * @return кнопку.
+     */
+    private JMenuItem createLoadGameItem(MainFrame frame) {
+        final JMenuItem item = new JMenuItem(i18n.tr("Load Game"), KeyEvent.VK_L);
+        item.addActionListener((event) -> {
+            final JFileChooser fileChooser = new JFileChooser();
+            if (fileChooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+                final File selectedFile = fileChooser.getSelectedFile();
+                frame.loadGame(selectedFile);
+            }
+        });
+        return item;
+    }
+
     /**
      * <p>Создаёт кнопку для выхода из приложения.</p>
      *
@@ -0,0 +1,89 @@
+package ru.urfu.headless;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.urfu.core.GameModel;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.core.RobotInfo;
+import ru.urfu.core.loop.HeadlessRunReport;
+import ru.urfu.core.loop.HeadlessRunner;
+import ru.urfu.core.replay.ReplayPlayer;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Запуск симуляции без графического интерфейса.</p>
+ *
+ * <p>Аргументы: время симуляции в секундах, координаты цели
+ * и необязательный флаг {@code obstacles} для режима с препятствиями.
+ * Например: {@code 3600 20 30 obstacles}.</p>
+ *
+ * <p>С аргументами {@code replay <файл>} воспроизводит запись сессии.</p>
+ */
+public final class Main {
+    private final static int STEP_MILLIS = 10;
+    private final static long MILLIS_IN_SECOND = 1000L;
+    private final static long DEFAULT_SECONDS = 60;
+    private final static double DEFAULT_TARGET = 20;
+    private final static String OBSTACLES_FLAG = "obstacles";
+    private final static String REPLAY_COMMAND = "replay";
+    private final static int REPLAY_FILE_ARG = 1;
+    private final static int SECONDS_ARG = 0;
+    private final static int TARGET_X_ARG = 1;
+    private final static int TARGET_Y_ARG = 2;
+    private final static int MODE_ARG = 3;
+
+    /**
+     * <p>Приватный конструктор,
+     * чтобы не создавали объектов.</p>
+     */
+    private Main() {
+    }
+
+    /**
+     * <p>Метод для запуска симуляции.</p>
+     *
+     * @param args аргументы.
+     * @throws IOException если не удалось прочитать запись сессии.
+     */
+    public static void main(String[] args) throws IOException {
+        final Logger log = LoggerFactory.getLogger(Main.class);
+
+        if (args.length > REPLAY_FILE_ARG && REPLAY_COMMAND.equals(args[0])) {
+            final GameModel model = new GameModelImpl();
+            final HeadlessRunReport report = new ReplayPlayer(Path.of(args[REPLAY_FILE_ARG])).play(model);
+            logResult(log, report, model.getRobotInfo());
+            return;
+        }
+
+        final long seconds = args.length > SECONDS_ARG ? Long.parseLong(args[SECONDS_ARG]) : DEFAULT_SECONDS;
+        final double targetX = args.length > TARGET_X_ARG ? Double.parseDouble(args[TARGET_X_ARG]) : DEFAULT_TARGET;
+        final double targetY = args.length > TARGET_Y_ARG ? Double.parseDouble(args[TARGET_Y_ARG]) : DEFAULT_TARGET;
+        final boolean obstacles = args.length > MODE_ARG && OBSTACLES_FLAG.equals(args[MODE_ARG]);
+
+        final GameModel model = new GameModelImpl();
+        if (obstacles) {
+            model.setObstaclesMode();
+        }
+        model.setTargetPosition(new Vector2(targetX, targetY));
+
+        final HeadlessRunner runner = new HeadlessRunner(model, STEP_MILLIS);
+        final HeadlessRunReport report = runner.run(seconds * MILLIS_IN_SECOND);
+
+        logResult(log, report, model.getRobotInfo());
+    }
+
+    /**
+     * <p>Пишет в лог итог прогона.</p>
+     *
+     * @param log    лог.
+     * @param report итог прогона.
+     * @param robot  конечное положение робота.
+     */
+    private static void logResult(Logger log, HeadlessRunReport report, RobotInfo robot) {
+        log.info("Simulated {} s in {} ticks, {}x faster than real time",
+                report.simulatedMillis() / MILLIS_IN_SECOND, report.ticks(), report.speedup());
+        log.info("Robot position: {}, direction: {}", robot.position(), robot.direction());
+    }
+}
@@ -0,0 +1,91 @@
+package ru.urfu.utils;
+
+/**
+ * <p>Приближённые тригонометрические функции для {@link Trigonometry#FAST}.</p>
+ */
+final class FastTrigonometry {
+    private final static int TABLE_SIZE = 4096;
+    private final static double TWO_PI = 2 * Math.PI;
+    private final static double INDEX_SCALE = TABLE_SIZE / TWO_PI;
+    private final static double[] SIN_TABLE = createSinTable();
+
+    // Многочлен для atan на [-1, 1] с ошибкой около 1e-5 радиан
+    private final static double ATAN_C1 = 0.99997726;
+    private final static double ATAN_C3 = -0.33262347;
+    private final static double ATAN_C5 = 0.19354346;
+    private final static double ATAN_C7 = -0.11643287;
+    private final static double ATAN_C9 = 0.05265332;
+    private final static double ATAN_C11 = -0.01172120;
+
+    /**
+     * <p>Приватный конструктор,
+     * чтобы не создавали объектов.</p>
+     */
+    private FastTrigonometry() {
+    }
+
+    /**
+     * <p>Синус по таблице с линейной интерполяцией между соседними узлами.</p>
+     *
+     * @param angle угол в радианах.
+     * @return синус угла.
+     */
+    static double sin(double angle) {
+        final double position = MathTools.asNormalizedRadians(angle) * INDEX_SCALE;
+        final int index = (int) position;
+        final double fraction = position - index;
+        final double left = SIN_TABLE[index];
+        return left + (SIN_TABLE[index + 1] - left) * fraction;
+    }
+
+    /**
+     * <p>Арктангенс: многочлен на [-1, 1], остальные октанты сводятся к нему.</p>
+     *
+     * @param y вторая компонента.
+     * @param x первая компонента.
+     * @return угол из отрезка [-π, π].
+     */
+    static double atan2(double y, double x) {
+        final double absX = Math.abs(x);
+        final double absY = Math.abs(y);
+        if (absX == 0 && absY == 0) {
+            return 0;
+        }
+
+        double angle;
+        if (absY <= absX) {
+            angle = atan(absY / absX);
+        } else {
+            angle = Math.PI / 2 - atan(absX / absY);
+        }
+        if (x < 0) {
+            angle = Math.PI - angle;
+        }
+        return y < 0 ? -angle : angle;
+    }
+
+    /**
+     * <p>Арктангенс на отрезке [-1, 1].</p>
+     *
+     * @param t аргумент.
+     * @return угол.
+     */
+    private static double atan(double t) {
+        final double t2 = t * t;
+        return t * (ATAN_C1 + t2 * (ATAN_C3 + t2 * (ATAN_C5 + t2 * (ATAN_C7 + t2 * (ATAN_C9 + t2 * ATAN_C11)))));
+    }
+
+    /**
+     * <p>Таблица синуса на [0, 2π] с одним лишним узлом на конце,
+     * чтобы интерполяции не нужна была проверка границы.</p>
+     *
+     * @return таблица.
+     */
+    private static double[] createSinTable() {
+        final double[] table = new double[TABLE_SIZE + 2];
+        for (int i = 0; i < table.length; ++i) {
+            table[i] = Math.sin(i / INDEX_SCALE);
+        }
+        return table;
+    }
+}
@@ -4,6 +4,8 @@ package ru.urfu.utils;
  * <p>Набор статических математических методов.</p>
  */
 public final class MathTools {
+    private final static double TWO_PI = 2 * Math.PI;
+
     /**
      * <p>Приватный конструктор утилитарного класса.</p>
      */
@@ -19,24 +21,24 @@ public final class MathTools {
      * @return угол.
      */
     public static double angleTo(Vector2 v1, Vector2 v2) {
-        final Vector2 diff = v2.minus(v1);
-        return asNormalizedRadians(Math.atan2(diff.y(), diff.x()));
+        return asNormalizedRadians(Math.atan2(v2.y() - v1.y(), v2.x() - v1.x()));
     }
 
     /**
-     * <p>Нормализация угла.</p>
+     * <p>Нормализация угла в [0, 2π) за постоянное время.</p>
+     *
+     * <p>Для углов из (-2π, 4π) результат совпадает с последовательным
+     * прибавлением или вычитанием 2π.</p>
      *
      * @param angle угол.
      * @return нормализация угла.
      */
     public static double asNormalizedRadians(double angle) {
-        double newAngle = angle;
-        while (newAngle < 0) {
-            newAngle += 2 * Math.PI;
-        }
-        while (newAngle >= 2 * Math.PI) {
-            newAngle -= 2 * Math.PI;
+        double newAngle = angle - TWO_PI * Math.floor(angle / TWO_PI);
+        if (newAngle < 0) {
+            // Частное крошечного отрицательного угла округляется до нуля
+            newAngle += TWO_PI;
         }
-        return newAngle;
+        return newAngle < TWO_PI ? newAngle : 0;
     }
 }
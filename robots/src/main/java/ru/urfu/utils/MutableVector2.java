@@ -0,0 +1,154 @@
+package ru.urfu.utils;
+
+/**
+ * <p>Изменяемый двумерный вектор.</p>
+ *
+ * <p>Нужен на горячих путях, где {@link Vector2} создавал бы новый
+ * объект на каждую операцию: операции меняют сам вектор и возвращают
+ * его же, так что их можно выстраивать в цепочку без аллокаций.</p>
+ */
+public final class MutableVector2 {
+    private double x;
+    private double y;
+
+    /**
+     * <p>Конструктор нулевого вектора.</p>
+     */
+    public MutableVector2() {
+        this(0, 0);
+    }
+
+    /**
+     * <p>Конструктор.</p>
+     *
+     * @param x первая компонента.
+     * @param y вторая компонента.
+     */
+    public MutableVector2(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * <p>Первая компонента.</p>
+     *
+     * @return первую компоненту.
+     */
+    public double x() {
+        return x;
+    }
+
+    /**
+     * <p>Вторая компонента.</p>
+     *
+     * @return вторую компоненту.
+     */
+    public double y() {
+        return y;
+    }
+
+    /**
+     * <p>Задаёт компоненты.</p>
+     *
+     * @param newX первая компонента.
+     * @param newY вторая компонента.
+     * @return этот вектор.
+     */
+    public MutableVector2 set(double newX, double newY) {
+        this.x = newX;
+        this.y = newY;
+        return this;
+    }
+
+    /**
+     * <p>Копирует компоненты другого вектора.</p>
+     *
+     * @param other вектор.
+     * @return этот вектор.
+     */
+    public MutableVector2 set(Vector2 other) {
+        return set(other.x(), other.y());
+    }
+
+    /**
+     * <p>Обнуляет вектор.</p>
+     *
+     * @return этот вектор.
+     */
+    public MutableVector2 setZero() {
+        return set(0, 0);
+    }
+
+    /**
+     * <p>Прибавляет вектор.</p>
+     *
+     * @param dx первая компонента слагаемого.
+     * @param dy вторая компонента слагаемого.
+     * @return этот вектор.
+     */
+    public MutableVector2 add(double dx, double dy) {
+        return set(x + dx, y + dy);
+    }
+
+    /**
+     * <p>Вычитает вектор.</p>
+     *
+     * @param other вычитаемое.
+     * @return этот вектор.
+     */
+    public MutableVector2 sub(Vector2 other) {
+        return set(x - other.x(), y - other.y());
+    }
+
+    /**
+     * <p>Умножает на скаляр.</p>
+     *
+     * @param t скаляр.
+     * @return этот вектор.
+     */
+    public MutableVector2 scale(double t) {
+        return set(x * t, y * t);
+    }
+
+    /**
+     * <p>Нормализует вектор.</p>
+     *
+     * @return этот вектор.
+     */
+    public MutableVector2 normalize() {
+        final double length = Math.sqrt(lengthSquared());
+        return set(x / length, y / length);
+    }
+
+    /**
+     * <p>Квадрат длины вектора.</p>
+     *
+     * @return квадрат длины.
+     */
+    public double lengthSquared() {
+        return x * x + y * y;
+    }
+
+    /**
+     * <p>Является ли вектор нулевым.</p>
+     *
+     * @return результат проверки.
+     */
+    public boolean isZero() {
+        return x == 0 && y == 0;
+    }
+
+    /**
+     * <p>Неизменяемая копия вектора.</p>
+     *
+     * @return новый {@link Vector2}.
+     */
+    public Vector2 toVector2() {
+        return new Vector2(x, y);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableVector2[x=" + x + ", y=" + y + "]";
+    }
+}
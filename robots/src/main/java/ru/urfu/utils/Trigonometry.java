@@ -0,0 +1,104 @@
+package ru.urfu.utils;
+
+/**
+ * <p>Реализация тригонометрических функций для симуляции.</p>
+ *
+ * <p>{@link #EXACT} вызывает {@link Math}. {@link #FAST} считает синус
+ * и косинус по таблице с линейной интерполяцией (ошибка не больше
+ * {@link #FAST_SIN_COS_MAX_ERROR}), а арктангенс многочленом
+ * (ошибка не больше {@link #FAST_ATAN2_MAX_ERROR} радиан).</p>
+ *
+ * <p>Режим выбирается для модели целиком: результаты двух режимов
+ * немного расходятся, так что запись сессии воспроизводится
+ * только в том режиме, в котором была сделана.</p>
+ */
+public enum Trigonometry {
+    /**
+     * <p>Точные функции из {@link Math}.</p>
+     */
+    EXACT {
+        @Override
+        public double sin(double angle) {
+            return Math.sin(angle);
+        }
+
+        @Override
+        public double cos(double angle) {
+            return Math.cos(angle);
+        }
+
+        @Override
+        public double atan2(double y, double x) {
+            return Math.atan2(y, x);
+        }
+    },
+
+    /**
+     * <p>Приближённые функции: таблица для синуса и косинуса, многочлен для арктангенса.</p>
+     */
+    FAST {
+        @Override
+        public double sin(double angle) {
+            return FastTrigonometry.sin(angle);
+        }
+
+        @Override
+        public double cos(double angle) {
+            return FastTrigonometry.sin(angle + Math.PI / 2);
+        }
+
+        @Override
+        public double atan2(double y, double x) {
+            return FastTrigonometry.atan2(y, x);
+        }
+    };
+
+    /**
+     * <p>Наибольшая ошибка синуса и косинуса в режиме {@link #FAST}.</p>
+     */
+    public static final double FAST_SIN_COS_MAX_ERROR = 1e-6;
+
+    /**
+     * <p>Наибольшая ошибка арктангенса в режиме {@link #FAST}, в радианах.</p>
+     */
+    public static final double FAST_ATAN2_MAX_ERROR = 1e-5;
+
+    /**
+     * <p>Синус.</p>
+     *
+     * @param angle угол в радианах.
+     * @return синус угла.
+     */
+    public abstract double sin(double angle);
+
+    /**
+     * <p>Косинус.</p>
+     *
+     * @param angle угол в радианах.
+     * @return косинус угла.
+     */
+    public abstract double cos(double angle);
+
+    /**
+     * <p>Угол точки (x, y) относительно оси x, как у {@link Math#atan2(double, double)}.</p>
+     *
+     * @param y вторая компонента.
+     * @param x первая компонента.
+     * @return угол из отрезка [-π, π].
+     */
+    public abstract double atan2(double y, double x);
+
+    /**
+     * <p>Угол между осью x и прямой, проходящей через две точки,
+     * нормализованный в [0, 2π).</p>
+     *
+     * @param fromX первая компонента первой точки.
+     * @param fromY вторая компонента первой точки.
+     * @param toX   первая компонента второй точки.
+     * @param toY   вторая компонента второй точки.
+     * @return угол.
+     */
+    public double angleTo(double fromX, double fromY, double toX, double toY) {
+        return MathTools.asNormalizedRadians(atan2(toY - fromY, toX - fromX));
+    }
+}
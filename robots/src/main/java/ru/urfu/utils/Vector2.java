@@ -69,8 +69,20 @@ public record Vector2(double x, double y) {
      * @return квадрат расстояния
      */
     public double distanceSquared(Vector2 to) {
-        final Vector2 distanceVec = new Vector2(to.x - x, to.y - y);
-        return distanceVec.lengthSquared();
+        return distanceSquared(to.x, to.y);
+    }
+
+    /**
+     * <p>Квадрат расстояния до другой точки.</p>
+     *
+     * @param toX первая компонента другой точки
+     * @param toY вторая компонента другой точки
+     * @return квадрат расстояния
+     */
+    public double distanceSquared(double toX, double toY) {
+        final double dx = toX - x;
+        final double dy = toY - y;
+        return dx * dx + dy * dy;
     }
 
     /**
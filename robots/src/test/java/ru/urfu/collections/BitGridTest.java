@@ -0,0 +1,115 @@
+package ru.urfu.collections;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тесты для {@link BitGrid}.
+ */
+@SuppressWarnings("MagicNumber")
+class BitGridTest {
+    private final static int WIDTH = 150;
+    private final static int HEIGHT = 70;
+
+    /**
+     * <p>Проверяем на случайных заливках прямоугольников, что биты,
+     * поиск по строкам и столбцам и подсчёт совпадают с наивной
+     * реализацией на массиве, в том числе у границ слов и за шириной.</p>
+     */
+    @Test
+    @DisplayName("Совпадение с массивом boolean")
+    void testMatchesBooleanArray() {
+        final Random random = new Random(1);
+        final BitGrid grid = new BitGrid(WIDTH, HEIGHT);
+        final boolean[][] expected = new boolean[HEIGHT][WIDTH];
+        for (int i = 0; i < 200; ++i) {
+            final int fromX = random.nextInt(WIDTH + 1);
+            final int toX = fromX + random.nextInt(WIDTH + 1 - fromX);
+            final int fromY = random.nextInt(HEIGHT + 1);
+            final int toY = fromY + random.nextInt(HEIGHT + 1 - fromY);
+            final boolean value = random.nextBoolean();
+            grid.fill(fromX, fromY, toX, toY, value);
+            for (int y = fromY; y < toY; ++y) {
+                for (int x = fromX; x < toX; ++x) {
+                    expected[y][x] = value;
+                }
+            }
+            final int x = random.nextInt(WIDTH);
+            final int y = random.nextInt(HEIGHT);
+            grid.set(x, y, !expected[y][x]);
+            expected[y][x] = !expected[y][x];
+        }
+
+        int total = 0;
+        for (int y = 0; y < HEIGHT; ++y) {
+            int row = 0;
+            for (int x = 0; x < WIDTH; ++x) {
+                Assertions.assertEquals(expected[y][x], grid.get(x, y));
+                Assertions.assertEquals(scan(expected[y], x, 1, true), grid.nextSetInRow(y, x));
+                Assertions.assertEquals(scan(expected[y], x, 1, false), grid.nextClearInRow(y, x));
+                Assertions.assertEquals(scan(expected[y], x, -1, true), grid.previousSetInRow(y, x));
+                Assertions.assertEquals(scan(expected[y], x, -1, false), grid.previousClearInRow(y, x));
+                row += expected[y][x] ? 1 : 0;
+            }
+            Assertions.assertEquals(-1, grid.nextClearInRow(y, WIDTH));
+            Assertions.assertEquals(row, grid.cardinalityInRow(y));
+            total += row;
+        }
+        Assertions.assertEquals(total, grid.cardinality());
+
+        for (int x = 0; x < WIDTH; ++x) {
+            final boolean[] column = new boolean[HEIGHT];
+            for (int y = 0; y < HEIGHT; ++y) {
+                column[y] = expected[y][x];
+            }
+            for (int y = 0; y < HEIGHT; ++y) {
+                Assertions.assertEquals(scan(column, y, 1, true), grid.nextSetInColumn(x, y));
+                Assertions.assertEquals(scan(column, y, 1, false), grid.nextClearInColumn(x, y));
+            }
+        }
+    }
+
+    /**
+     * <p>Проверяем, что сетка занимает бит на клетку с выравниванием строк по словам.</p>
+     */
+    @Test
+    @DisplayName("Размер строки в словах")
+    void testWordsPerRow() {
+        Assertions.assertEquals(3, new BitGrid(WIDTH, HEIGHT).getWordsPerRow());
+        Assertions.assertEquals(1, new BitGrid(64, 1).getWordsPerRow());
+        Assertions.assertEquals(0, new BitGrid(0, 5).getWordsPerRow());
+    }
+
+    /**
+     * <p>Проверяем, что поиск в сетке нулевой ширины ничего не находит.</p>
+     */
+    @Test
+    @DisplayName("Сетка нулевой ширины")
+    void testZeroWidth() {
+        final BitGrid grid = new BitGrid(0, 5);
+        Assertions.assertEquals(-1, grid.previousSetInRow(2, 10));
+        Assertions.assertEquals(-1, grid.previousClearInRow(2, 0));
+        Assertions.assertEquals(-1, grid.nextClearInRow(2, 0));
+        Assertions.assertEquals(0, grid.cardinality());
+    }
+
+    /**
+     * <p>Наивный поиск в массиве.</p>
+     *
+     * @param values массив.
+     * @param from   с какого индекса искать.
+     * @param step   направление поиска.
+     * @param value  искомое значение.
+     * @return индекс или -1.
+     */
+    private int scan(boolean[] values, int from, int step, boolean value) {
+        for (int i = from; i >= 0 && i < values.length; i += step) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
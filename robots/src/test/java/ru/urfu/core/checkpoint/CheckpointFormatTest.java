@@ -0,0 +1,191 @@
+package ru.urfu.core.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.core.RobotInfo;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.movement.ObstaclesModeMovement;
+import ru.urfu.core.movement.PathProgress;
+import ru.urfu.core.movement.StandardModeMovement;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Тесты для {@link CheckpointFormat}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class CheckpointFormatTest {
+    private final static int STEP = 10;
+    private final static AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+    /**
+     * <p>Проверяем, что контрольная точка с полем и путём
+     * и без них декодируется в ту же самую.</p>
+     *
+     * @throws IOException если декодирование не удалось.
+     */
+    @Test
+    @DisplayName("Кодирование и декодирование")
+    void testEncodeDecode() throws IOException {
+        final Checkpoint full = fullCheckpoint();
+        assertCheckpointEquals(full, CheckpointFormat.decode(ByteBuffer.wrap(CheckpointFormat.encode(full))));
+
+        final Checkpoint noPath = new Checkpoint(7, full.robot(), full.target(), full.level(), full.logicClass(),
+                new PathProgress(null, 0, null));
+        assertCheckpointEquals(noPath, CheckpointFormat.decode(ByteBuffer.wrap(CheckpointFormat.encode(noPath))));
+
+        final Checkpoint empty = new Checkpoint(0, new RobotInfo(new Vector2(2, 2), 0), new Vector2(2, 2), null,
+                StandardModeMovement.class.getName(), null);
+        assertCheckpointEquals(empty, CheckpointFormat.decode(ByteBuffer.wrap(CheckpointFormat.encode(empty))));
+    }
+
+    /**
+     * <p>Проверяем сохранение в файл и загрузку из него.</p>
+     *
+     * @param directory временная директория.
+     * @throws IOException если сохранение или загрузка не удались.
+     */
+    @Test
+    @DisplayName("Сохранение и загрузка")
+    void testSaveLoad(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("robot.checkpoint");
+        final Checkpoint checkpoint = fullCheckpoint();
+        CheckpointFormat.save(checkpoint, file);
+        assertCheckpointEquals(checkpoint, CheckpointFormat.load(file));
+    }
+
+    /**
+     * <p>Проверяем, что повреждённые данные отвергаются исключением
+     * {@link IOException}, а не другим.</p>
+     */
+    @Test
+    @DisplayName("Повреждённые данные")
+    void testRejectsCorrupted() {
+        final byte[] bytes = CheckpointFormat.encode(fullCheckpoint());
+
+        final byte[] magic = bytes.clone();
+        magic[0] ^= 1;
+        Assertions.assertThrows(IOException.class, () -> CheckpointFormat.decode(ByteBuffer.wrap(magic)));
+
+        final byte[] version = bytes.clone();
+        version[5] = 2;
+        Assertions.assertThrows(IOException.class, () -> CheckpointFormat.decode(ByteBuffer.wrap(version)));
+
+        for (int length = 0; length < bytes.length; ++length) {
+            final ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, length);
+            Assertions.assertThrows(IOException.class, () -> CheckpointFormat.decode(truncated),
+                    "length " + length);
+        }
+    }
+
+    /**
+     * <p>Проверяем, что класс, не являющийся логикой передвижения,
+     * отвергается без выполнения его статического кода.</p>
+     */
+    @Test
+    @DisplayName("Чужой класс логики")
+    void testRejectsForeignLogicClass() {
+        final Checkpoint full = fullCheckpoint();
+        final Checkpoint foreign = new Checkpoint(full.tick(), full.robot(), full.target(), full.level(),
+                Tripwire.class.getName(), full.progress());
+        final byte[] bytes = CheckpointFormat.encode(foreign);
+        Assertions.assertThrows(IOException.class, () -> CheckpointFormat.decode(ByteBuffer.wrap(bytes)));
+        Assertions.assertFalse(INITIALIZED.get());
+    }
+
+    /**
+     * <p>Проверяем, что модель, восстановленная из сохранённой
+     * контрольной точки, продолжает движение так же, как исходная.</p>
+     *
+     * @throws IOException если декодирование не удалось.
+     */
+    @Test
+    @DisplayName("Модель продолжает движение после восстановления")
+    void testModelRoundTrip() throws IOException {
+        final Level level = new Level(30, 20);
+        level.fillObstacles(10, 0, 11, 15, true);
+        final GameModelImpl original = new GameModelImpl();
+        original.restore(new Checkpoint(0, new RobotInfo(new Vector2(2.5, 2.5), 0), new Vector2(25.5, 5.5),
+                level, ObstaclesModeMovement.class.getName(), null));
+        run(original, 100);
+
+        final CompletableFuture<Checkpoint> future = original.checkpoint();
+        original.update(STEP);
+        final Checkpoint saved = CheckpointFormat.decode(ByteBuffer.wrap(CheckpointFormat.encode(future.join())));
+        Assertions.assertNotNull(saved.progress().path());
+        run(original, 300);
+
+        final GameModelImpl restored = new GameModelImpl();
+        restored.restore(saved);
+        run(restored, 301);
+        Assertions.assertEquals(original.getTick(), restored.getTick());
+        Assertions.assertEquals(original.getRobotInfo(), restored.getRobotInfo());
+        Assertions.assertNotEquals(saved.robot(), restored.getRobotInfo());
+    }
+
+    /**
+     * <p>Контрольная точка с неквадратным полем и путём.</p>
+     *
+     * @return контрольная точка.
+     */
+    private static Checkpoint fullCheckpoint() {
+        final Level level = new Level(13, 7);
+        level.fillObstacles(3, 1, 4, 7, true);
+        level.addObstacle(12, 0);
+        final PathProgress progress = new PathProgress(
+                List.of(new Vector2(1, 1), new Vector2(2, 1), new Vector2(2, 0)), 1, new Vector2(8, 3));
+        return new Checkpoint(1234567890123L, new RobotInfo(new Vector2(1.25, 1.75), 0.5), new Vector2(8.5, 3.5),
+                level, ObstaclesModeMovement.class.getName(), progress);
+    }
+
+    /**
+     * <p>Выполняет тики модели.</p>
+     *
+     * @param model модель.
+     * @param ticks количество тиков.
+     */
+    private static void run(GameModelImpl model, int ticks) {
+        for (int i = 0; i < ticks; ++i) {
+            model.update(STEP);
+        }
+    }
+
+    /**
+     * <p>Сравнивает контрольные точки; поля сравниваются по клеткам.</p>
+     *
+     * @param expected ожидаемая контрольная точка.
+     * @param actual   полученная контрольная точка.
+     */
+    private static void assertCheckpointEquals(Checkpoint expected, Checkpoint actual) {
+        Assertions.assertEquals(expected.tick(), actual.tick());
+        Assertions.assertEquals(expected.robot(), actual.robot());
+        Assertions.assertEquals(expected.target(), actual.target());
+        Assertions.assertEquals(expected.logicClass(), actual.logicClass());
+        Assertions.assertEquals(expected.progress(), actual.progress());
+        if (expected.level() == null) {
+            Assertions.assertNull(actual.level());
+        } else {
+            Assertions.assertEquals(expected.level().getWidth(), actual.level().getWidth());
+            Assertions.assertEquals(expected.level().getHeight(), actual.level().getHeight());
+            Assertions.assertTrue(Arrays.equals(expected.level().toPackedBits(), actual.level().toPackedBits()));
+        }
+    }
+
+    /**
+     * <p>Класс, статический код которого отмечает инициализацию.</p>
+     */
+    static final class Tripwire {
+        static {
+            INITIALIZED.set(true);
+        }
+    }
+}
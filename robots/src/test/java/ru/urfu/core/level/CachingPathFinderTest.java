@@ -0,0 +1,85 @@
+package ru.urfu.core.level;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link CachingPathFinder}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class CachingPathFinderTest {
+    private final static int SIZE = 20;
+
+    /**
+     * <p>Проверяем, что повторный запрос и запрос с клетки на уже
+     * найденном пути к той же цели не вызывают поиск.</p>
+     */
+    @Test
+    @DisplayName("Повторные запросы и хвосты путей берутся из кэша")
+    void testHitsAndSubPaths() {
+        final Level level = new Level(SIZE, SIZE);
+        final GridAStar astar = new GridAStar(level, Connectivity.FOUR);
+        final CachingPathFinder cache = new CachingPathFinder(astar, level);
+
+        final int[] path = cache.findPath(0, 0, 10, 0);
+        Assertions.assertArrayEquals(path, cache.findPath(0, 0, 10, 0));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(path, 4, path.length), cache.findPath(4, 0, 10, 0));
+        Assertions.assertEquals(new PathCacheStats(1, 1, 1), cache.getStats());
+    }
+
+    /**
+     * <p>Проверяем, что цель за краем поля не совпадает в кэше
+     * с клеткой следующей строки, а отрицательная цель — ни с чем.</p>
+     */
+    @Test
+    @DisplayName("Концы вне поля не попадают в кэш")
+    void testOutOfBoundsEndpoints() {
+        final Level level = new Level(SIZE, SIZE);
+        final CachingPathFinder cache = new CachingPathFinder(new GridAStar(level, Connectivity.FOUR), level);
+        Assertions.assertTrue(cache.findPath(0, 0, 0, 4).length > 0);
+        Assertions.assertEquals(0, cache.findPath(0, 0, SIZE, 3).length);
+        Assertions.assertEquals(0, cache.findPath(0, 0, -1, 0).length);
+        Assertions.assertEquals(0, cache.findPath(SIZE, 0, 0, 4).length);
+        Assertions.assertEquals(new PathCacheStats(0, 0, 1), cache.getStats());
+    }
+
+    /**
+     * <p>Проверяем, что после изменения поля путь ищется заново
+     * и обходит новое препятствие.</p>
+     */
+    @Test
+    @DisplayName("Изменение поля сбрасывает кэш")
+    void testInvalidation() {
+        final Level level = new Level(SIZE, SIZE);
+        final CachingPathFinder cache = new CachingPathFinder(new GridAStar(level, Connectivity.FOUR), level);
+        Assertions.assertEquals(11, cache.findPath(0, 0, 10, 0).length);
+
+        level.addObstacle(5, 0);
+        final int[] detour = cache.findPath(0, 0, 10, 0);
+        Assertions.assertEquals(13, detour.length);
+        Assertions.assertTrue(Arrays.stream(detour).noneMatch(cell -> cell == 5));
+        Assertions.assertEquals(new PathCacheStats(0, 0, 2), cache.getStats());
+    }
+
+    /**
+     * <p>Проверяем, что при переполнении вытесняется
+     * путь, к которому дольше всего не обращались.</p>
+     */
+    @Test
+    @DisplayName("Вытесняется давно не использованный путь")
+    void testLeastRecentlyUsedEviction() {
+        final Level level = new Level(SIZE, SIZE);
+        final CachingPathFinder cache = new CachingPathFinder(new GridAStar(level, Connectivity.FOUR), level, 2);
+        cache.findPath(0, 0, 5, 5);
+        cache.findPath(1, 1, 6, 6);
+        cache.findPath(0, 0, 5, 5);
+        cache.findPath(2, 2, 7, 7);
+
+        cache.findPath(0, 0, 5, 5);
+        Assertions.assertEquals(new PathCacheStats(2, 0, 3), cache.getStats());
+        cache.findPath(1, 1, 6, 6);
+        Assertions.assertEquals(new PathCacheStats(2, 0, 4), cache.getStats());
+    }
+}
@@ -0,0 +1,123 @@
+package ru.urfu.core.level;
+
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * <p>Тесты для {@link ChunkedLevelStorage}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class ChunkedLevelStorageTest {
+    private final static int WIDTH = 700;
+    private final static int HEIGHT = 300;
+
+    /**
+     * <p>Проверяем на случайных заливках и отдельных клетках, в том числе
+     * у краёв кусков и поля, что слова строк, поиск по строкам и подсчёт
+     * совпадают с хранилищем в памяти кучи, а копия не зависит от оригинала.</p>
+     *
+     * @param directory каталог для файлов.
+     */
+    @Test
+    @DisplayName("Совпадение с хранилищем в памяти")
+    void testMatchesBitGridStorage(@TempDir Path directory) {
+        final Random random = new Random(5);
+        final LevelStorage expected = new BitGridStorage(WIDTH, HEIGHT);
+        try (ChunkedLevelStorage storage = new ChunkedLevelStorage(WIDTH, HEIGHT, directory.resolve("level"))) {
+            for (int i = 0; i < 300; ++i) {
+                final int fromX = random.nextInt(WIDTH + 1);
+                final int toX = fromX + random.nextInt(WIDTH + 1 - fromX);
+                final int fromY = random.nextInt(HEIGHT + 1);
+                final int toY = fromY + random.nextInt(HEIGHT + 1 - fromY);
+                final boolean value = random.nextBoolean();
+                storage.fill(fromX, fromY, toX, toY, value);
+                expected.fill(fromX, fromY, toX, toY, value);
+                for (int j = 0; j < 20; ++j) {
+                    final int x = random.nextInt(WIDTH);
+                    final int y = random.nextInt(HEIGHT);
+                    storage.set(x, y, !expected.get(x, y));
+                    expected.set(x, y, !expected.get(x, y));
+                }
+            }
+            try (LevelStorage copy = storage.copy()) {
+                storage.fill(0, 0, WIDTH, HEIGHT, true);
+                assertSame(expected, copy);
+            }
+            Assertions.assertEquals((long) WIDTH * HEIGHT, storage.cardinality());
+            Assertions.assertEquals(0, storage.getStoredChunkCount());
+        }
+    }
+
+    /**
+     * <p>Проверяем, что в огромном поле место в файле занимают только куски
+     * с препятствиями, а поиск по строке проходит пустые куски.</p>
+     *
+     * @param directory каталог для файлов.
+     */
+    @Test
+    @DisplayName("Разреженное хранение кусков")
+    void testSparseChunks(@TempDir Path directory) {
+        final int size = 100_000;
+        try (ChunkedLevelStorage storage = new ChunkedLevelStorage(size, size, directory.resolve("huge"))) {
+            final Level level = new Level(storage);
+            level.addObstacle(size - 1, size - 1);
+            level.addObstacle(3, size - 1);
+            level.fillObstacles(0, 0, 512, 512, true);
+            level.fillObstacles(50_000, 256, 50_001, 90_000, true);
+
+            Assertions.assertEquals(2 + 512 * 512 + 89_744, level.countObstacles());
+            Assertions.assertEquals(size - 1, level.nextObstacleInRow(size - 1, 4));
+            Assertions.assertEquals(50_000, level.nextObstacleInRow(1000, 0));
+            Assertions.assertEquals(512, level.nextFreeInRow(100, 0));
+            Assertions.assertEquals(2 + 351, storage.getStoredChunkCount());
+        }
+    }
+
+    /**
+     * <p>Проверяем, что копия поля закрывает своё временное хранилище,
+     * а закрытие поля поверх чужого хранилища его не закрывает.</p>
+     *
+     * @param directory каталог для файлов.
+     */
+    @Test
+    @DisplayName("Закрытие копии поля")
+    void testCopyClosed(@TempDir Path directory) {
+        try (ChunkedLevelStorage storage = new ChunkedLevelStorage(WIDTH, HEIGHT, directory.resolve("copied"))) {
+            final Level level = new Level(storage);
+            level.fillObstacles(10, 10, 300, 20, true);
+            final Level copy = level.copy();
+            final ChunkedLevelStorage copyStorage = (ChunkedLevelStorage) copy.obstacleBits();
+            Assertions.assertEquals(level.countObstacles(), copy.countObstacles());
+            Assertions.assertTrue(copyStorage.isOpen());
+
+            copy.close();
+            Assertions.assertFalse(copyStorage.isOpen());
+            level.close();
+            Assertions.assertTrue(storage.isOpen());
+        }
+    }
+
+    /**
+     * <p>Сравнивает хранилища по словам строк и поиску по строкам.</p>
+     *
+     * @param expected ожидаемое хранилище.
+     * @param actual   проверяемое хранилище.
+     */
+    private void assertSame(LevelStorage expected, LevelStorage actual) {
+        Assertions.assertEquals(expected.getWordsPerRow(), actual.getWordsPerRow());
+        for (int y = 0; y < HEIGHT; ++y) {
+            for (int index = 0; index < expected.getWordsPerRow(); ++index) {
+                Assertions.assertEquals(expected.word(y, index), actual.word(y, index));
+            }
+            for (int x = 0; x <= WIDTH; x += 7) {
+                Assertions.assertEquals(expected.nextSetInRow(y, x), actual.nextSetInRow(y, x));
+                Assertions.assertEquals(expected.nextClearInRow(y, x), actual.nextClearInRow(y, x));
+            }
+        }
+        Assertions.assertEquals(expected.cardinality(), actual.cardinality());
+    }
+}
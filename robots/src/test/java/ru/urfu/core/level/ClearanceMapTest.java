@@ -0,0 +1,130 @@
+package ru.urfu.core.level;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link ClearanceMap}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class ClearanceMapTest {
+    private final static int WIDTH = 50;
+    private final static int HEIGHT = 35;
+    private final static int MAX_CLEARANCE = 6;
+
+    /**
+     * <p>Проверяем при случайных изменениях поля, что расстояния
+     * совпадают с перебором всех препятствий.</p>
+     */
+    @Test
+    @DisplayName("Расстояния совпадают с перебором после изменений")
+    void testMatchesBruteForce() {
+        final Random random = new Random(5);
+        final Level level = new Level(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT / 20; ++i) {
+            level.addObstacle(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+        }
+        final ClearanceMap clearance = new ClearanceMap(level, MAX_CLEARANCE);
+        assertMatchesBruteForce(level, clearance);
+        for (int step = 0; step < 500; ++step) {
+            final int x = random.nextInt(WIDTH);
+            final int y = random.nextInt(HEIGHT);
+            if (random.nextBoolean()) {
+                level.removeObstacle(x, y);
+            } else {
+                level.addObstacle(x, y);
+            }
+            if (step % 25 == 0) {
+                assertMatchesBruteForce(level, clearance);
+            }
+        }
+        assertMatchesBruteForce(level, clearance);
+    }
+
+    /**
+     * <p>Проверяем, что робот с радиусом не проходит в узкий проём,
+     * а точечный проходит.</p>
+     */
+    @Test
+    @DisplayName("Широкий робот объезжает узкий проём")
+    void testRadiusAwareSearch() {
+        final Level level = new Level(WIDTH, HEIGHT);
+        level.fillObstacles(20, 0, 22, HEIGHT, true);
+        level.fillObstacles(20, 11, 22, 12, false);
+        level.fillObstacles(20, 30, 22, 31, false);
+        final ClearanceMap clearance = new ClearanceMap(level);
+
+        final int[] point = new GridAStar(level, Connectivity.EIGHT).findPath(10, 20, 30, 20);
+        Assertions.assertTrue(point.length > 0);
+        Assertions.assertEquals(0, new GridAStar(level, Connectivity.EIGHT, clearance, 1).findPath(10, 20, 30, 20)
+                .length);
+
+        level.fillObstacles(20, 29, 22, 32, false);
+        final int[] wide = new GridAStar(level, Connectivity.EIGHT, clearance, 1).findPath(10, 20, 30, 20);
+        Assertions.assertTrue(wide.length > 0);
+        for (int cell : wide) {
+            Assertions.assertTrue(clearance.squaredClearance(cell % WIDTH, cell / WIDTH) >= 3);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clearance.requiredSquaredClearance(16));
+    }
+
+    /**
+     * <p>Проверяем, что препятствие по диагонали задевает робота, хотя
+     * по оси на том же расстоянии между центрами не задело бы: до угла
+     * клетки ближе, чем до её стороны.</p>
+     */
+    @Test
+    @DisplayName("Препятствие в углу по диагонали")
+    void testDiagonalCorner() {
+        final Level level = new Level(WIDTH, HEIGHT);
+        level.addObstacle(20, 20);
+        final ClearanceMap clearance = new ClearanceMap(level);
+        Assertions.assertEquals(2, clearance.squaredClearance(21, 21));
+        Assertions.assertEquals(1, clearance.squaredClearance(21, 20));
+
+        Assertions.assertEquals(2, clearance.requiredSquaredClearance(0.6));
+        Assertions.assertTrue(clearance.squaredClearance(21, 21) < clearance.requiredSquaredClearance(0.75));
+        Assertions.assertTrue(clearance.squaredClearance(22, 20) >= clearance.requiredSquaredClearance(1.45));
+        Assertions.assertTrue(clearance.squaredClearance(22, 21) < clearance.requiredSquaredClearance(1.6));
+        Assertions.assertEquals(1, clearance.requiredSquaredClearance(0.45));
+        Assertions.assertEquals(1, clearance.requiredSquaredClearance(0));
+    }
+
+    /**
+     * <p>Сравнивает карту с перебором всех препятствий и края поля.</p>
+     *
+     * @param level     поле.
+     * @param clearance карта.
+     */
+    private void assertMatchesBruteForce(Level level, ClearanceMap clearance) {
+        for (int y = 0; y < HEIGHT; ++y) {
+            for (int x = 0; x < WIDTH; ++x) {
+                Assertions.assertEquals(Math.min(bruteForce(level, x, y), MAX_CLEARANCE * MAX_CLEARANCE),
+                        clearance.squaredClearance(x, y), "cell %d, %d".formatted(x, y));
+            }
+        }
+    }
+
+    /**
+     * <p>Квадрат расстояния от клетки до ближайшего препятствия или края поля перебором.</p>
+     *
+     * @param level поле.
+     * @param x     x клетки.
+     * @param y     y клетки.
+     * @return квадрат расстояния.
+     */
+    private int bruteForce(Level level, int x, int y) {
+        int result = Math.min(Math.min((x + 1) * (x + 1), (WIDTH - x) * (WIDTH - x)),
+                Math.min((y + 1) * (y + 1), (HEIGHT - y) * (HEIGHT - y)));
+        for (int oy = 0; oy < HEIGHT; ++oy) {
+            for (int ox = 0; ox < WIDTH; ++ox) {
+                if (level.hasObstacle(ox, oy)) {
+                    result = Math.min(result, (x - ox) * (x - ox) + (y - oy) * (y - oy));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.urfu.core.level;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link ConnectivityIndex}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class ConnectivityIndexTest {
+    private final static int SIZE = 40;
+
+    /**
+     * <p>Проверяем при случайных изменениях поля, что разметка делит
+     * свободные клетки на те же области, что и обход в ширину.</p>
+     */
+    @Test
+    @DisplayName("Области совпадают с обходом после изменений")
+    void testMatchesFloodFill() {
+        final Random random = new Random(9);
+        final Level level = new Level(SIZE, SIZE);
+        for (int i = 0; i < SIZE * SIZE * 2 / 5; ++i) {
+            level.addObstacle(random.nextInt(SIZE), random.nextInt(SIZE));
+        }
+        final ConnectivityIndex index = new ConnectivityIndex(level);
+        for (int step = 0; step < 2000; ++step) {
+            final int x = random.nextInt(SIZE);
+            final int y = random.nextInt(SIZE);
+            if (random.nextInt(5) < 2) {
+                level.removeObstacle(x, y);
+            } else {
+                level.addObstacle(x, y);
+            }
+            if (step % 50 == 0) {
+                assertSamePartition(level, index);
+            }
+        }
+        assertSamePartition(level, index);
+    }
+
+    /**
+     * <p>Проверяем, что цель в замкнутом кармане недостижима, а вместо неё
+     * находится ближайшая достижимая клетка.</p>
+     */
+    @Test
+    @DisplayName("Цель в замкнутом кармане")
+    void testEnclosedPocket() {
+        final Level level = new Level(SIZE, SIZE);
+        level.fillObstacles(20, 10, 31, 21, true);
+        level.fillObstacles(21, 11, 30, 20, false);
+        final ConnectivityIndex index = new ConnectivityIndex(level);
+
+        Assertions.assertFalse(index.isReachable(0, 0, 25, 15));
+        Assertions.assertTrue(index.isReachable(22, 12, 25, 15));
+        Assertions.assertEquals(15 * SIZE + 31, index.nearestReachable(0, 0, 29, 15));
+        Assertions.assertEquals(-1, index.nearestReachable(20, 10, 29, 15));
+
+        level.removeObstacle(30, 15);
+        Assertions.assertTrue(index.isReachable(0, 0, 25, 15));
+        level.addObstacle(30, 15);
+        Assertions.assertFalse(index.isReachable(0, 0, 25, 15));
+    }
+
+    /**
+     * <p>Сравнивает разметку с обходом в ширину из каждой клетки.</p>
+     *
+     * @param level поле.
+     * @param index разметка.
+     */
+    private void assertSamePartition(Level level, ConnectivityIndex index) {
+        final int[] expected = new int[SIZE * SIZE];
+        Arrays.fill(expected, -1);
+        int components = 0;
+        for (int start = 0; start < expected.length; ++start) {
+            if (expected[start] != -1 || level.hasObstacle(start % SIZE, start / SIZE)) {
+                continue;
+            }
+            final ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            expected[start] = components;
+            while (!queue.isEmpty()) {
+                final int cell = queue.poll();
+                final int[] neighbours = {cell - SIZE, cell + SIZE, cell % SIZE > 0 ? cell - 1 : -1,
+                        cell % SIZE < SIZE - 1 ? cell + 1 : -1};
+                for (int neighbour : neighbours) {
+                    if (neighbour >= 0 && neighbour < expected.length && expected[neighbour] == -1
+                            && !level.hasObstacle(neighbour % SIZE, neighbour / SIZE)) {
+                        expected[neighbour] = components;
+                        queue.add(neighbour);
+                    }
+                }
+            }
+            ++components;
+        }
+
+        final int[] componentOf = new int[components];
+        Arrays.fill(componentOf, -1);
+        final Set<Integer> seen = new HashSet<>();
+        for (int cell = 0; cell < expected.length; ++cell) {
+            final int actual = index.componentOf(cell % SIZE, cell / SIZE);
+            if (expected[cell] == -1) {
+                Assertions.assertEquals(-1, actual);
+            } else if (componentOf[expected[cell]] == -1) {
+                Assertions.assertTrue(seen.add(actual));
+                componentOf[expected[cell]] = actual;
+            } else {
+                Assertions.assertEquals(componentOf[expected[cell]], actual);
+            }
+        }
+    }
+}
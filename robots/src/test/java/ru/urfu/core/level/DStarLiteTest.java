@@ -0,0 +1,109 @@
+package ru.urfu.core.level;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link DStarLite}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class DStarLiteTest {
+    private final static int SIZE = 40;
+    private final static int STEPS = 300;
+
+    /**
+     * <p>Проверяем, что при случайных изменениях поля и сдвигах старта
+     * к одной цели стоимость пути совпадает со стоимостью пути A*.</p>
+     */
+    @Test
+    @DisplayName("Стоимость пути совпадает с A* при изменениях поля")
+    void testSameCostAsAStarUnderEdits() {
+        final Random random = new Random(5);
+        for (Connectivity connectivity : Connectivity.values()) {
+            final Level level = new Level(SIZE, SIZE);
+            for (int i = 0; i < SIZE * SIZE / 5; ++i) {
+                level.addObstacle(random.nextInt(SIZE), random.nextInt(SIZE));
+            }
+            final GridAStar astar = new GridAStar(level, connectivity);
+            final DStarLite dstar = new DStarLite(level, connectivity);
+            int goalX = random.nextInt(SIZE);
+            int goalY = random.nextInt(SIZE);
+
+            for (int step = 0; step < STEPS; ++step) {
+                final int x = random.nextInt(SIZE);
+                final int y = random.nextInt(SIZE);
+                if (level.hasObstacle(x, y)) {
+                    level.removeObstacle(x, y);
+                } else {
+                    level.addObstacle(x, y);
+                }
+                if (step % 50 == 49) {
+                    goalX = random.nextInt(SIZE);
+                    goalY = random.nextInt(SIZE);
+                }
+                final int fromX = random.nextInt(SIZE);
+                final int fromY = random.nextInt(SIZE);
+                final int[] expected = astar.findPath(fromX, fromY, goalX, goalY);
+                final int[] actual = dstar.findPath(fromX, fromY, goalX, goalY);
+                Assertions.assertEquals(cost(level, expected), cost(level, actual));
+            }
+        }
+    }
+
+    /**
+     * <p>Проверяем, что после изменения клетки на пути рядом с роботом
+     * повторный поиск раскрывает гораздо меньше клеток, чем первый.</p>
+     */
+    @Test
+    @DisplayName("Изменение клетки исправляет только часть поиска")
+    void testRepairIsCheaperThanSearch() {
+        final Random random = new Random(9);
+        final Level level = new Level(100, 100);
+        for (int i = 0; i < 2000; ++i) {
+            level.addObstacle(random.nextInt(100), random.nextInt(100));
+        }
+        level.removeObstacle(0, 0);
+        level.removeObstacle(99, 99);
+        final DStarLite dstar = new DStarLite(level, Connectivity.EIGHT);
+        final int[] path = dstar.findPath(0, 0, 99, 99);
+        Assertions.assertTrue(path.length > 0);
+        final int initial = dstar.getExpandedCount();
+
+        level.addObstacle(path[5] % 100, path[5] / 100);
+        Assertions.assertTrue(dstar.findPath(path[2] % 100, path[2] / 100, 99, 99).length > 0);
+        Assertions.assertTrue(dstar.getExpandedCount() * 5 < initial,
+                dstar.getExpandedCount() + " vs " + initial);
+    }
+
+    /**
+     * <p>Стоимость пути; заодно проверяет, что шаги идут
+     * по свободным соседним клеткам без срезания углов.</p>
+     *
+     * @param level поле.
+     * @param path  путь.
+     * @return стоимость или -1 для пустого пути.
+     */
+    private int cost(Level level, int[] path) {
+        if (path.length == 0) {
+            return -1;
+        }
+        int cost = 0;
+        for (int i = 1; i < path.length; ++i) {
+            final int x = path[i - 1] % SIZE;
+            final int y = path[i - 1] / SIZE;
+            final int dx = path[i] % SIZE - x;
+            final int dy = path[i] / SIZE - y;
+            Assertions.assertTrue(Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0));
+            Assertions.assertTrue(level.isFree(path[i]));
+            if (dx != 0 && dy != 0) {
+                Assertions.assertFalse(level.hasObstacle(x + dx, y) || level.hasObstacle(x, y + dy));
+                cost += Connectivity.DIAGONAL_COST;
+            } else {
+                cost += Connectivity.STRAIGHT_COST;
+            }
+        }
+        return cost;
+    }
+}
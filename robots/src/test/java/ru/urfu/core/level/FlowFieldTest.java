@@ -0,0 +1,90 @@
+package ru.urfu.core.level;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link FlowField}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class FlowFieldTest {
+    private final static int SIZE = 40;
+    private final static int QUERIES = 200;
+
+    /**
+     * <p>Проверяем на случайном поле, что стоимость до цели совпадает
+     * со стоимостью пути A*, а шаги по полю направлений приводят
+     * в цель, уменьшая стоимость.</p>
+     */
+    @Test
+    @DisplayName("Поле направлений ведёт в цель кратчайшим путём")
+    void testShortestPaths() {
+        final Random random = new Random(3);
+        for (Connectivity connectivity : Connectivity.values()) {
+            final Level level = new Level(SIZE, SIZE);
+            for (int i = 0; i < SIZE * SIZE / 4; ++i) {
+                level.addObstacle(random.nextInt(SIZE), random.nextInt(SIZE));
+            }
+            level.removeObstacle(20, 20);
+            final FlowField field = new FlowField(level, connectivity);
+            field.update(20, 20);
+            final GridAStar astar = new GridAStar(level, connectivity);
+
+            for (int i = 0; i < QUERIES; ++i) {
+                int x = random.nextInt(SIZE);
+                int y = random.nextInt(SIZE);
+                final int[] path = astar.findPath(x, y, 20, 20);
+                if (path.length == 0) {
+                    Assertions.assertEquals(-1, field.distance(x, y));
+                    continue;
+                }
+                Assertions.assertEquals(cost(path), field.distance(x, y));
+                while (x != 20 || y != 20) {
+                    final int distance = field.distance(x, y);
+                    final int dx = field.directionX(x, y);
+                    final int dy = field.directionY(x, y);
+                    x += dx;
+                    y += dy;
+                    Assertions.assertTrue(field.distance(x, y) < distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Проверяем, что поле пересчитывается только
+     * при смене цели или изменении поля.</p>
+     */
+    @Test
+    @DisplayName("Пересчёт только при изменениях")
+    void testRebuildOnlyOnChange() {
+        final Level level = new Level(SIZE, SIZE);
+        final FlowField field = new FlowField(level, Connectivity.EIGHT);
+        Assertions.assertTrue(field.update(5, 5));
+        Assertions.assertFalse(field.update(5, 5));
+        Assertions.assertEquals(-1, field.directionX(6, 5));
+
+        level.addObstacle(10, 10);
+        Assertions.assertTrue(field.update(5, 5));
+        Assertions.assertTrue(field.update(6, 5));
+        Assertions.assertFalse(field.update(6, 5));
+        Assertions.assertEquals(3, field.getRebuildCount());
+    }
+
+    /**
+     * <p>Стоимость пути.</p>
+     *
+     * @param path путь.
+     * @return стоимость.
+     */
+    private int cost(int[] path) {
+        int cost = 0;
+        for (int i = 1; i < path.length; ++i) {
+            final boolean diagonal = path[i] % SIZE != path[i - 1] % SIZE && path[i] / SIZE != path[i - 1] / SIZE;
+            cost += diagonal ? Connectivity.DIAGONAL_COST : Connectivity.STRAIGHT_COST;
+        }
+        return cost;
+    }
+}
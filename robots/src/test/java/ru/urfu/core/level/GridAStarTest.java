@@ -0,0 +1,146 @@
+package ru.urfu.core.level;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link GridAStar}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class GridAStarTest {
+    private final static int SIZE = 40;
+    private final static int QUERIES = 300;
+
+    /**
+     * <p>Проверяем на случайных полях, что путь с четырьмя соседями:</p>
+     * <ul>
+     *     <li>идёт по свободным соседним клеткам от старта до цели;</li>
+     *     <li>кратчайший, то есть совпадает по длине с поиском в ширину;</li>
+     *     <li>не находится, если поиск в ширину не дошёл до цели.</li>
+     * </ul>
+     */
+    @Test
+    @DisplayName("Кратчайший путь с четырьмя соседями")
+    void testShortestPathFour() {
+        final Random random = new Random(7);
+        final Level level = randomLevel(random, 0.3);
+        final GridAStar finder = new GridAStar(level, Connectivity.FOUR);
+
+        for (int i = 0; i < QUERIES; ++i) {
+            final int fromX = random.nextInt(SIZE);
+            final int fromY = random.nextInt(SIZE);
+            final int toX = random.nextInt(SIZE);
+            final int toY = random.nextInt(SIZE);
+            final int[] path = finder.findPath(fromX, fromY, toX, toY);
+            final int expected = bfsDistance(level, fromX, fromY, toX, toY);
+
+            if (expected < 0) {
+                Assertions.assertEquals(0, path.length);
+                continue;
+            }
+            Assertions.assertEquals(expected + 1, path.length);
+            Assertions.assertEquals(fromY * SIZE + fromX, path[0]);
+            Assertions.assertEquals(toY * SIZE + toX, path[path.length - 1]);
+            for (int j = 1; j < path.length; ++j) {
+                final int dx = Math.abs(path[j] % SIZE - path[j - 1] % SIZE);
+                final int dy = Math.abs(path[j] / SIZE - path[j - 1] / SIZE);
+                Assertions.assertEquals(1, dx + dy);
+                Assertions.assertTrue(level.isFree(path[j]));
+            }
+        }
+    }
+
+    /**
+     * <p>Проверяем, что с восемью соседями путь идёт по диагонали
+     * в открытом поле и не срезает углы препятствий.</p>
+     */
+    @Test
+    @DisplayName("Диагонали с восемью соседями")
+    void testDiagonalsEight() {
+        final Level level = new Level(5, 5);
+        final GridAStar finder = new GridAStar(level, Connectivity.EIGHT);
+        Assertions.assertArrayEquals(new int[]{0, 6, 12, 18, 24}, finder.findPath(0, 0, 4, 4));
+
+        level.addObstacle(1, 0);
+        final int[] path = finder.findPath(0, 0, 1, 1);
+        Assertions.assertArrayEquals(new int[]{0, 5, 6}, path);
+    }
+
+    /**
+     * <p>Проверяем, что до занятой клетки и в замкнутую область
+     * пути нет, а путь из клетки в неё же состоит из одной клетки.</p>
+     */
+    @Test
+    @DisplayName("Недостижимые цели")
+    void testUnreachable() {
+        final Level level = new Level(6, 4);
+        for (int y = 0; y < 4; ++y) {
+            level.addObstacle(3, y);
+        }
+        final GridAStar finder = new GridAStar(level, Connectivity.EIGHT);
+        Assertions.assertEquals(0, finder.findPath(0, 0, 5, 3).length);
+        Assertions.assertEquals(0, finder.findPath(0, 0, 3, 1).length);
+        Assertions.assertEquals(0, finder.findPath(0, 0, 6, 0).length);
+        Assertions.assertArrayEquals(new int[]{7}, finder.findPath(1, 1, 1, 1));
+    }
+
+    /**
+     * <p>Случайное квадратное поле.</p>
+     *
+     * @param random  генератор.
+     * @param density доля занятых клеток.
+     * @return поле.
+     */
+    private Level randomLevel(Random random, double density) {
+        final Level level = new Level(SIZE, SIZE);
+        for (int y = 0; y < SIZE; ++y) {
+            for (int x = 0; x < SIZE; ++x) {
+                if (random.nextDouble() < density) {
+                    level.addObstacle(x, y);
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * <p>Длина кратчайшего пути поиском в ширину.</p>
+     *
+     * @param level поле.
+     * @param fromX x старта.
+     * @param fromY y старта.
+     * @param toX   x цели.
+     * @param toY   y цели.
+     * @return число шагов или -1, если пути нет.
+     */
+    private int bfsDistance(Level level, int fromX, int fromY, int toX, int toY) {
+        if (level.hasObstacle(fromX, fromY) || level.hasObstacle(toX, toY)) {
+            return -1;
+        }
+        final int[] distance = new int[SIZE * SIZE];
+        Arrays.fill(distance, -1);
+        final Queue<Integer> queue = new ArrayDeque<>();
+        distance[fromY * SIZE + fromX] = 0;
+        queue.add(fromY * SIZE + fromX);
+        final int[] dx = {1, 0, -1, 0};
+        final int[] dy = {0, 1, 0, -1};
+        while (!queue.isEmpty()) {
+            final int cell = queue.poll();
+            for (int d = 0; d < dx.length; ++d) {
+                final int x = cell % SIZE + dx[d];
+                final int y = cell / SIZE + dy[d];
+                if (x >= 0 && x < SIZE && y >= 0 && y < SIZE
+                        && !level.hasObstacle(x, y) && distance[y * SIZE + x] < 0) {
+                    distance[y * SIZE + x] = distance[cell] + 1;
+                    queue.add(y * SIZE + x);
+                }
+            }
+        }
+        return distance[toY * SIZE + toX];
+    }
+}
@@ -0,0 +1,141 @@
+package ru.urfu.core.level;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link HierarchicalPathFinder}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class HierarchicalPathFinderTest {
+    private final static int SIZE = 128;
+    private final static int CLUSTER = 16;
+    private final static int QUERIES = 300;
+
+    /**
+     * <p>Проверяем на поле с пятнами препятствий, что путь идёт
+     * по соседним свободным клеткам, почти всегда находится,
+     * когда его находит A*, и в среднем не сильно дороже кратчайшего.
+     * Отдельные короткие пути через границу кластеров
+     * могут быть заметно длиннее, поэтому проверяется среднее.</p>
+     */
+    @Test
+    @DisplayName("Путь почти кратчайший")
+    void testNearOptimal() {
+        final Random random = new Random(7);
+        for (Connectivity connectivity : Connectivity.values()) {
+            final Level level = blobs(random);
+            final GridAStar astar = new GridAStar(level, connectivity);
+            final HierarchicalPathFinder hpa = new HierarchicalPathFinder(level, connectivity, CLUSTER);
+
+            int reachable = 0;
+            int found = 0;
+            double ratio = 0;
+            for (int i = 0; i < QUERIES; ++i) {
+                final int fromX = random.nextInt(SIZE);
+                final int fromY = random.nextInt(SIZE);
+                final int toX = random.nextInt(SIZE);
+                final int toY = random.nextInt(SIZE);
+                final int[] expected = astar.findPath(fromX, fromY, toX, toY);
+                final int[] actual = hpa.findPath(fromX, fromY, toX, toY);
+                if (expected.length == 0) {
+                    Assertions.assertEquals(0, actual.length);
+                    continue;
+                }
+                ++reachable;
+                if (actual.length > 0) {
+                    ++found;
+                    Assertions.assertEquals(fromY * SIZE + fromX, actual[0]);
+                    Assertions.assertEquals(toY * SIZE + toX, actual[actual.length - 1]);
+                    ratio += (double) cost(level, actual) / cost(level, expected);
+                }
+            }
+            Assertions.assertTrue(found * 10 >= reachable * 9, found + " of " + reachable);
+            Assertions.assertTrue(ratio / found < 1.15, "mean cost ratio " + ratio / found);
+        }
+    }
+
+    /**
+     * <p>Проверяем, что после изменения поля путь обходит новое препятствие,
+     * а если цель отрезана стеной, пути нет.</p>
+     */
+    @Test
+    @DisplayName("Изменения поля учитываются")
+    void testLevelChanges() {
+        final Level level = new Level(SIZE, SIZE);
+        final HierarchicalPathFinder hpa = new HierarchicalPathFinder(level, Connectivity.EIGHT, CLUSTER);
+        final int[] straight = hpa.findPath(0, 40, SIZE - 1, 40);
+        Assertions.assertEquals(SIZE, straight.length);
+
+        final int blocked = straight[SIZE / 2];
+        level.addObstacle(blocked % SIZE, blocked / SIZE);
+        final int[] detour = hpa.findPath(0, 40, SIZE - 1, 40);
+        Assertions.assertTrue(detour.length > 0);
+        cost(level, detour);
+
+        for (int y = 0; y < SIZE; ++y) {
+            level.addObstacle(SIZE / 2 + 3, y);
+        }
+        Assertions.assertEquals(0, hpa.findPath(0, 40, SIZE - 1, 40).length);
+    }
+
+    /**
+     * <p>Поле с пятнами препятствий: порог над билинейной
+     * интерполяцией случайной сетки значений.</p>
+     *
+     * @param random генератор случайных чисел.
+     * @return поле.
+     */
+    private Level blobs(Random random) {
+        final int step = 8;
+        final int nodes = SIZE / step + 2;
+        final double[] values = new double[nodes * nodes];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = random.nextDouble();
+        }
+        final Level level = new Level(SIZE, SIZE);
+        for (int y = 0; y < SIZE; ++y) {
+            for (int x = 0; x < SIZE; ++x) {
+                final int ix = x / step;
+                final int iy = y / step;
+                final double tx = (double) (x % step) / step;
+                final double ty = (double) (y % step) / step;
+                final double top = values[iy * nodes + ix] * (1 - tx) + values[iy * nodes + ix + 1] * tx;
+                final double bottom = values[(iy + 1) * nodes + ix] * (1 - tx) + values[(iy + 1) * nodes + ix + 1] * tx;
+                if (top * (1 - ty) + bottom * ty > 0.65) {
+                    level.addObstacle(x, y);
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * <p>Стоимость пути; заодно проверяет, что шаги идут
+     * по свободным соседним клеткам без срезания углов.</p>
+     *
+     * @param level поле.
+     * @param path  путь.
+     * @return стоимость.
+     */
+    private int cost(Level level, int[] path) {
+        int cost = 0;
+        for (int i = 1; i < path.length; ++i) {
+            final int x = path[i - 1] % SIZE;
+            final int y = path[i - 1] / SIZE;
+            final int dx = path[i] % SIZE - x;
+            final int dy = path[i] / SIZE - y;
+            Assertions.assertTrue(Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0));
+            Assertions.assertTrue(level.isFree(path[i]));
+            if (dx != 0 && dy != 0) {
+                Assertions.assertFalse(level.hasObstacle(x + dx, y) || level.hasObstacle(x, y + dy));
+                cost += Connectivity.DIAGONAL_COST;
+            } else {
+                cost += Connectivity.STRAIGHT_COST;
+            }
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,97 @@
+package ru.urfu.core.level;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты для {@link JumpPointSearch}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class JumpPointSearchTest {
+    private final static int SIZE = 48;
+    private final static int QUERIES = 300;
+
+    /**
+     * <p>Проверяем на случайных полях разной плотности, что путь
+     * с таблицей прыжков и без неё той же стоимости, что у A* с восемью соседями, идёт по соседним
+     * свободным клеткам и не срезает углы.</p>
+     */
+    @Test
+    @DisplayName("Стоимость пути совпадает с A*")
+    void testSameCostAsAStar() {
+        final Random random = new Random(11);
+        for (double density : new double[]{0.05, 0.2, 0.35}) {
+            final Level level = new Level(SIZE, SIZE);
+            for (int y = 0; y < SIZE; ++y) {
+                for (int x = 0; x < SIZE; ++x) {
+                    if (random.nextDouble() < density) {
+                        level.addObstacle(x, y);
+                    }
+                }
+            }
+            final GridAStar astar = new GridAStar(level, Connectivity.EIGHT);
+            final JumpPointSearch jps = new JumpPointSearch(level);
+            final JumpPointSearch jpsPlus = new JumpPointSearch(level, true);
+
+            for (int i = 0; i < QUERIES; ++i) {
+                final int fromX = random.nextInt(SIZE);
+                final int fromY = random.nextInt(SIZE);
+                final int toX = random.nextInt(SIZE);
+                final int toY = random.nextInt(SIZE);
+                final int[] expected = astar.findPath(fromX, fromY, toX, toY);
+                final int[] actual = jps.findPath(fromX, fromY, toX, toY);
+                Assertions.assertEquals(cost(level, expected), cost(level, actual));
+                Assertions.assertArrayEquals(actual, jpsPlus.findPath(fromX, fromY, toX, toY));
+                if (actual.length > 0) {
+                    Assertions.assertEquals(fromY * SIZE + fromX, actual[0]);
+                    Assertions.assertEquals(toY * SIZE + toX, actual[actual.length - 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Проверяем, что в пустом поле раскрывается
+     * лишь несколько точек прыжка.</p>
+     */
+    @Test
+    @DisplayName("Мало раскрытий на открытом поле")
+    void testFewExpansionsOnOpenLevel() {
+        final Level level = new Level(200, 200);
+        final JumpPointSearch jps = new JumpPointSearch(level);
+        Assertions.assertEquals(200, jps.findPath(0, 0, 199, 199).length);
+        Assertions.assertTrue(jps.getExpandedCount() < 5, "expanded " + jps.getExpandedCount());
+    }
+
+    /**
+     * <p>Стоимость пути; заодно проверяет, что шаги идут
+     * по свободным соседним клеткам без срезания углов.</p>
+     *
+     * @param level поле.
+     * @param path  путь.
+     * @return стоимость или -1 для пустого пути.
+     */
+    private int cost(Level level, int[] path) {
+        if (path.length == 0) {
+            return -1;
+        }
+        int cost = 0;
+        for (int i = 1; i < path.length; ++i) {
+            final int x = path[i - 1] % SIZE;
+            final int y = path[i - 1] / SIZE;
+            final int dx = path[i] % SIZE - x;
+            final int dy = path[i] / SIZE - y;
+            Assertions.assertTrue(Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0));
+            Assertions.assertTrue(level.isFree(path[i]));
+            if (dx != 0 && dy != 0) {
+                Assertions.assertFalse(level.hasObstacle(x + dx, y) || level.hasObstacle(x, y + dy));
+                cost += Connectivity.DIAGONAL_COST;
+            } else {
+                cost += Connectivity.STRAIGHT_COST;
+            }
+        }
+        return cost;
+    }
+}
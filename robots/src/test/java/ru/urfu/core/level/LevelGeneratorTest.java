@@ -0,0 +1,72 @@
+package ru.urfu.core.level;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import personthecat.fastnoise.FastNoise;
+import personthecat.fastnoise.generator.SimplexNoise;
+
+/**
+ * <p>Тесты для {@link LevelGenerator}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class LevelGeneratorTest {
+    private final static int WIDTH = 700;
+    private final static int HEIGHT = 300;
+
+    /**
+     * <p>Проверяем, что поле не зависит от числа потоков и совпадает
+     * с последовательным построением по клеткам: рамка из препятствий,
+     * внутри препятствия там, где шум больше порога.</p>
+     */
+    @Test
+    @DisplayName("Поле не зависит от числа потоков")
+    void testDeterministic() {
+        final ForkJoinPool single = new ForkJoinPool(1);
+        final ForkJoinPool several = new ForkJoinPool(3);
+        try {
+            final Level first = new LevelGenerator(7, single).generate(WIDTH, HEIGHT);
+            final Level second = new LevelGenerator(7, several).generate(WIDTH, HEIGHT);
+            Assertions.assertArrayEquals(first.toPackedBits(), second.toPackedBits());
+
+            final FastNoise noise = new SimplexNoise(new Random(7).nextInt());
+            for (int y = 0; y < HEIGHT; ++y) {
+                for (int x = 0; x < WIDTH; ++x) {
+                    final boolean border = x == 0 || y == 0 || x == WIDTH - 1 || y == HEIGHT - 1;
+                    Assertions.assertEquals(border || noise.getNoise(x, y) > 0.2, first.hasObstacle(x, y));
+                }
+            }
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    /**
+     * <p>Проверяем, что ленивое поле строит только те квадраты, к которым
+     * обращались, и в итоге совпадает с построенным сразу.</p>
+     *
+     * @param directory каталог для файлов.
+     */
+    @Test
+    @DisplayName("Ленивое построение квадратов")
+    void testLazy(@TempDir Path directory) {
+        final Level eager = new LevelGenerator(11).generate(WIDTH, HEIGHT);
+        try (ChunkedLevelStorage storage = new ChunkedLevelStorage(WIDTH, HEIGHT, directory.resolve("level"))) {
+            final Level lazy = new LevelGenerator(11).generateLazily(storage);
+            final GeneratingLevelStorage tiles = (GeneratingLevelStorage) lazy.obstacleBits();
+            Assertions.assertEquals(eager.hasObstacle(300, 100), lazy.hasObstacle(300, 100));
+            Assertions.assertEquals(1, tiles.getGeneratedTileCount());
+
+            lazy.fillObstacles(0, 256, WIDTH, HEIGHT, false);
+            Assertions.assertEquals(4, tiles.getGeneratedTileCount());
+            eager.fillObstacles(0, 256, WIDTH, HEIGHT, false);
+            Assertions.assertArrayEquals(eager.toPackedBits(), lazy.toPackedBits());
+            Assertions.assertEquals(eager.countObstacles(), lazy.countObstacles());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package ru.urfu.core.level;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * <p>Тесты для {@link PathPlanningService}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class PathPlanningServiceTest {
+    private final static int SIZE = 20;
+
+    /**
+     * <p>Проверяем, что отменённый запрос в очереди не ищется,
+     * а остальные получают тот же путь, что и при прямом поиске.</p>
+     *
+     * @throws Exception если поиск не завершился.
+     */
+    @Test
+    @DisplayName("Отменённый запрос пропускается")
+    void testCancelledRequestSkipped() throws Exception {
+        final Level level = new Level(SIZE, SIZE);
+        level.fillObstacles(5, 0, 6, 15, true);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final PathFinder engine = PathFinderType.ASTAR.create(level, Connectivity.FOUR);
+        try (PathPlanningService service = new PathPlanningService(copy -> (fromX, fromY, toX, toY) -> {
+            started.countDown();
+            await(release);
+            return PathFinderType.ASTAR.create(copy, Connectivity.FOUR).findPath(fromX, fromY, toX, toY);
+        }, 1)) {
+            final CompletableFuture<int[]> first = service.plan(level, 0, 0, 10, 0);
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            final CompletableFuture<int[]> obsolete = service.plan(level, 0, 0, 19, 19);
+            final CompletableFuture<int[]> last = service.plan(level, 0, 0, 10, 10);
+            obsolete.cancel(false);
+            release.countDown();
+
+            Assertions.assertArrayEquals(engine.findPath(0, 0, 10, 0), first.get(5, TimeUnit.SECONDS));
+            Assertions.assertArrayEquals(engine.findPath(0, 0, 10, 10), last.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, service.getSkippedCount());
+        }
+    }
+
+    /**
+     * <p>Проверяем, что поиск идёт по копии поля: изменение поля
+     * во время поиска его не затрагивает, а следующий запрос
+     * уже видит изменение.</p>
+     *
+     * @throws Exception если поиск не завершился.
+     */
+    @Test
+    @DisplayName("Поиск идёт по копии поля")
+    void testSearchesSnapshot() throws Exception {
+        final Level level = new Level(SIZE, SIZE);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int[] before = PathFinderType.ASTAR.create(level.copy(), Connectivity.FOUR).findPath(0, 0, 10, 0);
+        try (PathPlanningService service = new PathPlanningService(copy -> {
+            final PathFinder engine = PathFinderType.ASTAR.create(copy, Connectivity.FOUR);
+            return (fromX, fromY, toX, toY) -> {
+                started.countDown();
+                await(release);
+                return engine.findPath(fromX, fromY, toX, toY);
+            };
+        }, 1)) {
+            final CompletableFuture<int[]> first = service.plan(level, 0, 0, 10, 0);
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            level.fillObstacles(5, 0, 6, 15, true);
+            release.countDown();
+            Assertions.assertArrayEquals(before, first.get(5, TimeUnit.SECONDS));
+
+            final int[] after = service.plan(level, 0, 0, 10, 0).get(5, TimeUnit.SECONDS);
+            Assertions.assertArrayEquals(PathFinderType.ASTAR.create(level, Connectivity.FOUR)
+                    .findPath(0, 0, 10, 0), after);
+        }
+    }
+
+    /**
+     * <p>Проверяем, что запрос сверх очереди выполняется в вызывающем
+     * потоке, а после остановки запросы завершаются ошибкой.</p>
+     *
+     * @throws Exception если поиск не завершился.
+     */
+    @Test
+    @DisplayName("Переполнение очереди")
+    void testQueueOverflow() throws Exception {
+        final Level level = new Level(SIZE, SIZE);
+        final CountDownLatch release = new CountDownLatch(1);
+        final PathPlanningService service = new PathPlanningService(copy -> (fromX, fromY, toX, toY) -> {
+            if (Thread.currentThread().getName().startsWith("Path Planner")) {
+                await(release);
+            }
+            return new int[] {fromY * SIZE + fromX, toY * SIZE + toX};
+        }, 1);
+        try (service) {
+            CompletableFuture<int[]> result = service.plan(level, 0, 0, 1, 1);
+            for (int i = 0; i < 100 && !result.isDone(); ++i) {
+                result = service.plan(level, 0, 0, 1, 1);
+            }
+            Assertions.assertTrue(result.isDone());
+            Assertions.assertArrayEquals(new int[] {0, SIZE + 1}, result.get());
+            release.countDown();
+        }
+        final CompletableFuture<int[]> rejected = service.plan(level, 0, 0, 1, 1);
+        Assertions.assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        Assertions.assertArrayEquals(new int[] {0, SIZE + 1}, service.findPath(level, 0, 0, 1, 1));
+    }
+
+    /**
+     * <p>Проверяем, что изменения поля переносятся в прежнюю копию,
+     * а карта расстояний на ней обновляется по месту; что копия, которую
+     * читает поиск, не меняется, а заменяется новой и закрывается после
+     * поиска; и что остановка сервиса закрывает текущую копию.</p>
+     *
+     * @param directory каталог для файлов.
+     * @throws Exception если поиск не завершился.
+     */
+    @Test
+    @DisplayName("Копия поля обновляется по месту и закрывается")
+    void testSnapshotReused(@TempDir Path directory) throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ChunkedLevelStorage> copies = new CopyOnWriteArrayList<>();
+        try (ChunkedLevelStorage storage = new ChunkedLevelStorage(SIZE, SIZE, directory.resolve("planned"))) {
+            final Level level = new Level(storage);
+            final PathPlanningService service = new PathPlanningService(copy -> {
+                copies.add((ChunkedLevelStorage) copy.obstacleBits());
+                final PathFinder engine = new GridAStar(copy, Connectivity.FOUR, new ClearanceMap(copy), 1);
+                return (fromX, fromY, toX, toY) -> {
+                    if (fromX == 2) {
+                        started.countDown();
+                        await(release);
+                    }
+                    return engine.findPath(fromX, fromY, toX, toY);
+                };
+            }, 1);
+            try (service) {
+                service.plan(level, 1, 1, 15, 15).get(5, TimeUnit.SECONDS);
+                level.fillObstacles(8, 0, 9, 15, true);
+                final int[] around = service.plan(level, 1, 1, 15, 1).get(5, TimeUnit.SECONDS);
+                Assertions.assertArrayEquals(new GridAStar(level, Connectivity.FOUR, new ClearanceMap(level), 1)
+                        .findPath(1, 1, 15, 1), around);
+                Assertions.assertEquals(1, service.getCopyCount());
+
+                final CompletableFuture<int[]> held = service.plan(level, 2, 2, 5, 5);
+                Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+                level.addObstacle(12, 18);
+                final CompletableFuture<int[]> next = service.plan(level, 1, 1, 15, 1);
+                release.countDown();
+                held.get(5, TimeUnit.SECONDS);
+                Assertions.assertArrayEquals(around, next.get(5, TimeUnit.SECONDS));
+                Assertions.assertEquals(2, service.getCopyCount());
+                Assertions.assertEquals(2, copies.stream().distinct().count());
+                Assertions.assertFalse(copies.get(0).isOpen());
+                Assertions.assertTrue(copies.get(copies.size() - 1).isOpen());
+            }
+            Assertions.assertFalse(copies.get(copies.size() - 1).isOpen());
+        }
+    }
+
+    /**
+     * <p>Проверяем, что поиск с памятью между запросами не ставится в фон.</p>
+     */
+    @Test
+    @DisplayName("D* Lite не ищет в фоне")
+    void testRejectsStatefulFinder() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PathPlanningService(PathFinderType.DSTAR_LITE, Connectivity.FOUR));
+    }
+
+    /**
+     * <p>Проверяем, что жадный шаг не срезает угол препятствия
+     * и не уходит от цели.</p>
+     */
+    @Test
+    @DisplayName("Жадный шаг")
+    void testGreedyStep() {
+        final Level level = new Level(SIZE, SIZE);
+        level.addObstacle(6, 5);
+        Assertions.assertEquals(6 * SIZE + 5, PathPlanningService.greedyStep(level, Connectivity.EIGHT, 5, 5, 9, 9));
+        Assertions.assertEquals(7 * SIZE + 6, PathPlanningService.greedyStep(level, Connectivity.EIGHT, 5, 6, 9, 9));
+
+        level.fillObstacles(6, 4, 7, 7, true);
+        Assertions.assertEquals(-1, PathPlanningService.greedyStep(level, Connectivity.FOUR, 5, 5, 9, 5));
+    }
+
+    /**
+     * <p>Проверяем, что жадный шаг робота с радиусом не заходит в клетку
+     * рядом с препятствием, куда точечный робот шагнул бы.</p>
+     */
+    @Test
+    @DisplayName("Жадный шаг робота с радиусом")
+    void testGreedyStepWithRadius() {
+        final Level level = new Level(SIZE, SIZE);
+        level.addObstacle(7, 5);
+        final ClearanceMap clearance = new ClearanceMap(level);
+        final int required = clearance.requiredSquaredClearance(0.6);
+        Assertions.assertEquals(5 * SIZE + 6, PathPlanningService.greedyStep(level, Connectivity.FOUR, 5, 5, 9, 5));
+        Assertions.assertEquals(-1, PathPlanningService.greedyStep(level, Connectivity.FOUR, clearance, required,
+                5, 5, 9, 5));
+        Assertions.assertEquals(6 * SIZE + 5, PathPlanningService.greedyStep(level, Connectivity.FOUR, clearance,
+                required, 5, 5, 5, 9));
+    }
+
+    /**
+     * <p>Ждёт защёлку, не больше нескольких секунд.</p>
+     *
+     * @param latch защёлка.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException(new TimeoutException());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
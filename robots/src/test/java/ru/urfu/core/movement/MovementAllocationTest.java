@@ -0,0 +1,167 @@
+package ru.urfu.core.movement;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.core.command.AcceptPathCommand;
+import ru.urfu.core.command.ObstaclesModeCommand;
+import ru.urfu.core.level.Level;
+import ru.urfu.utils.MutableVector2;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Тесты на отсутствие аллокаций в тике встроенных логик передвижения.</p>
+ *
+ * <p>Аллокации считаются счётчиком потока из {@link com.sun.management.ThreadMXBean}.
+ * Допускается небольшой постоянный остаток на работу самой JVM
+ * (компиляция, деоптимизация), много меньший одного объекта на вызов.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class MovementAllocationTest {
+    private final static int WARM_UP_CALLS = 1_000;
+    private final static int MEASURED_CALLS = 100_000;
+    private final static int STEP = 10;
+    private final static long JVM_NOISE_BYTES = 1024;
+    private final static int PATH_TICKS = 100;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    /**
+     * <p>Получает счётчик аллокаций, если JVM его поддерживает.</p>
+     */
+    @BeforeEach
+    void setUp() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * <p>Проверяем, что {@link StandardModeMovement} считает скорость
+     * движущегося робота без аллокаций.</p>
+     */
+    @Test
+    @DisplayName("Стандартная логика не создаёт объектов")
+    void testStandardMovement() {
+        final GameModelImpl model = new GameModelImpl();
+        model.setTargetPosition(new Vector2(20, 30));
+        model.update(STEP);
+
+        final StandardModeMovement movement = new StandardModeMovement();
+        final MutableVector2 out = new MutableVector2();
+        assertNoAllocations(allocatedBytes(() -> movement.velocity(model, STEP, out)));
+        Assertions.assertFalse(out.isZero());
+    }
+
+    /**
+     * <p>Проверяем, что {@link ObstaclesModeMovement} без поля
+     * считает скорость без аллокаций.</p>
+     */
+    @Test
+    @DisplayName("Логика с препятствиями без поля не создаёт объектов")
+    void testObstaclesMovementWithoutLevel() {
+        final GameModelImpl model = new GameModelImpl();
+        model.setTargetPosition(new Vector2(20, 30));
+        model.update(STEP);
+
+        final ObstaclesModeMovement movement = new ObstaclesModeMovement();
+        final MutableVector2 out = new MutableVector2();
+        assertNoAllocations(allocatedBytes(() -> movement.velocity(model, STEP, out)));
+        Assertions.assertFalse(out.isZero());
+    }
+
+    /**
+     * <p>Проверяем, что {@link ObstaclesModeMovement} на поле создаёт
+     * объекты только при поиске пути, а не на каждом тике: модель тикает,
+     * пока логика не примет путь, после чего логика ведёт робота по пути
+     * без аллокаций.</p>
+     *
+     * <p>Команды приёма пути модель применяет к своей логике, поэтому
+     * проверяемой логике их передаёт слушатель команд.</p>
+     */
+    @Test
+    @DisplayName("Логика с препятствиями на поле не создаёт объектов после поиска пути")
+    void testObstaclesMovementOnLevel() {
+        final GameModelImpl model = new GameModelImpl();
+        model.submit(new ObstaclesModeCommand(new Level(10, 10)));
+        model.setTargetPosition(new Vector2(7.5, 2.5));
+        final ObstaclesModeMovement movement = new ObstaclesModeMovement();
+        model.setCommandListener((tick, command) -> {
+            if (command instanceof AcceptPathCommand acceptPath) {
+                movement.acceptPath(model, acceptPath.plan());
+            }
+        });
+
+        try (movement) {
+            final MutableVector2 out = new MutableVector2();
+            model.update(STEP);
+            movement.velocity(model, STEP, out);
+            Assertions.assertTrue(movement.hasPendingWork());
+            for (int i = 0; i < PATH_TICKS && movement.hasPendingWork(); ++i) {
+                model.update(STEP);
+                movement.velocity(model, STEP, out);
+            }
+            Assertions.assertFalse(movement.hasPendingWork());
+            Assertions.assertNotNull(movement.getProgress().path());
+            assertFollowsRow(out);
+
+            assertNoAllocations(allocatedBytes(() -> movement.velocity(model, STEP, out)));
+            assertFollowsRow(out);
+        }
+    }
+
+    /**
+     * <p>Проверяем, что тик модели, в котором ничего не происходит, не создаёт объектов.</p>
+     */
+    @Test
+    @DisplayName("Тик покоящейся модели не создаёт объектов")
+    void testIdleModelTick() {
+        final GameModelImpl model = new GameModelImpl();
+        assertNoAllocations(allocatedBytes(() -> model.update(STEP)));
+    }
+
+    /**
+     * <p>Проверяет, что робот едет по пути вдоль своей строки к цели.</p>
+     *
+     * @param velocity скорость робота.
+     */
+    private void assertFollowsRow(MutableVector2 velocity) {
+        Assertions.assertTrue(velocity.x() > 0);
+        Assertions.assertEquals(0, velocity.y());
+    }
+
+    /**
+     * <p>Проверяет, что серия вызовов не выделила памяти сверх шума JVM.</p>
+     *
+     * @param allocated число выделенных байт.
+     */
+    private void assertNoAllocations(long allocated) {
+        Assertions.assertTrue(allocated < JVM_NOISE_BYTES,
+                () -> "Allocated %d bytes in %d calls".formatted(allocated, MEASURED_CALLS));
+    }
+
+    /**
+     * <p>Считает байты, выделенные текущим потоком за серию вызовов.</p>
+     *
+     * <p>Перед замером действие выполняется несколько раз, чтобы
+     * исключить ленивую инициализацию.</p>
+     *
+     * @param action проверяемое действие.
+     * @return число выделенных байт.
+     */
+    private long allocatedBytes(Runnable action) {
+        for (int i = 0; i < WARM_UP_CALLS; ++i) {
+            action.run();
+        }
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; ++i) {
+            action.run();
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
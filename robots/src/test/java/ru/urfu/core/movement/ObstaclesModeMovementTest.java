@@ -0,0 +1,180 @@
+package ru.urfu.core.movement;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.urfu.core.GameModel;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.core.RobotInfo;
+import ru.urfu.core.checkpoint.Checkpoint;
+import ru.urfu.core.level.Connectivity;
+import ru.urfu.core.level.GridAStar;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.level.PathPlanningService;
+import ru.urfu.utils.MutableVector2;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Тесты для {@link ObstaclesModeMovement}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class ObstaclesModeMovementTest {
+    private final static int STEP = 10;
+    private final static CountDownLatch RELEASE = new CountDownLatch(1);
+    private final static CountDownLatch HOLD = new CountDownLatch(1);
+    private final static AtomicBoolean FOUND = new AtomicBoolean();
+
+    /**
+     * <p>Проверяем, что модель не засыпает, пока робот стоит в тупике
+     * жадного движения, а путь ещё ищется, и доезжает до цели,
+     * когда путь найден.</p>
+     */
+    @Test
+    @DisplayName("Модель не засыпает, пока ищется путь")
+    void testNotIdleWhilePlanPending() {
+        final Level level = new Level(10, 10);
+        level.fillObstacles(4, 0, 5, 9, true);
+        final Vector2 target = new Vector2(7.5, 2.5);
+        final GameModelImpl model = new GameModelImpl();
+        model.restore(new Checkpoint(0, new RobotInfo(new Vector2(3.5, 2.5), 0), target, level,
+                PendingMovement.class.getName(), null));
+
+        for (int i = 0; i < 4; ++i) {
+            model.update(STEP);
+            Assertions.assertFalse(model.isIdle());
+        }
+        Assertions.assertEquals(new Vector2(3.5, 2.5), model.getRobotInfo().position());
+
+        RELEASE.countDown();
+        for (int i = 0; i < 5_000 && !model.isIdle(); ++i) {
+            model.update(STEP);
+        }
+        Assertions.assertTrue(model.isIdle());
+        Assertions.assertTrue(model.getRobotInfo().position().distanceSquared(target) < 0.05);
+    }
+
+    /**
+     * <p>Проверяем, что в игровом цикле тик не ждёт поиска пути:
+     * пока путь ищется, модель тикает, а найденный путь принимается
+     * в одном из следующих тиков.</p>
+     */
+    @Test
+    @DisplayName("Тик не ждёт поиска в реальном времени")
+    void testLiveTickDoesNotWait() {
+        final Level level = new Level(10, 10);
+        level.fillObstacles(4, 0, 5, 9, true);
+        final Vector2 target = new Vector2(7.5, 2.5);
+        final GameModelImpl model = new GameModelImpl();
+        model.setPathAcceptance(PathAcceptance.WHEN_READY);
+        model.restore(new Checkpoint(0, new RobotInfo(new Vector2(3.5, 2.5), 0), target, level,
+                HeldMovement.class.getName(), null));
+
+        for (int i = 0; i < 50; ++i) {
+            model.update(STEP);
+            Assertions.assertFalse(model.isIdle());
+        }
+        Assertions.assertFalse(FOUND.get());
+        Assertions.assertEquals(new Vector2(3.5, 2.5), model.getRobotInfo().position());
+
+        HOLD.countDown();
+        for (int i = 0; i < 5_000 && !model.isIdle(); ++i) {
+            model.update(STEP);
+        }
+        Assertions.assertTrue(FOUND.get());
+        Assertions.assertTrue(model.getRobotInfo().position().distanceSquared(target) < 0.05);
+    }
+
+    /**
+     * <p>Логика, поиск пути которой ждёт {@link #RELEASE}. Создаётся
+     * моделью по имени класса при восстановлении контрольной точки.</p>
+     */
+    static final class PendingMovement implements RobotMovement {
+        private final ObstaclesModeMovement movement = new ObstaclesModeMovement(Connectivity.FOUR,
+                () -> new PathPlanningService(copy -> (fromX, fromY, toX, toY) -> {
+                    await();
+                    return new GridAStar(copy, Connectivity.FOUR).findPath(fromX, fromY, toX, toY);
+                }, 1));
+
+        @Override
+        public Vector2 velocity(GameModel model, int time) {
+            return movement.velocity(model, time);
+        }
+
+        @Override
+        public void velocity(GameModel model, int time, MutableVector2 out) {
+            movement.velocity(model, time, out);
+        }
+
+        @Override
+        public void acceptPath(GameModel model, long plan) {
+            movement.acceptPath(model, plan);
+        }
+
+        @Override
+        public boolean hasPendingWork() {
+            return movement.hasPendingWork();
+        }
+
+        @Override
+        public void close() {
+            movement.close();
+        }
+
+        /**
+         * <p>Ждёт {@link #RELEASE}, не больше нескольких секунд.</p>
+         */
+        private static void await() {
+            try {
+                RELEASE.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * <p>Логика, поиск пути которой ждёт {@link #HOLD} и отмечает
+     * в {@link #FOUND}, что путь найден.</p>
+     */
+    static final class HeldMovement implements RobotMovement {
+        private final ObstaclesModeMovement movement = new ObstaclesModeMovement(Connectivity.FOUR,
+                () -> new PathPlanningService(copy -> (fromX, fromY, toX, toY) -> {
+                    try {
+                        HOLD.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    final int[] path = new GridAStar(copy, Connectivity.FOUR).findPath(fromX, fromY, toX, toY);
+                    FOUND.set(true);
+                    return path;
+                }, 1));
+
+        @Override
+        public Vector2 velocity(GameModel model, int time) {
+            return movement.velocity(model, time);
+        }
+
+        @Override
+        public void velocity(GameModel model, int time, MutableVector2 out) {
+            movement.velocity(model, time, out);
+        }
+
+        @Override
+        public void acceptPath(GameModel model, long plan) {
+            movement.acceptPath(model, plan);
+        }
+
+        @Override
+        public boolean hasPendingWork() {
+            return movement.hasPendingWork();
+        }
+
+        @Override
+        public void close() {
+            movement.close();
+        }
+    }
+}
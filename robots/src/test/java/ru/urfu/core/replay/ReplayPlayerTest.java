@@ -0,0 +1,94 @@
+package ru.urfu.core.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.urfu.core.GameModelImpl;
+import ru.urfu.core.command.ObstaclesModeCommand;
+import ru.urfu.core.level.Level;
+import ru.urfu.core.loop.HeadlessRunReport;
+import ru.urfu.core.loop.HeadlessRunner;
+import ru.urfu.core.movement.PathAcceptance;
+import ru.urfu.utils.Vector2;
+
+/**
+ * <p>Тесты для {@link ReplayPlayer} и {@link ReplayRecorder}.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class ReplayPlayerTest {
+    private final static int STEP = 10;
+
+    /**
+     * <p>Проверяем, что записанная сессия с объездом препятствий
+     * воспроизводится до того же положения робота.</p>
+     *
+     * @param directory временная директория.
+     * @throws IOException если запись или воспроизведение не удались.
+     */
+    @Test
+    @DisplayName("Воспроизведение повторяет сессию")
+    void testReplayMatchesSession(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("session.replay");
+        final Level level = new Level(40, 30);
+        level.fillObstacles(10, 0, 11, 25, true);
+        level.fillObstacles(20, 5, 21, 30, true);
+
+        final GameModelImpl session = new GameModelImpl();
+        final HeadlessRunner runner = new HeadlessRunner(session, STEP);
+        try (ReplayRecorder recorder = new ReplayRecorder(file, STEP)) {
+            recorder.attach(session);
+            session.submit(new ObstaclesModeCommand(level));
+            runner.run(50 * STEP);
+            session.setTargetPosition(new Vector2(30.5, 3.5));
+            runner.run(203 * STEP);
+            session.setTargetPosition(new Vector2(15.5, 20.5));
+            runner.run(2 * STEP);
+            session.setTargetPosition(new Vector2(35.5, 25.5));
+            runner.run(700 * STEP);
+        }
+
+        final GameModelImpl replayed = new GameModelImpl();
+        final HeadlessRunReport report = new ReplayPlayer(file).play(replayed);
+        Assertions.assertEquals(runner.getTicks(), report.ticks());
+        Assertions.assertEquals(session.getTick(), replayed.getTick());
+        Assertions.assertEquals(session.getRobotInfo(), replayed.getRobotInfo());
+        Assertions.assertNotEquals(new Vector2(2, 2), replayed.getRobotInfo().position());
+    }
+
+    /**
+     * <p>Проверяем, что сессия, где пути принимались, как только найдены,
+     * воспроизводится так же: тики приёма путей записаны.</p>
+     *
+     * @param directory временная директория.
+     * @throws IOException если запись или воспроизведение не удались.
+     */
+    @Test
+    @DisplayName("Воспроизведение сессии реального времени")
+    void testReplayMatchesLiveSession(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("live.replay");
+        final Level level = new Level(40, 30);
+        level.fillObstacles(10, 0, 11, 25, true);
+        level.fillObstacles(20, 5, 21, 30, true);
+
+        final GameModelImpl session = new GameModelImpl();
+        session.setPathAcceptance(PathAcceptance.WHEN_READY);
+        final HeadlessRunner runner = new HeadlessRunner(session, STEP);
+        try (ReplayRecorder recorder = new ReplayRecorder(file, STEP)) {
+            recorder.attach(session);
+            session.submit(new ObstaclesModeCommand(level));
+            runner.run(STEP);
+            session.setTargetPosition(new Vector2(30.5, 3.5));
+            runner.run(150 * STEP);
+            session.setTargetPosition(new Vector2(35.5, 25.5));
+            runner.run(900 * STEP);
+        }
+
+        final GameModelImpl replayed = new GameModelImpl();
+        new ReplayPlayer(file).play(replayed);
+        Assertions.assertEquals(session.getTick(), replayed.getTick());
+        Assertions.assertEquals(session.getRobotInfo(), replayed.getRobotInfo());
+    }
+}
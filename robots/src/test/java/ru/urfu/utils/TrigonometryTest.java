@@ -0,0 +1,67 @@
+package ru.urfu.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>Тесты на точность быстрой тригонометрии и нормализацию углов.</p>
+ */
+@SuppressWarnings("MagicNumber")
+class TrigonometryTest {
+    private final static int SAMPLES = 200_000;
+    private final static double RANGE = 8 * Math.PI;
+
+    /**
+     * <p>Проверяем, что быстрые синус и косинус отличаются от точных
+     * не больше заявленного на нескольких оборотах в обе стороны.</p>
+     */
+    @Test
+    @DisplayName("Быстрые синус и косинус в пределах ошибки")
+    void testFastSinCos() {
+        for (int i = 0; i <= SAMPLES; ++i) {
+            final double angle = -RANGE + 2 * RANGE * i / SAMPLES;
+            Assertions.assertEquals(Math.sin(angle), Trigonometry.FAST.sin(angle),
+                    Trigonometry.FAST_SIN_COS_MAX_ERROR, "sin " + angle);
+            Assertions.assertEquals(Math.cos(angle), Trigonometry.FAST.cos(angle),
+                    Trigonometry.FAST_SIN_COS_MAX_ERROR, "cos " + angle);
+        }
+    }
+
+    /**
+     * <p>Проверяем, что быстрый арктангенс отличается от точного
+     * не больше заявленного во всех октантах, а у нуля возвращает ноль.</p>
+     */
+    @Test
+    @DisplayName("Быстрый арктангенс в пределах ошибки")
+    void testFastAtan2() {
+        for (int i = 0; i <= SAMPLES; ++i) {
+            final double angle = -Math.PI + 2 * Math.PI * i / SAMPLES;
+            final double radius = 1 + i % 7;
+            final double x = radius * Math.cos(angle);
+            final double y = radius * Math.sin(angle);
+            Assertions.assertEquals(Math.atan2(y, x), Trigonometry.FAST.atan2(y, x),
+                    Trigonometry.FAST_ATAN2_MAX_ERROR, "atan2 " + angle);
+        }
+        Assertions.assertEquals(0, Trigonometry.FAST.atan2(0, 0));
+    }
+
+    /**
+     * <p>Проверяем, что нормализация за постоянное время совпадает
+     * с последовательным вычитанием оборотов и всегда попадает в [0, 2π).</p>
+     */
+    @Test
+    @DisplayName("Нормализация угла")
+    void testNormalization() {
+        final double twoPi = 2 * Math.PI;
+        Assertions.assertEquals(0, MathTools.asNormalizedRadians(twoPi));
+        Assertions.assertEquals(0, MathTools.asNormalizedRadians(-Math.ulp(0.0)));
+        Assertions.assertEquals(Math.PI, MathTools.asNormalizedRadians(-Math.PI));
+        Assertions.assertEquals(3 * Math.PI - twoPi, MathTools.asNormalizedRadians(3 * Math.PI));
+
+        for (int i = -1000; i <= 1000; ++i) {
+            final double normalized = MathTools.asNormalizedRadians(i * 1e3 + 0.123);
+            Assertions.assertTrue(normalized >= 0 && normalized < twoPi, "angle " + i);
+        }
+    }
+}